@@ -0,0 +1,68 @@
+package uk.pallas.systems.categr.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryDTO;
+import uk.pallas.systems.categr.services.CategoriesDAO;
+
+/**
+ * Minimal Spring Boot application holding just the JPA backend, started against an embedded HSQLDB so the DAO can be
+ * benchmarked without the web layer.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EnableJpaRepositories("uk.pallas.systems.categr.domain")
+@EntityScan(basePackages = {"uk.pallas.systems.categr.domain.entities.v1"})
+@Import(CategoriesDAO.class)
+public class BenchmarkApplication {
+
+  /** Number of rows inserted per JDBC batch when loading the catalogue. */
+  private static final int INSERT_BATCH_SIZE = 1000;
+
+  /** Empty class constructor. */
+  public BenchmarkApplication() {
+    // empty
+  }
+
+  /**
+   * Starts a new application context with its own in memory database and loads the catalogue into it.
+   *
+   * @param databaseName name of the in memory database, so each catalogue size gets a fresh database.
+   * @param catalogue the categories to load into the database.
+   * @return the running application context, this must be closed once finished with.
+   */
+  public static ConfigurableApplicationContext start(final String databaseName, final List<CategoryDTO> catalogue) {
+    final ConfigurableApplicationContext context = new SpringApplicationBuilder(BenchmarkApplication.class)
+      .web(WebApplicationType.NONE)
+      .logStartupInfo(false)
+      .properties(Map.of(
+        "spring.main.banner-mode", "off",
+        "spring.datasource.url", "jdbc:hsqldb:mem:" + databaseName + ";sql.syntax_pgs=true;",
+        "spring.datasource.username", "SA",
+        "spring.datasource.password", "",
+        "spring.jpa.hibernate.ddl-auto", "create-drop",
+        "spring.flyway.enabled", "false",
+        "spring.jpa.open-in-view", "false",
+        "spring.sql.init.mode", "never",
+        "logging.level.root", "WARN"))
+      .run();
+
+    final JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+    jdbc.batchUpdate("INSERT INTO Categories (name, description) VALUES (?, ?)", catalogue, INSERT_BATCH_SIZE,
+      (statement, category) -> {
+        statement.setString(1, category.getName());
+        statement.setString(2, category.getDescription());
+      });
+
+    return context;
+  }
+}
@@ -0,0 +1,51 @@
+package uk.pallas.systems.categr.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryDTO;
+
+/**
+ * Utility class which generates repeatable catalogues of categories for the benchmarks to run against.
+ */
+public final class Catalogues {
+
+  /** Length of the description given to each generated category, roughly the size of a real description. */
+  public static final int DESCRIPTION_LENGTH = 256;
+
+  /** Unused Utility Class constructor. */
+  private Catalogues() {
+    // Do Nothing
+  }
+
+  /**
+   * Creates the name of a generated category, names sort in the same order as their index.
+   *
+   * @param index the position of the category in the catalogue.
+   * @return a unique category name.
+   */
+  public static String name(final int index) {
+    return String.format("Category-%07d", index);
+  }
+
+  /**
+   * Creates a catalogue of categories.
+   *
+   * @param size the number of categories to create.
+   * @return a list of categories ordered by name.
+   */
+  public static List<CategoryDTO> generate(final int size) {
+    final List<CategoryDTO> results = new ArrayList<>(size);
+
+    for (int index = 0; index < size; index++) {
+      final StringBuilder description = new StringBuilder(DESCRIPTION_LENGTH);
+      while (description.length() < DESCRIPTION_LENGTH) {
+        description.append("Generated category ").append(index).append(" used to benchmark categr. ");
+      }
+      description.setLength(DESCRIPTION_LENGTH);
+
+      results.add(new CategoryDTO(name(index), description.toString()));
+    }
+
+    return results;
+  }
+}
@@ -0,0 +1,103 @@
+package uk.pallas.systems.categr.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.rest.CategoriesController;
+import uk.pallas.systems.categr.rest.PrerenderedResponses;
+import uk.pallas.systems.categr.services.CachingCategoriesDAOService;
+import uk.pallas.systems.categr.services.CategoriesDAOService;
+
+/**
+ * Measures the CategoriesController listing endpoints without the database or HTTP stack, i.e. the cost of mapping
+ * categories into DTOs (or serving pre-rendered bodies) once the service has returned them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategoriesControllerBenchmark {
+
+  /** Number of categories returned by the service. */
+  @Param({"100", "10000"})
+  private int catalogueSize;
+
+  /** Whether the controller serves pre-rendered bodies. */
+  @Param({"false", "true"})
+  private boolean prerender;
+
+  /** The controller being benchmarked. */
+  private CategoriesController controller;
+
+  /** Public Constructor. */
+  public CategoriesControllerBenchmark() {
+    // Do Nothing
+  }
+
+  /**
+   * Creates the controller on top of an in memory snapshot of the catalogue.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    final List<Category> catalogue = new ArrayList<>(Catalogues.generate(this.catalogueSize));
+    final CategoriesDAOService backend = new CategoriesDAOService() {
+      @Override
+      public Category findByName(final String identifier) {
+        return catalogue.stream().filter(cat -> cat.getName().equals(identifier)).findFirst().orElse(null);
+      }
+
+      @Override
+      public Collection<Category> findAll() {
+        return catalogue;
+      }
+    };
+
+    final PrerenderedResponses responses = new PrerenderedResponses();
+    responses.setMapper(new ObjectMapper());
+    responses.setGzip(true);
+
+    this.controller = new CategoriesController();
+    this.controller.setServices(new CachingCategoriesDAOService(backend, Duration.ZERO));
+    this.controller.setResponses(responses);
+    this.controller.setPrerender(this.prerender);
+  }
+
+  /**
+   * Retrieves every category.
+   *
+   * @return the response, so JMH does not optimise the call away.
+   */
+  @Benchmark
+  public ResponseEntity<?> getCategories() {
+    return this.controller.getCategories(null, null, null);
+  }
+
+  /**
+   * Retrieves every category name.
+   *
+   * @return the response, so JMH does not optimise the call away.
+   */
+  @Benchmark
+  public ResponseEntity<?> getCategoryNames() {
+    return this.controller.getCategoryNames(null, null, null);
+  }
+}
@@ -0,0 +1,105 @@
+package uk.pallas.systems.categr.benchmarks;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.services.CachingCategoriesDAOService;
+import uk.pallas.systems.categr.services.CategoriesDAO;
+import uk.pallas.systems.categr.services.CategoriesDAOService;
+
+/**
+ * Measures the CategoriesDAOService read path against an embedded HSQLDB, both straight through JPA and through the
+ * snapshot cache, at a range of catalogue sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategoriesDAOBenchmark {
+
+  /** Number of categories held in the database. */
+  @Param({"100", "10000", "100000"})
+  private int catalogueSize;
+
+  /** Which service to benchmark, the JPA backed DAO or the snapshot cache in front of it. */
+  @Param({"jpa", "cached"})
+  private String backend;
+
+  /** The running application holding the database. */
+  private ConfigurableApplicationContext context;
+
+  /** The service being benchmarked. */
+  private CategoriesDAOService service;
+
+  /** Public Constructor. */
+  public CategoriesDAOBenchmark() {
+    // Do Nothing
+  }
+
+  /**
+   * Starts the database and loads the catalogue.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    this.context = BenchmarkApplication.start("dao" + this.catalogueSize, Catalogues.generate(this.catalogueSize));
+
+    final CategoriesDAO dao = this.context.getBean(CategoriesDAO.class);
+    this.service = "cached".equals(this.backend) ? new CachingCategoriesDAOService(dao, Duration.ZERO) : dao;
+  }
+
+  /**
+   * Stops the database.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    this.context.close();
+  }
+
+  /**
+   * Retrieves every category.
+   *
+   * @return the categories, so JMH does not optimise the call away.
+   */
+  @Benchmark
+  public Collection<Category> findAll() {
+    return this.service.findAll();
+  }
+
+  /**
+   * Retrieves a random category which exists.
+   *
+   * @return the category, so JMH does not optimise the call away.
+   */
+  @Benchmark
+  public Category findByName() {
+    return this.service.findByName(Catalogues.name(ThreadLocalRandom.current().nextInt(this.catalogueSize)));
+  }
+
+  /**
+   * Looks up a category which does not exist.
+   *
+   * @return null, so JMH does not optimise the call away.
+   */
+  @Benchmark
+  public Category findByNameMissing() {
+    return this.service.findByName("Missing-" + ThreadLocalRandom.current().nextInt(this.catalogueSize));
+  }
+}
@@ -0,0 +1,115 @@
+package uk.pallas.systems.categr.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryDTO;
+
+/**
+ * Measures Jackson serialisation and deserialisation of CategoryDTO objects, both singly and as the full list
+ * returned by the listing endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategoryDTOSerializationBenchmark {
+
+  /** Type of the list returned by the listing endpoint. */
+  private static final TypeReference<List<CategoryDTO>> LIST_TYPE = new TypeReference<>() { };
+
+  /** Number of categories in the list. */
+  @Param({"100", "10000"})
+  private int catalogueSize;
+
+  /** The mapper being benchmarked. */
+  private ObjectMapper mapper;
+
+  /** The categories to serialise. */
+  private List<CategoryDTO> catalogue;
+
+  /** A single serialised category. */
+  private byte[] singleJson;
+
+  /** The serialised list of categories. */
+  private byte[] listJson;
+
+  /** Public Constructor. */
+  public CategoryDTOSerializationBenchmark() {
+    // Do Nothing
+  }
+
+  /**
+   * Creates the catalogue and its serialised forms.
+   *
+   * @throws JsonProcessingException if the catalogue cannot be serialised.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws JsonProcessingException {
+    this.mapper = new ObjectMapper();
+    this.catalogue = Catalogues.generate(this.catalogueSize);
+    this.singleJson = this.mapper.writeValueAsBytes(this.catalogue.get(0));
+    this.listJson = this.mapper.writeValueAsBytes(this.catalogue);
+  }
+
+  /**
+   * Serialises a single category.
+   *
+   * @return the JSON, so JMH does not optimise the call away.
+   * @throws JsonProcessingException if the category cannot be serialised.
+   */
+  @Benchmark
+  public byte[] serialiseSingle() throws JsonProcessingException {
+    return this.mapper.writeValueAsBytes(this.catalogue.get(0));
+  }
+
+  /**
+   * Serialises the full list of categories.
+   *
+   * @return the JSON, so JMH does not optimise the call away.
+   * @throws JsonProcessingException if the categories cannot be serialised.
+   */
+  @Benchmark
+  public byte[] serialiseList() throws JsonProcessingException {
+    return this.mapper.writeValueAsBytes(this.catalogue);
+  }
+
+  /**
+   * Deserialises a single category.
+   *
+   * @return the category, so JMH does not optimise the call away.
+   * @throws IOException if the JSON cannot be read.
+   */
+  @Benchmark
+  public CategoryDTO deserialiseSingle() throws IOException {
+    return this.mapper.readValue(this.singleJson, CategoryDTO.class);
+  }
+
+  /**
+   * Deserialises the full list of categories.
+   *
+   * @return the categories, so JMH does not optimise the call away.
+   * @throws IOException if the JSON cannot be read.
+   */
+  @Benchmark
+  public List<CategoryDTO> deserialiseList() throws IOException {
+    return this.mapper.readValue(this.listJson, LIST_TYPE);
+  }
+}
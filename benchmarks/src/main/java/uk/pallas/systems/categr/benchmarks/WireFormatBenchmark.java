@@ -0,0 +1,134 @@
+package uk.pallas.systems.categr.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import uk.pallas.systems.categr.rest.CategoryProtobuf;
+import uk.pallas.systems.categr.rest.CategoryProtobufHttpMessageConverter;
+import uk.pallas.systems.categr.rest.WireFormats;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryDTO;
+
+/**
+ * Compares the wire formats the listing endpoint can respond in, encoding and decoding the full list of categories
+ * in each. The payload size of each format (raw and gzip compressed) is printed when a trial starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+  /** Type of the list returned by the listing endpoint. */
+  private static final TypeReference<List<CategoryDTO>> LIST_TYPE = new TypeReference<>() { };
+
+  /** The format being benchmarked. */
+  @Param({"json", "cbor", "smile", "protobuf"})
+  private String format;
+
+  /** Number of categories in the list. */
+  @Param({"100", "10000"})
+  private int catalogueSize;
+
+  /** Writes the Jackson formats. */
+  private WireFormats formats;
+
+  /** The media type of the format being benchmarked. */
+  private MediaType mediaType;
+
+  /** Reads the format being benchmarked, null for protobuf. */
+  private ObjectMapper reader;
+
+  /** The categories to encode. */
+  private List<CategoryDTO> catalogue;
+
+  /** The encoded list of categories. */
+  private byte[] encoded;
+
+  /** Public Constructor. */
+  public WireFormatBenchmark() {
+    // Do Nothing
+  }
+
+  /**
+   * Creates the catalogue and its encoded form, reporting the size of the payload.
+   *
+   * @throws IOException if the catalogue cannot be encoded.
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    final ObjectMapper json = new ObjectMapper();
+    this.formats = new WireFormats(json);
+    switch (this.format) {
+      case "cbor":
+        this.mediaType = MediaType.APPLICATION_CBOR;
+        this.reader = this.formats.getCborMapper();
+        break;
+      case "smile":
+        this.mediaType = WireFormats.SMILE;
+        this.reader = this.formats.getSmileMapper();
+        break;
+      case "protobuf":
+        this.mediaType = CategoryProtobufHttpMessageConverter.PROTOBUF;
+        this.reader = null;
+        break;
+      default:
+        this.mediaType = MediaType.APPLICATION_JSON;
+        this.reader = json;
+        break;
+    }
+
+    this.catalogue = Catalogues.generate(this.catalogueSize);
+    this.encoded = this.formats.write(this.mediaType, this.catalogue);
+
+    final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(this.encoded);
+    }
+    System.out.println(String.format(Locale.ROOT, "%n%s payload for %d categories: %d bytes, %d bytes gzipped",
+      this.format, this.catalogueSize, this.encoded.length, compressed.size()));
+  }
+
+  /**
+   * Encodes the full list of categories.
+   *
+   * @return the payload, so JMH does not optimise the call away.
+   * @throws IOException if the categories cannot be encoded.
+   */
+  @Benchmark
+  public byte[] encodeList() throws IOException {
+    return this.formats.write(this.mediaType, this.catalogue);
+  }
+
+  /**
+   * Decodes the full list of categories.
+   *
+   * @return the categories, so JMH does not optimise the call away.
+   * @throws IOException if the payload cannot be read.
+   */
+  @Benchmark
+  public List<CategoryDTO> decodeList() throws IOException {
+    return null == this.reader ? CategoryProtobuf.readCategories(new ByteArrayInputStream(this.encoded))
+      : this.reader.readValue(this.encoded, LIST_TYPE);
+  }
+}
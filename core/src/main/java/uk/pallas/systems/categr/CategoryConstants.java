@@ -11,6 +11,9 @@ public final class CategoryConstants {
   /** The maximum size of the categories name field. */
   public static final int MAX_NAME_LENGTH = 100;
 
+  /** Spring profile serving categories from a memory-mapped snapshot file instead of a database. */
+  public static final String MAPPED_PROFILE = "mapped";
+
   /** Unused Utility Class constructor. */
   private CategoryConstants() {
     // Do Nothing
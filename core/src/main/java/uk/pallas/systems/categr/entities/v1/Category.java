@@ -32,4 +32,31 @@ public interface Category {
    * @param detailedDescription the description to attache (null is ok)
    */
   void setDescription(String detailedDescription);
+
+  /**
+   * Retrieves the name of the category this one sits beneath, categories without a parent are the roots of the
+   * hierarchy. Implementations which do not record a hierarchy treat every category as a root.
+   *
+   * @return the parent category name (null for a root category).
+   */
+  default String getParent() {
+    return null;
+  }
+
+  /**
+   * Sets the name of the category this one sits beneath.
+   *
+   * @param parentName the parent category name (null to make this a root category).
+   */
+  void setParent(String parentName);
+
+  /**
+   * Retrieves the change sequence at which the category was last created or modified, this increases every time the
+   * category changes so it can be used to tell whether a copy of the category is current.
+   *
+   * @return zero if the category has not been changed since it was loaded or the implementation does not track it.
+   */
+  default long getVersion() {
+    return 0;
+  }
 }
@@ -0,0 +1,151 @@
+package uk.pallas.systems.categr.entities.v1;
+
+import java.util.Objects;
+
+/**
+ * An immutable Category used on the read path. Backends return these straight from their queries and caches, and the
+ * API serialises them as they are, so a read does not copy each category into a new object on the way out.
+ *
+ * @param name the name of the category (primary key).
+ * @param description the description of the category (null is ok).
+ * @param parent the name of the category this one sits beneath (null for a root category).
+ * @param version the change sequence at which the category was last created or modified (zero if unknown).
+ */
+public record CategoryRecord(String name, String description, String parent, long version) implements Category {
+
+  /**
+   * Creates an immutable copy of the supplied category, categories which are already immutable are returned as is.
+   *
+   * @param category the category to copy (can be null).
+   * @return null if the supplied category was null.
+   */
+  public static CategoryRecord of(final Category category) {
+    final CategoryRecord result;
+    if (null == category || category instanceof CategoryRecord) {
+      result = (CategoryRecord) category;
+    } else {
+      result = new CategoryRecord(category.getName(), category.getDescription(), category.getParent(),
+        category.getVersion());
+    }
+
+    return result;
+  }
+
+  /**
+   * Creates a copy of this category with a different parent, used to share one String instance between a category's
+   * name and every reference to it as a parent.
+   *
+   * @param parentName the name of the category this one sits beneath (null for a root category).
+   * @return this category if the parent is already the same instance.
+   */
+  public CategoryRecord withParent(final String parentName) {
+    return this.parent == parentName ? this : new CategoryRecord(this.name, this.description, parentName, this.version);
+  }
+
+  /**
+   * Compares the supplied object to this one, using the same rules as the other Category implementations.
+   *
+   * @param toCompare the object to compare (can be null or a child class, etc..)
+   * @return false if the name, description, parent or version differ.
+   */
+  @Override
+  public boolean equals(final Object toCompare) {
+
+    final boolean result;
+    if (this == toCompare) {
+      result = true;
+    } else if (toCompare instanceof Category that) {
+      result = Objects.equals(this.name, that.getName())
+        && Objects.equals(this.description, that.getDescription())
+        && Objects.equals(this.parent, that.getParent())
+        && this.version == that.getVersion();
+    } else {
+      result = false;
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates a hashcode from the category's fields, matching the other Category implementations.
+   *
+   * @return a valid integer representation of this object.
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.name, this.description, this.parent, this.version);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return non null value (if the category is valid).
+   */
+  @Override
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Records are read only.
+   *
+   * @param identifier ignored.
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void setName(final String identifier) {
+    throw new UnsupportedOperationException("Category records are read only");
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return null if the category has no description.
+   */
+  @Override
+  public String getDescription() {
+    return this.description;
+  }
+
+  /**
+   * Records are read only.
+   *
+   * @param detailedDescription ignored.
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void setDescription(final String detailedDescription) {
+    throw new UnsupportedOperationException("Category records are read only");
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return null for a root category.
+   */
+  @Override
+  public String getParent() {
+    return this.parent;
+  }
+
+  /**
+   * Records are read only.
+   *
+   * @param parentName ignored.
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void setParent(final String parentName) {
+    throw new UnsupportedOperationException("Category records are read only");
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return zero if the category's version is not known.
+   */
+  @Override
+  public long getVersion() {
+    return this.version;
+  }
+}
@@ -0,0 +1,863 @@
+package uk.pallas.systems.categr.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import uk.pallas.systems.categr.entities.v1.Category;
+
+/**
+ * Read-through cache which sits in front of another CategoriesDAOService. All categories are loaded into an immutable
+ * {@link CategorySnapshot} which is atomically swapped when it is refreshed, so reads never touch the backend unless
+ * the snapshot has expired or been invalidated. When another instance writes to the backend the snapshot can be
+ * brought up to date by {@link #applyChanges(long)}, which reads just the changed categories from the change feed.
+ * Writes made through this cache are read back from the change feed too, rather than by reloading every category, as
+ * the reload may be served by a read replica which has not caught up with the write yet.
+ */
+public class CachingCategoriesDAOService implements CategoriesDAOService {
+
+  /** Name of the timer recording how long each read served from the snapshot takes. */
+  public static final String METRIC_REQUESTS = "categr.cache.requests";
+
+  /** Tag identifying which operation a metric was recorded for. */
+  public static final String TAG_OPERATION = "operation";
+
+  /** The reads which are timed, each is the value of its {@link #TAG_OPERATION} tag. */
+  private static final List<String> TIMED_OPERATIONS = List.of("findByName", "findByNames", "findAll", "findPage",
+    "searchNames", "searchDescriptions", "findSubtree", "findAncestors", "isDescendantOf");
+
+  /** Static Logger for the class. */
+  private static final Log LOGGER = LogFactory.getLog(CachingCategoriesDAOService.class);
+
+  /** The number of changes read from the change feed at a time. */
+  private static final int CHANGE_PAGE_SIZE = 500;
+
+  /** Beyond this many changes it is cheaper to reload every category than to apply them one at a time. */
+  private static final int MAX_APPLIED_CHANGES = 10_000;
+
+  /** The backend the snapshot is loaded from. */
+  private final CategoriesDAOService delegate;
+
+  /** How long a snapshot can be served before it is reloaded from the backend. */
+  private final long refreshIntervalNanos;
+
+  /** Source of the current time, as per {@link System#nanoTime()}. */
+  private final LongSupplier clock;
+
+  /** Ensures only a single thread reloads the snapshot at any one time. */
+  private final ReentrantLock reloadLock = new ReentrantLock();
+
+  /** Number of lookups that were answered with a category. */
+  private final AtomicLong hits = new AtomicLong();
+
+  /** Number of lookups where the category did not exist. */
+  private final AtomicLong misses = new AtomicLong();
+
+  /** Number of times the snapshot was (re)loaded from the backend. */
+  private final AtomicLong refreshes = new AtomicLong();
+
+  /** Number of times changes from the change feed were applied to the snapshot. */
+  private final AtomicLong partialRefreshes = new AtomicLong();
+
+  /** Whether a batch of an import has been written since the last import finished. */
+  private final AtomicBoolean importWritten = new AtomicBoolean();
+
+  /** The last version number handed out, only modified while holding the reload lock. */
+  private long lastVersion;
+
+  /**
+   * The latest change written through this cache, only modified while holding the reload lock. A snapshot loaded from
+   * a backend which has not reached it is caught up from the change feed.
+   */
+  private long writtenSequence = UNVERSIONED;
+
+  /** The snapshot currently being served, null if nothing is loaded or it has been invalidated. */
+  private volatile CategorySnapshot snapshot;
+
+  /** Reports how long loading and building each snapshot takes, see {@link CategoryStages}. */
+  private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
+  /** Registry the read timers are held in, null if reads are not timed. */
+  private MeterRegistry meterRegistry;
+
+  /** The timer of each read operation, looked up once when the registry is set rather than on every read. */
+  private Map<String, Timer> timers = Map.of();
+
+  /**
+   * Class Constructor.
+   *
+   * @param backend the service the categories are loaded from.
+   * @param refreshInterval how long a snapshot is served before it is reloaded (null or zero never reloads).
+   */
+  public CachingCategoriesDAOService(final CategoriesDAOService backend, final Duration refreshInterval) {
+    this(backend, refreshInterval, System::nanoTime);
+  }
+
+  /**
+   * Class Constructor which allows the clock to be replaced.
+   *
+   * @param backend the service the categories are loaded from.
+   * @param refreshInterval how long a snapshot is served before it is reloaded (null or zero never reloads).
+   * @param nanoClock source of the current time, as per {@link System#nanoTime()}.
+   */
+  CachingCategoriesDAOService(final CategoriesDAOService backend, final Duration refreshInterval,
+                              final LongSupplier nanoClock) {
+    if (null == backend) {
+      throw new IllegalArgumentException("A backend CategoriesDAOService must be supplied");
+    }
+
+    this.delegate = backend;
+    this.refreshIntervalNanos = null == refreshInterval || refreshInterval.isNegative() ? 0
+      : refreshInterval.toNanos();
+    this.clock = nanoClock;
+  }
+
+  /**
+   * Retrieves the backend the snapshot is loaded from.
+   *
+   * @return never null.
+   */
+  public CategoriesDAOService getDelegate() {
+    return this.delegate;
+  }
+
+  /**
+   * Retrieves the registry the load and build stages of each snapshot are reported to.
+   *
+   * @return never null.
+   */
+  public ObservationRegistry getObservationRegistry() {
+    return this.observationRegistry;
+  }
+
+  /**
+   * Sets the registry the load and build stages of each snapshot are reported to.
+   *
+   * @param registry the registry to report to (null stops reporting).
+   */
+  public void setObservationRegistry(final ObservationRegistry registry) {
+    this.observationRegistry = null == registry ? ObservationRegistry.NOOP : registry;
+  }
+
+  /**
+   * Retrieves the registry the read timers are held in.
+   *
+   * @return null if reads are not timed.
+   */
+  public MeterRegistry getMeterRegistry() {
+    return this.meterRegistry;
+  }
+
+  /**
+   * Sets the registry the read timers are held in, registering a timer for each read operation.
+   *
+   * @param registry the registry to record in (null stops timing reads).
+   */
+  public void setMeterRegistry(final MeterRegistry registry) {
+    final Map<String, Timer> resolved = new HashMap<>();
+    if (null != registry) {
+      for (final String operation : TIMED_OPERATIONS) {
+        resolved.put(operation, Timer.builder(METRIC_REQUESTS)
+          .description("Reads served from the category snapshot, including any reload they waited on")
+          .tag(TAG_OPERATION, operation)
+          .register(registry));
+      }
+    }
+
+    this.meterRegistry = registry;
+    this.timers = Map.copyOf(resolved);
+  }
+
+  /**
+   * This will retrieve a specific Category from the snapshot using the primary key (e.g name).
+   *
+   * @param identifier the name of the Category to retrieve.
+   * @return null if the category could not be located.
+   */
+  @Override
+  public Category findByName(final String identifier) {
+    return this.timed("findByName", () -> {
+      final Category result = this.getSnapshot().getByName(identifier);
+      if (null == result) {
+        this.misses.incrementAndGet();
+      } else {
+        this.hits.incrementAndGet();
+      }
+
+      return result;
+    });
+  }
+
+  /**
+   * This will retrieve a number of Category objects from a single snapshot using their primary keys (e.g name).
+   *
+   * @param identifiers the names of the Categories to retrieve (null and blank names are ignored).
+   * @return the categories which were located keyed on their name, names which could not be located are absent.
+   */
+  @Override
+  public Map<String, Category> findByNames(final Collection<String> identifiers) {
+    return this.timed("findByNames", () -> {
+      final Map<String, Category> results = new HashMap<>();
+
+      if (null != identifiers) {
+        final CategorySnapshot current = this.getSnapshot();
+        for (final String identifier : identifiers) {
+          if (null != identifier && !identifier.isBlank() && !results.containsKey(identifier)) {
+            final Category category = current.getByName(identifier);
+            if (null == category) {
+              this.misses.incrementAndGet();
+            } else {
+              this.hits.incrementAndGet();
+              results.put(identifier, category);
+            }
+          }
+        }
+      }
+
+      return results;
+    });
+  }
+
+  /**
+   * This retrieves all categories held in the snapshot.
+   *
+   * @return an unmodifiable collection sorted by name, empty if there is no category data.
+   */
+  @Override
+  public Collection<Category> findAll() {
+    return this.timed("findAll", () -> this.getSnapshot().getCategories());
+  }
+
+  /**
+   * Retrieves a page of categories ordered by name from the snapshot. Every category is already held in memory, so the
+   * backend's bounded page query is not used.
+   *
+   * @param after the name of the last category on the previous page (null or empty for the first page).
+   * @param limit the maximum number of categories to return.
+   * @return up to limit categories whose names sort after the supplied name, an empty list if there are no more.
+   */
+  @Override
+  public List<Category> findPage(final String after, final int limit) {
+    return this.timed("findPage", () -> this.getSnapshot().getPage(after, limit));
+  }
+
+  /**
+   * Searches the category names using the snapshot's name index, which is rebuilt whenever the snapshot content
+   * changes.
+   *
+   * @param query the search term (null or blank matches nothing).
+   * @param match how the search term should be matched against the names (null is treated as prefix).
+   * @param maxDistance the maximum number of edits allowed for a fuzzy match, ignored by other match types.
+   * @param limit the maximum number of categories to return.
+   * @return the matching categories, ordered by name (fuzzy matches are ordered by distance first), never null.
+   */
+  @Override
+  public List<Category> searchNames(final String query, final NameMatch match, final int maxDistance,
+                                    final int limit) {
+    return this.timed("searchNames", () -> this.getSnapshot().getNameIndex().search(query, match, maxDistance,
+      limit));
+  }
+
+  /**
+   * Searches the category descriptions using the snapshot's full text index, which is rebuilt whenever the snapshot
+   * content changes.
+   *
+   * @param query the terms to search for (null or blank matches nothing).
+   * @param limit the maximum number of matches to return.
+   * @return the most relevant matches with highlighted snippets, best first, never null.
+   */
+  @Override
+  public List<TextMatch> searchDescriptions(final String query, final int limit) {
+    return this.timed("searchDescriptions", () -> this.getSnapshot().getTextIndex().search(query, limit));
+  }
+
+  /**
+   * Retrieves a category and everything beneath it using the snapshot's hierarchy, which is rebuilt whenever the
+   * snapshot content changes.
+   *
+   * @param identifier the name of the category at the top of the subtree.
+   * @return the category followed by its descendants depth first, empty if the category could not be located.
+   */
+  @Override
+  public List<Category> findSubtree(final String identifier) {
+    return this.timed("findSubtree", () -> this.getSnapshot().getHierarchy().getSubtree(identifier));
+  }
+
+  /**
+   * Retrieves the categories above a category using the snapshot's hierarchy.
+   *
+   * @param identifier the name of the category whose ancestors are wanted.
+   * @return the parent first up to the root, empty for a root category or one which could not be located.
+   */
+  @Override
+  public List<Category> findAncestors(final String identifier) {
+    return this.timed("findAncestors", () -> this.getSnapshot().getHierarchy().getAncestors(identifier));
+  }
+
+  /**
+   * Checks whether a category sits anywhere beneath another using the snapshot's hierarchy.
+   *
+   * @param identifier the name of the possible descendant.
+   * @param ancestor the name of the possible ancestor.
+   * @return true if the first category is a child, grandchild, etc.. of the second.
+   */
+  @Override
+  public boolean isDescendantOf(final String identifier, final String ancestor) {
+    return this.timed("isDescendantOf", () -> this.getSnapshot().getHierarchy().isDescendant(identifier, ancestor));
+  }
+
+  /**
+   * Retrieves the changes recorded by the backend, the change feed is always read from the backend as it is only useful
+   * when it is current.
+   *
+   * @param since the sequence of the last change the caller has seen (zero for every recorded change).
+   * @param limit the maximum number of changes to return.
+   * @return up to limit changes whose sequence is greater than since, an empty list if there are none.
+   */
+  @Override
+  public List<CategoryChange> findChanges(final long since, final int limit) {
+    return this.delegate.findChanges(since, limit);
+  }
+
+  /**
+   * Retrieves the sequence of the most recent change recorded by the backend.
+   *
+   * @return the latest sequence, or {@link #UNVERSIONED} if the backend does not record changes.
+   */
+  @Override
+  public long getLatestChange() {
+    return this.delegate.getLatestChange();
+  }
+
+  /**
+   * Retrieves every category in the snapshot along with the latest change the snapshot includes.
+   *
+   * @return never null.
+   */
+  @Override
+  public CategoryLoad loadAll() {
+    final CategorySnapshot current = this.getSnapshot();
+    return new CategoryLoad(current.getCategories(), current.getChangeSequence());
+  }
+
+  /**
+   * Passes every category in the snapshot, ordered by name, to the supplied consumer. Every category is already held in
+   * memory, so the backend's streaming query is not used.
+   *
+   * @param consumer called with each category in turn.
+   */
+  @Override
+  public void forEachCategory(final Consumer<? super Category> consumer) {
+    this.getSnapshot().getCategories().forEach(consumer);
+  }
+
+  /**
+   * Writes the supplied categories to the backend and then reads them back from the change feed, so the next read
+   * sees them.
+   *
+   * @param categories the categories to write (nulls and entries without a name are ignored).
+   * @return the number of categories written.
+   */
+  @Override
+  public int upsertAll(final Collection<? extends Category> categories) {
+    try {
+      return this.delegate.upsertAll(categories);
+    } finally {
+      this.written();
+    }
+  }
+
+  /**
+   * Writes the supplied categories to the backend, optionally checking their versions, and then reads them back from
+   * the change feed.
+   *
+   * @param categories the categories to write (nulls and entries without a name are ignored).
+   * @param checkVersions true to refuse the whole write if any category is not at the version it carries.
+   * @return the number of categories written.
+   */
+  @Override
+  public int upsertAll(final Collection<? extends Category> categories, final boolean checkVersions) {
+    try {
+      return this.delegate.upsertAll(categories, checkVersions);
+    } finally {
+      this.written();
+    }
+  }
+
+  /**
+   * Writes one batch of an import to the backend, leaving the snapshot alone until {@link #importFinished()} so a
+   * large import is read back once rather than once per batch.
+   *
+   * @param categories the categories to write (nulls and entries without a name are ignored).
+   * @return the number of categories written.
+   */
+  @Override
+  public int importBatch(final Collection<? extends Category> categories) {
+    try {
+      return this.delegate.importBatch(categories);
+    } finally {
+      this.importWritten.set(true);
+    }
+  }
+
+  /**
+   * Reads back the import from the change feed if any batch of it has been written since the last import finished.
+   */
+  @Override
+  public void importFinished() {
+    try {
+      this.delegate.importFinished();
+    } finally {
+      if (this.importWritten.getAndSet(false)) {
+        this.written();
+      }
+    }
+  }
+
+  /**
+   * Creates the category in the backend and then reads it back from the change feed.
+   *
+   * @param category the category to create.
+   * @return the category as stored, including its new version.
+   */
+  @Override
+  public Category create(final Category category) {
+    try {
+      return this.delegate.create(category);
+    } finally {
+      this.written();
+    }
+  }
+
+  /**
+   * Updates the category in the backend and then reads it back from the change feed.
+   *
+   * @param category the new values for the category, located by its name.
+   * @param expectedVersion the version the caller read, or {@link #ANY_VERSION} to overwrite whatever is there.
+   * @return the category as stored, null if the category does not exist.
+   */
+  @Override
+  public Category update(final Category category, final long expectedVersion) {
+    try {
+      return this.delegate.update(category, expectedVersion);
+    } finally {
+      this.written();
+    }
+  }
+
+  /**
+   * Deletes the category from the backend and then reads the deletion back from the change feed.
+   *
+   * @param identifier the name of the category to delete.
+   * @param expectedVersion the version the caller read, or {@link #ANY_VERSION} to delete whatever is there.
+   * @return false if the category does not exist.
+   */
+  @Override
+  public boolean delete(final String identifier, final long expectedVersion) {
+    try {
+      return this.delegate.delete(identifier, expectedVersion);
+    } finally {
+      this.written();
+    }
+  }
+
+  /**
+   * Retrieves the version of the snapshot currently being served.
+   *
+   * @return a positive number which increases every time the cached content changes.
+   */
+  @Override
+  public long getDataVersion() {
+    return this.getSnapshot().getVersion();
+  }
+
+  /**
+   * Retrieves the snapshot to serve reads from, loading it if there is no snapshot and reloading it if it has expired.
+   * When an expired snapshot is being reloaded by another thread the expired snapshot is served rather than waiting.
+   *
+   * @return never null.
+   */
+  public CategorySnapshot getSnapshot() {
+    CategorySnapshot current = this.snapshot;
+
+    if (null == current) {
+      this.reloadLock.lock();
+      try {
+        current = this.snapshot;
+        if (null == current) {
+          current = this.reload(null);
+        }
+      } finally {
+        this.reloadLock.unlock();
+      }
+    } else if (this.isExpired(current) && this.reloadLock.tryLock()) {
+      try {
+        if (this.snapshot == current) {
+          current = this.reload(current);
+        } else if (null != this.snapshot) {
+          current = this.snapshot;
+        }
+      } finally {
+        this.reloadLock.unlock();
+      }
+    }
+
+    return current;
+  }
+
+  /**
+   * Retrieves the snapshot currently being served without loading or refreshing it, e.g. for reporting.
+   *
+   * @return null if no snapshot is loaded.
+   */
+  public CategorySnapshot peekSnapshot() {
+    return this.snapshot;
+  }
+
+  /**
+   * Forces the snapshot to be reloaded from the backend straight away.
+   *
+   * @return the newly loaded snapshot.
+   */
+  public CategorySnapshot refresh() {
+    this.reloadLock.lock();
+    try {
+      return this.reload(this.snapshot);
+    } finally {
+      this.reloadLock.unlock();
+    }
+  }
+
+  /**
+   * Discards the current snapshot, the next read will load a new one from the backend.
+   */
+  public void invalidate() {
+    this.reloadLock.lock();
+    try {
+      this.snapshot = null;
+    } finally {
+      this.reloadLock.unlock();
+    }
+  }
+
+  /**
+   * Brings the snapshot up to date with the backend's change feed, reading only the categories which changed rather
+   * than reloading them all. This is called when another instance reports a write, e.g. through a database
+   * notification. If the changes cannot be applied, because the backend does not record changes, the feed has a gap or
+   * there are too many of them, the snapshot is discarded so the next read loads it in full. If the backend cannot be
+   * reached the snapshot is kept and served until it expires.
+   *
+   * @param latest the sequence of the latest change reported, or {@link #UNVERSIONED} to read whatever has changed.
+   * @return true if the snapshot is known to include the latest change.
+   */
+  public boolean applyChanges(final long latest) {
+    boolean result = false;
+
+    this.reloadLock.lock();
+    final CategorySnapshot current = this.snapshot;
+    try {
+      if (null == current) {
+        // Nothing to bring up to date, the next read loads the current categories.
+        result = true;
+      } else if (UNVERSIONED == current.getChangeSequence()) {
+        this.snapshot = null;
+      } else if (UNVERSIONED != latest && latest <= current.getChangeSequence()) {
+        result = true;
+      } else {
+        result = this.applyChanges(current);
+      }
+    } catch (final RuntimeException exception) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("applyChanges - Unable to read the changes after " + current.getChangeSequence()
+          + ", continuing with version " + current.getVersion(), exception);
+      }
+    } finally {
+      this.reloadLock.unlock();
+    }
+
+    return result;
+  }
+
+  /**
+   * Serves the supplied categories, e.g. a copy kept from a previous run, until they are reconciled with the backend.
+   * Nothing is done if a snapshot is already loaded, as it is at least as recent.
+   *
+   * @param load the categories to serve and the latest change they include.
+   * @return false if a snapshot was already loaded (or nothing was supplied).
+   */
+  public boolean warmStart(final CategoryLoad load) {
+    boolean result = false;
+
+    this.reloadLock.lock();
+    try {
+      if (null == this.snapshot && null != load) {
+        final CategorySnapshot loaded = new CategorySnapshot(load.categories(), this.lastVersion + 1,
+          this.clock.getAsLong(), load.changeSequence());
+        this.lastVersion = loaded.getVersion();
+        this.snapshot = loaded;
+        result = true;
+      }
+    } finally {
+      this.reloadLock.unlock();
+    }
+
+    return result;
+  }
+
+  /**
+   * Brings the snapshot in line with the backend, applying the changes after its change sequence where it can and
+   * reloading every category where it cannot. Unlike {@link #refresh()} this reports whether the backend could be
+   * reached and never discards the snapshot, so it suits catching up a snapshot served by
+   * {@link #warmStart(CategoryLoad)}. A backend whose latest change is behind the snapshot's, e.g. one restored from a
+   * backup, is always reloaded in full.
+   *
+   * @return false if the backend could not be reached, the snapshot being served is left as it is.
+   */
+  public boolean reconcile() {
+    boolean result = false;
+
+    this.reloadLock.lock();
+    final CategorySnapshot current = this.snapshot;
+    try {
+      if (null != current && UNVERSIONED != current.getChangeSequence()) {
+        final long latest = this.delegate.getLatestChange();
+        result = UNVERSIONED != latest && latest >= current.getChangeSequence() && this.applyChanges(current);
+      }
+      if (!result) {
+        this.load(current, this.clock.getAsLong());
+        result = true;
+      }
+    } catch (final RuntimeException exception) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("reconcile - Unable to reach the backend, continuing with version "
+          + (null == current ? null : current.getVersion()), exception);
+      }
+      if (null == this.snapshot) {
+        this.snapshot = current;
+      }
+    } finally {
+      this.reloadLock.unlock();
+    }
+
+    return result;
+  }
+
+  /**
+   * Brings the snapshot up to date after a write made through this cache. Discarding the snapshot is not enough when
+   * reads go to replicas, as the next load could come from one which has not seen the write yet. Instead the write is
+   * read back from the change feed, which the backend serves from the primary, and loads which are behind it are caught
+   * up the same way. A backend without a change feed, or one which cannot be reached, has the snapshot discarded.
+   */
+  private void written() {
+    this.reloadLock.lock();
+    try {
+      final long latest = this.delegate.getLatestChange();
+      if (UNVERSIONED == latest) {
+        this.snapshot = null;
+      } else {
+        this.writtenSequence = Math.max(this.writtenSequence, latest);
+        final CategorySnapshot current = this.snapshot;
+        if (null != current && UNVERSIONED == current.getChangeSequence()) {
+          this.snapshot = null;
+        } else if (null != current) {
+          this.applyChanges(current);
+        }
+      }
+    } catch (final RuntimeException exception) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("written - Unable to read back the write, the categories will be reloaded", exception);
+      }
+      this.snapshot = null;
+    } finally {
+      this.reloadLock.unlock();
+    }
+  }
+
+  /**
+   * Retrieves the number of times changes from the change feed were applied to the snapshot.
+   *
+   * @return zero or more.
+   */
+  public long getPartialRefreshCount() {
+    return this.partialRefreshes.get();
+  }
+
+  /**
+   * Retrieves the number of lookups answered with a category.
+   *
+   * @return zero or more.
+   */
+  public long getHitCount() {
+    return this.hits.get();
+  }
+
+  /**
+   * Retrieves the number of lookups where the category did not exist.
+   *
+   * @return zero or more.
+   */
+  public long getMissCount() {
+    return this.misses.get();
+  }
+
+  /**
+   * Retrieves the number of times the snapshot has been (re)loaded from the backend.
+   *
+   * @return zero or more.
+   */
+  public long getRefreshCount() {
+    return this.refreshes.get();
+  }
+
+  /**
+   * Checks whether the supplied snapshot has been served for longer than the refresh interval.
+   *
+   * @param current the snapshot to check.
+   * @return false if the snapshot can still be served.
+   */
+  private boolean isExpired(final CategorySnapshot current) {
+    return this.refreshIntervalNanos > 0
+      && this.clock.getAsLong() - current.getLoadedAt() >= this.refreshIntervalNanos;
+  }
+
+  /**
+   * Reads every change after the supplied snapshot's change sequence and swaps in a copy of the snapshot with them
+   * applied, must be called holding the reload lock.
+   *
+   * @param current the snapshot being served.
+   * @return false if the changes could not be applied and the snapshot was discarded instead.
+   */
+  private boolean applyChanges(final CategorySnapshot current) {
+    final List<CategoryChange> changes = new ArrayList<>();
+    long since = current.getChangeSequence();
+    boolean contiguous = true;
+    List<CategoryChange> page;
+    do {
+      page = this.delegate.findChanges(since, CHANGE_PAGE_SIZE);
+      for (final CategoryChange change : page) {
+        // Every sequence handed out is recorded, so a missing one means the feed was trimmed and changes were lost.
+        contiguous &= change.getSequence() == since + 1;
+        since = change.getSequence();
+      }
+      changes.addAll(page);
+    } while (contiguous && page.size() == CHANGE_PAGE_SIZE && changes.size() < MAX_APPLIED_CHANGES);
+
+    final boolean result = contiguous && page.size() < CHANGE_PAGE_SIZE;
+    if (!result) {
+      if (LOGGER.isInfoEnabled()) {
+        LOGGER.info("applyChanges - Unable to apply the changes after " + current.getChangeSequence()
+          + ", the categories will be reloaded");
+      }
+      this.snapshot = null;
+    } else if (!changes.isEmpty()) {
+      CategorySnapshot updated = current.withChanges(changes, this.lastVersion + 1);
+      if (updated.hasSameContent(current)) {
+        updated = current.touch(current.getLoadedAt(), updated.getChangeSequence());
+      } else {
+        this.lastVersion = updated.getVersion();
+      }
+      this.snapshot = updated;
+      this.partialRefreshes.incrementAndGet();
+
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("applyChanges - Applied " + changes.size() + " changes up to " + updated.getChangeSequence()
+          + ", now at version " + updated.getVersion());
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Reloads the snapshot from the backend, must be called holding the reload lock. If the backend fails and there is a
+   * previous snapshot, the previous snapshot is kept (and served until the next refresh interval).
+   *
+   * @param previous the snapshot being replaced (null if there isn't one).
+   * @return the snapshot now being served.
+   */
+  private CategorySnapshot reload(final CategorySnapshot previous) {
+    final long now = this.clock.getAsLong();
+
+    CategorySnapshot result;
+    try {
+      result = this.load(previous, now);
+    } catch (final RuntimeException exception) {
+      if (null == previous) {
+        throw exception;
+      }
+
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("reload - Unable to refresh categories, continuing with version " + previous.getVersion(),
+          exception);
+      }
+      result = previous.touch(now);
+      this.snapshot = result;
+    }
+
+    return result;
+  }
+
+  /**
+   * Runs a read, timing it if a registry has been set.
+   *
+   * @param operation the name of the read, one of {@link #TIMED_OPERATIONS}.
+   * @param read the read to run.
+   * @param <T> the type returned by the read.
+   * @return whatever the read returned.
+   */
+  private <T> T timed(final String operation, final Supplier<T> read) {
+    final Timer timer = this.timers.get(operation);
+    return null == timer ? read.get() : timer.record(read);
+  }
+
+  /**
+   * Loads the categories from the backend and swaps in the new snapshot, must be called holding the reload lock.
+   * If the content has not changed the existing version number is kept, otherwise the version is always higher than
+   * any previous snapshot (including invalidated ones). Categories loaded from before a write made through this cache
+   * are caught up from the change feed, if that cannot be done they are served as loaded until the snapshot expires.
+   *
+   * @param previous the snapshot being replaced (null if there isn't one).
+   * @param now the time the snapshot is loaded, as per {@link System#nanoTime()}.
+   * @return the snapshot now being served.
+   * @throws RuntimeException if the backend fails, the snapshot being served is left as it is.
+   */
+  private CategorySnapshot load(final CategorySnapshot previous, final long now) {
+    final CategoryLoad loaded = CategoryStages.observe(this.getObservationRegistry(), CategoryStages.CACHE_LOAD,
+      this.delegate::loadAll);
+    final long sequence = loaded.changeSequence();
+
+    CategorySnapshot result = CategoryStages.observe(this.getObservationRegistry(), CategoryStages.CACHE_BUILD,
+      () -> new CategorySnapshot(loaded.categories(), this.lastVersion + 1, now, sequence));
+    if (result.hasSameContent(previous)) {
+      result = previous.touch(now, sequence);
+    } else {
+      this.lastVersion = result.getVersion();
+    }
+    this.refreshes.incrementAndGet();
+
+    this.snapshot = result;
+    if (UNVERSIONED != sequence && sequence < this.writtenSequence) {
+      // Loaded from a replica which has not caught up with a write made here, the rest is read from the primary.
+      if (this.applyChanges(result)) {
+        result = this.snapshot;
+      } else {
+        this.snapshot = result;
+      }
+    }
+
+    return result;
+  }
+}
@@ -1,6 +1,12 @@
 package uk.pallas.systems.categr.services;
 
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
 import uk.pallas.systems.categr.entities.v1.Category;
 
 /**
@@ -8,6 +14,12 @@ import uk.pallas.systems.categr.entities.v1.Category;
  */
 public interface CategoriesDAOService {
 
+  /** Value returned by {@link #getDataVersion()} when the backend cannot tell when its data has changed. */
+  long UNVERSIONED = -1;
+
+  /** Expected version passed to {@link #update(Category, long)} and {@link #delete(String, long)} to skip the check. */
+  long ANY_VERSION = -1;
+
   /**
    * This will retrieve a specific CategoryDomain object using the primary key (e.g name).
    *
@@ -16,9 +28,266 @@ public interface CategoriesDAOService {
    */
   Category findByName(String identifier);
 
+  /**
+   * This will retrieve a number of Category objects using their primary keys (e.g name) in one go. The default
+   * implementation looks up each name in turn, backends should override this with a single query where they can.
+   *
+   * @param identifiers the names of the Categories to retrieve (null and blank names are ignored).
+   * @return the categories which were located keyed on their name, names which could not be located are absent.
+   */
+  default Map<String, Category> findByNames(final Collection<String> identifiers) {
+    final Map<String, Category> results = new HashMap<>();
+
+    if (null != identifiers) {
+      for (final String identifier : identifiers) {
+        if (null != identifier && !identifier.isBlank() && !results.containsKey(identifier)) {
+          final Category category = this.findByName(identifier);
+          if (null != category) {
+            results.put(identifier, category);
+          }
+        }
+      }
+    }
+
+    return results;
+  }
+
   /**
    * This retrieves all categories from the database and returns them.
    * @return an empty list if there is no category data.
    */
   Collection<Category> findAll();
+
+  /**
+   * Retrieves a page of categories ordered by name, pages are located using the last name on the previous page (keyset
+   * pagination) so the cost of retrieving a page does not grow the further through the categories the caller is. The
+   * default implementation sorts {@link #findAll()}, backends should override this with a bounded query.
+   *
+   * @param after the name of the last category on the previous page (null or empty for the first page).
+   * @param limit the maximum number of categories to return.
+   * @return up to limit categories whose names sort after the supplied name, an empty list if there are no more.
+   */
+  default List<Category> findPage(final String after, final int limit) {
+    final Collection<Category> all = this.findAll();
+    return null == all ? List.of() : all.stream()
+      .filter(Objects::nonNull)
+      .filter(category -> null == after || after.compareTo(category.getName()) < 0)
+      .sorted(Comparator.comparing(Category::getName))
+      .limit(Math.max(0, limit))
+      .toList();
+  }
+
+  /**
+   * Searches the category names ignoring case. The default implementation indexes {@link #findAll()} on every call,
+   * backends which hold their data in memory should override this with a long lived index.
+   *
+   * @param query the search term (null or blank matches nothing).
+   * @param match how the search term should be matched against the names (null is treated as prefix).
+   * @param maxDistance the maximum number of edits allowed for a fuzzy match, ignored by other match types.
+   * @param limit the maximum number of categories to return.
+   * @return the matching categories, ordered by name (fuzzy matches are ordered by distance first), never null.
+   */
+  default List<Category> searchNames(final String query, final NameMatch match, final int maxDistance,
+                                     final int limit) {
+    return new CategoryNameIndex(this.findAll()).search(query, match, maxDistance, limit);
+  }
+
+  /**
+   * Searches the category descriptions, returning the most relevant matches first. The default implementation indexes
+   * {@link #findAll()} on every call, backends which hold their data in memory should override this with a long lived
+   * index.
+   *
+   * @param query the terms to search for (null or blank matches nothing).
+   * @param limit the maximum number of matches to return.
+   * @return the most relevant matches with highlighted snippets, best first, never null.
+   */
+  default List<TextMatch> searchDescriptions(final String query, final int limit) {
+    return new CategoryTextIndex(this.findAll()).search(query, limit);
+  }
+
+  /**
+   * Retrieves a category and every category beneath it in the hierarchy. The default implementation arranges
+   * {@link #findAll()} on every call, backends which hold their data in memory should override this with a long lived
+   * hierarchy.
+   *
+   * @param identifier the name of the category at the top of the subtree.
+   * @return the category followed by its descendants depth first, empty if the category could not be located.
+   */
+  default List<Category> findSubtree(final String identifier) {
+    return new CategoryHierarchy(this.findAll()).getSubtree(identifier);
+  }
+
+  /**
+   * Retrieves the categories above a category in the hierarchy, arranged like {@link #findSubtree(String)}.
+   *
+   * @param identifier the name of the category whose ancestors are wanted.
+   * @return the parent first up to the root, empty for a root category or one which could not be located.
+   */
+  default List<Category> findAncestors(final String identifier) {
+    return new CategoryHierarchy(this.findAll()).getAncestors(identifier);
+  }
+
+  /**
+   * Checks whether a category sits anywhere beneath another in the hierarchy, arranged like
+   * {@link #findSubtree(String)}.
+   *
+   * @param identifier the name of the possible descendant.
+   * @param ancestor the name of the possible ancestor.
+   * @return true if the first category is a child, grandchild, etc.. of the second.
+   */
+  default boolean isDescendantOf(final String identifier, final String ancestor) {
+    return new CategoryHierarchy(this.findAll()).isDescendant(identifier, ancestor);
+  }
+
+  /**
+   * Passes every category, ordered by name, to the supplied consumer one at a time. Backends should override this so
+   * that categories are read incrementally rather than being held in memory all at once.
+   *
+   * @param consumer called with each category in turn.
+   */
+  default void forEachCategory(final Consumer<? super Category> consumer) {
+    final Collection<Category> all = this.findAll();
+    if (null != all) {
+      all.stream().filter(Objects::nonNull).sorted(Comparator.comparing(Category::getName)).forEach(consumer);
+    }
+  }
+
+  /**
+   * Inserts the supplied categories, replacing the description and parent of any category which already exists with
+   * the same name. Backends should write the categories in as few round trips as they can (e.g. a JDBC batch), and
+   * check the hierarchy as part of the write so a concurrent write cannot slip a loop in between the check and the
+   * write. The default implementation is for read only backends and rejects the write.
+   *
+   * @param categories the categories to write (nulls and entries without a name are ignored).
+   * @return the number of categories written.
+   * @throws CategoryHierarchyException if a category would sit beneath itself or one of its own descendants.
+   * @throws UnsupportedOperationException if the backend is read only.
+   */
+  default int upsertAll(final Collection<? extends Category> categories) {
+    throw new UnsupportedOperationException("This categories backend is read only");
+  }
+
+  /**
+   * Inserts the supplied categories like {@link #upsertAll(Collection)}, optionally checking each category's version
+   * first. When checked, every category must be at the version it carries (zero matches a category which does not
+   * exist or has never been changed) otherwise nothing is written, so concurrent editors cannot overwrite each other.
+   *
+   * @param categories the categories to write (nulls and entries without a name are ignored).
+   * @param checkVersions true to refuse the whole write if any category is not at the version it carries.
+   * @return the number of categories written.
+   * @throws CategoryConflictException if versions are checked and a category has been changed by someone else.
+   * @throws CategoryHierarchyException if a category would sit beneath itself or one of its own descendants.
+   * @throws UnsupportedOperationException if the backend is read only.
+   */
+  default int upsertAll(final Collection<? extends Category> categories, final boolean checkVersions) {
+    throw new UnsupportedOperationException("This categories backend is read only");
+  }
+
+  /**
+   * Writes one batch of a larger import like {@link #upsertAll(Collection)}. Caches in front of the backend can leave
+   * bringing themselves up to date until {@link #importFinished()} is called, rather than reloading after every batch,
+   * so reads made while the import is running may not see the batches already written.
+   *
+   * @param categories the categories to write (nulls and entries without a name are ignored).
+   * @return the number of categories written.
+   * @throws CategoryHierarchyException if a category would sit beneath itself or one of its own descendants.
+   * @throws UnsupportedOperationException if the backend is read only.
+   */
+  default int importBatch(final Collection<? extends Category> categories) {
+    return this.upsertAll(categories);
+  }
+
+  /**
+   * Tells the service an import has finished, whether or not every batch was written, so anything left until the end
+   * of the import (see {@link #importBatch(Collection)}) can be done. The default does nothing.
+   */
+  default void importFinished() {
+    // Do Nothing
+  }
+
+  /**
+   * Creates a new category.
+   *
+   * @param category the category to create.
+   * @return the category as stored, including its new version.
+   * @throws CategoryConflictException if a category with the same name already exists.
+   * @throws CategoryHierarchyException if a category would sit beneath itself or one of its own descendants.
+   * @throws UnsupportedOperationException if the backend is read only.
+   */
+  default Category create(final Category category) {
+    throw new UnsupportedOperationException("This categories backend is read only");
+  }
+
+  /**
+   * Replaces the description and parent of an existing category, provided it is still at the version the caller read.
+   *
+   * @param category the new values for the category, located by its name.
+   * @param expectedVersion the version the caller read, or {@link #ANY_VERSION} to overwrite whatever is there.
+   * @return the category as stored (unchanged if the values were the same), null if the category does not exist.
+   * @throws CategoryConflictException if the category is no longer at the expected version.
+   * @throws CategoryHierarchyException if a category would sit beneath itself or one of its own descendants.
+   * @throws UnsupportedOperationException if the backend is read only.
+   */
+  default Category update(final Category category, final long expectedVersion) {
+    throw new UnsupportedOperationException("This categories backend is read only");
+  }
+
+  /**
+   * Deletes a category, provided it is still at the version the caller read. Categories beneath it are left alone and
+   * become roots until a category with the same name is created again. Any items tagged with it lose that tag.
+   *
+   * @param identifier the name of the category to delete.
+   * @param expectedVersion the version the caller read, or {@link #ANY_VERSION} to delete whatever is there.
+   * @return false if the category does not exist.
+   * @throws CategoryConflictException if the category is no longer at the expected version.
+   * @throws UnsupportedOperationException if the backend is read only.
+   */
+  default boolean delete(final String identifier, final long expectedVersion) {
+    throw new UnsupportedOperationException("This categories backend is read only");
+  }
+
+  /**
+   * Retrieves the changes made to the categories after the supplied point in the change feed, oldest first. The default
+   * implementation is for backends which do not record changes and rejects the request.
+   *
+   * @param since the sequence of the last change the caller has seen (zero for every recorded change).
+   * @param limit the maximum number of changes to return.
+   * @return up to limit changes whose sequence is greater than since, an empty list if there are none.
+   * @throws UnsupportedOperationException if the backend does not record changes.
+   */
+  default List<CategoryChange> findChanges(final long since, final int limit) {
+    throw new UnsupportedOperationException("This categories backend does not record changes");
+  }
+
+  /**
+   * Retrieves the sequence of the most recent change in the change feed, so a caller can load every category and then
+   * ask for the changes after this point.
+   *
+   * @return the latest sequence (zero if nothing has changed), or {@link #UNVERSIONED} if changes are not recorded.
+   */
+  default long getLatestChange() {
+    return UNVERSIONED;
+  }
+
+  /**
+   * Reads every category along with the latest change they include. The change sequence is read before the categories,
+   * so a change made while they are read is applied again later rather than lost; backends which serve reads from
+   * several copies of the data should read both from the same copy.
+   *
+   * @return never null.
+   */
+  default CategoryLoad loadAll() {
+    final long sequence = this.getLatestChange();
+    return new CategoryLoad(this.findAll(), sequence);
+  }
+
+  /**
+   * Retrieves a number which changes whenever the data returned by the service changes, this lets callers keep
+   * derived data (e.g. serialised responses) until the data changes.
+   *
+   * @return {@link #UNVERSIONED} if the backend does not track changes, otherwise a positive increasing number.
+   */
+  default long getDataVersion() {
+    return UNVERSIONED;
+  }
 }
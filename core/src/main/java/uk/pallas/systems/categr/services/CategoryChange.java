@@ -0,0 +1,109 @@
+package uk.pallas.systems.categr.services;
+
+import java.util.Objects;
+import uk.pallas.systems.categr.entities.v1.Category;
+
+/**
+ * A single entry in the category change feed, changes are numbered by a sequence which increases with every change so
+ * clients can ask for everything after the last change they saw.
+ */
+public final class CategoryChange {
+
+  /** Position of the change in the feed, unique and increasing in the order the changes were committed. */
+  private final long sequence;
+
+  /** What happened to the category. */
+  private final ChangeType type;
+
+  /** Name of the category which changed. */
+  private final String name;
+
+  /** The category as it was after the change, null when it was deleted. */
+  private final Category category;
+
+  /**
+   * Class Constructor.
+   *
+   * @param position position of the change in the feed.
+   * @param changeType what happened to the category.
+   * @param identifier name of the category which changed.
+   * @param changed the category as it was after the change (null when it was deleted).
+   */
+  public CategoryChange(final long position, final ChangeType changeType, final String identifier,
+                        final Category changed) {
+    this.sequence = position;
+    this.type = changeType;
+    this.name = identifier;
+    this.category = changed;
+  }
+
+  /**
+   * Compares the supplied object to this one.
+   *
+   * @param toCompare the object to compare (can be null or a child class, etc..)
+   * @return false if the sequence, type, name or category differ.
+   */
+  @Override
+  public boolean equals(final Object toCompare) {
+
+    final boolean result;
+    if (this == toCompare) {
+      result = true;
+    } else if (toCompare instanceof CategoryChange that) {
+      result = this.getSequence() == that.getSequence()
+        && this.getType() == that.getType()
+        && Objects.equals(this.getName(), that.getName())
+        && Objects.equals(this.getCategory(), that.getCategory());
+    } else {
+      result = false;
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates a Unique hashcode for the CategoryChange class.
+   *
+   * @return a valid integer representation of this object,
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.getSequence(), this.getType(), this.getName(), this.getCategory());
+  }
+
+  /**
+   * Retrieves the position of the change in the feed.
+   *
+   * @return a positive number.
+   */
+  public long getSequence() {
+    return this.sequence;
+  }
+
+  /**
+   * Retrieves what happened to the category.
+   *
+   * @return should never be null.
+   */
+  public ChangeType getType() {
+    return this.type;
+  }
+
+  /**
+   * Retrieves the name of the category which changed.
+   *
+   * @return should never be null.
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Retrieves the category as it was after the change.
+   *
+   * @return null when the category was deleted.
+   */
+  public Category getCategory() {
+    return this.category;
+  }
+}
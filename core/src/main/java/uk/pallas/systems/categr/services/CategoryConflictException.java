@@ -0,0 +1,47 @@
+package uk.pallas.systems.categr.services;
+
+/**
+ * Thrown when a write is refused because the category is not at the version the caller expected, i.e. someone else
+ * has changed it since the caller read it (or it already exists when the caller expected to create it). Nothing in
+ * the write is applied, the caller should read the category again and decide whether to retry.
+ */
+public class CategoryConflictException extends RuntimeException {
+
+  /** Serialisation identifier. */
+  private static final long serialVersionUID = 1L;
+
+  /** Name of the category the write was refused for. */
+  private final String name;
+
+  /** The version the category is currently at, zero if it does not exist or has never been changed. */
+  private final long currentVersion;
+
+  /**
+   * Class Constructor.
+   *
+   * @param identifier name of the category the write was refused for.
+   * @param current the version the category is currently at.
+   * @param message why the write was refused.
+   */
+  public CategoryConflictException(final String identifier, final long current, final String message) {
+    super(message);
+    this.name = identifier;
+    this.currentVersion = current;
+  }
+
+  /**
+   * Retrieves the name of the category the write was refused for.
+   * @return should never be null.
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Retrieves the version the category is currently at.
+   * @return zero if the category does not exist or has never been changed.
+   */
+  public long getCurrentVersion() {
+    return this.currentVersion;
+  }
+}
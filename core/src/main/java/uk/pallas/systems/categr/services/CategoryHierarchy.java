@@ -0,0 +1,194 @@
+package uk.pallas.systems.categr.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import uk.pallas.systems.categr.entities.v1.Category;
+
+/**
+ * An immutable view of the category hierarchy built from each category's parent. The categories are held in depth first
+ * (pre-order) order, with every category recording where its subtree ends, so a subtree is a contiguous range of the
+ * order, an is-descendant-of check is two integer comparisons and ancestors are found by following parent positions,
+ * none of which need a query per level of the hierarchy.
+ *
+ * <p>Categories whose parent is missing (or unknown) are roots. A parent chain which loops back on itself is broken at
+ * the first category (by name) in the loop, which is treated as a root.</p>
+ */
+public final class CategoryHierarchy {
+
+  /** Position used for a category without a parent. */
+  private static final int NO_PARENT = -1;
+
+  /** Orders categories by name, so siblings are listed in a stable order. */
+  private static final Comparator<Category> BY_NAME = Comparator.comparing(Category::getName);
+
+  /** The categories in depth first order, each followed by its descendants with siblings ordered by name. */
+  private final Category[] order;
+
+  /** Category name to its position in {@link #order}. */
+  private final Map<String, Integer> positions;
+
+  /** The position in {@link #order} of each category's parent, {@link #NO_PARENT} for roots. */
+  private final int[] parents;
+
+  /** The (exclusive) position in {@link #order} where each category's subtree ends. */
+  private final int[] ends;
+
+  /**
+   * Class Constructor, builds the hierarchy from the supplied categories ignoring nulls and entries without a name.
+   *
+   * @param data the categories to arrange (null is treated as empty).
+   */
+  public CategoryHierarchy(final Collection<? extends Category> data) {
+    final Map<String, Category> byName = new HashMap<>();
+    if (null != data) {
+      data.stream().filter(cat -> null != cat && null != cat.getName()).forEach(cat -> byName.put(cat.getName(), cat));
+    }
+
+    final List<Category> sorted = new ArrayList<>(byName.values());
+    sorted.sort(BY_NAME);
+
+    final Map<String, List<Category>> children = new HashMap<>();
+    final List<Category> roots = new ArrayList<>();
+    for (final Category category : sorted) {
+      final String parent = category.getParent();
+      if (null == parent || parent.equals(category.getName()) || !byName.containsKey(parent)) {
+        roots.add(category);
+      } else {
+        children.computeIfAbsent(parent, key -> new ArrayList<>()).add(category);
+      }
+    }
+
+    this.order = new Category[sorted.size()];
+    this.parents = new int[sorted.size()];
+    this.ends = new int[sorted.size()];
+    this.positions = new HashMap<>(sorted.size() * 4 / 3 + 1);
+
+    int next = this.visit(roots, children, 0);
+    // Anything not reached from a root is part of a loop, so start again from the first unvisited category in each.
+    for (final Category category : sorted) {
+      if (!this.positions.containsKey(category.getName())) {
+        next = this.visit(List.of(category), children, next);
+      }
+    }
+
+    // Each subtree ends where its last descendant's subtree ends, so fill the ends in from the deepest categories up.
+    for (int position = 0; position < next; position++) {
+      this.ends[position] = position + 1;
+    }
+    for (int position = next - 1; position >= 0; position--) {
+      final int parent = this.parents[position];
+      if (NO_PARENT != parent) {
+        this.ends[parent] = Math.max(this.ends[parent], this.ends[position]);
+      }
+    }
+  }
+
+  /**
+   * Appends the supplied roots and their (not yet visited) descendants to the depth first order, using an explicit
+   * stack so a deep hierarchy cannot overflow the call stack.
+   *
+   * @param roots the categories to start from, in the order they should appear.
+   * @param children parent name to its children ordered by name.
+   * @param start the next free position in the order.
+   * @return the next free position once the categories have been added.
+   */
+  private int visit(final List<Category> roots, final Map<String, List<Category>> children, final int start) {
+    int next = start;
+
+    final Deque<Category> stack = new ArrayDeque<>();
+    final Deque<Integer> stackParents = new ArrayDeque<>();
+    for (int index = roots.size() - 1; index >= 0; index--) {
+      stack.push(roots.get(index));
+      stackParents.push(NO_PARENT);
+    }
+
+    while (!stack.isEmpty()) {
+      final Category category = stack.pop();
+      final int parent = stackParents.pop();
+      if (!this.positions.containsKey(category.getName())) {
+        final int position = next++;
+        this.order[position] = category;
+        this.parents[position] = parent;
+        this.positions.put(category.getName(), position);
+
+        final List<Category> below = children.getOrDefault(category.getName(), List.of());
+        for (int index = below.size() - 1; index >= 0; index--) {
+          stack.push(below.get(index));
+          stackParents.push(position);
+        }
+      }
+    }
+
+    return next;
+  }
+
+  /**
+   * Retrieves the number of categories in the hierarchy.
+   *
+   * @return zero or more.
+   */
+  public int size() {
+    return this.order.length;
+  }
+
+  /**
+   * Retrieves a category and everything beneath it.
+   *
+   * @param identifier the name of the category at the top of the subtree.
+   * @return the category followed by its descendants in depth first order (siblings by name), empty if the category is
+   *     not in the hierarchy, never null.
+   */
+  public List<Category> getSubtree(final String identifier) {
+    final Integer position = null == identifier ? null : this.positions.get(identifier);
+
+    final List<Category> results;
+    if (null == position) {
+      results = List.of();
+    } else {
+      results = Collections.unmodifiableList(Arrays.asList(this.order).subList(position, this.ends[position]));
+    }
+
+    return results;
+  }
+
+  /**
+   * Retrieves the categories above a category.
+   *
+   * @param identifier the name of the category whose ancestors are wanted.
+   * @return the parent first, up to and including the root, empty for a root or a category not in the hierarchy.
+   */
+  public List<Category> getAncestors(final String identifier) {
+    final Integer position = null == identifier ? null : this.positions.get(identifier);
+
+    final List<Category> results = new ArrayList<>();
+    if (null != position) {
+      for (int parent = this.parents[position]; NO_PARENT != parent; parent = this.parents[parent]) {
+        results.add(this.order[parent]);
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * Checks whether a category sits anywhere beneath another.
+   *
+   * @param identifier the name of the possible descendant.
+   * @param ancestor the name of the possible ancestor.
+   * @return true if both are in the hierarchy and the first is a child, grandchild, etc.. of the second.
+   */
+  public boolean isDescendant(final String identifier, final String ancestor) {
+    final Integer position = null == identifier ? null : this.positions.get(identifier);
+    final Integer top = null == ancestor ? null : this.positions.get(ancestor);
+
+    return null != position && null != top && top < position && position < this.ends[top];
+  }
+}
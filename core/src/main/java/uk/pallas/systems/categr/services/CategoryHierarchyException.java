@@ -0,0 +1,33 @@
+package uk.pallas.systems.categr.services;
+
+/**
+ * Thrown when a write is refused because a category would sit beneath itself or one of its own descendants, which
+ * would cut the branch off from the rest of the hierarchy. Nothing in the write is applied.
+ */
+public class CategoryHierarchyException extends RuntimeException {
+
+  /** Serialisation identifier. */
+  private static final long serialVersionUID = 1L;
+
+  /** Name of the category the write was refused for. */
+  private final String name;
+
+  /**
+   * Class Constructor.
+   *
+   * @param identifier name of the category the write was refused for.
+   * @param message why the write was refused.
+   */
+  public CategoryHierarchyException(final String identifier, final String message) {
+    super(message);
+    this.name = identifier;
+  }
+
+  /**
+   * Retrieves the name of the category the write was refused for.
+   * @return should never be null.
+   */
+  public String getName() {
+    return this.name;
+  }
+}
@@ -0,0 +1,258 @@
+package uk.pallas.systems.categr.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * An immutable index of which items are tagged with each category. Every item is numbered by its position when the
+ * item IDs are sorted, and each category holds a compressed (Roaring) bitmap of the numbers of the items tagged with
+ * it, so matching all or any of a set of categories is a bitmap intersection or union rather than a join. As the
+ * numbers follow the item IDs' order the matching items come out of a bitmap already sorted, and a page starting
+ * after an item ID is found by skipping ahead to that ID's number.
+ */
+public final class CategoryItemIndex {
+
+  /** Bitmap matched by queries which cannot match anything, never modified. */
+  private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+  /** The item IDs in sorted order, an item's position is its number in the bitmaps. */
+  private final String[] items;
+
+  /** The categories each item is tagged with ordered by name, in the same order as {@link #items}. */
+  private final String[][] tags;
+
+  /** Category name to the numbers of the items tagged with it. */
+  private final Map<String, RoaringBitmap> bitmaps;
+
+  /** The total number of tags held. */
+  private final long tagCount;
+
+  /** When the index was loaded (or last confirmed as current), as per {@link System#nanoTime()}. */
+  private final long loadedAt;
+
+  /**
+   * Class Constructor, builds the index from the categories each item is tagged with, items without any tags are
+   * ignored.
+   *
+   * @param itemTags item ID to the names of the categories it is tagged with (null is treated as empty).
+   * @param loadTime when the tags were read, as per {@link System#nanoTime()}.
+   */
+  public CategoryItemIndex(final Map<String, ? extends Collection<String>> itemTags, final long loadTime) {
+    final Map<String, Set<String>> tagged = new HashMap<>();
+    if (null != itemTags) {
+      itemTags.forEach((item, categories) -> {
+        final Set<String> names = CategoryItemsService.toCategoryNames(categories);
+        if (null != item && !item.isEmpty() && !names.isEmpty()) {
+          tagged.put(item, names);
+        }
+      });
+    }
+
+    this.items = tagged.keySet().toArray(new String[0]);
+    Arrays.sort(this.items);
+    this.tags = new String[this.items.length][];
+
+    // Category names are shared between the bitmap keys and every item's tags rather than held once per tag.
+    final Map<String, String> shared = new HashMap<>();
+    final Map<String, RoaringBitmap> building = new HashMap<>();
+    long total = 0;
+    for (int number = 0; number < this.items.length; number++) {
+      final String[] names = new TreeSet<>(tagged.get(this.items[number])).toArray(new String[0]);
+      for (int position = 0; position < names.length; position++) {
+        names[position] = shared.computeIfAbsent(names[position], name -> name);
+        // Items are added in ascending order, which only ever appends to a bitmap's last container.
+        building.computeIfAbsent(names[position], name -> new RoaringBitmap()).add(number);
+      }
+      this.tags[number] = names;
+      total += names.length;
+    }
+    building.values().forEach(RoaringBitmap::runOptimize);
+
+    this.bitmaps = building;
+    this.tagCount = total;
+    this.loadedAt = loadTime;
+  }
+
+  /**
+   * Copy Constructor which shares everything but the load time.
+   *
+   * @param source the index to copy.
+   * @param loadTime when the index was confirmed as current, as per {@link System#nanoTime()}.
+   */
+  private CategoryItemIndex(final CategoryItemIndex source, final long loadTime) {
+    this.items = source.items;
+    this.tags = source.tags;
+    this.bitmaps = source.bitmaps;
+    this.tagCount = source.tagCount;
+    this.loadedAt = loadTime;
+  }
+
+  /**
+   * Creates a copy of this index with a new load time, used when a reload found the same tags or failed.
+   *
+   * @param loadTime when the index was confirmed as current, as per {@link System#nanoTime()}.
+   * @return a new index sharing this index's content.
+   */
+  public CategoryItemIndex touch(final long loadTime) {
+    return new CategoryItemIndex(this, loadTime);
+  }
+
+  /**
+   * Retrieves the categories an item is tagged with.
+   *
+   * @param item the ID of the item.
+   * @return an unmodifiable list ordered by name, empty if the item has no tags.
+   */
+  public List<String> getCategories(final String item) {
+    final int number = null == item ? -1 : Arrays.binarySearch(this.items, item);
+    return number < 0 ? List.of() : List.of(this.tags[number]);
+  }
+
+  /**
+   * Retrieves a page of the items tagged with all, or any, of the supplied categories.
+   *
+   * @param categories the names of the categories to match (null and blank names are ignored).
+   * @param match how the categories are combined (null is treated as all).
+   * @param after the ID of the last item on the previous page (null or empty for the first page).
+   * @param limit the maximum number of items to return.
+   * @return up to limit item IDs ordered by ID, empty if there are no more.
+   */
+  public List<String> getItems(final Collection<String> categories, final ItemMatch match, final String after,
+                               final int limit) {
+    final List<String> results = new ArrayList<>();
+
+    if (limit > 0) {
+      final int start;
+      if (null == after || after.isEmpty()) {
+        start = 0;
+      } else {
+        final int position = Arrays.binarySearch(this.items, after);
+        start = position < 0 ? -position - 1 : position + 1;
+      }
+
+      final PeekableIntIterator iterator = this.match(categories, match).getIntIterator();
+      iterator.advanceIfNeeded(start);
+      while (iterator.hasNext() && results.size() < limit) {
+        results.add(this.items[iterator.next()]);
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * Counts the items tagged with all, or any, of the supplied categories.
+   *
+   * @param categories the names of the categories to match (null and blank names are ignored).
+   * @param match how the categories are combined (null is treated as all).
+   * @return zero or more.
+   */
+  public long countItems(final Collection<String> categories, final ItemMatch match) {
+    return this.match(categories, match).getLongCardinality();
+  }
+
+  /**
+   * Retrieves the number of items with at least one tag.
+   *
+   * @return zero or more.
+   */
+  public int getItemCount() {
+    return this.items.length;
+  }
+
+  /**
+   * Retrieves the number of categories with at least one item tagged with them.
+   *
+   * @return zero or more.
+   */
+  public int getCategoryCount() {
+    return this.bitmaps.size();
+  }
+
+  /**
+   * Retrieves the total number of tags held.
+   *
+   * @return zero or more.
+   */
+  public long getTagCount() {
+    return this.tagCount;
+  }
+
+  /**
+   * Retrieves the number of bytes the bitmaps take up once serialised, a guide to the memory they use.
+   *
+   * @return zero or more.
+   */
+  public long getBitmapBytes() {
+    long result = 0;
+    for (final RoaringBitmap bitmap : this.bitmaps.values()) {
+      result += bitmap.serializedSizeInBytes();
+    }
+
+    return result;
+  }
+
+  /**
+   * Retrieves when the index was loaded, or last confirmed as current.
+   *
+   * @return a time as per {@link System#nanoTime()}.
+   */
+  public long getLoadedAt() {
+    return this.loadedAt;
+  }
+
+  /**
+   * Checks whether the supplied index holds exactly the same tags as this one.
+   *
+   * @param other the index to compare against (can be null).
+   * @return false if other is null or the tags differ.
+   */
+  public boolean hasSameContent(final CategoryItemIndex other) {
+    return null != other && this.tagCount == other.tagCount && Arrays.equals(this.items, other.items)
+      && Arrays.deepEquals(this.tags, other.tags);
+  }
+
+  /**
+   * Works out the numbers of the items matching the supplied categories, the bitmap returned must not be modified as
+   * it can be one held by the index.
+   *
+   * @param categories the names of the categories to match (null and blank names are ignored).
+   * @param match how the categories are combined (null is treated as all).
+   * @return never null, empty if no categories were supplied.
+   */
+  private RoaringBitmap match(final Collection<String> categories, final ItemMatch match) {
+    final List<RoaringBitmap> matched = new ArrayList<>();
+    boolean missing = false;
+    for (final String category : CategoryItemsService.toCategoryNames(categories)) {
+      final RoaringBitmap bitmap = this.bitmaps.get(category);
+      if (null == bitmap) {
+        missing = true;
+      } else {
+        matched.add(bitmap);
+      }
+    }
+
+    final RoaringBitmap result;
+    if (matched.isEmpty() || ItemMatch.ANY != match && missing) {
+      // A category nobody is tagged with leaves nothing to intersect.
+      result = EMPTY;
+    } else if (1 == matched.size()) {
+      result = matched.get(0);
+    } else if (ItemMatch.ANY == match) {
+      result = FastAggregation.or(matched.toArray(new RoaringBitmap[0]));
+    } else {
+      result = FastAggregation.and(matched.toArray(new RoaringBitmap[0]));
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,88 @@
+package uk.pallas.systems.categr.services;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Records which categories external items (e.g. Typr field types) have been tagged with, items are identified by
+ * whatever ID the owning service uses and are only known to categr through their tags. Items can then be found by the
+ * categories they are tagged with, either all of a set of categories or any of them.
+ */
+public interface CategoryItemsService {
+
+  /** The maximum length of an item ID. */
+  int MAX_ITEM_LENGTH = 255;
+
+  /**
+   * Retrieves the categories an item is tagged with.
+   *
+   * @param item the ID of the item.
+   * @return the category names ordered by name, empty if the item has no tags.
+   */
+  List<String> findCategories(String item);
+
+  /**
+   * Retrieves a page of the items tagged with all, or any, of the supplied categories.
+   *
+   * @param categories the names of the categories to match (null and blank names are ignored).
+   * @param match how the categories are combined (null is treated as all).
+   * @param after the ID of the last item on the previous page (null or empty for the first page).
+   * @param limit the maximum number of items to return.
+   * @return up to limit item IDs ordered by ID, empty if there are no more (or no categories were supplied).
+   */
+  List<String> findItems(Collection<String> categories, ItemMatch match, String after, int limit);
+
+  /**
+   * Counts the items tagged with all, or any, of the supplied categories.
+   *
+   * @param categories the names of the categories to match (null and blank names are ignored).
+   * @param match how the categories are combined (null is treated as all).
+   * @return zero or more.
+   */
+  long countItems(Collection<String> categories, ItemMatch match);
+
+  /**
+   * Replaces the categories an item is tagged with, every category must exist. The check is made as part of the write,
+   * so a category deleted at the same time cannot be left with tags.
+   *
+   * @param item the ID of the item.
+   * @param categories the names of the categories the item is now tagged with (null, blank and repeated names are
+   *                   ignored), an empty collection removes the item.
+   * @return the number of categories the item is now tagged with.
+   * @throws CategoryNotFoundException if any of the categories do not exist, the item's tags are left as they were.
+   */
+  int setCategories(String item, Collection<String> categories);
+
+  /**
+   * Removes every tag from an item.
+   *
+   * @param item the ID of the item.
+   * @return false if the item had no tags.
+   */
+  boolean removeItem(String item);
+
+  /**
+   * Passes every tag to the supplied consumer, in no particular order.
+   *
+   * @param consumer called with the item ID and category name of each tag.
+   */
+  void forEachTag(BiConsumer<String, String> consumer);
+
+  /**
+   * Tidies up a collection of category names supplied by a caller, dropping nulls, blank names and repeats.
+   *
+   * @param categories the names to tidy up (null is treated as empty).
+   * @return a modifiable set in the order the names were first supplied.
+   */
+  static Set<String> toCategoryNames(final Collection<String> categories) {
+    final Set<String> results = new LinkedHashSet<>();
+    if (null != categories) {
+      categories.stream().filter(name -> null != name && !name.isBlank()).forEach(results::add);
+    }
+
+    return results;
+  }
+}
@@ -0,0 +1,15 @@
+package uk.pallas.systems.categr.services;
+
+import java.util.Collection;
+import uk.pallas.systems.categr.entities.v1.Category;
+
+/**
+ * Every category read from a backend along with the point in the change feed they are known to include, so a copy of
+ * the categories can be brought up to date later by applying the changes after that point.
+ *
+ * @param categories every category, ordered by name.
+ * @param changeSequence the latest change the categories include, or {@link CategoriesDAOService#UNVERSIONED} if the
+ *                       backend does not record changes.
+ */
+public record CategoryLoad(Collection<Category> categories, long changeSequence) {
+}
@@ -0,0 +1,298 @@
+package uk.pallas.systems.categr.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import uk.pallas.systems.categr.entities.v1.Category;
+
+/**
+ * An immutable, case-insensitive search index over category names. Names are held lower cased in sorted order, so a
+ * prefix search is a binary search followed by a scan, and each name is broken into trigrams (three character
+ * substrings) with a posting list of the names holding each one, so contains and fuzzy searches only examine names
+ * which share enough trigrams with the search term rather than every name.
+ */
+public final class CategoryNameIndex {
+
+  /** The number of characters in each n-gram held by the index. */
+  private static final int GRAM_SIZE = 3;
+
+  /** The categories in the index ordered by their lower cased name. */
+  private final Category[] categories;
+
+  /** The lower cased name of each category, in the same order as {@link #categories}. */
+  private final String[] keys;
+
+  /** Trigram to the (ascending) positions of the names containing it. */
+  private final Map<String, int[]> grams;
+
+  /**
+   * Class Constructor, builds the index from the supplied categories ignoring nulls and entries without a name.
+   *
+   * @param data the categories to index (null is treated as empty).
+   */
+  public CategoryNameIndex(final Collection<? extends Category> data) {
+    final List<Category> named = new ArrayList<>();
+    if (null != data) {
+      data.stream().filter(cat -> null != cat && null != cat.getName()).forEach(named::add);
+    }
+    named.sort(Comparator.comparing((Category cat) -> normalise(cat.getName())).thenComparing(Category::getName));
+
+    this.categories = named.toArray(new Category[0]);
+    this.keys = new String[this.categories.length];
+
+    final Map<String, List<Integer>> postings = new HashMap<>();
+    for (int position = 0; position < this.categories.length; position++) {
+      this.keys[position] = normalise(this.categories[position].getName());
+      for (final String gram : toGrams(this.keys[position])) {
+        postings.computeIfAbsent(gram, key -> new ArrayList<>()).add(position);
+      }
+    }
+
+    this.grams = new HashMap<>(postings.size() * 4 / 3 + 1);
+    postings.forEach((gram, positions) -> this.grams.put(gram,
+      positions.stream().mapToInt(Integer::intValue).toArray()));
+  }
+
+  /**
+   * Retrieves the number of categories in the index.
+   *
+   * @return zero or more.
+   */
+  public int size() {
+    return this.categories.length;
+  }
+
+  /**
+   * Searches the category names.
+   *
+   * @param query the search term (null or blank matches nothing).
+   * @param match how the search term should be matched against the names (null is treated as prefix).
+   * @param maxDistance the maximum number of edits allowed for a fuzzy match, ignored by other match types.
+   * @param limit the maximum number of categories to return.
+   * @return the matching categories, ordered by name (fuzzy matches are ordered by distance first), never null.
+   */
+  public List<Category> search(final String query, final NameMatch match, final int maxDistance, final int limit) {
+    final List<Category> results;
+
+    if (null == query || query.isBlank() || limit < 1) {
+      results = List.of();
+    } else if (NameMatch.CONTAINS == match) {
+      results = this.findContaining(normalise(query), limit);
+    } else if (NameMatch.FUZZY == match) {
+      results = this.findSimilar(normalise(query), Math.max(0, maxDistance), limit);
+    } else {
+      results = this.findWithPrefix(normalise(query), limit);
+    }
+
+    return results;
+  }
+
+  /**
+   * Finds the names starting with the supplied term.
+   *
+   * @param term the lower cased search term.
+   * @param limit the maximum number of categories to return.
+   * @return the matching categories in name order.
+   */
+  private List<Category> findWithPrefix(final String term, final int limit) {
+    final List<Category> results = new ArrayList<>();
+
+    int position = Arrays.binarySearch(this.keys, term);
+    if (position < 0) {
+      position = -position - 1;
+    } else {
+      // Duplicate keys are possible when names only differ by case, make sure we start at the first one.
+      while (position > 0 && this.keys[position - 1].equals(term)) {
+        position--;
+      }
+    }
+
+    while (position < this.keys.length && results.size() < limit && this.keys[position].startsWith(term)) {
+      results.add(this.categories[position]);
+      position++;
+    }
+
+    return results;
+  }
+
+  /**
+   * Finds the names containing the supplied term, candidates must hold every trigram in the term before the (more
+   * expensive) substring check is made.
+   *
+   * @param term the lower cased search term.
+   * @param limit the maximum number of categories to return.
+   * @return the matching categories in name order.
+   */
+  private List<Category> findContaining(final String term, final int limit) {
+    final List<Category> results = new ArrayList<>();
+
+    if (term.length() < GRAM_SIZE) {
+      // Too short to have any trigrams, there are few enough one and two character terms that a scan is acceptable.
+      for (int position = 0; position < this.keys.length && results.size() < limit; position++) {
+        if (this.keys[position].contains(term)) {
+          results.add(this.categories[position]);
+        }
+      }
+    } else {
+      final int[] candidates = this.intersect(toGrams(term));
+      for (int index = 0; index < candidates.length && results.size() < limit; index++) {
+        if (this.keys[candidates[index]].contains(term)) {
+          results.add(this.categories[candidates[index]]);
+        }
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * Finds the names within the supplied edit distance of the term. A name within d edits of the term must share at
+   * least (distinct trigrams in the term - 3d) trigrams with it, as each edit can only remove three trigrams, so where
+   * that is positive only names sharing enough trigrams are compared.
+   *
+   * @param term the lower cased search term.
+   * @param maxDistance the maximum number of edits allowed.
+   * @param limit the maximum number of categories to return.
+   * @return the matching categories ordered by distance and then name.
+   */
+  private List<Category> findSimilar(final String term, final int maxDistance, final int limit) {
+    final Set<String> termGrams = toGrams(term);
+    final int required = termGrams.size() - GRAM_SIZE * maxDistance;
+
+    int[] shared = null;
+    if (required > 0) {
+      shared = new int[this.keys.length];
+      for (final String gram : termGrams) {
+        for (final int position : this.grams.getOrDefault(gram, new int[0])) {
+          shared[position]++;
+        }
+      }
+    }
+
+    // Bucket the matches by distance, so they come out closest first and in name order within each distance.
+    final List<List<Category>> byDistance = new ArrayList<>();
+    for (int distance = 0; distance <= maxDistance; distance++) {
+      byDistance.add(new ArrayList<>());
+    }
+
+    for (int position = 0; position < this.keys.length; position++) {
+      if ((null == shared || shared[position] >= required)
+          && Math.abs(this.keys[position].length() - term.length()) <= maxDistance) {
+        final int distance = distance(term, this.keys[position], maxDistance);
+        if (distance <= maxDistance) {
+          byDistance.get(distance).add(this.categories[position]);
+        }
+      }
+    }
+
+    return byDistance.stream().flatMap(List::stream).limit(limit).toList();
+  }
+
+  /**
+   * Intersects the posting lists of the supplied trigrams, starting with the shortest so the work done is bounded by
+   * the rarest trigram.
+   *
+   * @param termGrams the trigrams every candidate must hold.
+   * @return the ascending positions of names holding every trigram.
+   */
+  private int[] intersect(final Set<String> termGrams) {
+    final List<int[]> lists = new ArrayList<>(termGrams.size());
+    for (final String gram : termGrams) {
+      lists.add(this.grams.getOrDefault(gram, new int[0]));
+    }
+    lists.sort(Comparator.comparingInt(list -> list.length));
+
+    int[] result = lists.get(0);
+    for (int index = 1; index < lists.size() && result.length > 0; index++) {
+      final int[] other = lists.get(index);
+      final int[] merged = new int[result.length];
+      int count = 0;
+      int left = 0;
+      int right = 0;
+      while (left < result.length && right < other.length) {
+        if (result[left] < other[right]) {
+          left++;
+        } else if (result[left] > other[right]) {
+          right++;
+        } else {
+          merged[count++] = result[left];
+          left++;
+          right++;
+        }
+      }
+      result = Arrays.copyOf(merged, count);
+    }
+
+    return result;
+  }
+
+  /**
+   * Calculates the Levenshtein distance between two strings, giving up once it is clear the distance exceeds the
+   * supplied maximum.
+   *
+   * @param source the first string.
+   * @param target the second string.
+   * @param maxDistance the largest distance we are interested in.
+   * @return the edit distance, or maxDistance + 1 if it is greater than maxDistance.
+   */
+  static int distance(final String source, final String target, final int maxDistance) {
+    int[] previous = new int[target.length() + 1];
+    int[] current = new int[target.length() + 1];
+    for (int column = 0; column <= target.length(); column++) {
+      previous[column] = column;
+    }
+
+    int result = -1;
+    for (int row = 1; row <= source.length() && result < 0; row++) {
+      current[0] = row;
+      int rowMinimum = row;
+      for (int column = 1; column <= target.length(); column++) {
+        final int cost = source.charAt(row - 1) == target.charAt(column - 1) ? 0 : 1;
+        current[column] = Math.min(Math.min(current[column - 1] + 1, previous[column] + 1),
+          previous[column - 1] + cost);
+        rowMinimum = Math.min(rowMinimum, current[column]);
+      }
+
+      if (rowMinimum > maxDistance) {
+        result = maxDistance + 1;
+      }
+
+      final int[] swap = previous;
+      previous = current;
+      current = swap;
+    }
+
+    return result < 0 ? Math.min(previous[target.length()], maxDistance + 1) : result;
+  }
+
+  /**
+   * Converts a name or search term into the form held in the index.
+   *
+   * @param value the value to convert.
+   * @return the trimmed, lower cased value.
+   */
+  private static String normalise(final String value) {
+    return value.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Breaks a lower cased value into its distinct trigrams.
+   *
+   * @param value the value to break up.
+   * @return the distinct trigrams in the order they appear, empty if the value is shorter than a trigram.
+   */
+  private static Set<String> toGrams(final String value) {
+    final Set<String> results = new LinkedHashSet<>();
+    for (int start = 0; start + GRAM_SIZE <= value.length(); start++) {
+      results.add(value.substring(start, start + GRAM_SIZE));
+    }
+    return results;
+  }
+}
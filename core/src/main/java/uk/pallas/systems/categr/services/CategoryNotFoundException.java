@@ -0,0 +1,36 @@
+package uk.pallas.systems.categr.services;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Thrown when a write is refused because it refers to categories which do not exist, e.g. tagging an item with them.
+ * Nothing in the write is applied.
+ */
+public class CategoryNotFoundException extends RuntimeException {
+
+  /** Serialisation identifier. */
+  private static final long serialVersionUID = 1L;
+
+  /** Names of the categories which do not exist. */
+  private final List<String> names;
+
+  /**
+   * Class Constructor.
+   *
+   * @param missing names of the categories which do not exist.
+   * @param message why the write was refused.
+   */
+  public CategoryNotFoundException(final Collection<String> missing, final String message) {
+    super(message);
+    this.names = null == missing ? List.of() : List.copyOf(missing);
+  }
+
+  /**
+   * Retrieves the names of the categories which do not exist.
+   * @return should never be null.
+   */
+  public List<String> getNames() {
+    return this.names;
+  }
+}
@@ -0,0 +1,296 @@
+package uk.pallas.systems.categr.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.entities.v1.CategoryRecord;
+
+/**
+ * An immutable point in time copy of the categories held in a backend, it holds a name to Category map for keyed
+ * lookups alongside a pre-built list (sorted by name) so callers retrieving everything do not need to copy anything.
+ * Categories are held as {@link CategoryRecord}s whose parent is the same String instance as the parent's name, so
+ * each name is held once however many children refer to it.
+ */
+public final class CategorySnapshot {
+
+  /** Orders categories by name, so listings are stable between snapshots. */
+  private static final Comparator<Category> BY_NAME = Comparator.comparing(Category::getName);
+
+  /** Categories keyed on their name (primary key). */
+  private final Map<String, Category> byName;
+
+  /** All categories held in the snapshot sorted by name. */
+  private final List<Category> categories;
+
+  /** Monotonically increasing number which changes whenever the content of the snapshot changes. */
+  private final long version;
+
+  /** The {@link System#nanoTime()} value when the snapshot was loaded. */
+  private final long loadedAt;
+
+  /** The last change in the backend's change feed the content includes, UNVERSIONED if it is not known. */
+  private final long changeSequence;
+
+  /** Search index over the category names, built the first time it is needed. */
+  private final LazyIndex<CategoryNameIndex> nameIndex;
+
+  /** Full text index over the category descriptions, built the first time it is needed. */
+  private final LazyIndex<CategoryTextIndex> textIndex;
+
+  /** The categories arranged by parent, built the first time it is needed. */
+  private final LazyIndex<CategoryHierarchy> hierarchy;
+
+  /**
+   * Class Constructor, copies the supplied categories into the snapshot ignoring nulls and entries without a name.
+   *
+   * @param data the categories to hold (null is treated as empty).
+   * @param dataVersion the version number to associate with the content.
+   * @param loadTime the {@link System#nanoTime()} value when the data was retrieved.
+   */
+  public CategorySnapshot(final Collection<? extends Category> data, final long dataVersion, final long loadTime) {
+    this(data, dataVersion, loadTime, CategoriesDAOService.UNVERSIONED);
+  }
+
+  /**
+   * Class Constructor, copies the supplied categories into the snapshot ignoring nulls and entries without a name.
+   * Categories which are not already immutable records are copied into one.
+   *
+   * @param data the categories to hold (null is treated as empty).
+   * @param dataVersion the version number to associate with the content.
+   * @param loadTime the {@link System#nanoTime()} value when the data was retrieved.
+   * @param sequence the last change in the backend's change feed the data includes, read before the data was, or
+   *     {@link CategoriesDAOService#UNVERSIONED} if it is not known.
+   */
+  public CategorySnapshot(final Collection<? extends Category> data, final long dataVersion, final long loadTime,
+                          final long sequence) {
+    final Map<String, Category> keyed = new HashMap<>();
+    if (null != data) {
+      for (final Category category : data) {
+        if (null != category && null != category.getName()) {
+          final CategoryRecord record = CategoryRecord.of(category);
+          keyed.put(record.getName(), record);
+        }
+      }
+    }
+    keyed.replaceAll((name, category) -> shareParent((CategoryRecord) category, keyed));
+
+    final List<Category> sorted = new ArrayList<>(keyed.values());
+    sorted.sort(BY_NAME);
+
+    this.byName = Collections.unmodifiableMap(keyed);
+    this.categories = Collections.unmodifiableList(sorted);
+    this.version = dataVersion;
+    this.loadedAt = loadTime;
+    this.changeSequence = sequence;
+    this.nameIndex = new LazyIndex<>(() -> new CategoryNameIndex(this.categories));
+    this.textIndex = new LazyIndex<>(() -> new CategoryTextIndex(this.categories));
+    this.hierarchy = new LazyIndex<>(() -> new CategoryHierarchy(this.categories));
+  }
+
+  /**
+   * Class Constructor which re-uses the content of an existing snapshot but with a new load time.
+   *
+   * @param existing the snapshot whose content (and version) should be kept.
+   * @param loadTime the {@link System#nanoTime()} value when the data was confirmed as current.
+   * @param sequence the last change in the backend's change feed the content is known to include.
+   */
+  private CategorySnapshot(final CategorySnapshot existing, final long loadTime, final long sequence) {
+    this.byName = existing.byName;
+    this.categories = existing.categories;
+    this.version = existing.version;
+    this.loadedAt = loadTime;
+    this.changeSequence = sequence;
+    this.nameIndex = existing.nameIndex;
+    this.textIndex = existing.textIndex;
+    this.hierarchy = existing.hierarchy;
+  }
+
+  /**
+   * Points a category's parent at the String instance already held as that category's name.
+   *
+   * @param category the category whose parent should be shared.
+   * @param keyed every category in the snapshot keyed on its name.
+   * @return the category, or a copy of it with the shared parent.
+   */
+  private static CategoryRecord shareParent(final CategoryRecord category, final Map<String, Category> keyed) {
+    CategoryRecord result = category;
+    if (null != category.getParent()) {
+      final Category parent = keyed.get(category.getParent());
+      if (null != parent) {
+        result = category.withParent(parent.getName());
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Creates a copy of this snapshot with a new load time, used when a reload found the content had not changed.
+   *
+   * @param loadTime the {@link System#nanoTime()} value when the data was confirmed as current.
+   * @return a new snapshot sharing this snapshots content and version.
+   */
+  public CategorySnapshot touch(final long loadTime) {
+    return new CategorySnapshot(this, loadTime, this.changeSequence);
+  }
+
+  /**
+   * Creates a copy of this snapshot with a new load time and change sequence, used when a reload found the content
+   * had not changed even though the change feed had moved on (e.g. a category was changed and changed back).
+   *
+   * @param loadTime the {@link System#nanoTime()} value when the data was confirmed as current.
+   * @param sequence the last change in the backend's change feed the content is known to include.
+   * @return a new snapshot sharing this snapshots content and version.
+   */
+  public CategorySnapshot touch(final long loadTime, final long sequence) {
+    return new CategorySnapshot(this, loadTime, sequence);
+  }
+
+  /**
+   * Creates a copy of this snapshot with the supplied changes from the backend's change feed applied, so only the
+   * categories which changed need to be read rather than the whole catalogue. The copy keeps this snapshot's load time,
+   * so it is still fully reloaded once the refresh interval has passed.
+   *
+   * @param changes the changes after {@link #getChangeSequence()}, oldest first with no gaps in the sequence.
+   * @param dataVersion the version number to associate with the new content.
+   * @return a new snapshot including the changes.
+   */
+  public CategorySnapshot withChanges(final List<CategoryChange> changes, final long dataVersion) {
+    final Map<String, Category> keyed = new HashMap<>(this.byName);
+    long sequence = this.changeSequence;
+    for (final CategoryChange change : changes) {
+      if (null == change.getCategory()) {
+        keyed.remove(change.getName());
+      } else {
+        keyed.put(change.getName(), change.getCategory());
+      }
+      sequence = Math.max(sequence, change.getSequence());
+    }
+
+    return new CategorySnapshot(keyed.values(), dataVersion, this.loadedAt, sequence);
+  }
+
+  /**
+   * Checks whether the supplied snapshot holds exactly the same categories as this one.
+   *
+   * @param other the snapshot to compare against (can be null).
+   * @return true if both snapshots hold equal categories.
+   */
+  public boolean hasSameContent(final CategorySnapshot other) {
+    return null != other && Objects.equals(this.byName, other.byName);
+  }
+
+  /**
+   * Retrieves a category using its name.
+   *
+   * @param identifier the name of the category to find.
+   * @return null if the category is not in the snapshot.
+   */
+  public Category getByName(final String identifier) {
+    return null == identifier ? null : this.byName.get(identifier);
+  }
+
+  /**
+   * Retrieves the categories keyed on their name.
+   *
+   * @return an unmodifiable map, never null.
+   */
+  public Map<String, Category> getByName() {
+    return this.byName;
+  }
+
+  /**
+   * Retrieves all the categories in the snapshot.
+   *
+   * @return an unmodifiable list sorted by name, never null.
+   */
+  public List<Category> getCategories() {
+    return this.categories;
+  }
+
+  /**
+   * Retrieves a page of categories whose names sort after the supplied name.
+   *
+   * @param after the name of the last category on the previous page (null or empty for the first page).
+   * @param limit the maximum number of categories to return.
+   * @return an unmodifiable view of up to limit categories, empty if there are no more.
+   */
+  public List<Category> getPage(final String after, final int limit) {
+    int low = 0;
+    if (null != after) {
+      // Binary search for the first category whose name sorts after the supplied name.
+      int high = this.categories.size();
+      while (low < high) {
+        final int middle = (low + high) >>> 1;
+        if (this.categories.get(middle).getName().compareTo(after) <= 0) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+    }
+
+    return this.categories.subList(low, Math.min(this.categories.size(), low + Math.max(0, limit)));
+  }
+
+  /**
+   * Retrieves the search index over the category names, the index is built on first use and then shared by every
+   * caller (and by snapshots created using {@link #touch(long)}) until the content changes.
+   *
+   * @return never null.
+   */
+  public CategoryNameIndex getNameIndex() {
+    return this.nameIndex.get();
+  }
+
+  /**
+   * Retrieves the full text index over the category descriptions, built on first use like {@link #getNameIndex()}.
+   *
+   * @return never null.
+   */
+  public CategoryTextIndex getTextIndex() {
+    return this.textIndex.get();
+  }
+
+  /**
+   * Retrieves the categories arranged by parent, built on first use like {@link #getNameIndex()}.
+   *
+   * @return never null.
+   */
+  public CategoryHierarchy getHierarchy() {
+    return this.hierarchy.get();
+  }
+
+  /**
+   * Retrieves the version number of the snapshot content.
+   *
+   * @return a positive number which increases every time the content changes.
+   */
+  public long getVersion() {
+    return this.version;
+  }
+
+  /**
+   * Retrieves when the snapshot was loaded.
+   *
+   * @return a {@link System#nanoTime()} value.
+   */
+  public long getLoadedAt() {
+    return this.loadedAt;
+  }
+
+  /**
+   * Retrieves the last change in the backend's change feed the content includes.
+   *
+   * @return {@link CategoriesDAOService#UNVERSIONED} if the backend does not record changes.
+   */
+  public long getChangeSequence() {
+    return this.changeSequence;
+  }
+}
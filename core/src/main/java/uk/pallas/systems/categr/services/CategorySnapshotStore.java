@@ -0,0 +1,27 @@
+package uk.pallas.systems.categr.services;
+
+import java.io.IOException;
+
+/**
+ * Somewhere a copy of the categories can be kept between runs, e.g. a file on a persistent volume, so a new instance
+ * can serve reads before it has reached the database. Implementations must check what they read is complete, a store
+ * which cannot be trusted is treated the same as an empty one.
+ */
+public interface CategorySnapshotStore {
+
+  /**
+   * Reads the categories last written to the store.
+   *
+   * @return null if nothing has been written yet.
+   * @throws IOException if the store cannot be read, or what it holds is corrupt or in a format that is not understood.
+   */
+  CategoryLoad read() throws IOException;
+
+  /**
+   * Replaces whatever the store holds with the supplied categories, readers see either the old copy or the new one.
+   *
+   * @param load the categories and the latest change they include.
+   * @throws IOException if the store cannot be written, in which case the previous copy is kept.
+   */
+  void write(CategoryLoad load) throws IOException;
+}
@@ -0,0 +1,66 @@
+package uk.pallas.systems.categr.services;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.util.function.Supplier;
+
+/**
+ * Utility class naming the stages a request for categories passes through, each stage is recorded as a
+ * {@link Observation} named {@link #OBSERVATION} with a stage key value, so it becomes a span when tracing is enabled
+ * and a timer (tagged with the stage) when metrics are.
+ */
+public final class CategoryStages {
+
+  /** Name of every stage observation, and so of the timer Spring Boot records them in. */
+  public static final String OBSERVATION = "categr.stage";
+
+  /** Key value identifying the stage an observation was recorded for. */
+  public static final String STAGE_KEY = "stage";
+
+  /** Stage reading every category (and the latest change) from the backend into the cache. */
+  public static final String CACHE_LOAD = "cache.load";
+
+  /** Stage building the cache's snapshot (name, hierarchy and text indexes) from the categories read. */
+  public static final String CACHE_BUILD = "cache.build";
+
+  /** Prefix of the stages running a database query and mapping its rows to records, followed by the operation. */
+  public static final String DAO_PREFIX = "dao.";
+
+  /** Stage from a request being received until the controller has returned the response body. */
+  public static final String HANDLER = "handler";
+
+  /** Stage writing the response body in the format the client asked for. */
+  public static final String SERIALIZE = "serialize";
+
+  /** Unused Utility Class constructor. */
+  private CategoryStages() {
+    // Do Nothing
+  }
+
+  /**
+   * Creates the observation for a stage, it is not started.
+   *
+   * @param registry the registry the observation is reported to (null is treated as no-op).
+   * @param stage the name of the stage.
+   * @return never null, a no-op observation if the registry is null or no-op.
+   */
+  public static Observation create(final ObservationRegistry registry, final String stage) {
+    return Observation.createNotStarted(OBSERVATION, null == registry ? ObservationRegistry.NOOP : registry)
+      .contextualName(stage)
+      .lowCardinalityKeyValue(STAGE_KEY, stage);
+  }
+
+  /**
+   * Runs the supplied work as a stage, the observation is in scope while it runs so stages it starts are nested
+   * beneath it.
+   *
+   * @param registry the registry the observation is reported to (null is treated as no-op).
+   * @param stage the name of the stage.
+   * @param work the work done by the stage.
+   * @param <T> the type returned by the work.
+   * @return whatever the work returned.
+   */
+  public static <T> T observe(final ObservationRegistry registry, final String stage, final Supplier<T> work) {
+    return create(registry, stage).observe(work);
+  }
+}
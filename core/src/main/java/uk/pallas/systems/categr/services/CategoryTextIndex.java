@@ -0,0 +1,288 @@
+package uk.pallas.systems.categr.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import uk.pallas.systems.categr.entities.v1.Category;
+
+/**
+ * An immutable inverted index over category descriptions. Each description is broken into terms and every term holds
+ * a posting list of the descriptions containing it (and how often), so a query only scores and ranks the descriptions
+ * which hold one of its terms. Matches are ranked using Okapi BM25, a heap bounded by the limit keeps the best of them
+ * as they are ranked. Highlights are HTML escaped, only the em tags marking the matches are markup.
+ */
+public final class CategoryTextIndex {
+
+  /** BM25 term frequency saturation parameter. */
+  private static final double K1 = 1.2;
+
+  /** BM25 document length normalisation parameter. */
+  private static final double B = 0.75;
+
+  /** Words so common they say nothing about relevance, they are neither indexed nor searched for. */
+  private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "are", "as", "at", "be", "by", "for", "from",
+    "in", "is", "it", "of", "on", "or", "that", "the", "this", "to", "with");
+
+  /** The number of characters of description returned as a highlight. */
+  private static final int SNIPPET_LENGTH = 160;
+
+  /** The number of characters shown before the first match in a highlight. */
+  private static final int SNIPPET_LEAD = 40;
+
+  /** Marks the start of a matching term within a highlight. */
+  private static final String HIGHLIGHT_START = "<em>";
+
+  /** Marks the end of a matching term within a highlight. */
+  private static final String HIGHLIGHT_END = "</em>";
+
+  /** The categories in the index, positions in this array are used as document identifiers. */
+  private final Category[] categories;
+
+  /** The number of terms in each description. */
+  private final int[] lengths;
+
+  /** The average number of terms in a description. */
+  private final double averageLength;
+
+  /** Term to the (ascending) identifiers of the descriptions holding it. */
+  private final Map<String, int[]> documents;
+
+  /** Term to how often it occurs in each description, in the same order as {@link #documents}. */
+  private final Map<String, int[]> frequencies;
+
+  /**
+   * Class Constructor, builds the index from the supplied categories ignoring nulls and entries without a description.
+   *
+   * @param data the categories to index (null is treated as empty).
+   */
+  public CategoryTextIndex(final Collection<? extends Category> data) {
+    final List<Category> described = new ArrayList<>();
+    if (null != data) {
+      data.stream().filter(cat -> null != cat && null != cat.getName() && null != cat.getDescription())
+        .forEach(described::add);
+    }
+    described.sort(Comparator.comparing(Category::getName));
+
+    this.categories = described.toArray(new Category[0]);
+    this.lengths = new int[this.categories.length];
+
+    final Map<String, List<int[]>> postings = new HashMap<>();
+    long totalLength = 0;
+    for (int document = 0; document < this.categories.length; document++) {
+      final Map<String, Integer> counts = new HashMap<>();
+      for (final Token token : tokenise(this.categories[document].getDescription())) {
+        if (!STOP_WORDS.contains(token.term())) {
+          counts.merge(token.term(), 1, Integer::sum);
+          this.lengths[document]++;
+        }
+      }
+      totalLength += this.lengths[document];
+
+      final int current = document;
+      counts.forEach((term, count) -> postings.computeIfAbsent(term, key -> new ArrayList<>())
+        .add(new int[] {current, count}));
+    }
+    this.averageLength = this.categories.length == 0 ? 0 : (double) totalLength / this.categories.length;
+
+    this.documents = new HashMap<>(postings.size() * 4 / 3 + 1);
+    this.frequencies = new HashMap<>(postings.size() * 4 / 3 + 1);
+    postings.forEach((term, list) -> {
+      this.documents.put(term, list.stream().mapToInt(entry -> entry[0]).toArray());
+      this.frequencies.put(term, list.stream().mapToInt(entry -> entry[1]).toArray());
+    });
+  }
+
+  /**
+   * Retrieves the number of descriptions in the index.
+   *
+   * @return zero or more.
+   */
+  public int size() {
+    return this.categories.length;
+  }
+
+  /**
+   * Searches the descriptions for any of the terms in the query.
+   *
+   * @param query the terms to search for (null or blank matches nothing).
+   * @param limit the maximum number of matches to return.
+   * @return the most relevant matches, best first (ties are ordered by name), never null.
+   */
+  public List<TextMatch> search(final String query, final int limit) {
+    final Set<String> terms = new LinkedHashSet<>();
+    if (null != query) {
+      tokenise(query).stream().map(Token::term).filter(term -> !STOP_WORDS.contains(term)).forEach(terms::add);
+    }
+
+    final List<TextMatch> results = new ArrayList<>();
+    if (!terms.isEmpty() && limit > 0 && this.categories.length > 0) {
+      // Only descriptions in one of the terms' posting lists are given a score.
+      final Map<Integer, Double> scores = new HashMap<>();
+      for (final String term : terms) {
+        this.score(term, scores);
+      }
+
+      // Keep the best limit matches in a min-heap, so the worst of them is the one evicted by a better match.
+      final Comparator<Map.Entry<Integer, Double>> ranking = Map.Entry.<Integer, Double>comparingByValue()
+        .thenComparing(entry -> this.categories[entry.getKey()].getName(), Comparator.reverseOrder());
+      final PriorityQueue<Map.Entry<Integer, Double>> best = new PriorityQueue<>(Math.min(limit, scores.size()) + 1,
+        ranking);
+      for (final Map.Entry<Integer, Double> scored : scores.entrySet()) {
+        best.add(scored);
+        if (best.size() > limit) {
+          best.poll();
+        }
+      }
+
+      final List<Map.Entry<Integer, Double>> ordered = new ArrayList<>(best);
+      ordered.sort(ranking.reversed());
+      for (final Map.Entry<Integer, Double> match : ordered) {
+        final Category category = this.categories[match.getKey()];
+        results.add(new TextMatch(category, match.getValue(), highlight(category.getDescription(), terms)));
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * Adds the BM25 contribution of a single term to the score of every description holding it.
+   *
+   * @param term the query term.
+   * @param scores the running score of each description holding one of the query terms.
+   */
+  private void score(final String term, final Map<Integer, Double> scores) {
+    final int[] holding = this.documents.get(term);
+    if (null != holding) {
+      final int[] counts = this.frequencies.get(term);
+      final double idf = Math.log(1 + (this.categories.length - holding.length + 0.5) / (holding.length + 0.5));
+      for (int index = 0; index < holding.length; index++) {
+        final double frequency = counts[index];
+        final double norm = K1 * (1 - B + B * this.lengths[holding[index]] / this.averageLength);
+        scores.merge(holding[index], idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+      }
+    }
+  }
+
+  /**
+   * Creates a snippet of the description around the first matching term, with every matching term in the snippet
+   * wrapped in em tags. The description is HTML escaped, so markup stored in a description is shown as text rather
+   * than run by a client placing the snippet in a page.
+   *
+   * @param description the description which matched.
+   * @param terms the query terms.
+   * @return the escaped snippet, prefixed or suffixed with an ellipsis where the description was cut.
+   */
+  private static String highlight(final String description, final Set<String> terms) {
+    final List<Token> tokens = tokenise(description);
+    final int first = tokens.stream().filter(token -> terms.contains(token.term())).mapToInt(Token::start)
+      .findFirst().orElse(0);
+
+    // Start a little before the first match, but never part way through a word.
+    int start = Math.max(0, first - SNIPPET_LEAD);
+    for (final Token token : tokens) {
+      if (token.end() > start) {
+        start = Math.min(token.start(), first);
+        break;
+      }
+    }
+    int end = Math.min(description.length(), start + SNIPPET_LENGTH);
+    for (final Token token : tokens) {
+      if (token.start() < end && token.end() > end) {
+        end = token.start();
+      }
+    }
+
+    final StringBuilder result = new StringBuilder(end - start + 32);
+    if (start > 0) {
+      result.append("...");
+    }
+    int position = start;
+    for (final Token token : tokens) {
+      if (token.start() >= start && token.end() <= end && terms.contains(token.term())) {
+        escape(result, description, position, token.start());
+        result.append(HIGHLIGHT_START);
+        escape(result, description, token.start(), token.end());
+        result.append(HIGHLIGHT_END);
+        position = token.end();
+      }
+    }
+    escape(result, description, position, end);
+    if (end < description.length()) {
+      result.append("...");
+    }
+
+    return result.toString().strip();
+  }
+
+  /**
+   * Appends part of some text, escaping the characters which HTML treats as markup.
+   *
+   * @param target where the text is appended.
+   * @param text the text to append part of.
+   * @param start where the part starts in the text.
+   * @param end where the part ends in the text (exclusive).
+   */
+  private static void escape(final StringBuilder target, final String text, final int start, final int end) {
+    for (int index = start; index < end; index++) {
+      final char character = text.charAt(index);
+      switch (character) {
+        case '&' -> target.append("&amp;");
+        case '<' -> target.append("&lt;");
+        case '>' -> target.append("&gt;");
+        case '"' -> target.append("&quot;");
+        case '\'' -> target.append("&#39;");
+        default -> target.append(character);
+      }
+    }
+  }
+
+  /**
+   * Breaks text into lower cased terms, splitting on anything that is not a letter or digit. A trailing plural s is
+   * removed so that "operations" matches "operation", stop words are kept so callers can see where every word is.
+   *
+   * @param text the text to break up.
+   * @return the terms in the order they appear, along with where each was found.
+   */
+  private static List<Token> tokenise(final String text) {
+    final List<Token> results = new ArrayList<>();
+
+    int position = 0;
+    while (position < text.length()) {
+      while (position < text.length() && !Character.isLetterOrDigit(text.charAt(position))) {
+        position++;
+      }
+      final int start = position;
+      while (position < text.length() && Character.isLetterOrDigit(text.charAt(position))) {
+        position++;
+      }
+
+      if (position > start) {
+        String term = text.substring(start, position).toLowerCase(Locale.ROOT);
+        if (term.length() > 3 && term.endsWith("s") && !term.endsWith("ss")) {
+          term = term.substring(0, term.length() - 1);
+        }
+        results.add(new Token(term, start, position));
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * A single term found in some text.
+   *
+   * @param term the normalised term.
+   * @param start where the term starts in the text.
+   * @param end where the term ends in the text (exclusive).
+   */
+  private record Token(String term, int start, int end) {
+  }
+}
@@ -0,0 +1,182 @@
+package uk.pallas.systems.categr.services;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Creates the background threads the services run on (pollers, listeners, warm starts and migrations), so they follow
+ * the same threading mode as the requests (spring.threads.virtual.enabled). When virtual threads are asked for and
+ * the runtime supports them (Java 21 or later) each thread is virtual, otherwise it is a daemon platform thread.
+ * Virtual threads are created reflectively as the services are built for Java 17.
+ */
+public class CategoryThreads {
+
+  /** How long a paused background thread sleeps at a time, so a stop request is noticed quickly. */
+  public static final long POLL_MILLIS = 500;
+
+  /** The shortest wait before a background thread retries, so a zero delay does not spin and flood the log. */
+  public static final Duration MIN_RETRY_DELAY = Duration.ofSeconds(1);
+
+  /** Static Logger for the class. */
+  private static final Log LOGGER = LogFactory.getLog(CategoryThreads.class);
+
+  /** Thread.ofVirtual(), null if the runtime has no virtual threads. */
+  private static final Method OF_VIRTUAL;
+
+  /** Thread.Builder.name(String), null if the runtime has no virtual threads. */
+  private static final Method BUILDER_NAME;
+
+  /** Thread.Builder.unstarted(Runnable), null if the runtime has no virtual threads. */
+  private static final Method BUILDER_UNSTARTED;
+
+  static {
+    Method ofVirtual;
+    Method name;
+    Method unstarted;
+    try {
+      final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+      ofVirtual = Thread.class.getMethod("ofVirtual");
+      name = builder.getMethod("name", String.class);
+      unstarted = builder.getMethod("unstarted", Runnable.class);
+    } catch (final ClassNotFoundException | NoSuchMethodException exception) {
+      // Earlier than Java 21, every thread is a platform thread.
+      ofVirtual = null;
+      name = null;
+      unstarted = null;
+    }
+
+    OF_VIRTUAL = ofVirtual;
+    BUILDER_NAME = name;
+    BUILDER_UNSTARTED = unstarted;
+  }
+
+  /** Platform threads, used by services which have not been handed anything else. */
+  public static final CategoryThreads PLATFORM = new CategoryThreads(false);
+
+  /** Whether the threads created are virtual. */
+  private final boolean virtual;
+
+  /**
+   * Class Constructor.
+   *
+   * @param virtualThreads true if virtual threads have been asked for, ignored if the runtime does not support them.
+   */
+  public CategoryThreads(final boolean virtualThreads) {
+    this.virtual = virtualThreads && isVirtualSupported();
+  }
+
+  /**
+   * Checks whether the runtime can create virtual threads.
+   *
+   * @return false before Java 21.
+   */
+  public static boolean isVirtualSupported() {
+    return null != OF_VIRTUAL;
+  }
+
+  /**
+   * Checks whether the threads created are virtual.
+   *
+   * @return false if they are daemon platform threads.
+   */
+  public boolean isVirtual() {
+    return this.virtual;
+  }
+
+  /**
+   * Creates and starts a background thread.
+   *
+   * @param name the name of the thread.
+   * @param task the work the thread does.
+   * @return the started thread.
+   */
+  public Thread start(final String name, final Runnable task) {
+    final Thread result = this.create(name, task);
+    result.start();
+
+    return result;
+  }
+
+  /**
+   * Creates a factory for an executor's threads, each named after the supplied name and numbered after the first.
+   *
+   * @param name the name of the executor's threads.
+   * @return a factory creating unstarted threads.
+   */
+  public ThreadFactory factory(final String name) {
+    final AtomicLong created = new AtomicLong();
+    return task -> {
+      final long count = created.getAndIncrement();
+      return this.create(0 == count ? name : name + "-" + count, task);
+    };
+  }
+
+  /**
+   * Tidies up a configured retry delay, raising it to {@link #MIN_RETRY_DELAY} if it is shorter.
+   *
+   * @param delay the configured delay (null is treated as zero).
+   * @return never null, at least {@link #MIN_RETRY_DELAY}.
+   */
+  public static Duration retryDelay(final Duration delay) {
+    return null == delay || delay.compareTo(MIN_RETRY_DELAY) < 0 ? MIN_RETRY_DELAY : delay;
+  }
+
+  /**
+   * Waits for the supplied time on the calling background thread, waking every {@link #POLL_MILLIS} to check whether it
+   * has been stopped.
+   *
+   * @param delay how long to wait.
+   * @param running checked while waiting, the wait ends as soon as it returns false.
+   * @return false if the thread was interrupted (its interrupt flag is set again), so it should stop.
+   */
+  public static boolean pause(final Duration delay, final BooleanSupplier running) {
+    boolean result = true;
+
+    final long until = System.nanoTime() + delay.toNanos();
+    try {
+      while (running.getAsBoolean() && System.nanoTime() < until) {
+        Thread.sleep(Math.min(POLL_MILLIS, Math.max(1, (until - System.nanoTime()) / 1_000_000)));
+      }
+    } catch (final InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      result = false;
+    }
+
+    return result;
+  }
+
+  /**
+   * Creates an unstarted thread.
+   *
+   * @param name the name of the thread.
+   * @param task the work the thread does.
+   * @return a virtual thread, or a daemon platform thread.
+   */
+  private Thread create(final String name, final Runnable task) {
+    Thread result = null;
+    if (this.virtual) {
+      try {
+        final Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), name);
+        result = (Thread) BUILDER_UNSTARTED.invoke(builder, task);
+      } catch (final IllegalAccessException | InvocationTargetException exception) {
+        if (LOGGER.isWarnEnabled()) {
+          LOGGER.warn("create - Unable to create a virtual thread for " + name + ", using a platform thread",
+            exception);
+        }
+      }
+    }
+
+    if (null == result) {
+      result = new Thread(task, name);
+      result.setDaemon(true);
+    }
+
+    return result;
+  }
+}
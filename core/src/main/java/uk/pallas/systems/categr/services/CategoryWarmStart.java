@@ -0,0 +1,238 @@
+package uk.pallas.systems.categr.services;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Keeps a copy of the cached categories in a {@link CategorySnapshotStore} so a new instance can serve reads as soon as
+ * it starts, rather than once it has reached the database. On start the stored copy is handed to the cache, and a
+ * background thread then reconciles it with the backend, retrying until the backend can be reached. Once reconciled
+ * the store is rewritten whenever the cache's content changes (checked every write interval) and when stopped.
+ *
+ * <p>A copy is only written once it has been reconciled, so the store never holds anything the backend has not had.
+ * A store which cannot be read is logged and ignored, the cache then loads from the backend on the first read as
+ * usual.</p>
+ */
+public class CategoryWarmStart implements AutoCloseable {
+
+  /** Static Logger for the class. */
+  private static final Log LOGGER = LogFactory.getLog(CategoryWarmStart.class);
+
+  /** The cache which is warmed and whose content is written. */
+  private final CachingCategoriesDAOService cache;
+
+  /** Where the copy of the categories is kept. */
+  private final CategorySnapshotStore store;
+
+  /** How long to wait before trying to reach the backend again. */
+  private final Duration retryDelay;
+
+  /** How often the cache is checked for content which has not been written. */
+  private final Duration writeInterval;
+
+  /** Number of copies written to the store. */
+  private final AtomicLong writes = new AtomicLong();
+
+  /** Number of times the store could not be read or written. */
+  private final AtomicLong failures = new AtomicLong();
+
+  /** The version of the snapshot last written, only used by the background thread and when stopping. */
+  private long writtenVersion = -1;
+
+  /** Creates the background thread. */
+  private CategoryThreads threads = CategoryThreads.PLATFORM;
+
+  /** Reconciles the cache and writes the copies, null until started. */
+  private Thread writer;
+
+  /** Set once the cache has been reconciled with the backend. */
+  private volatile boolean reconciled;
+
+  /** Set if the cache was started from the stored copy. */
+  private volatile boolean warmed;
+
+  /** Cleared to stop the background thread. */
+  private volatile boolean running;
+
+  /**
+   * Class Constructor, nothing is read or written until started.
+   *
+   * @param categories the cache which is warmed and whose content is written.
+   * @param snapshots where the copy of the categories is kept.
+   * @param retry how long to wait before trying to reach the backend again, at least
+   *              {@link CategoryThreads#MIN_RETRY_DELAY}.
+   * @param interval how often the cache is checked for content which has not been written.
+   */
+  public CategoryWarmStart(final CachingCategoriesDAOService categories, final CategorySnapshotStore snapshots,
+                           final Duration retry, final Duration interval) {
+    if (null == categories || null == snapshots) {
+      throw new IllegalArgumentException("A CachingCategoriesDAOService and CategorySnapshotStore must be supplied");
+    }
+
+    this.cache = categories;
+    this.store = snapshots;
+    this.retryDelay = CategoryThreads.retryDelay(retry);
+    this.writeInterval = null == interval || interval.isNegative() || interval.isZero()
+      ? Duration.ofMinutes(1) : interval;
+  }
+
+  /**
+   * Retrieves what the background thread is created with.
+   * @return never null, platform threads unless something else was set.
+   */
+  public CategoryThreads getThreads() {
+    return this.threads;
+  }
+
+  /**
+   * Sets what the background thread is created with, so it follows the application's threading mode.
+   * @param categoryThreads creates the background thread (null for platform threads).
+   */
+  public void setThreads(final CategoryThreads categoryThreads) {
+    this.threads = null == categoryThreads ? CategoryThreads.PLATFORM : categoryThreads;
+  }
+
+  /**
+   * Hands the stored copy to the cache, then reconciles it and writes new copies on a background thread.
+   */
+  public synchronized void start() {
+    if (null == this.writer) {
+      try {
+        final CategoryLoad stored = this.store.read();
+        if (null == stored) {
+          if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("start - No stored categories, they will be loaded from the backend");
+          }
+        } else if (this.cache.warmStart(stored)) {
+          this.warmed = true;
+          if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("start - Serving " + stored.categories().size() + " stored categories at change "
+              + stored.changeSequence() + " until reconciled with the backend");
+          }
+        }
+      } catch (final IOException | RuntimeException exception) {
+        this.failures.incrementAndGet();
+        if (LOGGER.isWarnEnabled()) {
+          LOGGER.warn("start - Unable to read the stored categories, they will be loaded from the backend",
+            exception);
+        }
+      }
+
+      this.running = true;
+      this.writer = this.getThreads().start("categr-warm-start", this::run);
+    }
+  }
+
+  /**
+   * Stops the background thread and, if the cache has been reconciled, writes its current content.
+   */
+  @Override
+  public synchronized void close() {
+    this.running = false;
+    if (null != this.writer) {
+      try {
+        this.writer.join(CategoryThreads.POLL_MILLIS * 2);
+      } catch (final InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      }
+      if (!this.writer.isAlive() && this.reconciled) {
+        this.write();
+      }
+      this.writer = null;
+    }
+  }
+
+  /**
+   * Checks whether the cache was started from the stored copy.
+   *
+   * @return false if there was no copy, it could not be read or the cache had already loaded.
+   */
+  public boolean isWarmed() {
+    return this.warmed;
+  }
+
+  /**
+   * Checks whether the cache has been reconciled with the backend since starting.
+   *
+   * @return false while the backend has not been reached.
+   */
+  public boolean isReconciled() {
+    return this.reconciled;
+  }
+
+  /**
+   * Retrieves the number of copies written to the store.
+   *
+   * @return zero or more.
+   */
+  public long getWriteCount() {
+    return this.writes.get();
+  }
+
+  /**
+   * Retrieves the number of times the store could not be read or written.
+   *
+   * @return zero or more.
+   */
+  public long getFailureCount() {
+    return this.failures.get();
+  }
+
+  /**
+   * Reconciles the cache, retrying until the backend can be reached, then writes new copies until stopped.
+   */
+  private void run() {
+    while (this.running) {
+      if (!this.reconciled && this.cache.reconcile()) {
+        this.reconciled = true;
+        if (LOGGER.isInfoEnabled()) {
+          LOGGER.info("run - Reconciled the categories with the backend");
+        }
+      }
+
+      if (this.reconciled) {
+        this.write();
+        this.pause(this.writeInterval);
+      } else {
+        this.pause(this.retryDelay);
+      }
+    }
+  }
+
+  /**
+   * Writes the snapshot the cache is serving, unless it has already been written.
+   */
+  private void write() {
+    final CategorySnapshot current = this.cache.peekSnapshot();
+    if (null != current && current.getVersion() != this.writtenVersion) {
+      try {
+        this.store.write(new CategoryLoad(current.getCategories(), current.getChangeSequence()));
+        this.writtenVersion = current.getVersion();
+        this.writes.incrementAndGet();
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug("write - Stored " + current.getCategories().size() + " categories at version "
+            + current.getVersion());
+        }
+      } catch (final IOException | RuntimeException exception) {
+        this.failures.incrementAndGet();
+        if (LOGGER.isWarnEnabled()) {
+          LOGGER.warn("write - Unable to store version " + current.getVersion() + " of the categories", exception);
+        }
+      }
+    }
+  }
+
+  /**
+   * Waits for the supplied time, returning early if stopped.
+   *
+   * @param delay how long to wait.
+   */
+  private void pause(final Duration delay) {
+    if (!CategoryThreads.pause(delay, () -> this.running)) {
+      this.running = false;
+    }
+  }
+}
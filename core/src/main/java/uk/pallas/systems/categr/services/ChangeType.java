@@ -0,0 +1,16 @@
+package uk.pallas.systems.categr.services;
+
+/**
+ * The kinds of change recorded in the category change feed.
+ */
+public enum ChangeType {
+
+  /** The category did not exist before the change. */
+  CREATED,
+
+  /** The category's description or parent was changed. */
+  UPDATED,
+
+  /** The category was removed. */
+  DELETED
+}
@@ -0,0 +1,291 @@
+package uk.pallas.systems.categr.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Sits in front of another CategoryItemsService and answers every read from an immutable {@link CategoryItemIndex},
+ * which holds a compressed bitmap per category, so item queries never reach the backend unless the index has expired
+ * or been invalidated. Writes go straight to the backend and then discard the index, in the same way as
+ * {@link CachingCategoriesDAOService} treats its snapshot.
+ */
+public class IndexedCategoryItemsService implements CategoryItemsService {
+
+  /** Static Logger for the class. */
+  private static final Log LOGGER = LogFactory.getLog(IndexedCategoryItemsService.class);
+
+  /** The backend the index is loaded from. */
+  private final CategoryItemsService delegate;
+
+  /** How long an index can be served before it is reloaded from the backend. */
+  private final long refreshIntervalNanos;
+
+  /** Source of the current time, as per {@link System#nanoTime()}. */
+  private final LongSupplier clock;
+
+  /** Ensures only a single thread reloads the index at any one time. */
+  private final ReentrantLock reloadLock = new ReentrantLock();
+
+  /** Number of item queries answered from the index. */
+  private final AtomicLong queries = new AtomicLong();
+
+  /** Number of times the index was (re)loaded from the backend. */
+  private final AtomicLong refreshes = new AtomicLong();
+
+  /** The index currently being served, null if nothing is loaded or it has been invalidated. */
+  private volatile CategoryItemIndex index;
+
+  /**
+   * Class Constructor.
+   *
+   * @param backend the service the tags are loaded from.
+   * @param refreshInterval how long an index is served before it is reloaded (null or zero never reloads).
+   */
+  public IndexedCategoryItemsService(final CategoryItemsService backend, final Duration refreshInterval) {
+    this(backend, refreshInterval, System::nanoTime);
+  }
+
+  /**
+   * Class Constructor which allows the clock to be replaced.
+   *
+   * @param backend the service the tags are loaded from.
+   * @param refreshInterval how long an index is served before it is reloaded (null or zero never reloads).
+   * @param nanoClock source of the current time, as per {@link System#nanoTime()}.
+   */
+  IndexedCategoryItemsService(final CategoryItemsService backend, final Duration refreshInterval,
+                              final LongSupplier nanoClock) {
+    if (null == backend) {
+      throw new IllegalArgumentException("A backend CategoryItemsService must be supplied");
+    }
+
+    this.delegate = backend;
+    this.refreshIntervalNanos = null == refreshInterval || refreshInterval.isNegative() ? 0
+      : refreshInterval.toNanos();
+    this.clock = nanoClock;
+  }
+
+  /**
+   * Retrieves the backend the index is loaded from.
+   *
+   * @return never null.
+   */
+  public CategoryItemsService getDelegate() {
+    return this.delegate;
+  }
+
+  /**
+   * Retrieves the categories an item is tagged with from the index.
+   *
+   * @param item the ID of the item.
+   * @return the category names ordered by name, empty if the item has no tags.
+   */
+  @Override
+  public List<String> findCategories(final String item) {
+    return this.getIndex().getCategories(item);
+  }
+
+  /**
+   * Retrieves a page of the items tagged with all, or any, of the supplied categories by combining their bitmaps.
+   *
+   * @param categories the names of the categories to match (null and blank names are ignored).
+   * @param match how the categories are combined (null is treated as all).
+   * @param after the ID of the last item on the previous page (null or empty for the first page).
+   * @param limit the maximum number of items to return.
+   * @return up to limit item IDs ordered by ID, empty if there are no more (or no categories were supplied).
+   */
+  @Override
+  public List<String> findItems(final Collection<String> categories, final ItemMatch match, final String after,
+                                final int limit) {
+    this.queries.incrementAndGet();
+    return this.getIndex().getItems(categories, match, after, limit);
+  }
+
+  /**
+   * Counts the items tagged with all, or any, of the supplied categories by combining their bitmaps.
+   *
+   * @param categories the names of the categories to match (null and blank names are ignored).
+   * @param match how the categories are combined (null is treated as all).
+   * @return zero or more.
+   */
+  @Override
+  public long countItems(final Collection<String> categories, final ItemMatch match) {
+    this.queries.incrementAndGet();
+    return this.getIndex().countItems(categories, match);
+  }
+
+  /**
+   * Replaces the categories an item is tagged with in the backend and then discards the index.
+   *
+   * @param item the ID of the item.
+   * @param categories the names of the categories the item is now tagged with, an empty collection removes the item.
+   * @return the number of categories the item is now tagged with.
+   * @throws CategoryNotFoundException if any of the categories do not exist, the item's tags are left as they were.
+   */
+  @Override
+  public int setCategories(final String item, final Collection<String> categories) {
+    try {
+      return this.delegate.setCategories(item, categories);
+    } finally {
+      this.invalidate();
+    }
+  }
+
+  /**
+   * Removes every tag from an item in the backend and then discards the index.
+   *
+   * @param item the ID of the item.
+   * @return false if the item had no tags.
+   */
+  @Override
+  public boolean removeItem(final String item) {
+    try {
+      return this.delegate.removeItem(item);
+    } finally {
+      this.invalidate();
+    }
+  }
+
+  /**
+   * Passes every tag to the supplied consumer, the tags are always read from the backend.
+   *
+   * @param consumer called with the item ID and category name of each tag.
+   */
+  @Override
+  public void forEachTag(final BiConsumer<String, String> consumer) {
+    this.delegate.forEachTag(consumer);
+  }
+
+  /**
+   * Retrieves the index to serve reads from, loading it if there is no index and reloading it if it has expired. When
+   * an expired index is being reloaded by another thread the expired index is served rather than waiting.
+   *
+   * @return never null.
+   */
+  public CategoryItemIndex getIndex() {
+    CategoryItemIndex current = this.index;
+
+    if (null == current) {
+      this.reloadLock.lock();
+      try {
+        current = this.index;
+        if (null == current) {
+          current = this.reload(null);
+        }
+      } finally {
+        this.reloadLock.unlock();
+      }
+    } else if (this.isExpired(current) && this.reloadLock.tryLock()) {
+      try {
+        if (this.index == current) {
+          current = this.reload(current);
+        } else if (null != this.index) {
+          current = this.index;
+        }
+      } finally {
+        this.reloadLock.unlock();
+      }
+    }
+
+    return current;
+  }
+
+  /**
+   * Retrieves the index currently being served without loading or refreshing it, e.g. for reporting.
+   *
+   * @return null if no index is loaded.
+   */
+  public CategoryItemIndex peekIndex() {
+    return this.index;
+  }
+
+  /**
+   * Discards the current index, the next read will load a new one from the backend.
+   */
+  public void invalidate() {
+    this.reloadLock.lock();
+    try {
+      this.index = null;
+    } finally {
+      this.reloadLock.unlock();
+    }
+  }
+
+  /**
+   * Retrieves the number of item queries answered from the index.
+   *
+   * @return zero or more.
+   */
+  public long getQueryCount() {
+    return this.queries.get();
+  }
+
+  /**
+   * Retrieves the number of times the index has been (re)loaded from the backend.
+   *
+   * @return zero or more.
+   */
+  public long getRefreshCount() {
+    return this.refreshes.get();
+  }
+
+  /**
+   * Checks whether the supplied index has been served for longer than the refresh interval.
+   *
+   * @param current the index to check.
+   * @return false if the index can still be served.
+   */
+  private boolean isExpired(final CategoryItemIndex current) {
+    return this.refreshIntervalNanos > 0
+      && this.clock.getAsLong() - current.getLoadedAt() >= this.refreshIntervalNanos;
+  }
+
+  /**
+   * Loads the tags from the backend and swaps in the new index, must be called holding the reload lock. If the backend
+   * fails and there is a previous index, the previous index is kept (and served until the next refresh interval).
+   *
+   * @param previous the index being replaced (null if there isn't one).
+   * @return the index now being served.
+   */
+  private CategoryItemIndex reload(final CategoryItemIndex previous) {
+    final long now = this.clock.getAsLong();
+
+    CategoryItemIndex result;
+    try {
+      final Map<String, List<String>> tags = new HashMap<>();
+      this.delegate.forEachTag((item, category) -> tags.computeIfAbsent(item, key -> new ArrayList<>(2))
+        .add(category));
+      result = new CategoryItemIndex(tags, now);
+      if (result.hasSameContent(previous)) {
+        result = previous.touch(now);
+      }
+      this.refreshes.incrementAndGet();
+
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("reload - Indexed " + result.getTagCount() + " tags across " + result.getItemCount()
+          + " items and " + result.getCategoryCount() + " categories");
+      }
+    } catch (final RuntimeException exception) {
+      if (null == previous) {
+        throw exception;
+      }
+
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("reload - Unable to refresh the item tags, continuing with the previous index", exception);
+      }
+      result = previous.touch(now);
+    }
+
+    this.index = result;
+    return result;
+  }
+}
@@ -0,0 +1,13 @@
+package uk.pallas.systems.categr.services;
+
+/**
+ * The ways the categories in an item query are combined.
+ */
+public enum ItemMatch {
+
+  /** The item is tagged with every one of the categories. */
+  ALL,
+
+  /** The item is tagged with at least one of the categories. */
+  ANY
+}
@@ -0,0 +1,58 @@
+package uk.pallas.systems.categr.services;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Holds an index (or anything else costly to build) which is built the first time it is asked for and then shared by
+ * every caller. Callers arriving while it is being built wait for that build rather than starting their own.
+ *
+ * @param <T> the type of the index.
+ */
+public final class LazyIndex<T> {
+
+  /** Builds the index, only called once. */
+  private final Supplier<? extends T> builder;
+
+  /**
+   * Guards building the index, a lock rather than synchronized so a virtual thread waiting on another caller's build
+   * parks instead of pinning its carrier thread.
+   */
+  private final Lock lock = new ReentrantLock();
+
+  /** The index, null until it has been built. */
+  private volatile T value;
+
+  /**
+   * Class Constructor.
+   *
+   * @param build builds the index the first time it is asked for, must not return null.
+   */
+  public LazyIndex(final Supplier<? extends T> build) {
+    this.builder = build;
+  }
+
+  /**
+   * Retrieves the index, building it if this is the first time it has been asked for.
+   *
+   * @return never null.
+   */
+  public T get() {
+    T result = this.value;
+    if (null == result) {
+      this.lock.lock();
+      try {
+        result = this.value;
+        if (null == result) {
+          result = this.builder.get();
+          this.value = result;
+        }
+      } finally {
+        this.lock.unlock();
+      }
+    }
+
+    return result;
+  }
+}
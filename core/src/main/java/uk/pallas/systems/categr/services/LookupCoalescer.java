@@ -0,0 +1,239 @@
+package uk.pallas.systems.categr.services;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Sits in front of a slow single key lookup (e.g. a database query by primary key). Concurrent lookups of the same key
+ * share one call to the loader rather than each making their own, and keys the loader could not find are remembered
+ * for a short time so a client asking for the same missing name over and over costs a map lookup rather than a query.
+ *
+ * <p>Nothing is locked, the in flight and missing keys are held in concurrent maps. Keys written to the backend must be
+ * passed to {@link #forget(Collection)} once the write is visible, which also stops any lookup already in flight from
+ * remembering a miss it read before the write.</p>
+ *
+ * @param <V> the type of value being looked up.
+ */
+public final class LookupCoalescer<V> {
+
+  /** The default number of missing keys remembered. */
+  public static final int DEFAULT_MAX_MISSES = 10_000;
+
+  /** Lookups currently calling the loader keyed on what they are looking up, later callers wait on these. */
+  private final ConcurrentMap<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+  /** Keys the loader could not find, mapped to the clock reading at which they should be looked up again. */
+  private final ConcurrentMap<String, Long> misses = new ConcurrentHashMap<>();
+
+  /** Moved on every time keys are forgotten, a lookup which sees it move does not remember its miss. */
+  private final AtomicLong generation = new AtomicLong();
+
+  /** Number of lookups which waited for another caller's lookup rather than calling the loader. */
+  private final AtomicLong coalesced = new AtomicLong();
+
+  /** Number of lookups answered from the remembered misses. */
+  private final AtomicLong cachedMisses = new AtomicLong();
+
+  /** The most missing keys remembered at once. */
+  private final int maxMisses;
+
+  /** Supplies the current time in nanoseconds. */
+  private final LongSupplier clock;
+
+  /**
+   * Class Constructor, remembering up to {@link #DEFAULT_MAX_MISSES} missing keys.
+   */
+  public LookupCoalescer() {
+    this(DEFAULT_MAX_MISSES, System::nanoTime);
+  }
+
+  /**
+   * Class Constructor.
+   *
+   * @param maximum the most missing keys remembered at once (zero or less remembers none).
+   * @param nanoClock supplies the current time in nanoseconds (null uses {@link System#nanoTime()}).
+   */
+  public LookupCoalescer(final int maximum, final LongSupplier nanoClock) {
+    this.maxMisses = Math.max(0, maximum);
+    this.clock = null == nanoClock ? System::nanoTime : nanoClock;
+  }
+
+  /**
+   * Looks up a key, sharing the call to the loader with any other caller already looking up the same key.
+   *
+   * @param key the key to look up (must not be null).
+   * @param loader called with the key if it is not already being looked up, returns null if it cannot be found.
+   * @param missTtl how long a key the loader could not find is remembered (null or zero does not remember it).
+   * @return null if the key could not be found.
+   * @throws RuntimeException whatever the loader threw, to every caller sharing the lookup.
+   */
+  public V get(final String key, final Function<String, V> loader, final Duration missTtl) {
+    V result = null;
+
+    if (this.isKnownMissing(key)) {
+      this.cachedMisses.incrementAndGet();
+    } else {
+      final CompletableFuture<V> mine = new CompletableFuture<>();
+      final CompletableFuture<V> existing = this.inFlight.putIfAbsent(key, mine);
+      if (null == existing) {
+        result = this.load(key, loader, missTtl, mine);
+      } else {
+        this.coalesced.incrementAndGet();
+        result = join(existing);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Forgets any remembered misses for the supplied keys, call once a write of them is visible to the loader.
+   *
+   * @param keys the keys which have been written (null is ignored).
+   */
+  public void forget(final Collection<String> keys) {
+    this.generation.incrementAndGet();
+    if (null != keys) {
+      keys.forEach(key -> {
+        if (null != key) {
+          this.misses.remove(key);
+        }
+      });
+    }
+  }
+
+  /**
+   * Retrieves the number of lookups which shared another caller's call to the loader.
+   *
+   * @return zero or more.
+   */
+  public long getCoalescedCount() {
+    return this.coalesced.get();
+  }
+
+  /**
+   * Retrieves the number of lookups answered from the remembered misses without calling the loader.
+   *
+   * @return zero or more.
+   */
+  public long getCachedMissCount() {
+    return this.cachedMisses.get();
+  }
+
+  /**
+   * Retrieves the number of missing keys currently remembered, including any which have expired but not been swept.
+   *
+   * @return zero or more.
+   */
+  public int getMissCount() {
+    return this.misses.size();
+  }
+
+  /**
+   * Calls the loader on behalf of every caller waiting on the supplied future.
+   *
+   * @param key the key to look up.
+   * @param loader called with the key.
+   * @param missTtl how long to remember the key if it cannot be found.
+   * @param mine the future other callers are waiting on.
+   * @return null if the key could not be found.
+   */
+  private V load(final String key, final Function<String, V> loader, final Duration missTtl,
+                 final CompletableFuture<V> mine) {
+    final long started = this.generation.get();
+    try {
+      final V result = loader.apply(key);
+      if (null == result) {
+        this.rememberMiss(key, missTtl, started);
+      }
+      mine.complete(result);
+      return result;
+    } catch (final RuntimeException | Error exception) {
+      mine.completeExceptionally(exception);
+      throw exception;
+    } finally {
+      this.inFlight.remove(key, mine);
+    }
+  }
+
+  /**
+   * Checks whether a key was recently found to be missing, dropping it if it has expired.
+   *
+   * @param key the key to check.
+   * @return true if the key is remembered as missing.
+   */
+  private boolean isKnownMissing(final String key) {
+    boolean result = false;
+
+    final Long expires = this.misses.get(key);
+    if (null != expires) {
+      if (this.clock.getAsLong() - expires < 0) {
+        result = true;
+      } else {
+        this.misses.remove(key, expires);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Remembers a key the loader could not find, unless keys were forgotten while it was being looked up (the miss may
+   * predate a write). When the table is full the expired keys are swept out, and if that does not make room it is
+   * emptied, so a client asking for endless different names costs queries rather than memory.
+   *
+   * @param key the key which could not be found.
+   * @param missTtl how long to remember it (null or zero does not remember it).
+   * @param started the generation when the lookup began.
+   */
+  private void rememberMiss(final String key, final Duration missTtl, final long started) {
+    if (null != missTtl && !missTtl.isNegative() && !missTtl.isZero() && this.maxMisses > 0) {
+      final long now = this.clock.getAsLong();
+      if (this.misses.size() >= this.maxMisses) {
+        this.misses.values().removeIf(expires -> now - expires >= 0);
+        if (this.misses.size() >= this.maxMisses) {
+          this.misses.clear();
+        }
+      }
+
+      // Checked again after the put, a forget which lands in between would otherwise leave a stale miss behind.
+      final Long expires = now + missTtl.toNanos();
+      if (started == this.generation.get()) {
+        this.misses.put(key, expires);
+        if (started != this.generation.get()) {
+          this.misses.remove(key, expires);
+        }
+      }
+    }
+  }
+
+  /**
+   * Waits for another caller's lookup to finish.
+   *
+   * @param <V> the type of value being looked up.
+   * @param future the lookup being waited on.
+   * @return null if the key could not be found.
+   * @throws RuntimeException whatever the loader threw.
+   */
+  private static <V> V join(final CompletableFuture<V> future) {
+    try {
+      return future.join();
+    } catch (final CompletionException exception) {
+      final Throwable cause = exception.getCause();
+      if (cause instanceof RuntimeException runtime) {
+        throw runtime;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw exception;
+    }
+  }
+}
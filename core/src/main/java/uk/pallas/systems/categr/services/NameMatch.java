@@ -0,0 +1,16 @@
+package uk.pallas.systems.categr.services;
+
+/**
+ * The ways a search term can be matched against category names, all matching ignores case.
+ */
+public enum NameMatch {
+
+  /** The category name starts with the search term. */
+  PREFIX,
+
+  /** The category name contains the search term anywhere within it. */
+  CONTAINS,
+
+  /** The category name is within a number of single character edits (Levenshtein distance) of the search term. */
+  FUZZY
+}
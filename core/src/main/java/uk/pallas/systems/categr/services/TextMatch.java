@@ -0,0 +1,93 @@
+package uk.pallas.systems.categr.services;
+
+import java.util.Objects;
+import uk.pallas.systems.categr.entities.v1.Category;
+
+/**
+ * A single category matched by a full text search of the descriptions, along with how relevant it is and a snippet of
+ * the description showing where the search terms were found.
+ */
+public final class TextMatch {
+
+  /** The category which matched. */
+  private final Category category;
+
+  /** The relevance score (BM25) of the category, higher is more relevant. */
+  private final double score;
+
+  /** Part of the description, HTML escaped, with the matching terms wrapped in em tags. */
+  private final String highlight;
+
+  /**
+   * Class Constructor.
+   *
+   * @param matched the category which matched.
+   * @param relevance the relevance score of the category.
+   * @param snippet part of the description, HTML escaped, with the matching terms wrapped in em tags.
+   */
+  public TextMatch(final Category matched, final double relevance, final String snippet) {
+    this.category = matched;
+    this.score = relevance;
+    this.highlight = snippet;
+  }
+
+  /**
+   * Compares the supplied object to this one.
+   *
+   * @param toCompare the object to compare (can be null or a child class, etc..)
+   * @return false if the category, score or highlight differ.
+   */
+  @Override
+  public boolean equals(final Object toCompare) {
+
+    final boolean result;
+    if (this == toCompare) {
+      result = true;
+    } else if (toCompare instanceof TextMatch that) {
+      result = Double.compare(this.getScore(), that.getScore()) == 0
+        && Objects.equals(this.getCategory(), that.getCategory())
+        && Objects.equals(this.getHighlight(), that.getHighlight());
+    } else {
+      result = false;
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates a Unique hashcode for the TextMatch class.
+   *
+   * @return a valid integer representation of this object,
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.getCategory(), this.getScore(), this.getHighlight());
+  }
+
+  /**
+   * Retrieves the category which matched.
+   *
+   * @return should never be null.
+   */
+  public Category getCategory() {
+    return this.category;
+  }
+
+  /**
+   * Retrieves the relevance score of the category.
+   *
+   * @return a positive number, higher is more relevant.
+   */
+  public double getScore() {
+    return this.score;
+  }
+
+  /**
+   * Retrieves part of the description, HTML escaped, with the matching terms wrapped in em tags.
+   *
+   * @return should never be null.
+   */
+  public String getHighlight() {
+    return this.highlight;
+  }
+}
@@ -0,0 +1,426 @@
+package uk.pallas.systems.categr.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.entities.v1.CategoryRecord;
+
+/**
+ * This is a test class designed to check the snapshot cache only goes to the backend when it needs to.
+ */
+class CachingCategoriesDAOServiceTest {
+
+  /** Public Constructor. */
+  public CachingCategoriesDAOServiceTest() {}
+
+  @Test
+  void testReadsServedFromSnapshot() {
+    final StubService backend = new StubService();
+    backend.data.add(new StubCategory("Edge", "CachingCategoriesDAOServiceTest-testReadsServedFromSnapshot"));
+    final CachingCategoriesDAOService cache = new CachingCategoriesDAOService(backend, Duration.ofMinutes(1));
+
+    Assertions.assertEquals(1, cache.findAll().size());
+    Assertions.assertNotNull(cache.findByName("Edge"));
+    Assertions.assertNull(cache.findByName("Missing"));
+    Assertions.assertNull(cache.findByName(null));
+
+    Assertions.assertEquals(1, backend.loads.get());
+    Assertions.assertEquals(1, cache.getHitCount());
+    Assertions.assertEquals(2, cache.getMissCount());
+    Assertions.assertEquals(1, cache.getRefreshCount());
+  }
+
+  @Test
+  void testFindByNames() {
+    final StubService backend = new StubService();
+    backend.data.add(new StubCategory("Edge", "CachingCategoriesDAOServiceTest-testFindByNames"));
+    backend.data.add(new StubCategory("Land", "CachingCategoriesDAOServiceTest-testFindByNames"));
+    final CachingCategoriesDAOService cache = new CachingCategoriesDAOService(backend, Duration.ofMinutes(1));
+
+    final List<String> names = new ArrayList<>(List.of("Edge", "Land", "Edge", "Missing", "", "  "));
+    names.add(null);
+    final Map<String, Category> found = cache.findByNames(names);
+    Assertions.assertEquals(Set.of("Edge", "Land"), found.keySet());
+    Assertions.assertEquals("Land", found.get("Land").getName());
+    Assertions.assertTrue(cache.findByNames(null).isEmpty());
+
+    Assertions.assertEquals(1, backend.loads.get());
+    Assertions.assertEquals(2, cache.getHitCount());
+    Assertions.assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  void testReadsTimed() {
+    final StubService backend = new StubService();
+    backend.data.add(new StubCategory("Edge", "CachingCategoriesDAOServiceTest-testReadsTimed"));
+    final CachingCategoriesDAOService cache = new CachingCategoriesDAOService(backend, Duration.ofMinutes(1));
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    cache.setMeterRegistry(registry);
+
+    Assertions.assertNotNull(cache.findByName("Edge"));
+    Assertions.assertNull(cache.findByName("Missing"));
+    Assertions.assertEquals(1, cache.findPage(null, 5).size());
+    Assertions.assertEquals(2, registry.get(CachingCategoriesDAOService.METRIC_REQUESTS)
+      .tag(CachingCategoriesDAOService.TAG_OPERATION, "findByName").timer().count());
+    Assertions.assertEquals(1, registry.get(CachingCategoriesDAOService.METRIC_REQUESTS)
+      .tag(CachingCategoriesDAOService.TAG_OPERATION, "findPage").timer().count());
+    Assertions.assertEquals(0, registry.get(CachingCategoriesDAOService.METRIC_REQUESTS)
+      .tag(CachingCategoriesDAOService.TAG_OPERATION, "findAll").timer().count());
+
+    // A read which fails is still timed.
+    backend.broken = true;
+    cache.invalidate();
+    Assertions.assertThrows(IllegalStateException.class, () -> cache.findAll());
+    Assertions.assertEquals(1, registry.get(CachingCategoriesDAOService.METRIC_REQUESTS)
+      .tag(CachingCategoriesDAOService.TAG_OPERATION, "findAll").timer().count());
+
+    cache.setMeterRegistry(null);
+    backend.broken = false;
+    cache.findAll();
+    Assertions.assertEquals(1, registry.get(CachingCategoriesDAOService.METRIC_REQUESTS)
+      .tag(CachingCategoriesDAOService.TAG_OPERATION, "findAll").timer().count());
+  }
+
+  @Test
+  void testSnapshotHoldsSharedRecords() {
+    // A parent read from the database is a different String instance to the parent's own name.
+    final String parent = new String("Shape".toCharArray());
+    final CategorySnapshot snapshot = new CategorySnapshot(List.of(new StubCategory("Shape", "A shape"),
+      new CategoryRecord("Edge", "An edge", parent, 3)), 1, System.nanoTime());
+
+    final Category shape = snapshot.getByName("Shape");
+    final Category edge = snapshot.getByName("Edge");
+    Assertions.assertInstanceOf(CategoryRecord.class, shape);
+    Assertions.assertSame(shape.getName(), edge.getParent());
+    Assertions.assertEquals(new CategoryRecord("Edge", "An edge", "Shape", 3), edge);
+    Assertions.assertSame(edge, snapshot.getCategories().get(0));
+  }
+
+  @Test
+  void testExpiredSnapshotReloaded() {
+    final StubService backend = new StubService();
+    backend.data.add(new StubCategory("Edge", "CachingCategoriesDAOServiceTest-testExpiredSnapshotReloaded"));
+    final AtomicLong clock = new AtomicLong();
+    final CachingCategoriesDAOService cache = new CachingCategoriesDAOService(backend, Duration.ofNanos(10),
+      clock::get);
+
+    final long version = cache.getSnapshot().getVersion();
+    clock.addAndGet(5);
+    cache.findAll();
+    Assertions.assertEquals(1, backend.loads.get());
+
+    clock.addAndGet(5);
+    cache.findAll();
+    Assertions.assertEquals(2, backend.loads.get());
+    Assertions.assertEquals(version, cache.getSnapshot().getVersion());
+
+    backend.data.add(new StubCategory("Location", "CachingCategoriesDAOServiceTest-testExpiredSnapshotReloaded"));
+    clock.addAndGet(10);
+    Assertions.assertEquals(2, cache.findAll().size());
+    Assertions.assertTrue(cache.getSnapshot().getVersion() > version);
+  }
+
+  @Test
+  void testInvalidate() {
+    final StubService backend = new StubService();
+    final CachingCategoriesDAOService cache = new CachingCategoriesDAOService(backend, Duration.ZERO);
+
+    Assertions.assertTrue(cache.findAll().isEmpty());
+    final long version = cache.getSnapshot().getVersion();
+
+    backend.data.add(new StubCategory("Edge", "CachingCategoriesDAOServiceTest-testInvalidate"));
+    Assertions.assertTrue(cache.findAll().isEmpty());
+
+    cache.invalidate();
+    Assertions.assertNotNull(cache.findByName("Edge"));
+    Assertions.assertEquals(2, backend.loads.get());
+    Assertions.assertTrue(cache.getSnapshot().getVersion() > version);
+  }
+
+  @Test
+  void testFailedRefreshKeepsSnapshot() {
+    final StubService backend = new StubService();
+    backend.data.add(new StubCategory("Edge", "CachingCategoriesDAOServiceTest-testFailedRefreshKeepsSnapshot"));
+    final CachingCategoriesDAOService cache = new CachingCategoriesDAOService(backend, Duration.ZERO);
+
+    cache.findAll();
+    backend.broken = true;
+    cache.refresh();
+    Assertions.assertNotNull(cache.findByName("Edge"));
+  }
+
+  @Test
+  void testFindPage() {
+    final StubService backend = new StubService();
+    for (final String name : List.of("Space", "Air", "Land", "Edge")) {
+      backend.data.add(new StubCategory(name, "CachingCategoriesDAOServiceTest-testFindPage"));
+    }
+    final CachingCategoriesDAOService cache = new CachingCategoriesDAOService(backend, Duration.ZERO);
+
+    Assertions.assertEquals(List.of("Air", "Edge"), cache.findPage(null, 2).stream().map(Category::getName).toList());
+    Assertions.assertEquals(List.of("Land", "Space"),
+      cache.findPage("Edge", 5).stream().map(Category::getName).toList());
+    Assertions.assertEquals(List.of("Edge"), cache.findPage("Do", 1).stream().map(Category::getName).toList());
+    Assertions.assertTrue(cache.findPage("Space", 5).isEmpty());
+  }
+
+  @Test
+  void testUpsertInvalidates() {
+    final StubService backend = new StubService();
+    final CachingCategoriesDAOService cache = new CachingCategoriesDAOService(backend, Duration.ZERO);
+
+    Assertions.assertNull(cache.findByName("Edge"));
+    Assertions.assertEquals(1, cache.upsertAll(List.of(new StubCategory("Edge",
+      "CachingCategoriesDAOServiceTest-testUpsertInvalidates"))));
+    Assertions.assertNotNull(cache.findByName("Edge"));
+    Assertions.assertEquals(2, backend.loads.get());
+  }
+
+  @Test
+  void testImportInvalidatesOnce() {
+    final StubService backend = new StubService();
+    final CachingCategoriesDAOService cache = new CachingCategoriesDAOService(backend, Duration.ZERO);
+
+    Assertions.assertNull(cache.findByName("Edge"));
+    Assertions.assertEquals(1, cache.importBatch(List.of(new StubCategory("Edge"))));
+    Assertions.assertEquals(1, cache.importBatch(List.of(new StubCategory("Land"))));
+    // The batches are not read back until the import has finished.
+    Assertions.assertNull(cache.findByName("Edge"));
+    Assertions.assertEquals(1, backend.loads.get());
+
+    cache.importFinished();
+    Assertions.assertNotNull(cache.findByName("Edge"));
+    Assertions.assertNotNull(cache.findByName("Land"));
+    Assertions.assertEquals(2, backend.loads.get());
+
+    // Nothing was written by this import, so the snapshot is kept.
+    cache.importFinished();
+    Assertions.assertNotNull(cache.findByName("Edge"));
+    Assertions.assertEquals(2, backend.loads.get());
+  }
+
+  @Test
+  void testApplyChanges() {
+    final StubService backend = new StubService();
+    backend.data.add(new StubCategory("Edge", "CachingCategoriesDAOServiceTest-testApplyChanges"));
+    backend.data.add(new StubCategory("Land", "CachingCategoriesDAOServiceTest-testApplyChanges"));
+    backend.recordChanges = true;
+    final CachingCategoriesDAOService cache = new CachingCategoriesDAOService(backend, Duration.ZERO);
+
+    // Nothing loaded, so there is nothing to bring up to date.
+    Assertions.assertTrue(cache.applyChanges(1));
+    final long version = cache.getSnapshot().getVersion();
+
+    // Another instance creates one category and deletes another.
+    final StubCategory air = new StubCategory("Air", "CachingCategoriesDAOServiceTest-testApplyChanges");
+    backend.changes.add(new CategoryChange(1, ChangeType.CREATED, "Air", air));
+    backend.changes.add(new CategoryChange(2, ChangeType.DELETED, "Land", null));
+    Assertions.assertTrue(cache.applyChanges(2));
+    Assertions.assertNotNull(cache.findByName("Air"));
+    Assertions.assertNull(cache.findByName("Land"));
+    Assertions.assertEquals(List.of("Air", "Edge"), cache.findAll().stream().map(Category::getName).toList());
+    Assertions.assertTrue(cache.getSnapshot().getVersion() > version);
+    Assertions.assertEquals(2, cache.getSnapshot().getChangeSequence());
+    Assertions.assertEquals(1, backend.loads.get());
+    Assertions.assertEquals(1, cache.getPartialRefreshCount());
+
+    // Already applied, so the change feed is not read again.
+    Assertions.assertTrue(cache.applyChanges(2));
+    Assertions.assertEquals(1, cache.getPartialRefreshCount());
+
+    // A gap in the feed means changes were lost, so everything is reloaded.
+    backend.changes.add(new CategoryChange(4, ChangeType.DELETED, "Edge", null));
+    Assertions.assertFalse(cache.applyChanges(4));
+    Assertions.assertNull(cache.peekSnapshot());
+    cache.findAll();
+    Assertions.assertEquals(2, backend.loads.get());
+  }
+
+  @Test
+  void testWriteReadBackFromPrimary() {
+    final StubService backend = new StubService();
+    backend.data.add(new StubCategory("Edge", "CachingCategoriesDAOServiceTest-testWriteReadBackFromPrimary"));
+    backend.recordChanges = true;
+    final CachingCategoriesDAOService cache = new CachingCategoriesDAOService(backend, Duration.ZERO);
+    cache.findAll();
+
+    // The replica stops applying changes, so loading every category would miss anything written from now on.
+    backend.replica = new CategoryLoad(new ArrayList<>(backend.data), backend.getLatestChange());
+    cache.create(new StubCategory("Air", "CachingCategoriesDAOServiceTest-testWriteReadBackFromPrimary"));
+    Assertions.assertNotNull(cache.findByName("Air"));
+    Assertions.assertEquals(1, backend.loads.get());
+    Assertions.assertEquals(1, cache.getPartialRefreshCount());
+
+    // A snapshot loaded from the lagging replica is caught up with the write from the primary's change feed.
+    cache.invalidate();
+    Assertions.assertNotNull(cache.findByName("Air"));
+    Assertions.assertEquals(List.of("Air", "Edge"), cache.findAll().stream().map(Category::getName).toList());
+    Assertions.assertEquals(1, cache.getSnapshot().getChangeSequence());
+    Assertions.assertEquals(2, backend.loads.get());
+
+    // Once the replica has caught up it is used as it is.
+    backend.replica = null;
+    cache.invalidate();
+    Assertions.assertNotNull(cache.findByName("Air"));
+    Assertions.assertEquals(2, cache.getPartialRefreshCount());
+  }
+
+  @Test
+  void testApplyChangesUnversioned() {
+    final StubService backend = new StubService();
+    final CachingCategoriesDAOService cache = new CachingCategoriesDAOService(backend, Duration.ZERO);
+
+    cache.findAll();
+    Assertions.assertFalse(cache.applyChanges(1));
+    Assertions.assertNull(cache.peekSnapshot());
+  }
+
+  @Test
+  void testWarmStartReconciled() {
+    final StubService backend = new StubService();
+    backend.data.add(new StubCategory("Edge", "CachingCategoriesDAOServiceTest-testWarmStartReconciled"));
+    backend.data.add(new StubCategory("Land", "CachingCategoriesDAOServiceTest-testWarmStartReconciled"));
+    backend.recordChanges = true;
+    backend.broken = true;
+    final CachingCategoriesDAOService cache = new CachingCategoriesDAOService(backend, Duration.ZERO);
+
+    // The stored copy is served while the backend is down.
+    Assertions.assertTrue(cache.warmStart(new CategoryLoad(new ArrayList<>(backend.data), 0)));
+    Assertions.assertFalse(cache.warmStart(new CategoryLoad(List.of(), 0)));
+    Assertions.assertFalse(cache.reconcile());
+    Assertions.assertEquals(List.of("Edge", "Land"), cache.findAll().stream().map(Category::getName).toList());
+
+    // Once the backend is back only the changes made since the copy was stored are read.
+    backend.broken = false;
+    final StubCategory air = new StubCategory("Air", "CachingCategoriesDAOServiceTest-testWarmStartReconciled");
+    backend.data.add(air);
+    backend.changes.add(new CategoryChange(1, ChangeType.CREATED, "Air", air));
+    Assertions.assertTrue(cache.reconcile());
+    Assertions.assertEquals(List.of("Air", "Edge", "Land"),
+      cache.findAll().stream().map(Category::getName).toList());
+    Assertions.assertEquals(0, backend.loads.get());
+    Assertions.assertEquals(1, cache.getPartialRefreshCount());
+
+    // A backend behind the snapshot, e.g. restored from a backup, is reloaded in full.
+    backend.data.remove(air);
+    backend.changes.clear();
+    Assertions.assertTrue(cache.reconcile());
+    Assertions.assertEquals(List.of("Edge", "Land"), cache.findAll().stream().map(Category::getName).toList());
+    Assertions.assertEquals(1, backend.loads.get());
+  }
+
+  @Test
+  void testLoadStagesObserved() {
+    final StubService backend = new StubService();
+    backend.data.add(new StubCategory("Edge", "CachingCategoriesDAOServiceTest-testLoadStagesObserved"));
+    final CachingCategoriesDAOService cache = new CachingCategoriesDAOService(backend, Duration.ZERO);
+
+    final List<String> stages = new ArrayList<>();
+    final ObservationRegistry registry = ObservationRegistry.create();
+    registry.observationConfig().observationHandler(new ObservationHandler<>() {
+      @Override
+      public void onStop(final Observation.Context context) {
+        stages.add(context.getLowCardinalityKeyValue(CategoryStages.STAGE_KEY).getValue());
+      }
+
+      @Override
+      public boolean supportsContext(final Observation.Context context) {
+        return CategoryStages.OBSERVATION.equals(context.getName());
+      }
+    });
+    cache.setObservationRegistry(registry);
+
+    Assertions.assertNotNull(cache.findByName("Edge"));
+    Assertions.assertEquals(List.of(CategoryStages.CACHE_LOAD, CategoryStages.CACHE_BUILD), stages);
+
+    // Reads served from the snapshot have no stages of their own.
+    Assertions.assertNotNull(cache.findByName("Edge"));
+    Assertions.assertEquals(2, stages.size());
+  }
+
+  /**
+   * Backend which counts how often it is asked for data.
+   */
+  private static final class StubService implements CategoriesDAOService {
+    /** The categories to return. */
+    private final List<Category> data = new ArrayList<>();
+    /** Number of times findAll was called. */
+    private final AtomicInteger loads = new AtomicInteger();
+    /** Whether findAll should fail. */
+    private boolean broken;
+    /** Whether the backend records a change feed. */
+    private boolean recordChanges;
+    /** The change feed, oldest first. */
+    private final List<CategoryChange> changes = new ArrayList<>();
+    /** What a lagging read replica returns when every category is loaded, null if the replica is up to date. */
+    private CategoryLoad replica;
+
+    @Override
+    public Category findByName(final String identifier) {
+      throw new UnsupportedOperationException("The cache should not perform keyed lookups on the backend");
+    }
+
+    @Override
+    public Collection<Category> findAll() {
+      this.loads.incrementAndGet();
+      if (this.broken) {
+        throw new IllegalStateException("Backend unavailable");
+      }
+      return new ArrayList<>(this.data);
+    }
+
+    @Override
+    public int upsertAll(final Collection<? extends Category> categories) {
+      this.data.addAll(categories);
+      return categories.size();
+    }
+
+    @Override
+    public CategoryLoad loadAll() {
+      CategoryLoad result = this.replica;
+      if (null == result) {
+        final long sequence = this.getLatestChange();
+        result = new CategoryLoad(this.findAll(), sequence);
+      } else {
+        this.loads.incrementAndGet();
+      }
+
+      return result;
+    }
+
+    @Override
+    public Category create(final Category category) {
+      this.data.add(category);
+      if (this.recordChanges) {
+        this.changes.add(new CategoryChange(this.changes.size() + 1, ChangeType.CREATED, category.getName(), category));
+      }
+      return category;
+    }
+
+    @Override
+    public List<CategoryChange> findChanges(final long since, final int limit) {
+      return this.changes.stream().filter(change -> change.getSequence() > since).limit(limit).toList();
+    }
+
+    @Override
+    public long getLatestChange() {
+      if (this.broken) {
+        throw new IllegalStateException("Backend unavailable");
+      }
+      return this.recordChanges ? this.changes.stream().mapToLong(CategoryChange::getSequence).max().orElse(0)
+        : UNVERSIONED;
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package uk.pallas.systems.categr.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.pallas.systems.categr.entities.v1.Category;
+
+/**
+ * This is a test class designed to check the hierarchy answers subtree, ancestor and descendant questions.
+ */
+class CategoryHierarchyTest {
+
+  /** Public Constructor. */
+  public CategoryHierarchyTest() {}
+
+  @Test
+  void testSubtreeAndAncestors() {
+    final CategoryHierarchy hierarchy = createHierarchy();
+
+    Assertions.assertEquals(List.of("Domain", "Air", "Land", "Maritime", "Sub-surface", "Surface"),
+      names(hierarchy.getSubtree("Domain")));
+    Assertions.assertEquals(List.of("Maritime", "Sub-surface", "Surface"), names(hierarchy.getSubtree("Maritime")));
+    Assertions.assertEquals(List.of("Air"), names(hierarchy.getSubtree("Air")));
+    Assertions.assertTrue(hierarchy.getSubtree("Unknown").isEmpty());
+
+    Assertions.assertEquals(List.of("Maritime", "Domain"), names(hierarchy.getAncestors("Surface")));
+    Assertions.assertTrue(hierarchy.getAncestors("Domain").isEmpty());
+    Assertions.assertTrue(hierarchy.getAncestors(null).isEmpty());
+
+    // Unknown parents make the category a root.
+    Assertions.assertTrue(hierarchy.getAncestors("Orphan").isEmpty());
+    Assertions.assertEquals(9, hierarchy.size());
+  }
+
+  @Test
+  void testDescendants() {
+    final CategoryHierarchy hierarchy = createHierarchy();
+
+    Assertions.assertTrue(hierarchy.isDescendant("Surface", "Domain"));
+    Assertions.assertTrue(hierarchy.isDescendant("Surface", "Maritime"));
+    Assertions.assertFalse(hierarchy.isDescendant("Domain", "Surface"));
+    Assertions.assertFalse(hierarchy.isDescendant("Surface", "Surface"));
+    Assertions.assertFalse(hierarchy.isDescendant("Surface", "Air"));
+    Assertions.assertFalse(hierarchy.isDescendant("Surface", "Unknown"));
+
+    // Loops are broken at the first category by name, so every category is still reachable exactly once.
+    Assertions.assertTrue(hierarchy.isDescendant("LoopB", "LoopA"));
+    Assertions.assertFalse(hierarchy.isDescendant("LoopA", "LoopB"));
+    Assertions.assertEquals(List.of("LoopA", "LoopB"), names(hierarchy.getSubtree("LoopA")));
+  }
+
+  /**
+   * Converts a list of categories into their names.
+   * @param cats the categories.
+   * @return the names in the same order.
+   */
+  private static List<String> names(final List<Category> cats) {
+    return cats.stream().map(Category::getName).toList();
+  }
+
+  /**
+   * Creates a hierarchy holding the test categories.
+   * @return a new hierarchy.
+   */
+  private static CategoryHierarchy createHierarchy() {
+    final List<Category> cats = new ArrayList<>();
+    cats.add(new StubCategory("Surface", null, "Maritime"));
+    cats.add(new StubCategory("Sub-surface", null, "Maritime"));
+    cats.add(new StubCategory("Maritime", null, "Domain"));
+    cats.add(new StubCategory("Land", null, "Domain"));
+    cats.add(new StubCategory("Air", null, "Domain"));
+    cats.add(new StubCategory("Domain", null, null));
+    cats.add(new StubCategory("Orphan", null, "Missing"));
+    cats.add(new StubCategory("LoopB", null, "LoopA"));
+    cats.add(new StubCategory("LoopA", null, "LoopB"));
+    cats.add(null);
+    return new CategoryHierarchy(cats);
+  }
+}
@@ -0,0 +1,61 @@
+package uk.pallas.systems.categr.services;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This is a test class designed to check items are matched against all or any of their categories, in ID order.
+ */
+class CategoryItemIndexTest {
+
+  /** Public Constructor. */
+  public CategoryItemIndexTest() {}
+
+  /** Builds an index of a handful of field types. */
+  private static CategoryItemIndex index() {
+    return new CategoryItemIndex(Map.of(
+      "latitude", List.of("Location", "Edge"),
+      "longitude", List.of("Location", "Edge", "Location"),
+      "altitude", List.of("Location"),
+      "colour", List.of("Shape", " "),
+      "nothing", List.of()), 0);
+  }
+
+  @Test
+  void testAllAndAny() {
+    final CategoryItemIndex index = index();
+
+    Assertions.assertEquals(List.of("altitude", "latitude", "longitude"),
+      index.getItems(List.of("Location"), ItemMatch.ALL, null, 10));
+    Assertions.assertEquals(List.of("latitude", "longitude"),
+      index.getItems(List.of("Location", "Edge"), ItemMatch.ALL, null, 10));
+    Assertions.assertEquals(List.of("colour", "latitude", "longitude"),
+      index.getItems(List.of("Edge", "Shape"), ItemMatch.ANY, null, 10));
+
+    // A category nobody is tagged with matches nothing when all are required, but not when any will do.
+    Assertions.assertEquals(0, index.countItems(List.of("Location", "Unknown"), ItemMatch.ALL));
+    Assertions.assertEquals(3, index.countItems(List.of("Location", "Unknown"), ItemMatch.ANY));
+    Assertions.assertEquals(0, index.countItems(List.of(), ItemMatch.ANY));
+
+    Assertions.assertEquals(List.of("Edge", "Location"), index.getCategories("longitude"));
+    Assertions.assertEquals(List.of(), index.getCategories("nothing"));
+    Assertions.assertEquals(4, index.getItemCount());
+    Assertions.assertEquals(6, index.getTagCount());
+    Assertions.assertTrue(index.hasSameContent(index()));
+  }
+
+  @Test
+  void testPaging() {
+    final CategoryItemIndex index = index();
+    final List<String> categories = List.of("Location", "Shape");
+
+    Assertions.assertEquals(List.of("altitude", "colour"), index.getItems(categories, ItemMatch.ANY, "", 2));
+    Assertions.assertEquals(List.of("latitude", "longitude"),
+      index.getItems(categories, ItemMatch.ANY, "colour", 2));
+    // The item after which the page starts need not be tagged any more.
+    Assertions.assertEquals(List.of("latitude", "longitude"), index.getItems(categories, ItemMatch.ANY, "lat", 5));
+    Assertions.assertEquals(List.of(), index.getItems(categories, ItemMatch.ANY, "longitude", 2));
+  }
+}
@@ -0,0 +1,86 @@
+package uk.pallas.systems.categr.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.pallas.systems.categr.entities.v1.Category;
+
+/**
+ * This is a test class designed to check the name index finds the same names a simple scan would.
+ */
+class CategoryNameIndexTest {
+
+  /** Names indexed by each test. */
+  private static final List<String> NAMES = List.of("Air", "Airspace", "Domain", "Edge", "Land", "Location",
+    "Maritime", "Space", "Subsurface", "Surface", "cyber");
+
+  /** Public Constructor. */
+  public CategoryNameIndexTest() {}
+
+  @Test
+  void testPrefix() {
+    final CategoryNameIndex index = createIndex();
+
+    Assertions.assertEquals(List.of("Air", "Airspace"), names(index.search("ai", NameMatch.PREFIX, 0, 10)));
+    Assertions.assertEquals(List.of("Space", "Subsurface", "Surface"),
+      names(index.search("S", NameMatch.PREFIX, 0, 10)));
+    Assertions.assertEquals(List.of("cyber"), names(index.search(" CY", null, 0, 10)));
+    Assertions.assertEquals(List.of("Space"), names(index.search("s", NameMatch.PREFIX, 0, 1)));
+    Assertions.assertTrue(index.search("x", NameMatch.PREFIX, 0, 10).isEmpty());
+    Assertions.assertTrue(index.search(" ", NameMatch.PREFIX, 0, 10).isEmpty());
+    Assertions.assertTrue(index.search(null, NameMatch.PREFIX, 0, 10).isEmpty());
+  }
+
+  @Test
+  void testContains() {
+    final CategoryNameIndex index = createIndex();
+
+    Assertions.assertEquals(List.of("Subsurface", "Surface"), names(index.search("URFA", NameMatch.CONTAINS, 0, 10)));
+    Assertions.assertEquals(List.of("Airspace", "Space"), names(index.search("space", NameMatch.CONTAINS, 0, 10)));
+    Assertions.assertEquals(List.of("Domain", "Location"), names(index.search("o", NameMatch.CONTAINS, 0, 2)));
+    Assertions.assertTrue(index.search("spaces", NameMatch.CONTAINS, 0, 10).isEmpty());
+  }
+
+  @Test
+  void testFuzzy() {
+    final CategoryNameIndex index = createIndex();
+
+    Assertions.assertEquals(List.of("Surface"), names(index.search("surfase", NameMatch.FUZZY, 1, 10)));
+    Assertions.assertEquals(List.of("Maritime"), names(index.search("Maritme", NameMatch.FUZZY, 1, 10)));
+    Assertions.assertEquals(List.of("Land"), names(index.search("lnad", NameMatch.FUZZY, 2, 10)));
+    Assertions.assertEquals(List.of("Edge"), names(index.search("edge", NameMatch.FUZZY, 0, 10)));
+    Assertions.assertTrue(index.search("lnad", NameMatch.FUZZY, 1, 10).isEmpty());
+  }
+
+  @Test
+  void testDistance() {
+    Assertions.assertEquals(0, CategoryNameIndex.distance("edge", "edge", 2));
+    Assertions.assertEquals(1, CategoryNameIndex.distance("edge", "edges", 2));
+    Assertions.assertEquals(3, CategoryNameIndex.distance("kitten", "sitting", 3));
+    Assertions.assertEquals(3, CategoryNameIndex.distance("kitten", "sitting", 2));
+    Assertions.assertEquals(4, CategoryNameIndex.distance("", "land", 4));
+  }
+
+  /**
+   * Creates an index holding the test names.
+   * @return a new index.
+   */
+  private static CategoryNameIndex createIndex() {
+    final List<Category> cats = new ArrayList<>();
+    for (final String name : NAMES) {
+      cats.add(new StubCategory(name));
+    }
+    cats.add(null);
+    return new CategoryNameIndex(cats);
+  }
+
+  /**
+   * Extracts the names from a list of categories.
+   * @param cats the categories.
+   * @return the category names in the same order.
+   */
+  private static List<String> names(final List<Category> cats) {
+    return cats.stream().map(Category::getName).toList();
+  }
+}
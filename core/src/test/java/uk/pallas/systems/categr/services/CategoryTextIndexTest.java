@@ -0,0 +1,86 @@
+package uk.pallas.systems.categr.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.pallas.systems.categr.entities.v1.Category;
+
+/**
+ * This is a test class designed to check the description index ranks and highlights matches.
+ */
+class CategoryTextIndexTest {
+
+  /** Public Constructor. */
+  public CategoryTextIndexTest() {}
+
+  @Test
+  void testRanking() {
+    final CategoryTextIndex index = createIndex();
+
+    final List<TextMatch> matches = index.search("surface water", 10);
+    Assertions.assertEquals(List.of("Surface", "Subsurface", "Maritime"),
+      matches.stream().map(match -> match.getCategory().getName()).toList());
+    Assertions.assertTrue(matches.get(0).getScore() >= matches.get(1).getScore());
+    Assertions.assertTrue(matches.get(1).getScore() > matches.get(2).getScore());
+
+    Assertions.assertEquals(1, index.search("surface water", 1).size());
+    Assertions.assertEquals(List.of("Air", "Land", "Maritime", "Subsurface", "Surface"),
+      index.search("OPERATION", 10).stream().map(match -> match.getCategory().getName()).sorted().toList());
+    Assertions.assertTrue(index.search("the of", 10).isEmpty());
+    Assertions.assertTrue(index.search(null, 10).isEmpty());
+    Assertions.assertEquals(5, index.size());
+  }
+
+  @Test
+  void testHighlight() {
+    final CategoryTextIndex index = createIndex();
+
+    Assertions.assertEquals("This relates to <em>operations</em> on the <em>land</em>",
+      index.search("land operation", 1).get(0).getHighlight());
+
+    final String highlight = index.search("zebra", 1).get(0).getHighlight();
+    Assertions.assertTrue(highlight.startsWith("..."));
+    Assertions.assertTrue(highlight.contains("<em>zebra</em>"));
+  }
+
+  @Test
+  void testHighlightEscaped() {
+    final List<Category> cats = new ArrayList<>();
+    cats.add(new StubCategory("Script", "Radar <script>alert('x')</script> & \"sonar\" returns"));
+    final CategoryTextIndex index = new CategoryTextIndex(cats);
+
+    Assertions.assertEquals("<em>Radar</em> &lt;script&gt;alert(&#39;x&#39;)&lt;/script&gt; &amp; &quot;sonar&quot; "
+      + "returns", index.search("radar", 1).get(0).getHighlight());
+    // Markup in the description is searched as text, but only the match markers are returned as tags.
+    Assertions.assertEquals("Radar &lt;<em>script</em>&gt;alert(&#39;x&#39;)&lt;/<em>script</em>&gt; &amp; "
+      + "&quot;sonar&quot; returns", index.search("script", 1).get(0).getHighlight());
+  }
+
+  @Test
+  void testOnlyMatchesRanked() {
+    final CategoryTextIndex index = createIndex();
+
+    Assertions.assertEquals(List.of("Land"), index.search("land", 10).stream()
+      .map(match -> match.getCategory().getName()).toList());
+    Assertions.assertTrue(index.search("unknown", 10).isEmpty());
+    Assertions.assertTrue(index.search("land", 0).isEmpty());
+  }
+
+  /**
+   * Creates an index holding the test categories.
+   * @return a new index.
+   */
+  private static CategoryTextIndex createIndex() {
+    final List<Category> cats = new ArrayList<>();
+    cats.add(new StubCategory("Air", "This relates to fields defining air operations"));
+    cats.add(new StubCategory("Land", "This relates to operations on the land"));
+    cats.add(new StubCategory("Maritime", "This relates to operations on or below the water, see the Surface and "
+      + "Subsurface categories for more specific fields " + "padding ".repeat(10) + "zebra"));
+    cats.add(new StubCategory("Subsurface", "This relates to operations below the surface of the water"));
+    cats.add(new StubCategory("Surface", "This relates to operations on the surface of the water"));
+    cats.add(new StubCategory("Empty", null));
+    cats.add(null);
+    return new CategoryTextIndex(cats);
+  }
+}
@@ -0,0 +1,85 @@
+package uk.pallas.systems.categr.services;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This is a test class designed to check background threads follow the threading mode they are created with.
+ */
+class CategoryThreadsTest {
+
+  /** Public Constructor. */
+  public CategoryThreadsTest() {}
+
+  @Test
+  void testPlatformThreads() throws InterruptedException {
+    final CountDownLatch ran = new CountDownLatch(1);
+    final Thread thread = CategoryThreads.PLATFORM.start("CategoryThreadsTest", ran::countDown);
+
+    Assertions.assertTrue(ran.await(5, TimeUnit.SECONDS));
+    Assertions.assertEquals("CategoryThreadsTest", thread.getName());
+    Assertions.assertTrue(thread.isDaemon());
+    Assertions.assertFalse(CategoryThreads.PLATFORM.isVirtual());
+  }
+
+  @Test
+  void testFactoryNamesThreads() {
+    final ThreadFactory factory = new CategoryThreads(false).factory("CategoryThreadsTest");
+
+    Assertions.assertEquals("CategoryThreadsTest", factory.newThread(() -> { }).getName());
+    Assertions.assertEquals("CategoryThreadsTest-1", factory.newThread(() -> { }).getName());
+  }
+
+  @Test
+  void testVirtualOnlyWhereSupported() throws InterruptedException {
+    final CategoryThreads threads = new CategoryThreads(true);
+    Assertions.assertEquals(CategoryThreads.isVirtualSupported(), threads.isVirtual());
+
+    // Whichever kind of thread is created it never holds the JVM open.
+    final CountDownLatch ran = new CountDownLatch(1);
+    final Thread thread = threads.start("CategoryThreadsTest", ran::countDown);
+    Assertions.assertTrue(ran.await(5, TimeUnit.SECONDS));
+    Assertions.assertEquals("CategoryThreadsTest", thread.getName());
+    Assertions.assertTrue(thread.isDaemon());
+  }
+
+  @Test
+  void testRetryDelayHasMinimum() {
+    Assertions.assertEquals(CategoryThreads.MIN_RETRY_DELAY, CategoryThreads.retryDelay(null));
+    Assertions.assertEquals(CategoryThreads.MIN_RETRY_DELAY, CategoryThreads.retryDelay(Duration.ZERO));
+    Assertions.assertEquals(CategoryThreads.MIN_RETRY_DELAY, CategoryThreads.retryDelay(Duration.ofSeconds(-5)));
+    Assertions.assertEquals(Duration.ofSeconds(5), CategoryThreads.retryDelay(Duration.ofSeconds(5)));
+  }
+
+  @Test
+  void testPauseEndsWhenStopped() throws InterruptedException {
+    final AtomicBoolean running = new AtomicBoolean(true);
+    final CountDownLatch paused = new CountDownLatch(1);
+    final Thread thread = CategoryThreads.PLATFORM.start("CategoryThreadsTest", () -> {
+      CategoryThreads.pause(Duration.ofMinutes(5), running::get);
+      paused.countDown();
+    });
+
+    running.set(false);
+    Assertions.assertTrue(paused.await(CategoryThreads.POLL_MILLIS * 4, TimeUnit.MILLISECONDS));
+    thread.join(1000);
+  }
+
+  @Test
+  void testPauseInterrupted() {
+    Thread.currentThread().interrupt();
+    try {
+      Assertions.assertFalse(CategoryThreads.pause(Duration.ofMinutes(5), () -> true));
+      Assertions.assertTrue(Thread.currentThread().isInterrupted());
+    } finally {
+      Thread.interrupted();
+    }
+
+    Assertions.assertTrue(CategoryThreads.pause(Duration.ofMillis(1), () -> true));
+  }
+}
@@ -0,0 +1,194 @@
+package uk.pallas.systems.categr.services;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.pallas.systems.categr.entities.v1.Category;
+
+/**
+ * This is a test class designed to check the cache is served from the stored copy until the backend can be reached,
+ * and that only reconciled categories are written back to the store.
+ */
+class CategoryWarmStartTest {
+
+  /** How long to wait for the background thread to do something before failing. */
+  private static final long WAIT_MILLIS = 5000;
+
+  /** Public Constructor. */
+  public CategoryWarmStartTest() {}
+
+  @Test
+  void testStoredCopyServedUntilReconciled() throws InterruptedException {
+    final StubService backend = new StubService();
+    backend.broken = true;
+    backend.create(new StubCategory("Edge", "CategoryWarmStartTest-testStoredCopyServedUntilReconciled"));
+    final StubStore store = new StubStore();
+    store.load = new CategoryLoad(new ArrayList<>(backend.data), 1);
+    backend.create(new StubCategory("Air", "CategoryWarmStartTest-testStoredCopyServedUntilReconciled"));
+    final CachingCategoriesDAOService cache = new CachingCategoriesDAOService(backend, Duration.ZERO);
+
+    try (CategoryWarmStart warmStart = new CategoryWarmStart(cache, store, Duration.ZERO, Duration.ofMinutes(1))) {
+      warmStart.start();
+      Assertions.assertTrue(warmStart.isWarmed());
+      Assertions.assertEquals(List.of("Edge"), cache.findAll().stream().map(Category::getName).toList());
+
+      // A zero retry delay is raised to the minimum, so the unreachable backend is not retried in a loop.
+      await(() -> backend.attempts.get() > 0);
+      Thread.sleep(CategoryThreads.MIN_RETRY_DELAY.toMillis() / 2);
+      Assertions.assertEquals(1, backend.attempts.get());
+      Assertions.assertFalse(warmStart.isReconciled());
+      Assertions.assertEquals(0, warmStart.getWriteCount());
+
+      // Once the backend can be reached only the change made since the copy was stored is read.
+      backend.broken = false;
+      await(warmStart::isReconciled);
+      Assertions.assertEquals(List.of("Air", "Edge"), cache.findAll().stream().map(Category::getName).toList());
+      Assertions.assertEquals(0, backend.loads.get());
+      await(() -> warmStart.getWriteCount() > 0);
+      Assertions.assertEquals(2, store.load.changeSequence());
+      Assertions.assertEquals(0, warmStart.getFailureCount());
+    }
+  }
+
+  @Test
+  void testUnreadableStoreIgnored() {
+    final StubService backend = new StubService();
+    backend.create(new StubCategory("Edge", "CategoryWarmStartTest-testUnreadableStoreIgnored"));
+    final StubStore store = new StubStore();
+    store.unreadable = true;
+    final CachingCategoriesDAOService cache = new CachingCategoriesDAOService(backend, Duration.ZERO);
+
+    try (CategoryWarmStart warmStart = new CategoryWarmStart(cache, store, null, null)) {
+      warmStart.start();
+      Assertions.assertFalse(warmStart.isWarmed());
+      Assertions.assertEquals(1, warmStart.getFailureCount());
+
+      // The cache loads from the backend as usual, and the store is then written.
+      Assertions.assertEquals(List.of("Edge"), cache.findAll().stream().map(Category::getName).toList());
+      await(() -> warmStart.getWriteCount() > 0);
+      Assertions.assertEquals(List.of("Edge"), store.load.categories().stream().map(Category::getName).toList());
+    }
+  }
+
+  @Test
+  void testCloseWritesLatest() {
+    final StubService backend = new StubService();
+    backend.create(new StubCategory("Edge", "CategoryWarmStartTest-testCloseWritesLatest"));
+    final StubStore store = new StubStore();
+    final CachingCategoriesDAOService cache = new CachingCategoriesDAOService(backend, Duration.ZERO);
+
+    final CategoryWarmStart warmStart = new CategoryWarmStart(cache, store, null, Duration.ofMinutes(1));
+    warmStart.start();
+    await(() -> warmStart.getWriteCount() > 0);
+
+    // Written long before the next write interval, so only closing stores it.
+    cache.upsertAll(List.of(new StubCategory("Land", "CategoryWarmStartTest-testCloseWritesLatest")));
+    Assertions.assertEquals(1, warmStart.getWriteCount());
+    warmStart.close();
+    Assertions.assertEquals(2, warmStart.getWriteCount());
+    Assertions.assertEquals(List.of("Edge", "Land"), store.load.categories().stream().map(Category::getName)
+      .toList());
+  }
+
+  /**
+   * Waits for the background thread to make the supplied condition true.
+   *
+   * @param condition checked until it is true or the wait times out.
+   */
+  private static void await(final BooleanSupplier condition) {
+    final long until = System.nanoTime() + WAIT_MILLIS * 1_000_000;
+    while (!condition.getAsBoolean() && System.nanoTime() < until) {
+      Assertions.assertTrue(CategoryThreads.pause(Duration.ofMillis(10), () -> true));
+    }
+    Assertions.assertTrue(condition.getAsBoolean());
+  }
+
+  /**
+   * Holds the stored copy in memory.
+   */
+  private static final class StubStore implements CategorySnapshotStore {
+    /** The stored copy, null if nothing has been stored. */
+    private volatile CategoryLoad load;
+    /** Whether reading should fail. */
+    private boolean unreadable;
+
+    @Override
+    public CategoryLoad read() throws IOException {
+      if (this.unreadable) {
+        throw new IOException("CategoryWarmStartTest corrupt store");
+      }
+      return this.load;
+    }
+
+    @Override
+    public void write(final CategoryLoad stored) {
+      this.load = new CategoryLoad(new ArrayList<>(stored.categories()), stored.changeSequence());
+    }
+  }
+
+  /**
+   * Holds the categories and their change feed in memory, and can be made unreachable.
+   */
+  private static final class StubService implements CategoriesDAOService {
+    /** The categories to return. */
+    private final List<Category> data = new ArrayList<>();
+    /** The change feed, oldest first. */
+    private final List<CategoryChange> changes = new ArrayList<>();
+    /** Number of times every category was loaded. */
+    private final AtomicInteger loads = new AtomicInteger();
+    /** Number of times the latest change was asked for, each reconcile asks once. */
+    private final AtomicInteger attempts = new AtomicInteger();
+    /** Whether the backend is unreachable. */
+    private volatile boolean broken;
+
+    @Override
+    public Category findByName(final String identifier) {
+      throw new UnsupportedOperationException("The cache should not perform keyed lookups on the backend");
+    }
+
+    @Override
+    public synchronized Collection<Category> findAll() {
+      this.loads.incrementAndGet();
+      if (this.broken) {
+        throw new IllegalStateException("Backend unavailable");
+      }
+      return new ArrayList<>(this.data);
+    }
+
+    @Override
+    public synchronized Category create(final Category category) {
+      this.data.add(category);
+      this.changes.add(new CategoryChange(this.changes.size() + 1, ChangeType.CREATED, category.getName(), category));
+      return category;
+    }
+
+    @Override
+    public synchronized int upsertAll(final Collection<? extends Category> categories) {
+      categories.forEach(this::create);
+      return categories.size();
+    }
+
+    @Override
+    public synchronized List<CategoryChange> findChanges(final long since, final int limit) {
+      if (this.broken) {
+        throw new IllegalStateException("Backend unavailable");
+      }
+      return this.changes.stream().filter(change -> change.getSequence() > since).limit(limit).toList();
+    }
+
+    @Override
+    public synchronized long getLatestChange() {
+      this.attempts.incrementAndGet();
+      if (this.broken) {
+        throw new IllegalStateException("Backend unavailable");
+      }
+      return this.changes.size();
+    }
+  }
+}
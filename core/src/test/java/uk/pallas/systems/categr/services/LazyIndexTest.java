@@ -0,0 +1,68 @@
+package uk.pallas.systems.categr.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This is a test class designed to check a lazy index is built once, however many callers ask for it at the same time.
+ */
+class LazyIndexTest {
+
+  /** Public Constructor. */
+  public LazyIndexTest() {}
+
+  @Test
+  void testBuiltOnFirstUse() {
+    final AtomicInteger builds = new AtomicInteger();
+    final LazyIndex<String> index = new LazyIndex<>(() -> "LazyIndexTest-" + builds.incrementAndGet());
+
+    Assertions.assertEquals(0, builds.get());
+    Assertions.assertEquals("LazyIndexTest-1", index.get());
+    Assertions.assertEquals("LazyIndexTest-1", index.get());
+    Assertions.assertEquals(1, builds.get());
+  }
+
+  @Test
+  void testConcurrentCallersShareOneBuild() throws Exception {
+    final AtomicInteger builds = new AtomicInteger();
+    final CountDownLatch building = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final LazyIndex<Object> index = new LazyIndex<>(() -> {
+      builds.incrementAndGet();
+      building.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (final InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      }
+      return new Object();
+    });
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<Object>> callers = new ArrayList<>();
+      callers.add(executor.submit(index::get));
+      Assertions.assertTrue(building.await(5, TimeUnit.SECONDS));
+      for (int i = 0; i < 3; i++) {
+        callers.add(executor.submit(index::get));
+      }
+      release.countDown();
+
+      final Object first = callers.get(0).get(5, TimeUnit.SECONDS);
+      for (final Future<Object> caller : callers) {
+        Assertions.assertSame(first, caller.get(5, TimeUnit.SECONDS));
+      }
+      Assertions.assertEquals(1, builds.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package uk.pallas.systems.categr.services;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This is a test class designed to check concurrent lookups share a single load and misses are remembered.
+ */
+class LookupCoalescerTest {
+
+  /** Public Constructor. */
+  public LookupCoalescerTest() {}
+
+  @Test
+  void testConcurrentLookupsShareOneLoad() throws Exception {
+    final LookupCoalescer<String> lookups = new LookupCoalescer<>();
+    final AtomicInteger loads = new AtomicInteger();
+    final CountDownLatch release = new CountDownLatch(1);
+
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final Future<String> leader = executor.submit(() -> lookups.get("Air", key -> {
+        loads.incrementAndGet();
+        awaitQuietly(release);
+        return key.toUpperCase();
+      }, Duration.ZERO));
+
+      // Wait until the leader is loading, then pile in behind it.
+      while (0 == loads.get()) {
+        Thread.onSpinWait();
+      }
+      final List<Future<String>> followers = List.of(
+        executor.submit(() -> lookups.get("Air", key -> "loaded again", Duration.ZERO)),
+        executor.submit(() -> lookups.get("Air", key -> "loaded again", Duration.ZERO)));
+      while (lookups.getCoalescedCount() < followers.size()) {
+        Thread.onSpinWait();
+      }
+      release.countDown();
+
+      Assertions.assertEquals("AIR", leader.get(5, TimeUnit.SECONDS));
+      for (final Future<String> follower : followers) {
+        Assertions.assertEquals("AIR", follower.get(5, TimeUnit.SECONDS));
+      }
+      Assertions.assertEquals(1, loads.get());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // Once finished the next lookup loads again.
+    Assertions.assertEquals("next", lookups.get("Air", key -> "next", Duration.ZERO));
+  }
+
+  @Test
+  void testMissesRememberedUntilExpiredOrForgotten() {
+    final AtomicLong now = new AtomicLong();
+    final LookupCoalescer<String> lookups = new LookupCoalescer<>(10, now::get);
+    final AtomicInteger loads = new AtomicInteger();
+    final Duration ttl = Duration.ofSeconds(5);
+
+    Assertions.assertNull(lookups.get("Missing", key -> count(loads, null), ttl));
+    Assertions.assertNull(lookups.get("Missing", key -> count(loads, "found"), ttl));
+    Assertions.assertEquals(1, loads.get());
+    Assertions.assertEquals(1, lookups.getCachedMissCount());
+
+    now.addAndGet(ttl.toNanos());
+    Assertions.assertEquals("found", lookups.get("Missing", key -> count(loads, "found"), ttl));
+    Assertions.assertEquals(2, loads.get());
+
+    // Writing the name makes it visible straight away.
+    Assertions.assertNull(lookups.get("Other", key -> null, ttl));
+    lookups.forget(List.of("Other"));
+    Assertions.assertEquals("written", lookups.get("Other", key -> "written", ttl));
+
+    // A miss read before a write is not remembered.
+    Assertions.assertNull(lookups.get("Racing", key -> {
+      lookups.forget(List.of(key));
+      return null;
+    }, ttl));
+    Assertions.assertEquals(0, lookups.getMissCount());
+  }
+
+  @Test
+  void testFailuresAreNotRemembered() {
+    final LookupCoalescer<String> lookups = new LookupCoalescer<>();
+
+    Assertions.assertThrows(IllegalStateException.class, () -> lookups.get("Broken", key -> {
+      throw new IllegalStateException("database down");
+    }, Duration.ofSeconds(5)));
+    Assertions.assertEquals("Recovered", lookups.get("Broken", key -> "Recovered", Duration.ofSeconds(5)));
+  }
+
+  private static String count(final AtomicInteger loads, final String value) {
+    loads.incrementAndGet();
+    return value;
+  }
+
+  private static void awaitQuietly(final CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (final InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package uk.pallas.systems.categr.services;
+
+import uk.pallas.systems.categr.entities.v1.Category;
+
+/**
+ * Minimal mutable Category implementation shared by the service tests, standing in for the categories a backend hands
+ * over (so the tests can check the services do not rely on receiving records).
+ */
+final class StubCategory implements Category {
+  /** Name of the category. */
+  private String name;
+  /** Description of the category. */
+  private String description;
+  /** Name of the parent category. */
+  private String parent;
+
+  /**
+   * Class Constructor for a root category without a description.
+   * @param identifier Name of the category.
+   */
+  StubCategory(final String identifier) {
+    this(identifier, null, null);
+  }
+
+  /**
+   * Class Constructor for a root category.
+   * @param identifier Name of the category.
+   * @param desc Description of the category.
+   */
+  StubCategory(final String identifier, final String desc) {
+    this(identifier, desc, null);
+  }
+
+  /**
+   * Class Constructor.
+   * @param identifier Name of the category.
+   * @param desc Description of the category.
+   * @param parentName Name of the parent category (null for a root).
+   */
+  StubCategory(final String identifier, final String desc, final String parentName) {
+    this.name = identifier;
+    this.description = desc;
+    this.parent = parentName;
+  }
+
+  @Override
+  public String getName() {
+    return this.name;
+  }
+
+  @Override
+  public void setName(final String identifier) {
+    this.name = identifier;
+  }
+
+  @Override
+  public String getDescription() {
+    return this.description;
+  }
+
+  @Override
+  public void setDescription(final String detailedDescription) {
+    this.description = detailedDescription;
+  }
+
+  @Override
+  public String getParent() {
+    return this.parent;
+  }
+
+  @Override
+  public void setParent(final String parentName) {
+    this.parent = parentName;
+  }
+}
@@ -0,0 +1,21 @@
+package uk.pallas.systems.categr.domain;
+
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import uk.pallas.systems.categr.domain.entities.v1.CategoryChangeDomain;
+
+/**
+ * Extends Spring Data JPA to provide access to the category change feed within a relational data store.
+ */
+public interface CategoryChangeRepository extends JpaRepository<CategoryChangeDomain, Long> {
+
+  /**
+   * Retrieves the changes after the supplied point in the feed using the primary key index.
+   *
+   * @param sequence the sequence of the last change the caller has seen.
+   * @param limit the maximum number of changes to return.
+   * @return changes ordered by sequence.
+   */
+  List<CategoryChangeDomain> findBySequenceGreaterThanOrderBySequenceAsc(long sequence, Limit limit);
+}
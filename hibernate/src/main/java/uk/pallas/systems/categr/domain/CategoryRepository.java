@@ -1,11 +1,78 @@
 package uk.pallas.systems.categr.domain;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import uk.pallas.systems.categr.domain.entities.v1.CategoryDomain;
+import uk.pallas.systems.categr.entities.v1.CategoryRecord;
 
 /**
  * Extends Spring Data JPA to provide access to Category objects within a relational data store.
  */
 public interface CategoryRepository extends JpaRepository<CategoryDomain, String> {
 
+  /** Number of rows the JDBC driver should retrieve per round trip when streaming categories. */
+  String STREAM_FETCH_SIZE = "500";
+
+  /**
+   * Selects the columns of a category straight into an immutable record, the read queries below use this rather than
+   * loading managed entities which Hibernate would track (and snapshot for dirty checking) until the session closes.
+   */
+  String SELECT_RECORD = "SELECT new uk.pallas.systems.categr.entities.v1.CategoryRecord(c.name, c.description, "
+    + "c.parent, c.version) FROM CategoryDomain c";
+
+  /**
+   * Retrieves a single category as a read only record.
+   *
+   * @param name the name of the category.
+   * @return empty if the category does not exist.
+   */
+  @Query(SELECT_RECORD + " WHERE c.name = :name")
+  Optional<CategoryRecord> findRecordByName(@Param("name") String name);
+
+  /**
+   * Retrieves a number of categories as read only records.
+   *
+   * @param names the names of the categories.
+   * @return the categories which exist, in no particular order.
+   */
+  @Query(SELECT_RECORD + " WHERE c.name IN :names")
+  List<CategoryRecord> findRecordsByNames(@Param("names") Collection<String> names);
+
+  /**
+   * Retrieves every category as read only records.
+   *
+   * @return categories ordered by name.
+   */
+  @Query(SELECT_RECORD + " ORDER BY c.name")
+  List<CategoryRecord> findAllRecords();
+
+  /**
+   * Retrieves a page of categories as read only records whose names sort after the supplied name, using the primary
+   * key index.
+   *
+   * @param name the name of the last category on the previous page (use an empty string for the first page).
+   * @param limit the maximum number of categories to return.
+   * @return categories ordered by name.
+   */
+  @Query(SELECT_RECORD + " WHERE c.name > :name ORDER BY c.name")
+  List<CategoryRecord> findRecordsAfter(@Param("name") String name, Limit limit);
+
+  /**
+   * Streams every category as read only records ordered by name, rows are fetched from the database in batches as
+   * the stream is consumed. This must be called within a transaction and the stream must be closed once finished with.
+   *
+   * @return a stream of all categories.
+   */
+  @Query(SELECT_RECORD + " ORDER BY c.name")
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+  Stream<CategoryRecord> streamAllRecords();
 }
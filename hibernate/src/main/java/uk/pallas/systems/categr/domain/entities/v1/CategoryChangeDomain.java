@@ -0,0 +1,138 @@
+package uk.pallas.systems.categr.domain.entities.v1;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import uk.pallas.systems.categr.CategoryConstants;
+import uk.pallas.systems.categr.services.ChangeType;
+
+/**
+ * A row in the category change feed, one is written in the same transaction as each change to the Categories table
+ * so the feed can never disagree with the categories themselves.
+ */
+@Entity
+@Table(name = "Category_Changes")
+public class CategoryChangeDomain {
+
+  /**
+   * Position of the change in the feed, allocated from {@link CategorySequenceDomain} so it increases in commit order.
+   */
+  @Id
+  @Column(name = "change_sequence")
+  private long sequence;
+
+  /**
+   * What happened to the category.
+   */
+  @Enumerated(EnumType.STRING)
+  @Column(name = "change_type", length = 16, nullable = false)
+  private ChangeType type;
+
+  /**
+   * Name of the category which changed.
+   */
+  @Column(length = CategoryConstants.MAX_NAME_LENGTH, nullable = false)
+  private String name;
+
+  /**
+   * Description of the category after the change, null when it was deleted.
+   */
+  @Column(length = CategoryConstants.MAX_DESCRIPTION_LENGTH)
+  private String description;
+
+  /**
+   * Parent of the category after the change, null for a root category or when it was deleted.
+   */
+  @Column(length = CategoryConstants.MAX_NAME_LENGTH)
+  private String parent;
+
+  /**
+   * Default Class Constructor, sets values to null.
+   */
+  public CategoryChangeDomain() {
+    // Do Nothing
+  }
+
+  /**
+   * Retrieves the position of the change in the feed.
+   * @return a positive number.
+   */
+  public long getSequence() {
+    return this.sequence;
+  }
+
+  /**
+   * Sets the position of the change in the feed.
+   * @param position a positive number.
+   */
+  public void setSequence(final long position) {
+    this.sequence = position;
+  }
+
+  /**
+   * Retrieves what happened to the category.
+   * @return should never be null.
+   */
+  public ChangeType getType() {
+    return this.type;
+  }
+
+  /**
+   * Sets what happened to the category.
+   * @param changeType what happened to the category.
+   */
+  public void setType(final ChangeType changeType) {
+    this.type = changeType;
+  }
+
+  /**
+   * Retrieves the name of the category which changed.
+   * @return should never be null.
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Sets the name of the category which changed.
+   * @param identifier the name of the category which changed.
+   */
+  public void setName(final String identifier) {
+    this.name = identifier;
+  }
+
+  /**
+   * Retrieves the description of the category after the change.
+   * @return null when the category was deleted.
+   */
+  public String getDescription() {
+    return this.description;
+  }
+
+  /**
+   * Sets the description of the category after the change.
+   * @param detailedDescription the description (null is ok).
+   */
+  public void setDescription(final String detailedDescription) {
+    this.description = detailedDescription;
+  }
+
+  /**
+   * Retrieves the parent of the category after the change.
+   * @return null for a root category or when the category was deleted.
+   */
+  public String getParent() {
+    return this.parent;
+  }
+
+  /**
+   * Sets the parent of the category after the change.
+   * @param parentName the parent category name (null is ok).
+   */
+  public void setParent(final String parentName) {
+    this.parent = parentName;
+  }
+}
@@ -4,7 +4,9 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.util.Objects;
+import org.hibernate.annotations.ColumnDefault;
 import uk.pallas.systems.categr.CategoryConstants;
 import uk.pallas.systems.categr.entities.v1.Category;
 
@@ -21,6 +23,22 @@ public class CategoryDomain implements Category {
   @Column(length = CategoryConstants.MAX_DESCRIPTION_LENGTH)
   private String description;
 
+  /**
+   * Name of the category this one sits beneath, null for a root category.
+   */
+  @Column(length = CategoryConstants.MAX_NAME_LENGTH)
+  private String parent;
+
+  /**
+   * The change sequence at which the category was last created or modified, used for optimistic locking. Writes made
+   * through {@link uk.pallas.systems.categr.services.CategoriesDAO} compare and set this in their own statements, the
+   * annotation makes JPA do the same should an entity ever be written through the repository.
+   */
+  @Version
+  @ColumnDefault("0")
+  @Column(nullable = false)
+  private long version;
+
   /**
    * Name of the field definition e.g. post code, uk mobile.
    */
@@ -40,7 +58,9 @@ public class CategoryDomain implements Category {
    * @param data a Category object we intend to copy all data values from
    */
   public CategoryDomain(final Category data) {
-    this(null == data ? null : data.getName(), null == data ? null : data.getDescription());
+    this(null == data ? null : data.getName(), null == data ? null : data.getDescription(),
+      null == data ? null : data.getParent());
+    this.version = null == data ? 0 : data.getVersion();
   }
 
   /**
@@ -49,15 +69,26 @@ public class CategoryDomain implements Category {
    * @param desc Detailed description of the field definition.
    */
   public CategoryDomain(final String identifier, final String desc) {
+    this(identifier, desc, null);
+  }
+
+  /**
+   * Class Constructor which lets us set all fields within the object, including the parent.
+   * @param identifier Name of the field definition e.g. post code, uk mobile.
+   * @param desc Detailed description of the field definition.
+   * @param parentName Name of the category this one sits beneath (null for a root category).
+   */
+  public CategoryDomain(final String identifier, final String desc, final String parentName) {
     this.name = identifier;
     this.description = desc;
+    this.parent = parentName;
   }
 
   /**
    * Compares the supplied object to this one, it checks the supplied object is a Category.
    *
    * @param toCompare the object to compare (can be null or a child class, etc..)
-   * @return false if the name and description fields in a category
+   * @return false if the name, description, parent and version fields in a category
    */
   @Override
   public boolean equals(final Object toCompare) {
@@ -67,7 +98,9 @@ public class CategoryDomain implements Category {
       result = true;
     } else if (toCompare instanceof Category that) {
       result = Objects.equals(this.getName(), that.getName())
-        && Objects.equals(this.getDescription(), that.getDescription());
+        && Objects.equals(this.getDescription(), that.getDescription())
+        && Objects.equals(this.getParent(), that.getParent())
+        && this.getVersion() == that.getVersion();
     } else {
       result = false;
     }
@@ -82,7 +115,7 @@ public class CategoryDomain implements Category {
    */
   @Override
   public int hashCode() {
-    return Objects.hash(this.getName(), this.getDescription());
+    return Objects.hash(this.getName(), this.getDescription(), this.getParent(), this.getVersion());
   }
 
   /**
@@ -124,4 +157,43 @@ public class CategoryDomain implements Category {
   public void setDescription(final String detailedDescription) {
     this.description = detailedDescription;
   }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return the parent category name (null for a root category).
+   */
+  @Override
+  public String getParent() {
+    return this.parent;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param parentName the parent category name (null to make this a root category).
+   */
+  @Override
+  public void setParent(final String parentName) {
+    this.parent = parentName;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return zero if the category has not been changed since it was loaded.
+   */
+  @Override
+  public long getVersion() {
+    return this.version;
+  }
+
+  /**
+   * Sets the change sequence at which the category was last created or modified.
+   *
+   * @param changeSequence the change sequence (zero if unknown).
+   */
+  public void setVersion(final long changeSequence) {
+    this.version = changeSequence;
+  }
 }
@@ -0,0 +1,73 @@
+package uk.pallas.systems.categr.domain.entities.v1;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import uk.pallas.systems.categr.CategoryConstants;
+import uk.pallas.systems.categr.services.CategoryItemsService;
+
+/**
+ * A tag linking an item held by another service (e.g. a Typr field type) to a category. The primary key serves the
+ * lookups of an item's categories and the index on the category name serves the lookups of a category's items.
+ */
+@Entity
+@IdClass(CategoryItemKey.class)
+@Table(name = "Category_Items", indexes = @Index(name = "Category_Items_Name", columnList = "name, item_id"))
+public class CategoryItemDomain {
+
+  /**
+   * ID of the tagged item, whatever the owning service uses.
+   */
+  @Id
+  @Column(name = "item_id", length = CategoryItemsService.MAX_ITEM_LENGTH)
+  private String item;
+
+  /**
+   * Name of the category the item is tagged with.
+   */
+  @Id
+  @Column(length = CategoryConstants.MAX_NAME_LENGTH)
+  private String name;
+
+  /**
+   * Default Class Constructor, sets values to null.
+   */
+  public CategoryItemDomain() {
+    // Do Nothing
+  }
+
+  /**
+   * Retrieves the ID of the tagged item.
+   * @return should never be null.
+   */
+  public String getItem() {
+    return this.item;
+  }
+
+  /**
+   * Sets the ID of the tagged item.
+   * @param itemId ID of the tagged item.
+   */
+  public void setItem(final String itemId) {
+    this.item = itemId;
+  }
+
+  /**
+   * Retrieves the name of the category the item is tagged with.
+   * @return should never be null.
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Sets the name of the category the item is tagged with.
+   * @param category name of the category the item is tagged with.
+   */
+  public void setName(final String category) {
+    this.name = category;
+  }
+}
@@ -0,0 +1,99 @@
+package uk.pallas.systems.categr.domain.entities.v1;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Primary key of {@link CategoryItemDomain}, an item can be tagged with each category once.
+ */
+public class CategoryItemKey implements Serializable {
+
+  /** Serialization version. */
+  private static final long serialVersionUID = 1L;
+
+  /** ID of the tagged item. */
+  private String item;
+
+  /** Name of the category the item is tagged with. */
+  private String name;
+
+  /**
+   * Default Class Constructor, sets values to null.
+   */
+  public CategoryItemKey() {
+    this(null, null);
+  }
+
+  /**
+   * Class Constructor which lets us set all fields within the object.
+   * @param itemId ID of the tagged item.
+   * @param category name of the category the item is tagged with.
+   */
+  public CategoryItemKey(final String itemId, final String category) {
+    this.item = itemId;
+    this.name = category;
+  }
+
+  /**
+   * Compares the supplied object to this one.
+   *
+   * @param toCompare the object to compare (can be null or a child class, etc..)
+   * @return false if the item or category differ.
+   */
+  @Override
+  public boolean equals(final Object toCompare) {
+
+    final boolean result;
+    if (this == toCompare) {
+      result = true;
+    } else if (toCompare instanceof CategoryItemKey that) {
+      result = Objects.equals(this.getItem(), that.getItem()) && Objects.equals(this.getName(), that.getName());
+    } else {
+      result = false;
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates a Unique hashcode for the CategoryItemKey class.
+   *
+   * @return a valid integer representation of this object,
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.getItem(), this.getName());
+  }
+
+  /**
+   * Retrieves the ID of the tagged item.
+   * @return should never be null.
+   */
+  public String getItem() {
+    return this.item;
+  }
+
+  /**
+   * Sets the ID of the tagged item.
+   * @param itemId ID of the tagged item.
+   */
+  public void setItem(final String itemId) {
+    this.item = itemId;
+  }
+
+  /**
+   * Retrieves the name of the category the item is tagged with.
+   * @return should never be null.
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Sets the name of the category the item is tagged with.
+   * @param category name of the category the item is tagged with.
+   */
+  public void setName(final String category) {
+    this.name = category;
+  }
+}
@@ -0,0 +1,70 @@
+package uk.pallas.systems.categr.domain.entities.v1;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Single row table holding the last sequence handed out to the category change feed. Every write to the categories
+ * updates this row first, which holds its lock until the transaction commits, so change sequences become visible in
+ * the order they were allocated and a reader following the feed can never skip a change which commits late.
+ */
+@Entity
+@Table(name = "Category_Sequence")
+public class CategorySequenceDomain {
+
+  /** Identifier of the only row in the table. */
+  public static final int ROW_ID = 1;
+
+  /**
+   * Identifier of the row, always {@link #ROW_ID}.
+   */
+  @Id
+  private int id;
+
+  /**
+   * The last sequence handed out, zero if nothing has changed yet.
+   */
+  @Column(nullable = false)
+  private long lastSequence;
+
+  /**
+   * Default Class Constructor.
+   */
+  public CategorySequenceDomain() {
+    // Do Nothing
+  }
+
+  /**
+   * Retrieves the identifier of the row.
+   * @return always {@link #ROW_ID}.
+   */
+  public int getId() {
+    return this.id;
+  }
+
+  /**
+   * Sets the identifier of the row.
+   * @param identifier should always be {@link #ROW_ID}.
+   */
+  public void setId(final int identifier) {
+    this.id = identifier;
+  }
+
+  /**
+   * Retrieves the last sequence handed out.
+   * @return zero if nothing has changed yet.
+   */
+  public long getLastSequence() {
+    return this.lastSequence;
+  }
+
+  /**
+   * Sets the last sequence handed out.
+   * @param sequence the last sequence handed out.
+   */
+  public void setLastSequence(final long sequence) {
+    this.lastSequence = sequence;
+  }
+}
@@ -0,0 +1,125 @@
+package uk.pallas.systems.categr.services;
+
+import java.time.Duration;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+
+/**
+ * Applies the schema migrations on a background thread rather than during start up, retrying until the database can
+ * be reached, so an instance warmed from a snapshot file starts while the database is down. Until the migrations have
+ * run, requests which reach the database fail as they would with the database down.
+ *
+ * <p>Only suitable when Hibernate does not check the schema on start up (spring.jpa.hibernate.ddl-auto=none).</p>
+ */
+public class BackgroundMigrationStrategy implements FlywayMigrationStrategy, AutoCloseable {
+
+  /** Static Logger for the class. */
+  private static final Log LOGGER = LogFactory.getLog(BackgroundMigrationStrategy.class);
+
+  /** How long to wait before trying the migrations again. */
+  private final Duration retryDelay;
+
+  /** Creates the background thread. */
+  private CategoryThreads threads = CategoryThreads.PLATFORM;
+
+  /** Applies the migrations, null until Spring asks for them to be applied. */
+  private Thread migrator;
+
+  /** Set once the migrations have been applied. */
+  private volatile boolean complete;
+
+  /** Cleared to stop retrying. */
+  private volatile boolean running;
+
+  /**
+   * Class Constructor.
+   *
+   * @param delay how long to wait before trying the migrations again after they fail, at least
+   *              {@link CategoryThreads#MIN_RETRY_DELAY}.
+   */
+  public BackgroundMigrationStrategy(final Duration delay) {
+    this.retryDelay = CategoryThreads.retryDelay(delay);
+  }
+
+  /**
+   * Retrieves what the background thread is created with.
+   * @return never null, platform threads unless something else was set.
+   */
+  public CategoryThreads getThreads() {
+    return this.threads;
+  }
+
+  /**
+   * Sets what the background thread is created with, so it follows the application's threading mode.
+   * @param categoryThreads creates the background thread (null for platform threads).
+   */
+  public void setThreads(final CategoryThreads categoryThreads) {
+    this.threads = null == categoryThreads ? CategoryThreads.PLATFORM : categoryThreads;
+  }
+
+  /**
+   * Starts applying the migrations on a background thread, returning straight away.
+   *
+   * @param flyway configured with the migrations and the database to apply them to.
+   */
+  @Override
+  public synchronized void migrate(final Flyway flyway) {
+    if (null == this.migrator) {
+      this.running = true;
+      this.migrator = this.getThreads().start("categr-migrate", () -> this.apply(flyway));
+    }
+  }
+
+  /**
+   * Stops retrying the migrations, a migration already running is left to finish.
+   */
+  @Override
+  public synchronized void close() {
+    this.running = false;
+    this.migrator = null;
+  }
+
+  /**
+   * Checks whether the migrations have been applied.
+   *
+   * @return false while the database has not been reached.
+   */
+  public boolean isComplete() {
+    return this.complete;
+  }
+
+  /**
+   * Applies the migrations, retrying until they succeed or this is closed.
+   *
+   * @param flyway configured with the migrations and the database to apply them to.
+   */
+  private void apply(final Flyway flyway) {
+    while (this.running && !this.complete) {
+      try {
+        final MigrateResult result = flyway.migrate();
+        this.complete = true;
+        if (LOGGER.isInfoEnabled()) {
+          LOGGER.info("apply - Applied " + result.migrationsExecuted + " migrations, the schema is at version "
+            + result.targetSchemaVersion);
+        }
+      } catch (final RuntimeException exception) {
+        if (LOGGER.isWarnEnabled()) {
+          LOGGER.warn("apply - Unable to apply the migrations, retrying in " + this.retryDelay, exception);
+        }
+        this.pause();
+      }
+    }
+  }
+
+  /**
+   * Waits before retrying, returning early if closed.
+   */
+  private void pause() {
+    if (!CategoryThreads.pause(this.retryDelay, () -> this.running)) {
+      this.running = false;
+    }
+  }
+}
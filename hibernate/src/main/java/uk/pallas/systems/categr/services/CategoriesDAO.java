@@ -1,30 +1,167 @@
 package uk.pallas.systems.categr.services;
 
-import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.ObservationRegistry;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.pallas.systems.categr.CategoryConstants;
+import uk.pallas.systems.categr.domain.CategoryChangeRepository;
 import uk.pallas.systems.categr.domain.CategoryRepository;
+import uk.pallas.systems.categr.domain.entities.v1.CategoryChangeDomain;
 import uk.pallas.systems.categr.domain.entities.v1.CategoryDomain;
+import uk.pallas.systems.categr.domain.entities.v1.CategorySequenceDomain;
 import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.entities.v1.CategoryRecord;
 
 /**
  * Service which builds on CategoryRepository, this will retrieve objects from the database and process them to retrieve
  * specific data for other components to make use of (e.g. extract all name fields).
  */
 @Service
+@Profile("!" + CategoryConstants.MAPPED_PROFILE)
 public class CategoriesDAO implements CategoriesDAOService {
   /** Static Logger for the class. */
   private static final Log LOGGER = LogFactory.getLog(CategoriesDAO.class);
 
+  /** Name of the timer recording how long each database operation takes. */
+  public static final String METRIC_REQUESTS = "categr.dao.requests";
+
+  /** Name of the distribution summary recording how many categories each database operation returned. */
+  public static final String METRIC_RESULTS = "categr.dao.results";
+
+  /** Name of the counter recording how many requested names could not be found in the database. */
+  public static final String METRIC_MISSES = "categr.dao.misses";
+
+  /** Tag identifying which operation a metric was recorded for. */
+  public static final String TAG_OPERATION = "operation";
+
+  /** PostgreSQL channel the latest change sequence is sent on whenever a transaction changes the categories. */
+  public static final String CHANGE_CHANNEL = "categr_changes";
+
+  /** Upsert used against PostgreSQL, which has supported ON CONFLICT for longer than MERGE. */
+  private static final String POSTGRES_UPSERT_SQL = "INSERT INTO Categories (name, description, parent, version) "
+    + "VALUES (?, ?, ?, ?) ON CONFLICT (name) DO UPDATE SET description = EXCLUDED.description, "
+    + "parent = EXCLUDED.parent, version = EXCLUDED.version";
+
+  /** Upsert used against every other database, using the SQL standard MERGE statement (e.g. HSQLDB and H2). */
+  private static final String MERGE_UPSERT_SQL = "MERGE INTO Categories USING (VALUES (CAST(? AS VARCHAR("
+    + CategoryConstants.MAX_NAME_LENGTH + ")), CAST(? AS VARCHAR(" + CategoryConstants.MAX_DESCRIPTION_LENGTH
+    + ")), CAST(? AS VARCHAR(" + CategoryConstants.MAX_NAME_LENGTH + ")), CAST(? AS BIGINT))) "
+    + "AS v (name, description, parent, version) ON Categories.name = v.name "
+    + "WHEN MATCHED THEN UPDATE SET description = v.description, parent = v.parent, version = v.version "
+    + "WHEN NOT MATCHED THEN INSERT (name, description, parent, version) "
+    + "VALUES (v.name, v.description, v.parent, v.version)";
+
+  /** Creates a single category, the primary key refuses it if the category already exists. */
+  private static final String INSERT_SQL = "INSERT INTO Categories (name, description, parent, version) "
+    + "VALUES (?, ?, ?, ?)";
+
+  /** Updates a single category provided it is still at the version it was read at. */
+  private static final String UPDATE_SQL = "UPDATE Categories SET description = ?, parent = ?, version = ? "
+    + "WHERE name = ? AND version = ?";
+
+  /** Deletes a single category provided it is still at the version it was read at. */
+  private static final String DELETE_SQL = "DELETE FROM Categories WHERE name = ? AND version = ?";
+
+  /** Records a change in the change feed. */
+  private static final String INSERT_CHANGE_SQL = "INSERT INTO Category_Changes "
+    + "(change_sequence, change_type, name, description, parent) VALUES (?, ?, ?, ?, ?)";
+
+  /** Locks the change sequence row until the transaction ends, without changing it. */
+  private static final String LOCK_SEQUENCE_SQL = "UPDATE Category_Sequence SET last_sequence = last_sequence "
+    + "WHERE id = ?";
+
+  /** Reads the last change sequence handed out. */
+  private static final String SELECT_SEQUENCE_SQL = "SELECT last_sequence FROM Category_Sequence WHERE id = ?";
+
+  /** Stores the last change sequence handed out. */
+  private static final String UPDATE_SEQUENCE_SQL = "UPDATE Category_Sequence SET last_sequence = ? WHERE id = ?";
+
+  /**
+   * Reads a category and every category beneath it, following the parent column down one level per recursion. UNION
+   * rather than UNION ALL drops rows already found, so a parent chain which loops back on itself still ends.
+   */
+  private static final String SUBTREE_SQL = "WITH RECURSIVE subtree (name, description, parent, version) AS ("
+    + "SELECT name, description, parent, version FROM Categories WHERE name = ? "
+    + "UNION SELECT c.name, c.description, c.parent, c.version FROM Categories c JOIN subtree s ON c.parent = s.name) "
+    + "SELECT name, description, parent, version FROM subtree";
+
+  /** Reads a category and every category above it, following the parent column up one level per recursion. */
+  private static final String ANCESTORS_SQL = "WITH RECURSIVE ancestors (name, description, parent, version) AS ("
+    + "SELECT name, description, parent, version FROM Categories WHERE name = ? "
+    + "UNION SELECT c.name, c.description, c.parent, c.version FROM Categories c "
+    + "JOIN ancestors a ON c.name = a.parent) "
+    + "SELECT name, description, parent, version FROM ancestors";
+
+  /** Sends a PostgreSQL notification, delivered to listeners when the transaction commits. */
+  private static final String NOTIFY_SQL = "SELECT pg_notify(?, ?)";
+
   /** The Sprign Data JPA component.*/
   @Autowired
   private CategoryRepository dao;
 
+  /** The Spring Data JPA component reading the change feed. */
+  @Autowired
+  private CategoryChangeRepository changes;
+
+  /** Registry used to record metrics, the global registry is used if Spring has not supplied one. */
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
+
+  /** Registry the query stages are reported to (see {@link CategoryStages}), nothing is reported if not supplied. */
+  @Autowired(required = false)
+  private ObservationRegistry observationRegistry;
+
+  /** Used to write categories in JDBC batches, which JPA cannot do for assigned primary keys without a read first. */
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  /** Starts the read only transaction each lookup by name runs in, the lookup runs without one if not supplied. */
+  @Autowired(required = false)
+  private PlatformTransactionManager transactionManager;
+
+  /** Whether the database is PostgreSQL, worked out the first time categories are written. */
+  private volatile Boolean postgres;
+
+  /** Shares concurrent lookups of the same name and remembers names which could not be found. */
+  private final LookupCoalescer<Category> lookups = new LookupCoalescer<>();
+
+  /** How long a name which could not be found is remembered before the database is asked again (zero never). */
+  @Value("${categr.dao.miss-ttl:PT5S}")
+  private Duration missTtl = Duration.ofSeconds(5);
+
   /**
    * Retrieves a handle to the Spring Data JPA DAO which allows us to perform database queries.
    * @return should never be null unless something has happened to spring.
@@ -42,61 +179,997 @@ public class CategoriesDAO implements CategoriesDAOService {
   }
 
   /**
-   * This will retrieve a specific CategoryDomain object using the primary key (e.g name).
+   * Retrieves a handle to the Spring Data JPA DAO which reads the change feed.
+   * @return should never be null unless something has happened to spring.
+   */
+  public CategoryChangeRepository getChanges() {
+    return this.changes;
+  }
+
+  /**
+   * Sets a handle to the Spring Data JPA DAO which reads the change feed.
+   * @param service handle to the Spring Data JPA DAO which reads the change feed.
+   */
+  public void setChanges(final CategoryChangeRepository service) {
+    this.changes = service;
+  }
+
+  /**
+   * Retrieves the registry metrics are recorded in.
+   * @return the Spring supplied registry, or the global registry if there isn't one.
+   */
+  public MeterRegistry getMeterRegistry() {
+    return null == this.meterRegistry ? Metrics.globalRegistry : this.meterRegistry;
+  }
+
+  /**
+   * Sets the registry metrics are recorded in.
+   * @param registry the registry to record metrics in (null uses the global registry).
+   */
+  public void setMeterRegistry(final MeterRegistry registry) {
+    this.meterRegistry = registry;
+  }
+
+  /**
+   * Retrieves the registry the query stages are reported to.
+   * @return the Spring supplied registry, or a no-op registry if there isn't one.
+   */
+  public ObservationRegistry getObservationRegistry() {
+    return null == this.observationRegistry ? ObservationRegistry.NOOP : this.observationRegistry;
+  }
+
+  /**
+   * Sets the registry the query stages are reported to.
+   * @param registry the registry to report to (null stops reporting).
+   */
+  public void setObservationRegistry(final ObservationRegistry registry) {
+    this.observationRegistry = registry;
+  }
+
+  /**
+   * Retrieves the JDBC template used to write categories in batches.
+   * @return should never be null unless something has happened to spring.
+   */
+  public JdbcTemplate getJdbcTemplate() {
+    return this.jdbcTemplate;
+  }
+
+  /**
+   * Sets the JDBC template used to write categories in batches.
+   * @param template the JDBC template used to write categories in batches.
+   */
+  public void setJdbcTemplate(final JdbcTemplate template) {
+    this.jdbcTemplate = template;
+  }
+
+  /**
+   * Retrieves the transaction manager each lookup by name starts its read only transaction with.
+   * @return null if lookups run without a transaction of their own.
+   */
+  public PlatformTransactionManager getTransactionManager() {
+    return this.transactionManager;
+  }
+
+  /**
+   * Sets the transaction manager each lookup by name starts its read only transaction with.
+   * @param manager the transaction manager (null to run lookups without a transaction of their own).
+   */
+  public void setTransactionManager(final PlatformTransactionManager manager) {
+    this.transactionManager = manager;
+  }
+
+  /**
+   * Retrieves how long a name which could not be found is remembered before the database is asked again.
+   * @return null or zero if misses are not remembered.
+   */
+  public Duration getMissTtl() {
+    return this.missTtl;
+  }
+
+  /**
+   * Sets how long a name which could not be found is remembered before the database is asked again.
+   * @param ttl how long to remember a miss (null or zero to always ask the database).
+   */
+  public void setMissTtl(final Duration ttl) {
+    this.missTtl = ttl;
+  }
+
+  /**
+   * Retrieves the component sharing concurrent lookups by name and remembering misses, exposed for metrics.
+   * @return never null.
+   */
+  public LookupCoalescer<Category> getLookups() {
+    return this.lookups;
+  }
+
+  /**
+   * This will retrieve a specific Category using the primary key (e.g name), as an immutable record. Concurrent
+   * lookups of the same name share a single query and names which could not be found are remembered for
+   * {@link #getMissTtl()}, so a client hammering a name which does not exist does not reach the database on every
+   * request. Only the lookup which goes to the database opens a read only transaction, callers waiting to share its
+   * result do not each hold a transaction (and a connection) open while they wait.
    *
    * @param identifier the name of the Category to retrieve.
    * @return null if the category could not be located.
    */
   @Override
   public Category findByName(final String identifier) {
+    final Timer.Sample sample = Timer.start(this.getMeterRegistry());
     Category result = null;
 
-    if (null == identifier || identifier.isBlank()) {
-      if (LOGGER.isInfoEnabled()) {
-        LOGGER.info("findByName - Invalid Name supplied");
+    try {
+      if (null == identifier || identifier.isBlank()) {
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug("findByName - Invalid Name supplied");
+        }
+      } else {
+        final CategoryRepository theDAO = this.getDao();
+        if (null == theDAO) {
+          if (LOGGER.isErrorEnabled()) {
+            LOGGER.error("findByName - DAO has broken when searching: " + identifier);
+          }
+        } else {
+          result = this.lookups.get(identifier, name -> this.loadByName(theDAO, name), this.getMissTtl());
+          // Misses are expected (clients probe for names) so are only logged when debugging, at INFO a flood of
+          // lookups for names which do not exist turned into a flood of log lines.
+          if (null == result && LOGGER.isDebugEnabled()) {
+            LOGGER.debug("findByName - Unable to find entity with name: " + identifier);
+          }
+        }
       }
+    } finally {
+      this.record("findByName", sample, null == result ? 0 : 1, null == result ? 1 : 0);
+    }
+
+    return result;
+  }
+
+  /**
+   * Reads a single category for {@link #findByName(String)} in a read only transaction, so when reads are routed to
+   * replicas the lookup goes to a replica. Joins the caller's transaction if there is one.
+   *
+   * @param theDAO used to read the category.
+   * @param name the name of the category to read.
+   * @return null if the category could not be located.
+   */
+  private Category loadByName(final CategoryRepository theDAO, final String name) {
+    final Supplier<Category> read = () -> this.query("findByName", () -> theDAO.findRecordByName(name).orElse(null));
+
+    final Category result;
+    final PlatformTransactionManager manager = this.getTransactionManager();
+    if (null == manager) {
+      result = read.get();
     } else {
+      final TransactionTemplate template = new TransactionTemplate(manager);
+      template.setReadOnly(true);
+      result = template.execute(status -> read.get());
+    }
+
+    return result;
+  }
+
+  /**
+   * This will retrieve a number of Categories using their primary keys (e.g name) in a single query.
+   *
+   * @param identifiers the names of the Categories to retrieve (null and blank names are ignored).
+   * @return the categories which were located keyed on their name, names which could not be located are absent.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public Map<String, Category> findByNames(final Collection<String> identifiers) {
+    final Timer.Sample sample = Timer.start(this.getMeterRegistry());
+    final Map<String, Category> results = new HashMap<>();
+
+    final Set<String> names = new HashSet<>();
+    if (null != identifiers) {
+      identifiers.stream().filter(name -> null != name && !name.isBlank()).forEach(names::add);
+    }
+
+    try {
+      if (names.isEmpty()) {
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug("findByNames - No valid names supplied");
+        }
+      } else {
+        final CategoryRepository theDAO = this.getDao();
+        if (null == theDAO) {
+          if (LOGGER.isErrorEnabled()) {
+            LOGGER.error("findByNames - DAO has broken when searching for " + names.size() + " names");
+          }
+        } else {
+          for (final CategoryRecord record : this.query("findByNames", () -> theDAO.findRecordsByNames(names))) {
+            results.put(record.getName(), record);
+          }
+        }
+      }
+    } finally {
+      this.record("findByNames", sample, results.size(), names.size() - results.size());
+    }
+
+    return results;
+  }
+
+  /**
+   * This retrieves all categories from the database and returns them, read straight into immutable records rather
+   * than managed entities.
+   * @return an empty list if there is no category data, otherwise the categories ordered by name.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public Collection<Category> findAll() {
+    final Timer.Sample sample = Timer.start(this.getMeterRegistry());
+    final List<Category> results = new ArrayList<>();
+
+    try {
       final CategoryRepository theDAO = this.getDao();
       if (null == theDAO) {
         if (LOGGER.isErrorEnabled()) {
-          LOGGER.error("findByName - DAO has broken when searching: " + identifier);
+          LOGGER.error("findAll - DAO has broken when trying to retrieve all categories");
         }
       } else {
-        final Optional<CategoryDomain> queryResult = theDAO.findById(identifier);
-        if (queryResult.isPresent()) {
-          result = queryResult.get();
-        } else if (LOGGER.isInfoEnabled()) {
-          LOGGER.info("findByName - Unable to find entity with nane: " + identifier);
+        results.addAll(this.query("findAll", theDAO::findAllRecords));
+        if (results.isEmpty() && LOGGER.isInfoEnabled()) {
+          LOGGER.info("findAll - Unable to find any entities in the data store");
+        }
+      }
+    } finally {
+      this.record("findAll", sample, results.size(), 0);
+    }
+
+    return results;
+  }
+
+  /**
+   * Retrieves a page of categories ordered by name using a keyset (name greater than) query, so only a single page of
+   * rows is ever read from the database.
+   *
+   * @param after the name of the last category on the previous page (null or empty for the first page).
+   * @param limit the maximum number of categories to return.
+   * @return up to limit categories whose names sort after the supplied name, an empty list if there are no more.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public List<Category> findPage(final String after, final int limit) {
+    final Timer.Sample sample = Timer.start(this.getMeterRegistry());
+    final List<Category> results = new ArrayList<>();
+
+    try {
+      final CategoryRepository theDAO = this.getDao();
+      if (null == theDAO) {
+        if (LOGGER.isErrorEnabled()) {
+          LOGGER.error("findPage - DAO has broken when retrieving categories after: " + after);
         }
+      } else if (limit > 0) {
+        results.addAll(this.query("findPage", () -> theDAO.findRecordsAfter(null == after ? "" : after,
+          Limit.of(limit))));
       }
+    } finally {
+      this.record("findPage", sample, results.size(), 0);
+    }
+
+    return results;
+  }
+
+  /**
+   * Reads every category along with the latest change they include in a single read only transaction, so when reads
+   * are routed to replicas both come from the same replica and the categories are never behind the sequence.
+   *
+   * @return never null.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public CategoryLoad loadAll() {
+    final long sequence = this.getLatestChange();
+    return new CategoryLoad(this.findAll(), sequence);
+  }
+
+  /**
+   * Searches the category names in a read only transaction, see {@link CategoriesDAOService#searchNames}.
+   *
+   * @param query the search term (null or blank matches nothing).
+   * @param match how the search term should be matched against the names (null is treated as prefix).
+   * @param maxDistance the maximum number of edits allowed for a fuzzy match, ignored by other match types.
+   * @param limit the maximum number of categories to return.
+   * @return the matching categories, ordered by name (fuzzy matches are ordered by distance first), never null.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public List<Category> searchNames(final String query, final NameMatch match, final int maxDistance,
+                                    final int limit) {
+    return CategoriesDAOService.super.searchNames(query, match, maxDistance, limit);
+  }
+
+  /**
+   * Searches the category descriptions in a read only transaction, see {@link CategoriesDAOService#searchDescriptions}.
+   *
+   * @param query the terms to search for (null or blank matches nothing).
+   * @param limit the maximum number of matches to return.
+   * @return the most relevant matches with highlighted snippets, best first, never null.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public List<TextMatch> searchDescriptions(final String query, final int limit) {
+    return CategoriesDAOService.super.searchDescriptions(query, limit);
+  }
+
+  /**
+   * Retrieves a category and everything beneath it with a single recursive query, so only the rows in the subtree are
+   * read rather than every category.
+   *
+   * @param identifier the name of the category at the top of the subtree.
+   * @return the category followed by its descendants depth first, empty if the category could not be located.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public List<Category> findSubtree(final String identifier) {
+    final Timer.Sample sample = Timer.start(this.getMeterRegistry());
+    final List<Category> results = new ArrayList<>();
+
+    try {
+      if (null != identifier && !identifier.isBlank()) {
+        results.addAll(new CategoryHierarchy(this.queryHierarchy("findSubtree", SUBTREE_SQL, identifier))
+          .getSubtree(identifier));
+      }
+    } finally {
+      this.record("findSubtree", sample, results.size(), 0);
+    }
+
+    return results;
+  }
+
+  /**
+   * Retrieves the categories above a category with a single recursive query, reading one row per level rather than
+   * every category.
+   *
+   * @param identifier the name of the category whose ancestors are wanted.
+   * @return the parent first up to the root, empty for a root category or one which could not be located.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public List<Category> findAncestors(final String identifier) {
+    final Timer.Sample sample = Timer.start(this.getMeterRegistry());
+    final List<Category> results = new ArrayList<>();
+
+    try {
+      if (null != identifier && !identifier.isBlank()) {
+        results.addAll(new CategoryHierarchy(this.queryHierarchy("findAncestors", ANCESTORS_SQL, identifier))
+          .getAncestors(identifier));
+      }
+    } finally {
+      this.record("findAncestors", sample, results.size(), 0);
+    }
+
+    return results;
+  }
+
+  /**
+   * Checks whether a category sits anywhere beneath another by reading the categories above it with a single recursive
+   * query.
+   *
+   * @param identifier the name of the possible descendant.
+   * @param ancestor the name of the possible ancestor.
+   * @return true if the first category is a child, grandchild, etc.. of the second.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public boolean isDescendantOf(final String identifier, final String ancestor) {
+    final Timer.Sample sample = Timer.start(this.getMeterRegistry());
+    boolean result = false;
+
+    try {
+      if (null != identifier && !identifier.isBlank() && null != ancestor && !ancestor.isBlank()) {
+        result = new CategoryHierarchy(this.queryHierarchy("isDescendantOf", ANCESTORS_SQL, identifier))
+          .isDescendant(identifier, ancestor);
+      }
+    } finally {
+      this.record("isDescendantOf", sample, result ? 1 : 0, 0);
     }
 
     return result;
   }
 
   /**
-   * This retrieves all categories from the database and returns them.
-   * @return an empty list if there is no category data.
+   * Streams every category from the database, ordered by name, into the supplied consumer. Rows are read straight
+   * into immutable records, which the persistence context does not track, so memory use stays bounded however many
+   * rows there are.
+   *
+   * @param consumer called with each category in turn.
    */
   @Override
-  public Collection<Category> findAll() {
-    final Collection<Category> results = new HashSet<>();
+  @Transactional(readOnly = true)
+  public void forEachCategory(final Consumer<? super Category> consumer) {
+    final Timer.Sample sample = Timer.start(this.getMeterRegistry());
+    int count = 0;
+
+    try {
+      final CategoryRepository theDAO = this.getDao();
+      if (null == theDAO) {
+        if (LOGGER.isErrorEnabled()) {
+          LOGGER.error("forEachCategory - DAO has broken when trying to stream all categories");
+        }
+      } else {
+        try (Stream<CategoryRecord> categories = theDAO.streamAllRecords()) {
+          final Iterator<CategoryRecord> iterator = categories.iterator();
+          while (iterator.hasNext()) {
+            consumer.accept(iterator.next());
+            count++;
+          }
+        }
+      }
+    } finally {
+      this.record("forEachCategory", sample, count, 0);
+    }
+  }
+
+  /**
+   * Inserts the supplied categories, replacing the description and parent of any category which already exists, as a
+   * single JDBC batch within one transaction. Each category which is created or changed is given the next change
+   * sequence as its version and recorded in the change feed, categories which are already up to date are left alone.
+   *
+   * @param categories the categories to write (nulls and entries without a name are ignored).
+   * @return the number of categories written or found to be up to date.
+   */
+  @Override
+  @Transactional
+  public int upsertAll(final Collection<? extends Category> categories) {
+    return this.upsertAll(categories, false);
+  }
+
+  /**
+   * Writes one batch of an import like {@link #upsertAll(Collection)}, as its own transaction.
+   *
+   * @param categories the categories to write (nulls and entries without a name are ignored).
+   * @return the number of categories written or found to be up to date.
+   */
+  @Override
+  @Transactional
+  public int importBatch(final Collection<? extends Category> categories) {
+    return this.upsertAll(categories, false);
+  }
+
+  /**
+   * Inserts the supplied categories like {@link #upsertAll(Collection)}, optionally checking every category is at the
+   * version it carries before anything is written. Versions are checked while the change sequence is locked, so no
+   * other writer can change a category between it being checked and written.
+   *
+   * @param categories the categories to write (nulls and entries without a name are ignored).
+   * @param checkVersions true to refuse the whole write if any category is not at the version it carries.
+   * @return the number of categories written or found to be up to date.
+   * @throws CategoryConflictException if versions are checked and a category has been changed by someone else.
+   */
+  @Override
+  @Transactional
+  public int upsertAll(final Collection<? extends Category> categories, final boolean checkVersions) {
+    final Timer.Sample sample = Timer.start(this.getMeterRegistry());
+
+    // Later entries for the same name replace earlier ones, as they would have had they been written in turn.
+    final Map<String, Category> latest = new LinkedHashMap<>();
+    if (null != categories) {
+      categories.stream().filter(cat -> null != cat && null != cat.getName() && !cat.getName().isBlank())
+        .forEach(cat -> latest.put(cat.getName(), cat));
+    }
+
+    try {
+      final JdbcTemplate template = this.getJdbcTemplate();
+      final CategoryRepository theDAO = this.getDao();
+      if (null == template || null == theDAO) {
+        if (LOGGER.isErrorEnabled()) {
+          LOGGER.error("upsertAll - JDBC has broken when trying to write " + latest.size() + " categories");
+        }
+        latest.clear();
+      } else if (!latest.isEmpty()) {
+        final int changed = this.writeChanges(template, theDAO, latest, checkVersions);
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug("upsertAll - " + changed + " of " + latest.size() + " categories were created or changed");
+        }
+      }
+    } finally {
+      this.record("upsertAll", sample, latest.size(), 0);
+    }
+
+    return latest.size();
+  }
+
+  /**
+   * Creates a new category, giving it the next change sequence as its version.
+   *
+   * @param category the category to create.
+   * @return the category as stored, null if the category has no name or the backend is broken.
+   * @throws CategoryConflictException if a category with the same name already exists.
+   * @throws CategoryHierarchyException if the category would sit beneath one of its own descendants.
+   */
+  @Override
+  @Transactional
+  public Category create(final Category category) {
+    final Timer.Sample sample = Timer.start(this.getMeterRegistry());
+    CategoryDomain result = null;
+
+    try {
+      final JdbcTemplate template = this.getJdbcTemplate();
+      final CategoryRepository theDAO = this.getDao();
+      if (null == category || null == category.getName() || category.getName().isBlank()) {
+        if (LOGGER.isInfoEnabled()) {
+          LOGGER.info("create - Invalid Name supplied");
+        }
+      } else if (null == template || null == theDAO) {
+        if (LOGGER.isErrorEnabled()) {
+          LOGGER.error("create - JDBC has broken when trying to create: " + category.getName());
+        }
+      } else {
+        final long sequence = this.lockSequence(template) + 1;
+        final Optional<CategoryDomain> current = theDAO.findById(category.getName());
+        if (current.isPresent()) {
+          throw new CategoryConflictException(category.getName(), current.get().getVersion(),
+            "Category " + category.getName() + " already exists");
+        }
+        this.checkHierarchy(template, List.of(category));
+
+        template.update(INSERT_SQL, category.getName(), category.getDescription(), category.getParent(), sequence);
+        this.recordChange(template, sequence, ChangeType.CREATED, category);
+        result = new CategoryDomain(category.getName(), category.getDescription(), category.getParent());
+        result.setVersion(sequence);
+      }
+    } finally {
+      this.record("create", sample, null == result ? 0 : 1, 0);
+    }
+
+    return result;
+  }
+
+  /**
+   * Replaces the description and parent of an existing category with a single conditional update, provided it is
+   * still at the version the caller read. The category keeps its version if nothing about it has changed.
+   *
+   * @param category the new values for the category, located by its name.
+   * @param expectedVersion the version the caller read, or {@link #ANY_VERSION} to overwrite whatever is there.
+   * @return the category as stored, null if the category does not exist or the backend is broken.
+   * @throws CategoryConflictException if the category is no longer at the expected version.
+   * @throws CategoryHierarchyException if the category would sit beneath one of its own descendants.
+   */
+  @Override
+  @Transactional
+  public Category update(final Category category, final long expectedVersion) {
+    final Timer.Sample sample = Timer.start(this.getMeterRegistry());
+    Category result = null;
+
+    try {
+      final JdbcTemplate template = this.getJdbcTemplate();
+      final CategoryRepository theDAO = this.getDao();
+      if (null == category || null == category.getName() || category.getName().isBlank()) {
+        if (LOGGER.isInfoEnabled()) {
+          LOGGER.info("update - Invalid Name supplied");
+        }
+      } else if (null == template || null == theDAO) {
+        if (LOGGER.isErrorEnabled()) {
+          LOGGER.error("update - JDBC has broken when trying to update: " + category.getName());
+        }
+      } else {
+        final long sequence = this.lockSequence(template) + 1;
+        final CategoryDomain current = theDAO.findById(category.getName()).orElse(null);
+        if (null != current) {
+          checkVersion(category.getName(), current.getVersion(), expectedVersion);
+          this.checkHierarchy(template, List.of(category));
+          if (isUnchanged(current, category)) {
+            result = current;
+          } else {
+            if (0 == template.update(UPDATE_SQL, category.getDescription(), category.getParent(), sequence,
+                category.getName(), current.getVersion())) {
+              // Only possible if something wrote to the table without taking the sequence lock first.
+              throw new CategoryConflictException(category.getName(), current.getVersion(),
+                "Category " + category.getName() + " was changed by someone else");
+            }
+            this.recordChange(template, sequence, ChangeType.UPDATED, category);
+            final CategoryDomain updated = new CategoryDomain(category.getName(), category.getDescription(),
+              category.getParent());
+            updated.setVersion(sequence);
+            result = updated;
+          }
+        }
+      }
+    } finally {
+      this.record("update", sample, null == result ? 0 : 1, null == result ? 1 : 0);
+    }
+
+    return result;
+  }
+
+  /**
+   * Deletes a category with a single conditional delete, provided it is still at the version the caller read.
+   *
+   * @param identifier the name of the category to delete.
+   * @param expectedVersion the version the caller read, or {@link #ANY_VERSION} to delete whatever is there.
+   * @return false if the category does not exist or the backend is broken.
+   * @throws CategoryConflictException if the category is no longer at the expected version.
+   */
+  @Override
+  @Transactional
+  public boolean delete(final String identifier, final long expectedVersion) {
+    final Timer.Sample sample = Timer.start(this.getMeterRegistry());
+    boolean result = false;
+
+    try {
+      final JdbcTemplate template = this.getJdbcTemplate();
+      final CategoryRepository theDAO = this.getDao();
+      if (null == identifier || identifier.isBlank()) {
+        if (LOGGER.isInfoEnabled()) {
+          LOGGER.info("delete - Invalid Name supplied");
+        }
+      } else if (null == template || null == theDAO) {
+        if (LOGGER.isErrorEnabled()) {
+          LOGGER.error("delete - JDBC has broken when trying to delete: " + identifier);
+        }
+      } else {
+        final long sequence = this.lockSequence(template) + 1;
+        final CategoryDomain current = theDAO.findById(identifier).orElse(null);
+        if (null != current) {
+          checkVersion(identifier, current.getVersion(), expectedVersion);
+          if (0 == template.update(DELETE_SQL, identifier, current.getVersion())) {
+            throw new CategoryConflictException(identifier, current.getVersion(),
+              "Category " + identifier + " was changed by someone else");
+          }
+          this.recordChange(template, sequence, ChangeType.DELETED, new CategoryDomain(identifier, null));
+          result = true;
+        }
+      }
+    } finally {
+      this.record("delete", sample, result ? 1 : 0, result ? 0 : 1);
+    }
+
+    return result;
+  }
+
+  /**
+   * Retrieves the changes after the supplied point in the change feed, using a keyset query on the sequence.
+   *
+   * @param since the sequence of the last change the caller has seen (zero for every recorded change).
+   * @param limit the maximum number of changes to return.
+   * @return up to limit changes whose sequence is greater than since, oldest first.
+   */
+  @Override
+  public List<CategoryChange> findChanges(final long since, final int limit) {
+    final Timer.Sample sample = Timer.start(this.getMeterRegistry());
+    final List<CategoryChange> results = new ArrayList<>();
+
+    try {
+      final CategoryChangeRepository theDAO = this.getChanges();
+      if (null == theDAO) {
+        if (LOGGER.isErrorEnabled()) {
+          LOGGER.error("findChanges - DAO has broken when retrieving changes since: " + since);
+        }
+      } else if (limit > 0) {
+        for (final CategoryChangeDomain change : theDAO.findBySequenceGreaterThanOrderBySequenceAsc(since,
+            Limit.of(limit))) {
+          CategoryRecord category = null;
+          if (ChangeType.DELETED != change.getType()) {
+            category = new CategoryRecord(change.getName(), change.getDescription(), change.getParent(),
+              change.getSequence());
+          }
+          results.add(new CategoryChange(change.getSequence(), change.getType(), change.getName(), category));
+        }
+      }
+    } finally {
+      this.record("findChanges", sample, results.size(), 0);
+    }
 
-    final CategoryRepository theDAO = this.getDao();
-    if (null == theDAO) {
+    return results;
+  }
+
+  /**
+   * Retrieves the last sequence handed out to the change feed, only committed changes are visible so this never
+   * refers to a change a reader cannot yet see. Like {@link #findChanges(long, int)} this is deliberately not read
+   * only, so it is read from the primary: a client catching up with the feed must not be handed a replica's older
+   * position.
+   *
+   * @return zero if nothing has changed yet.
+   */
+  @Override
+  public long getLatestChange() {
+    long result = 0;
+
+    final JdbcTemplate template = this.getJdbcTemplate();
+    if (null == template) {
       if (LOGGER.isErrorEnabled()) {
-        LOGGER.error("findAll - DAO has broken when trying to retrieve all categories");
+        LOGGER.error("getLatestChange - JDBC has broken when reading the change sequence");
       }
     } else {
-      try {
-        results.addAll(theDAO.findAll());
-      } catch (final EntityNotFoundException exception) {
-        if (LOGGER.isInfoEnabled()) {
-          LOGGER.info("findAll - Unable to find any entities in the data store");
+      final List<Long> last = template.queryForList(SELECT_SEQUENCE_SQL, Long.class, CategorySequenceDomain.ROW_ID);
+      if (!last.isEmpty() && null != last.get(0)) {
+        result = last.get(0);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Writes the categories which are new or have changed, numbering each change from the change sequence and recording
+   * it in the change feed. The sequence row is locked first, which serialises writers so the existing categories read
+   * here are current and sequences are committed in the order they are handed out.
+   *
+   * @param template used to write the categories and changes.
+   * @param theDAO used to read the existing categories.
+   * @param latest the categories to write keyed on their name.
+   * @param checkVersions true to refuse the whole write if any category is not at the version it carries.
+   * @return the number of categories created or changed.
+   * @throws CategoryConflictException if versions are checked and a category has been changed by someone else.
+   * @throws CategoryHierarchyException if any category would sit beneath one of its own descendants.
+   */
+  private int writeChanges(final JdbcTemplate template, final CategoryRepository theDAO,
+                           final Map<String, Category> latest, final boolean checkVersions) {
+    long sequence = this.lockSequence(template);
+
+    final Map<String, Category> existing = new HashMap<>();
+    for (final CategoryRecord record : theDAO.findRecordsByNames(latest.keySet())) {
+      existing.put(record.getName(), record);
+    }
+
+    // Check everything before writing anything, the caller's transaction is rolled back by the exception anyway but
+    // this saves sending a batch which is going to be thrown away.
+    if (checkVersions) {
+      for (final Category cat : latest.values()) {
+        final Category current = existing.get(cat.getName());
+        checkVersion(cat.getName(), null == current ? 0 : current.getVersion(), cat.getVersion());
+      }
+    }
+    this.checkHierarchy(template, latest.values());
+
+    final List<Object[]> rows = new ArrayList<>();
+    final List<Object[]> changeRows = new ArrayList<>();
+    final List<String> written = new ArrayList<>();
+    for (final Category cat : latest.values()) {
+      final Category current = existing.get(cat.getName());
+      if (null == current || !isUnchanged(current, cat)) {
+        sequence++;
+        written.add(cat.getName());
+        final ChangeType type = null == current ? ChangeType.CREATED : ChangeType.UPDATED;
+        rows.add(new Object[] {cat.getName(), cat.getDescription(), cat.getParent(), sequence});
+        changeRows.add(new Object[] {sequence, type.name(), cat.getName(), cat.getDescription(), cat.getParent()});
+      }
+    }
+
+    if (!rows.isEmpty()) {
+      template.batchUpdate(this.getUpsertSql(template), rows);
+      template.batchUpdate(INSERT_CHANGE_SQL, changeRows);
+      template.update(UPDATE_SEQUENCE_SQL, sequence, CategorySequenceDomain.ROW_ID);
+      this.notifyChange(template, sequence);
+      this.forgetAfterCommit(written);
+    }
+
+    return rows.size();
+  }
+
+  /**
+   * Locks the change sequence row until the transaction ends. Every write takes this lock before reading the
+   * categories it changes, so writers are serialised and what they read cannot be changed by anyone else before they
+   * commit. The row is seeded by the migrations rather than created here, as two first writers could otherwise both
+   * find it missing and both try to insert it.
+   *
+   * @param template used to lock and read the sequence.
+   * @return the last change sequence handed out.
+   * @throws IllegalStateException if the migrations have not seeded the change sequence row.
+   */
+  private long lockSequence(final JdbcTemplate template) {
+    if (0 == template.update(LOCK_SEQUENCE_SQL, CategorySequenceDomain.ROW_ID)) {
+      throw new IllegalStateException("The change sequence has not been seeded, the migrations have not been run");
+    }
+    return template.queryForObject(SELECT_SEQUENCE_SQL, Long.class, CategorySequenceDomain.ROW_ID);
+  }
+
+  /**
+   * Refuses a write which would leave a category beneath itself or one of its own descendants. Called while the change
+   * sequence is locked, so no other writer can change the hierarchy between it being checked and written. Each parent
+   * chain is followed through the categories being written first and then the database, reading the rest of a chain
+   * with a single recursive query the first time it leaves the categories being written.
+   *
+   * @param template used to read the parents already stored.
+   * @param written the categories about to be written.
+   * @throws CategoryHierarchyException if any category would sit beneath itself.
+   */
+  private void checkHierarchy(final JdbcTemplate template, final Collection<? extends Category> written) {
+    // Each name's parent once the write is applied, null for a root or a category which does not exist.
+    final Map<String, String> parents = new HashMap<>();
+    written.forEach(cat -> parents.put(cat.getName(), cat.getParent()));
+    // Names whose chain is known to end at a root, so it is not followed again.
+    final Set<String> rooted = new HashSet<>();
+
+    for (final Category category : written) {
+      final Set<String> chain = new HashSet<>();
+      String name = category.getParent();
+      while (null != name && !rooted.contains(name) && chain.add(name)) {
+        if (name.equals(category.getName())) {
+          throw new CategoryHierarchyException(category.getName(), "Category " + category.getName()
+            + " would sit beneath itself");
+        }
+        if (!parents.containsKey(name)) {
+          // Stored parents never replace those about to be written.
+          for (final Category stored : template.query(ANCESTORS_SQL, CategoriesDAO::toRecord, name)) {
+            parents.putIfAbsent(stored.getName(), stored.getParent());
+          }
+          parents.putIfAbsent(name, null);
         }
+        name = parents.get(name);
       }
+
+      // A chain which loops without reaching the category is someone else's loop, found when they are checked.
+      if (null == name) {
+        rooted.addAll(chain);
+      }
+    }
+  }
+
+  /**
+   * Records a single change in the change feed, moves the change sequence on to it and tells the other instances.
+   *
+   * @param template used to write the change.
+   * @param sequence the sequence handed out to the change.
+   * @param type what happened to the category.
+   * @param category the category as it was after the change (only the name is kept for deletes).
+   */
+  private void recordChange(final JdbcTemplate template, final long sequence, final ChangeType type,
+                            final Category category) {
+    final boolean deleted = ChangeType.DELETED == type;
+    template.update(INSERT_CHANGE_SQL, sequence, type.name(), category.getName(),
+      deleted ? null : category.getDescription(), deleted ? null : category.getParent());
+    template.update(UPDATE_SEQUENCE_SQL, sequence, CategorySequenceDomain.ROW_ID);
+    this.notifyChange(template, sequence);
+    this.forgetAfterCommit(List.of(category.getName()));
+  }
+
+  /**
+   * Forgets any remembered misses for the written names once the transaction commits, so a category which has just
+   * been created is found straight away. Forgetting before the commit would let a lookup remember the miss again.
+   *
+   * @param names the names which have been written.
+   */
+  private void forgetAfterCommit(final Collection<String> names) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          CategoriesDAO.this.lookups.forget(names);
+        }
+      });
+    } else {
+      this.lookups.forget(names);
+    }
+  }
+
+  /**
+   * Refuses a write if the category is not at the version the caller expected.
+   *
+   * @param identifier the name of the category being written.
+   * @param current the version the category is at (zero if it does not exist or has never been changed).
+   * @param expected the version the caller expected, or {@link #ANY_VERSION} to accept any version.
+   * @throws CategoryConflictException if the versions differ.
+   */
+  private static void checkVersion(final String identifier, final long current, final long expected) {
+    if (ANY_VERSION != expected && current != expected) {
+      throw new CategoryConflictException(identifier, current, "Category " + identifier + " is at version " + current
+        + " not " + expected + ", it was changed by someone else");
+    }
+  }
+
+  /**
+   * Checks whether writing a category would change what is stored.
+   *
+   * @param current the category as stored.
+   * @param category the category to write.
+   * @return true if the description and parent are the same.
+   */
+  private static boolean isUnchanged(final Category current, final Category category) {
+    return Objects.equals(current.getDescription(), category.getDescription())
+      && Objects.equals(current.getParent(), category.getParent());
+  }
+
+  /**
+   * Works out which upsert statement the database supports.
+   *
+   * @param template used to read the database product name.
+   * @return the SQL to use for each category, binding the name, description, parent and then the version.
+   */
+  private String getUpsertSql(final JdbcTemplate template) {
+    return this.isPostgres(template) ? POSTGRES_UPSERT_SQL : MERGE_UPSERT_SQL;
+  }
+
+  /**
+   * Checks whether the database is PostgreSQL, the answer is kept so this only queries the connection metadata once.
+   *
+   * @param template used to read the database product name.
+   * @return false for any other database.
+   */
+  private boolean isPostgres(final JdbcTemplate template) {
+    Boolean result = this.postgres;
+    if (null == result) {
+      final String product = template.execute((ConnectionCallback<String>) connection ->
+        connection.getMetaData().getDatabaseProductName());
+      result = null != product && product.toLowerCase(Locale.ROOT).contains("postgres");
+      this.postgres = result;
+
+      if (LOGGER.isInfoEnabled()) {
+        final String upserts = result ? "ON CONFLICT upserts and change notifications" : "MERGE upserts";
+        LOGGER.info("isPostgres - Using " + upserts + " for " + product);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Tells every instance listening on the database that the categories have changed, so they can bring their caches
+   * up to date without waiting for them to expire. PostgreSQL only delivers the notification once the transaction
+   * commits (and drops it if it rolls back); other databases have no equivalent so nothing is sent.
+   *
+   * @param template used to send the notification, within the writer's transaction.
+   * @param sequence the last change sequence the transaction handed out.
+   */
+  private void notifyChange(final JdbcTemplate template, final long sequence) {
+    if (this.isPostgres(template)) {
+      template.queryForList(NOTIFY_SQL, CHANGE_CHANNEL, Long.toString(sequence));
+    }
+  }
+
+  /**
+   * Runs one of the recursive hierarchy queries, reading the rows straight into immutable records.
+   *
+   * @param operation the name of the operation, used to name the query stage.
+   * @param sql the recursive query, taking the name of the category it starts from.
+   * @param identifier the name of the category the query starts from.
+   * @return the categories read, empty if the category could not be located or JDBC is broken.
+   */
+  private List<Category> queryHierarchy(final String operation, final String sql, final String identifier) {
+    final List<Category> results = new ArrayList<>();
+    final JdbcTemplate template = this.getJdbcTemplate();
+    if (null == template) {
+      if (LOGGER.isErrorEnabled()) {
+        LOGGER.error(operation + " - JDBC has broken when reading the hierarchy for: " + identifier);
+      }
+    } else {
+      results.addAll(this.query(operation, () -> template.query(sql, CategoriesDAO::toRecord, identifier)));
     }
 
     return results;
   }
+
+  /**
+   * Reads a row of one of the recursive hierarchy queries into an immutable record.
+   *
+   * @param row the result set, positioned on the row to read.
+   * @param number the number of the row.
+   * @return the category held in the row.
+   * @throws SQLException if the row cannot be read.
+   */
+  private static CategoryRecord toRecord(final ResultSet row, final int number) throws SQLException {
+    return new CategoryRecord(row.getString("name"), row.getString("description"), row.getString("parent"),
+      row.getLong("version"));
+  }
+
+  /**
+   * Runs a query as a stage, covering both the query and reading its rows into records.
+   *
+   * @param operation the name of the operation, appended to {@link CategoryStages#DAO_PREFIX}.
+   * @param work runs the query.
+   * @param <T> the type returned by the query.
+   * @return whatever the query returned.
+   */
+  private <T> T query(final String operation, final Supplier<T> work) {
+    return CategoryStages.observe(this.getObservationRegistry(), CategoryStages.DAO_PREFIX + operation, work);
+  }
+
+  /**
+   * Records the metrics for a database operation, called whether or not it succeeded so the timer sample is always
+   * stopped.
+   *
+   * @param operation the name of the operation, used to tag the metrics.
+   * @param sample the timer sample started when the operation began.
+   * @param found the number of categories returned.
+   * @param missing the number of requested names which could not be found.
+   */
+  private void record(final String operation, final Timer.Sample sample, final int found, final int missing) {
+    final MeterRegistry registry = this.getMeterRegistry();
+    sample.stop(registry.timer(METRIC_REQUESTS, TAG_OPERATION, operation));
+    registry.summary(METRIC_RESULTS, TAG_OPERATION, operation).record(found);
+    if (missing > 0) {
+      registry.counter(METRIC_MISSES, TAG_OPERATION, operation).increment(missing);
+    }
+  }
 }
@@ -0,0 +1,194 @@
+package uk.pallas.systems.categr.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
+import java.util.function.ToLongFunction;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import uk.pallas.systems.categr.CategoryConstants;
+
+/**
+ * Spring configuration which decides which CategoriesDAOService the rest of the application is handed, by default the
+ * JPA backed CategoriesDAO is wrapped in a read-through snapshot cache.
+ */
+@Configuration
+@Profile("!" + CategoryConstants.MAPPED_PROFILE)
+public class CategoriesServiceConfiguration {
+
+  /** Default class constructor. */
+  public CategoriesServiceConfiguration() {
+    // Do Nothing
+  }
+
+  /**
+   * Creates the caching service, this is marked as primary so it is injected in place of the CategoriesDAO.
+   *
+   * @param dao the JPA backed service the cache is loaded from.
+   * @param refreshInterval how long a snapshot is served before it is reloaded from the database.
+   * @param observations supplies the registry the snapshot load and build stages are reported to, if there is one.
+   * @param meters supplies the registry reads from the snapshot are timed in, if there is one.
+   * @return a new caching service.
+   */
+  @Bean
+  @Primary
+  @ConditionalOnProperty(prefix = "categr.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+  public CachingCategoriesDAOService cachingCategoriesDAOService(final CategoriesDAO dao,
+      @Value("${categr.cache.refresh-interval:PT5M}") final Duration refreshInterval,
+      final ObjectProvider<ObservationRegistry> observations, final ObjectProvider<MeterRegistry> meters) {
+    final CachingCategoriesDAOService result = new CachingCategoriesDAOService(dao, refreshInterval);
+    observations.ifAvailable(result::setObservationRegistry);
+    meters.ifAvailable(result::setMeterRegistry);
+    return result;
+  }
+
+  /**
+   * Creates the service answering item queries from an in-memory bitmap index, this is marked as primary so it is
+   * injected in place of the CategoryItemsDAO. Writes made by other instances are picked up when the index is next
+   * reloaded.
+   *
+   * @param dao the JDBC backed service the tags are loaded from.
+   * @param refreshInterval how long an index is served before it is reloaded from the database.
+   * @return a new indexed service.
+   */
+  @Bean
+  @Primary
+  @ConditionalOnProperty(prefix = "categr.items.index", name = "enabled", havingValue = "true", matchIfMissing = true)
+  public IndexedCategoryItemsService indexedCategoryItemsService(final CategoryItemsDAO dao,
+      @Value("${categr.items.index.refresh-interval:PT1M}") final Duration refreshInterval) {
+    return new IndexedCategoryItemsService(dao, refreshInterval);
+  }
+
+  /**
+   * Creates the listener which applies changes written by other instances to the cache as soon as PostgreSQL reports
+   * them, Spring starts it once the context is ready and stops it on shutdown. Nothing is created if the cache or
+   * notifications are disabled, and the listener stops by itself against any other database.
+   *
+   * @param dataSource where the connection used to listen is taken from.
+   * @param cache the cache the changes are applied to.
+   * @param reconnectDelay how long to wait before reconnecting after the connection fails.
+   * @param threads supplies what the listener runs on, platform threads are used if not supplied.
+   * @return a new listener.
+   */
+  @Bean(initMethod = "start")
+  @ConditionalOnExpression("${categr.cache.enabled:true} and ${categr.cache.notify.enabled:true}")
+  public CategoryChangeListener categoryChangeListener(final DataSource dataSource,
+      final CachingCategoriesDAOService cache,
+      @Value("${categr.cache.notify.reconnect-delay:PT5S}") final Duration reconnectDelay,
+      final ObjectProvider<CategoryThreads> threads) {
+    final CategoryChangeListener result = new CategoryChangeListener(dataSource, cache, reconnectDelay);
+    threads.ifAvailable(result::setThreads);
+    return result;
+  }
+
+  /**
+   * Publishes the caching service hit, miss and (partial) refresh counts along with the size and version of the
+   * snapshot being served. Nothing is published if the cache is disabled.
+   *
+   * @param caches supplies the caching service if one has been created.
+   * @return a binder which Spring Boot will register with the meter registry.
+   */
+  @Bean
+  public MeterBinder cachingCategoriesDAOServiceMetrics(final ObjectProvider<CachingCategoriesDAOService> caches) {
+    return registry -> caches.ifAvailable(cache -> {
+      FunctionCounter.builder("categr.cache.hits", cache, CachingCategoriesDAOService::getHitCount)
+        .description("Lookups answered from the category snapshot").register(registry);
+      FunctionCounter.builder("categr.cache.misses", cache, CachingCategoriesDAOService::getMissCount)
+        .description("Lookups for categories which do not exist").register(registry);
+      FunctionCounter.builder("categr.cache.refreshes", cache, CachingCategoriesDAOService::getRefreshCount)
+        .description("Times the category snapshot was loaded from the database").register(registry);
+      FunctionCounter.builder("categr.cache.partial-refreshes", cache,
+          CachingCategoriesDAOService::getPartialRefreshCount)
+        .description("Times changes from the change feed were applied to the category snapshot").register(registry);
+      Gauge.builder("categr.cache.size", cache, CategoriesServiceConfiguration::snapshotSize)
+        .description("Number of categories in the snapshot being served").register(registry);
+      Gauge.builder("categr.cache.version", cache, CategoriesServiceConfiguration::snapshotVersion)
+        .description("Version of the snapshot being served").register(registry);
+    });
+  }
+
+  /**
+   * Publishes how many lookups by name shared another caller's query, and how many were answered from the names
+   * remembered as missing, rather than reaching the database.
+   *
+   * @param dao the JPA backed service doing the lookups.
+   * @return a binder which Spring Boot will register with the meter registry.
+   */
+  @Bean
+  public MeterBinder categoriesDAOLookupMetrics(final CategoriesDAO dao) {
+    return registry -> {
+      FunctionCounter.builder("categr.dao.coalesced", dao.getLookups(), LookupCoalescer::getCoalescedCount)
+        .description("Lookups by name which shared a query already in flight").register(registry);
+      FunctionCounter.builder("categr.dao.cached-misses", dao.getLookups(), LookupCoalescer::getCachedMissCount)
+        .description("Lookups by name answered from recently missed names").register(registry);
+      Gauge.builder("categr.dao.remembered-misses", dao.getLookups(), LookupCoalescer::getMissCount)
+        .description("Number of names currently remembered as missing").register(registry);
+    };
+  }
+
+  /**
+   * Publishes the number of item queries answered from the bitmap index, how often it was reloaded, and the size of the
+   * index being served. Nothing is published if the index is disabled.
+   *
+   * @param indexes supplies the indexed service if one has been created.
+   * @return a binder which Spring Boot will register with the meter registry.
+   */
+  @Bean
+  public MeterBinder indexedCategoryItemsServiceMetrics(final ObjectProvider<IndexedCategoryItemsService> indexes) {
+    return registry -> indexes.ifAvailable(items -> {
+      FunctionCounter.builder("categr.items.queries", items, IndexedCategoryItemsService::getQueryCount)
+        .description("Item queries answered from the category bitmaps").register(registry);
+      FunctionCounter.builder("categr.items.refreshes", items, IndexedCategoryItemsService::getRefreshCount)
+        .description("Times the category bitmaps were loaded from the database").register(registry);
+      Gauge.builder("categr.items.tags", items, index -> indexSize(index, CategoryItemIndex::getTagCount))
+        .description("Number of tags held in the category bitmaps").register(registry);
+      Gauge.builder("categr.items.bitmap.bytes", items, index -> indexSize(index, CategoryItemIndex::getBitmapBytes))
+        .description("Serialised size of the category bitmaps").register(registry);
+    });
+  }
+
+  /**
+   * Retrieves a size from the item index being served, without loading one.
+   *
+   * @param items the indexed service.
+   * @param size reads the size from the index.
+   * @return NaN if no index is loaded.
+   */
+  private static double indexSize(final IndexedCategoryItemsService items,
+                                  final ToLongFunction<CategoryItemIndex> size) {
+    final CategoryItemIndex index = items.peekIndex();
+    return null == index ? Double.NaN : size.applyAsLong(index);
+  }
+
+  /**
+   * Retrieves the number of categories in the snapshot being served, without loading one.
+   *
+   * @param cache the caching service.
+   * @return NaN if no snapshot is loaded.
+   */
+  private static double snapshotSize(final CachingCategoriesDAOService cache) {
+    final CategorySnapshot snapshot = cache.peekSnapshot();
+    return null == snapshot ? Double.NaN : snapshot.getCategories().size();
+  }
+
+  /**
+   * Retrieves the version of the snapshot being served, without loading one.
+   *
+   * @param cache the caching service.
+   * @return NaN if no snapshot is loaded.
+   */
+  private static double snapshotVersion(final CachingCategoriesDAOService cache) {
+    final CategorySnapshot snapshot = cache.peekSnapshot();
+    return null == snapshot ? Double.NaN : snapshot.getVersion();
+  }
+}
@@ -0,0 +1,219 @@
+package uk.pallas.systems.categr.services;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+/**
+ * Listens for the change notifications {@link CategoriesDAO} sends through PostgreSQL (LISTEN/NOTIFY) whenever any
+ * instance writes to the categories, and applies the changes to the local snapshot cache straight away rather than
+ * waiting for it to expire. A notification only carries the latest change sequence, the changed categories are read
+ * from the change feed, so a missed or merged notification costs nothing but latency. Whenever the listener
+ * (re)connects it catches up with anything written while it was not listening.
+ *
+ * <p>The listener holds one connection from the pool for as long as it runs. Other databases have no equivalent of
+ * LISTEN/NOTIFY, so against them the listener stops straight away and the cache relies on its refresh interval.</p>
+ */
+public class CategoryChangeListener implements AutoCloseable {
+
+  /** Static Logger for the class. */
+  private static final Log LOGGER = LogFactory.getLog(CategoryChangeListener.class);
+
+  /** How long to wait for a notification before checking whether the listener has been stopped. */
+  private static final int POLL_MILLIS = 500;
+
+  /** Where the connection used to listen is taken from. */
+  private final DataSource dataSource;
+
+  /** The cache the changes are applied to. */
+  private final CachingCategoriesDAOService cache;
+
+  /** How long to wait before reconnecting after the connection fails. */
+  private final Duration reconnectDelay;
+
+  /** Number of notifications received. */
+  private final AtomicLong notifications = new AtomicLong();
+
+  /** Creates the background thread. */
+  private CategoryThreads threads = CategoryThreads.PLATFORM;
+
+  /** Receives the notifications, null until started. */
+  private Thread listener;
+
+  /** Cleared to stop the listener. */
+  private volatile boolean running;
+
+  /**
+   * Class Constructor, nothing is listened for until the listener is started.
+   *
+   * @param source where the connection used to listen is taken from.
+   * @param categories the cache the changes are applied to.
+   * @param delay how long to wait before reconnecting after the connection fails, at least
+   *              {@link CategoryThreads#MIN_RETRY_DELAY}.
+   */
+  public CategoryChangeListener(final DataSource source, final CachingCategoriesDAOService categories,
+                                final Duration delay) {
+    if (null == source || null == categories) {
+      throw new IllegalArgumentException("A DataSource and CachingCategoriesDAOService must be supplied");
+    }
+
+    this.dataSource = source;
+    this.cache = categories;
+    this.reconnectDelay = CategoryThreads.retryDelay(delay);
+  }
+
+  /**
+   * Retrieves what the background thread is created with.
+   * @return never null, platform threads unless something else was set.
+   */
+  public CategoryThreads getThreads() {
+    return this.threads;
+  }
+
+  /**
+   * Sets what the background thread is created with, so it follows the application's threading mode.
+   * @param categoryThreads creates the background thread (null for platform threads).
+   */
+  public void setThreads(final CategoryThreads categoryThreads) {
+    this.threads = null == categoryThreads ? CategoryThreads.PLATFORM : categoryThreads;
+  }
+
+  /**
+   * Starts listening for notifications on a background thread.
+   */
+  public synchronized void start() {
+    if (null == this.listener) {
+      this.running = true;
+      this.listener = this.getThreads().start("categr-notify", this::listen);
+    }
+  }
+
+  /**
+   * Stops listening and waits briefly for the connection to be handed back to the pool.
+   */
+  @Override
+  public synchronized void close() {
+    this.running = false;
+    if (null != this.listener) {
+      try {
+        this.listener.join(POLL_MILLIS * 2L);
+      } catch (final InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      }
+      this.listener = null;
+    }
+  }
+
+  /**
+   * Retrieves the number of notifications received.
+   *
+   * @return zero or more.
+   */
+  public long getNotificationCount() {
+    return this.notifications.get();
+  }
+
+  /**
+   * Checks whether the listener is running, it stops by itself if the database is not PostgreSQL.
+   *
+   * @return false if the listener has not been started or has stopped.
+   */
+  public boolean isRunning() {
+    return this.running;
+  }
+
+  /**
+   * Receives notifications until stopped, reconnecting whenever the connection fails.
+   */
+  private void listen() {
+    while (this.running) {
+      try (Connection connection = this.dataSource.getConnection()) {
+        final String product = connection.getMetaData().getDatabaseProductName();
+        if (null == product || !product.toLowerCase(Locale.ROOT).contains("postgres")) {
+          if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("listen - " + product + " has no change notifications, the cache relies on its refresh "
+              + "interval");
+          }
+          this.running = false;
+        } else {
+          this.receive(connection);
+        }
+      } catch (final SQLException | RuntimeException exception) {
+        if (LOGGER.isWarnEnabled()) {
+          LOGGER.warn("listen - Lost the change notification connection, reconnecting in " + this.reconnectDelay,
+            exception);
+        }
+        this.pause();
+      }
+    }
+  }
+
+  /**
+   * Subscribes to the change channel and applies the changes each notification reports until stopped.
+   *
+   * @param connection a PostgreSQL connection, held for as long as the listener runs.
+   * @throws SQLException if the connection fails.
+   */
+  private void receive(final Connection connection) throws SQLException {
+    connection.setAutoCommit(true);
+    final PGConnection notifier = connection.unwrap(PGConnection.class);
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("LISTEN " + CategoriesDAO.CHANGE_CHANNEL);
+    }
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info("receive - Listening for category changes on " + CategoriesDAO.CHANGE_CHANNEL);
+    }
+
+    // Anything written before the LISTEN took effect was never going to be notified.
+    this.cache.applyChanges(CategoriesDAOService.UNVERSIONED);
+
+    while (this.running) {
+      final PGNotification[] received = notifier.getNotifications(POLL_MILLIS);
+      if (null != received && received.length > 0) {
+        this.notifications.addAndGet(received.length);
+
+        long latest = CategoriesDAOService.UNVERSIONED;
+        for (final PGNotification notification : received) {
+          latest = Math.max(latest, parseSequence(notification.getParameter()));
+        }
+        this.cache.applyChanges(latest);
+      }
+    }
+  }
+
+  /**
+   * Reads the change sequence carried by a notification.
+   *
+   * @param payload the notification payload.
+   * @return {@link CategoriesDAOService#UNVERSIONED} if the payload is not a sequence.
+   */
+  private static long parseSequence(final String payload) {
+    long result = CategoriesDAOService.UNVERSIONED;
+    try {
+      result = null == payload ? result : Long.parseLong(payload.trim());
+    } catch (final NumberFormatException exception) {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("parseSequence - Ignoring notification payload: " + payload);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Waits before reconnecting, returning early if the listener is stopped.
+   */
+  private void pause() {
+    if (!CategoryThreads.pause(this.reconnectDelay, () -> this.running)) {
+      this.running = false;
+    }
+  }
+}
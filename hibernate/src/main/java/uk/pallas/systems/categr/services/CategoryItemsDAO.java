@@ -0,0 +1,289 @@
+package uk.pallas.systems.categr.services;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import uk.pallas.systems.categr.CategoryConstants;
+
+/**
+ * Stores the tags linking external items to categories in the Category_Items table (see
+ * {@link uk.pallas.systems.categr.domain.entities.v1.CategoryItemDomain}). The queries are plain SQL as the number of
+ * categories matched varies from call to call; they are correct but each one is a scan of the matching categories'
+ * rows, so by default this sits behind an {@link IndexedCategoryItemsService} which answers them from bitmaps.
+ */
+@Service
+@Profile("!" + CategoryConstants.MAPPED_PROFILE)
+public class CategoryItemsDAO implements CategoryItemsService {
+  /** Static Logger for the class. */
+  private static final Log LOGGER = LogFactory.getLog(CategoryItemsDAO.class);
+
+  /** Reads the categories a single item is tagged with. */
+  private static final String SELECT_CATEGORIES_SQL = "SELECT name FROM Category_Items WHERE item_id = ? "
+    + "ORDER BY name";
+
+  /** Reads every tag. */
+  private static final String SELECT_TAGS_SQL = "SELECT item_id, name FROM Category_Items";
+
+  /** Tags an item with a category. */
+  private static final String INSERT_SQL = "INSERT INTO Category_Items (item_id, name) VALUES (?, ?)";
+
+  /** Reads which of the categories exist, formatted with the category placeholders. */
+  private static final String SELECT_EXISTING_SQL = "SELECT name FROM Categories WHERE name IN (%s)";
+
+  /** Removes every tag from an item. */
+  private static final String DELETE_SQL = "DELETE FROM Category_Items WHERE item_id = ?";
+
+  /** Reads a page of the items tagged with any of the categories, formatted with the category placeholders. */
+  private static final String SELECT_ANY_SQL = "SELECT DISTINCT item_id FROM Category_Items WHERE name IN (%s) "
+    + "AND item_id > ? ORDER BY item_id LIMIT ?";
+
+  /** Reads a page of the items tagged with all the categories, formatted with the category placeholders. */
+  private static final String SELECT_ALL_SQL = "SELECT item_id FROM Category_Items WHERE name IN (%s) "
+    + "AND item_id > ? GROUP BY item_id HAVING COUNT(*) = ? ORDER BY item_id LIMIT ?";
+
+  /** Counts the items tagged with any of the categories, formatted with the category placeholders. */
+  private static final String COUNT_ANY_SQL = "SELECT COUNT(DISTINCT item_id) FROM Category_Items WHERE name IN (%s)";
+
+  /** Counts the items tagged with all the categories, formatted with the category placeholders. */
+  private static final String COUNT_ALL_SQL = "SELECT COUNT(*) FROM (SELECT item_id FROM Category_Items "
+    + "WHERE name IN (%s) GROUP BY item_id HAVING COUNT(*) = ?) matched";
+
+  /** The number of rows fetched at a time when reading every tag. */
+  private static final int FETCH_SIZE = 1000;
+
+  /** Used to read and write the tags. */
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  /**
+   * Default Constructor.
+   */
+  public CategoryItemsDAO() {
+    // Do Nothing
+  }
+
+  /**
+   * Retrieves the JDBC template used to read and write the tags.
+   * @return should never be null unless something has happened to spring.
+   */
+  public JdbcTemplate getJdbcTemplate() {
+    return this.jdbcTemplate;
+  }
+
+  /**
+   * Sets the JDBC template used to read and write the tags.
+   * @param template the JDBC template used to read and write the tags.
+   */
+  public void setJdbcTemplate(final JdbcTemplate template) {
+    this.jdbcTemplate = template;
+  }
+
+  /**
+   * Retrieves the categories an item is tagged with.
+   *
+   * @param item the ID of the item.
+   * @return the category names ordered by name, empty if the item has no tags.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public List<String> findCategories(final String item) {
+    final List<String> results;
+    if (null == item || item.isEmpty()) {
+      results = Collections.emptyList();
+    } else {
+      results = this.getJdbcTemplate().queryForList(SELECT_CATEGORIES_SQL, String.class, item);
+    }
+
+    return results;
+  }
+
+  /**
+   * Retrieves a page of the items tagged with all, or any, of the supplied categories.
+   *
+   * @param categories the names of the categories to match (null and blank names are ignored).
+   * @param match how the categories are combined (null is treated as all).
+   * @param after the ID of the last item on the previous page (null or empty for the first page).
+   * @param limit the maximum number of items to return.
+   * @return up to limit item IDs ordered by ID, empty if there are no more (or no categories were supplied).
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public List<String> findItems(final Collection<String> categories, final ItemMatch match, final String after,
+                                final int limit) {
+    final Set<String> names = CategoryItemsService.toCategoryNames(categories);
+
+    final List<String> results;
+    if (names.isEmpty() || limit < 1) {
+      results = Collections.emptyList();
+    } else {
+      final List<Object> args = new ArrayList<>(names);
+      args.add(null == after ? "" : after);
+      final String sql;
+      if (ItemMatch.ANY == match) {
+        sql = SELECT_ANY_SQL;
+      } else {
+        sql = SELECT_ALL_SQL;
+        args.add(names.size());
+      }
+      args.add(limit);
+
+      results = this.getJdbcTemplate().queryForList(String.format(sql, placeholders(names.size())), String.class,
+        args.toArray());
+    }
+
+    return results;
+  }
+
+  /**
+   * Counts the items tagged with all, or any, of the supplied categories.
+   *
+   * @param categories the names of the categories to match (null and blank names are ignored).
+   * @param match how the categories are combined (null is treated as all).
+   * @return zero or more.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public long countItems(final Collection<String> categories, final ItemMatch match) {
+    final Set<String> names = CategoryItemsService.toCategoryNames(categories);
+
+    long result = 0;
+    if (!names.isEmpty()) {
+      final List<Object> args = new ArrayList<>(names);
+      final String sql;
+      if (ItemMatch.ANY == match) {
+        sql = COUNT_ANY_SQL;
+      } else {
+        sql = COUNT_ALL_SQL;
+        args.add(names.size());
+      }
+
+      final Long count = this.getJdbcTemplate().queryForObject(String.format(sql, placeholders(names.size())),
+        Long.class, args.toArray());
+      result = null == count ? 0 : count;
+    }
+
+    return result;
+  }
+
+  /**
+   * Replaces the categories an item is tagged with, in a single transaction so readers see either the old tags or the
+   * new ones. The categories are checked in the same transaction, and the foreign key from the tags to the categories
+   * refuses any deleted before the tags are written.
+   *
+   * @param item the ID of the item.
+   * @param categories the names of the categories the item is now tagged with (null, blank and repeated names are
+   *                   ignored), an empty collection removes the item.
+   * @return the number of categories the item is now tagged with.
+   * @throws CategoryNotFoundException if any of the categories do not exist, the item's tags are left as they were.
+   */
+  @Override
+  @Transactional
+  public int setCategories(final String item, final Collection<String> categories) {
+    int result = 0;
+
+    if (null == item || item.isEmpty()) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("setCategories - Invalid item supplied");
+      }
+    } else {
+      final JdbcTemplate template = this.getJdbcTemplate();
+      final Set<String> names = CategoryItemsService.toCategoryNames(categories);
+      checkCategories(template, item, names);
+
+      template.update(DELETE_SQL, item);
+      final List<Object[]> rows = new ArrayList<>();
+      names.forEach(name -> rows.add(new Object[] {item, name}));
+      if (!rows.isEmpty()) {
+        try {
+          template.batchUpdate(INSERT_SQL, rows);
+        } catch (final DuplicateKeyException exception) {
+          throw exception;
+        } catch (final DataIntegrityViolationException exception) {
+          // Only the foreign key can refuse the tags, so one of the categories was deleted after it was checked.
+          throw new CategoryNotFoundException(names, "Unable to tag " + item + ", a category has since been deleted");
+        }
+      }
+      result = rows.size();
+
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("setCategories - Tagged " + item + " with " + result + " categories");
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Removes every tag from an item.
+   *
+   * @param item the ID of the item.
+   * @return false if the item had no tags.
+   */
+  @Override
+  @Transactional
+  public boolean removeItem(final String item) {
+    return null != item && !item.isEmpty() && this.getJdbcTemplate().update(DELETE_SQL, item) > 0;
+  }
+
+  /**
+   * Passes every tag to the supplied consumer, streamed from the database rather than read into memory first. This
+   * loads the bitmap index straight after a write, and unlike the categories the tags have no change feed to catch up
+   * from, so it is deliberately not read only and is never routed to a replica which may not have the write yet.
+   *
+   * @param consumer called with the item ID and category name of each tag.
+   */
+  @Override
+  @Transactional
+  public void forEachTag(final BiConsumer<String, String> consumer) {
+    final JdbcTemplate template = this.getJdbcTemplate();
+    final int fetchSize = template.getFetchSize();
+    template.query(connection -> {
+      final PreparedStatement statement = connection.prepareStatement(SELECT_TAGS_SQL);
+      statement.setFetchSize(fetchSize > 0 ? fetchSize : FETCH_SIZE);
+      return statement;
+    }, (RowCallbackHandler) row -> consumer.accept(row.getString(1), row.getString(2)));
+  }
+
+  /**
+   * Checks every category an item is about to be tagged with exists.
+   *
+   * @param template used to read the categories.
+   * @param item the ID of the item, for the message.
+   * @param names the names of the categories.
+   * @throws CategoryNotFoundException if any of the categories do not exist.
+   */
+  private static void checkCategories(final JdbcTemplate template, final String item, final Set<String> names) {
+    if (!names.isEmpty()) {
+      final List<String> existing = template.queryForList(String.format(SELECT_EXISTING_SQL,
+        placeholders(names.size())), String.class, names.toArray());
+      if (existing.size() != names.size()) {
+        final List<String> missing = names.stream().filter(name -> !existing.contains(name)).toList();
+        throw new CategoryNotFoundException(missing, "Unable to tag " + item + ", unknown categories: " + missing);
+      }
+    }
+  }
+
+  /**
+   * Builds the placeholders for an IN clause.
+   *
+   * @param count the number of values in the clause.
+   * @return e.g. "?, ?, ?" for three values.
+   */
+  private static String placeholders(final int count) {
+    return String.join(", ", Collections.nCopies(count, "?"));
+  }
+}
@@ -0,0 +1,41 @@
+package uk.pallas.systems.categr.services;
+
+import java.time.Duration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import uk.pallas.systems.categr.CategoryConstants;
+
+/**
+ * Spring configuration which moves the schema migrations (db/migration) off the start up path, enabled by
+ * categr.migrations.background=true. By default Spring Boot applies them before anything else touches the database.
+ */
+@Configuration
+@Profile("!" + CategoryConstants.MAPPED_PROFILE)
+@ConditionalOnProperty(prefix = "categr.migrations", name = "background", havingValue = "true")
+public class MigrationConfiguration {
+
+  /** Default class constructor. */
+  public MigrationConfiguration() {
+    // Do Nothing
+  }
+
+  /**
+   * Creates the strategy Spring Boot hands the migrations to, which applies them on a background thread.
+   *
+   * @param retryDelay how long to wait before trying the migrations again after they fail.
+   * @param threads supplies what the migrations run on, platform threads are used if not supplied.
+   * @return a new strategy, Spring stops it retrying on shutdown.
+   */
+  @Bean
+  public BackgroundMigrationStrategy backgroundMigrationStrategy(
+      @Value("${categr.migrations.retry-delay:PT5S}") final Duration retryDelay,
+      final ObjectProvider<CategoryThreads> threads) {
+    final BackgroundMigrationStrategy result = new BackgroundMigrationStrategy(retryDelay);
+    threads.ifAvailable(result::setThreads);
+    return result;
+  }
+}
@@ -0,0 +1,137 @@
+package uk.pallas.systems.categr.services;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import uk.pallas.systems.categr.CategoryConstants;
+
+/**
+ * Spring configuration which replaces the single DataSource with a primary pool, configured as usual through
+ * spring.datasource (and spring.datasource.hikari), and a pool per read replica configured through
+ * categr.datasource.replicas[n]. Read only transactions are routed to the replicas by {@link ReplicaRoutingDataSource}.
+ * Each replica takes the same Hikari settings as the primary's spring.datasource.hikari block (jdbc-url,
+ * maximum-pool-size, connection-timeout, etc..), the username, password and driver default to the primary's.
+ */
+@Configuration
+@Profile("!" + CategoryConstants.MAPPED_PROFILE)
+@ConditionalOnProperty(prefix = "categr.datasource.routing", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfiguration {
+
+  /** Prefix of the properties configuring the replica pools. */
+  public static final String REPLICAS_PREFIX = "categr.datasource.replicas";
+
+  /** Name given to the primary pool when one is not configured. */
+  public static final String PRIMARY_POOL_NAME = "categr-primary";
+
+  /** Prefix of the names given to the replica pools when one is not configured, followed by their position. */
+  public static final String REPLICA_POOL_PREFIX = "categr-replica-";
+
+  /** Default class constructor. */
+  public ReplicaDataSourceConfiguration() {
+    // Do Nothing
+  }
+
+  /**
+   * Creates the primary and replica pools along with the DataSource routing between them. The pools connect when they
+   * are first used, so a replica which is down at start up does not stop the service starting.
+   *
+   * @param properties the spring.datasource settings, used for the primary.
+   * @param environment where the spring.datasource.hikari and replica settings are read from.
+   * @return a new routing DataSource, Spring closes its pools on shutdown.
+   */
+  @Bean
+  public ReplicaRoutingDataSource replicaRoutingDataSource(final DataSourceProperties properties,
+      final Environment environment) {
+    final Binder binder = Binder.get(environment);
+
+    final HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+    if (null == primary.getPoolName()) {
+      primary.setPoolName(PRIMARY_POOL_NAME);
+    }
+
+    final List<HikariConfig> configs = binder.bind(REPLICAS_PREFIX, Bindable.listOf(HikariConfig.class))
+      .orElse(List.of());
+    final List<HikariDataSource> replicas = new ArrayList<>();
+    for (int position = 0; position < configs.size(); position++) {
+      final HikariDataSource replica = new HikariDataSource();
+      configs.get(position).copyStateTo(replica);
+      if (null == replica.getUsername()) {
+        replica.setUsername(primary.getUsername());
+        replica.setPassword(primary.getPassword());
+      }
+      if (null == replica.getDriverClassName() && null == replica.getDataSourceClassName()) {
+        replica.setDriverClassName(primary.getDriverClassName());
+      }
+      if (null == replica.getPoolName()) {
+        replica.setPoolName(REPLICA_POOL_PREFIX + position);
+      }
+      // Replicas only serve reads, so refuse writes on their connections rather than relying on routing alone.
+      replica.setReadOnly(true);
+      replicas.add(replica);
+    }
+
+    return new ReplicaRoutingDataSource(primary, replicas);
+  }
+
+  /**
+   * Creates the DataSource the rest of the application is handed, which only fetches a connection from the routing
+   * DataSource when the first statement runs, by which time the transaction's read only flag is set.
+   *
+   * @param routing the DataSource routing between the primary and the replicas.
+   * @return the primary DataSource used by JPA, JDBC templates and the SQL initialisation.
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource(final ReplicaRoutingDataSource routing) {
+    return new LazyConnectionDataSourceProxy(routing);
+  }
+
+  /**
+   * Publishes the Hikari pool metrics (hikaricp.connections.*, tagged with the pool name) for the primary and every
+   * replica, along with how many connections each side handed out and how often a replica could not.
+   *
+   * @param routing the DataSource routing between the primary and the replicas.
+   * @return a binder which Spring Boot will register with the meter registry.
+   */
+  @Bean
+  public MeterBinder replicaRoutingDataSourceMetrics(final ReplicaRoutingDataSource routing) {
+    return registry -> {
+      final List<DataSource> pools = new ArrayList<>(routing.getReplicas());
+      pools.add(routing.getPrimary());
+      for (final DataSource pool : pools) {
+        if (pool instanceof HikariDataSource hikari && null == hikari.getMetricRegistry()
+            && null == hikari.getMetricsTrackerFactory()) {
+          hikari.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+      }
+
+      FunctionCounter.builder("categr.datasource.connections", routing,
+          ReplicaRoutingDataSource::getPrimaryConnectionCount)
+        .tag("target", ReplicaRoutingDataSource.PRIMARY)
+        .description("Connections handed out by the database").register(registry);
+      FunctionCounter.builder("categr.datasource.connections", routing,
+          ReplicaRoutingDataSource::getReplicaConnectionCount)
+        .tag("target", "replica")
+        .description("Connections handed out by the database").register(registry);
+      FunctionCounter.builder("categr.datasource.failovers", routing, ReplicaRoutingDataSource::getFailoverCount)
+        .description("Times a replica could not hand out a connection and another database was used")
+        .register(registry);
+    };
+  }
+}
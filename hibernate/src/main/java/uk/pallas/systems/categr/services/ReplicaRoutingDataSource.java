@@ -0,0 +1,217 @@
+package uk.pallas.systems.categr.services;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes connections for read only transactions to read replicas, taking each replica in turn, and every other
+ * connection (writes, and anything outside a transaction such as schema creation) to the primary. If a replica cannot
+ * hand out a connection the next one is tried, and then the primary, so losing a replica slows reads down rather than
+ * failing them.
+ * <p>
+ * The transaction's read only flag is only set once the transaction has started, after JPA has asked for its
+ * connection, so this must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * which only fetches the connection when the first statement runs.
+ * </p>
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+  /** Static Logger for the class. */
+  private static final Log LOGGER = LogFactory.getLog(ReplicaRoutingDataSource.class);
+
+  /** Lookup key of the primary. */
+  public static final String PRIMARY = "primary";
+
+  /** Prefix of the lookup keys of the replicas, followed by their position. */
+  public static final String REPLICA_PREFIX = "replica-";
+
+  /** The database writes go to. */
+  private final DataSource primary;
+
+  /** The databases read only transactions go to, may be empty. */
+  private final List<DataSource> replicas;
+
+  /** Position of the replica the next read only transaction starts with. */
+  private final AtomicInteger next = new AtomicInteger();
+
+  /** Number of connections handed out by the primary. */
+  private final AtomicLong primaryConnections = new AtomicLong();
+
+  /** Number of connections handed out by the replicas. */
+  private final AtomicLong replicaConnections = new AtomicLong();
+
+  /** Number of times a replica could not hand out a connection and another database was tried. */
+  private final AtomicLong failovers = new AtomicLong();
+
+  /**
+   * Class Constructor.
+   *
+   * @param primaryDb the database writes go to.
+   * @param replicaDbs the databases read only transactions go to (null or empty sends everything to the primary).
+   */
+  public ReplicaRoutingDataSource(final DataSource primaryDb, final List<? extends DataSource> replicaDbs) {
+    if (null == primaryDb) {
+      throw new IllegalArgumentException("A primary DataSource must be supplied");
+    }
+
+    this.primary = primaryDb;
+    this.replicas = null == replicaDbs ? List.of() : List.copyOf(replicaDbs);
+
+    final Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, this.primary);
+    for (int position = 0; position < this.replicas.size(); position++) {
+      targets.put(REPLICA_PREFIX + position, this.replicas.get(position));
+    }
+    this.setTargetDataSources(targets);
+    this.setDefaultTargetDataSource(this.primary);
+    this.setLenientFallback(false);
+    this.afterPropertiesSet();
+  }
+
+  /**
+   * Retrieves the database writes go to.
+   *
+   * @return never null.
+   */
+  public DataSource getPrimary() {
+    return this.primary;
+  }
+
+  /**
+   * Retrieves the databases read only transactions go to.
+   *
+   * @return an unmodifiable list, empty if there are no replicas.
+   */
+  public List<DataSource> getReplicas() {
+    return this.replicas;
+  }
+
+  /**
+   * Retrieves a connection from a replica when the current transaction is read only, falling back to the next replica
+   * and then the primary if a replica cannot hand one out, otherwise from the primary.
+   *
+   * @return a connection to one of the databases.
+   * @throws SQLException if the primary cannot hand out a connection either.
+   */
+  @Override
+  public Connection getConnection() throws SQLException {
+    Connection result = null;
+
+    final int first = this.nextReplica();
+    if (first >= 0) {
+      for (int attempt = 0; attempt < this.replicas.size() && null == result; attempt++) {
+        final int position = (first + attempt) % this.replicas.size();
+        try {
+          result = this.replicas.get(position).getConnection();
+          this.replicaConnections.incrementAndGet();
+        } catch (final SQLException exception) {
+          this.failovers.incrementAndGet();
+          if (LOGGER.isWarnEnabled()) {
+            LOGGER.warn("getConnection - Unable to connect to " + REPLICA_PREFIX + position + ", trying the next "
+              + "database", exception);
+          }
+        }
+      }
+    }
+
+    if (null == result) {
+      result = this.primary.getConnection();
+      this.primaryConnections.incrementAndGet();
+    }
+
+    return result;
+  }
+
+  /**
+   * Works out which database the current connection should come from.
+   *
+   * @return {@link #PRIMARY} unless the transaction is read only and there are replicas, then the next replica's key.
+   */
+  @Override
+  protected Object determineCurrentLookupKey() {
+    final int position = this.nextReplica();
+    return position < 0 ? PRIMARY : REPLICA_PREFIX + position;
+  }
+
+  /**
+   * Retrieves the number of connections handed out by the primary.
+   *
+   * @return zero or more.
+   */
+  public long getPrimaryConnectionCount() {
+    return this.primaryConnections.get();
+  }
+
+  /**
+   * Retrieves the number of connections handed out by the replicas.
+   *
+   * @return zero or more.
+   */
+  public long getReplicaConnectionCount() {
+    return this.replicaConnections.get();
+  }
+
+  /**
+   * Retrieves the number of times a replica could not hand out a connection and another database was tried.
+   *
+   * @return zero or more.
+   */
+  public long getFailoverCount() {
+    return this.failovers.get();
+  }
+
+  /**
+   * Closes the replicas and the primary, if they can be closed (e.g. connection pools).
+   *
+   * @throws Exception the first failure, once every database has been closed.
+   */
+  @Override
+  public void close() throws Exception {
+    final List<DataSource> all = new ArrayList<>(this.replicas);
+    all.add(this.primary);
+
+    Exception failure = null;
+    for (final DataSource dataSource : all) {
+      if (dataSource instanceof AutoCloseable closeable) {
+        try {
+          closeable.close();
+        } catch (final Exception exception) {
+          if (null == failure) {
+            failure = exception;
+          }
+        }
+      }
+    }
+
+    if (null != failure) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Works out which replica the current connection should come from, taking each replica in turn.
+   *
+   * @return -1 if the connection should come from the primary.
+   */
+  private int nextReplica() {
+    final int result;
+    if (this.replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      result = -1;
+    } else {
+      result = Math.floorMod(this.next.getAndIncrement(), this.replicas.size());
+    }
+
+    return result;
+  }
+}
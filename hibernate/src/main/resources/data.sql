@@ -1,8 +0,0 @@
-INSERT INTO Categories (name, description) VALUES ('Edge', 'An Edge is a unique identifier associated with a specific location/organisation/service/individual');
-INSERT INTO Categories (name, description) VALUES ('Location', 'The correlates to a location');
-INSERT INTO Categories (name, description) VALUES ('Velocity', 'This a way of measuring velocity');
-INSERT INTO Categories (name, description) VALUES ('Air', 'This relates to fields defining air operations');
-INSERT INTO Categories (name, description) VALUES ('Land', 'This relates to operations on the land');
-INSERT INTO Categories (name, description) VALUES ('Space', 'This relates to operations in space');
-INSERT INTO Categories (name, description) VALUES ('Sub-surface', 'This relates to operations below the surface of the water');
-INSERT INTO Categories (name, description) VALUES ('Surface', 'This relates to operations on the surface of the water');
\ No newline at end of file
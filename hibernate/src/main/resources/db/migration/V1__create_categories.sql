@@ -0,0 +1,32 @@
+-- The categories, their change feed and the tags linking external items to them. Works on PostgreSQL, HSQLDB and H2.
+CREATE TABLE Categories (
+  name VARCHAR(100) NOT NULL,
+  description VARCHAR(4096),
+  parent VARCHAR(100),
+  version BIGINT DEFAULT 0 NOT NULL,
+  PRIMARY KEY (name)
+);
+
+CREATE TABLE Category_Changes (
+  change_sequence BIGINT NOT NULL,
+  change_type VARCHAR(16) NOT NULL CHECK (change_type IN ('CREATED', 'UPDATED', 'DELETED')),
+  name VARCHAR(100) NOT NULL,
+  description VARCHAR(4096),
+  parent VARCHAR(100),
+  PRIMARY KEY (change_sequence)
+);
+
+CREATE TABLE Category_Sequence (
+  id INTEGER NOT NULL,
+  last_sequence BIGINT NOT NULL,
+  PRIMARY KEY (id)
+);
+
+-- Keyed on the item for its categories, the index finds the items tagged with a category.
+CREATE TABLE Category_Items (
+  name VARCHAR(100) NOT NULL,
+  item_id VARCHAR(255) NOT NULL,
+  PRIMARY KEY (item_id, name)
+);
+
+CREATE INDEX Category_Items_Name ON Category_Items (name, item_id);
@@ -0,0 +1,11 @@
+-- The categories every new catalogue starts with.
+INSERT INTO Categories (name, description) VALUES ('Edge', 'An Edge is a unique identifier associated with a specific location/organisation/service/individual');
+INSERT INTO Categories (name, description) VALUES ('Location', 'The correlates to a location');
+INSERT INTO Categories (name, description) VALUES ('Velocity', 'This a way of measuring velocity');
+INSERT INTO Categories (name, description) VALUES ('Domain', 'This relates to the environment an operation takes place in');
+INSERT INTO Categories (name, description, parent) VALUES ('Air', 'This relates to fields defining air operations', 'Domain');
+INSERT INTO Categories (name, description, parent) VALUES ('Land', 'This relates to operations on the land', 'Domain');
+INSERT INTO Categories (name, description, parent) VALUES ('Space', 'This relates to operations in space', 'Domain');
+INSERT INTO Categories (name, description, parent) VALUES ('Maritime', 'This relates to operations on or below the water', 'Domain');
+INSERT INTO Categories (name, description, parent) VALUES ('Sub-surface', 'This relates to operations below the surface of the water', 'Maritime');
+INSERT INTO Categories (name, description, parent) VALUES ('Surface', 'This relates to operations on the surface of the water', 'Maritime');
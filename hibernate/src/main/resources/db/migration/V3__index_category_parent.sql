@@ -0,0 +1,2 @@
+-- Finds a category's children, which the recursive hierarchy queries look up once per level of the subtree.
+CREATE INDEX Categories_Parent ON Categories (parent);
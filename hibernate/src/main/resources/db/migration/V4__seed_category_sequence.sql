@@ -0,0 +1,5 @@
+-- Creates the change sequence row up front, so concurrent first writers only ever lock it rather than both inserting
+-- it. Databases which have already written a change have the row, and are left as they are.
+INSERT INTO Category_Sequence (id, last_sequence)
+  SELECT 1, 0 FROM (VALUES (0)) AS seed (unused)
+  WHERE NOT EXISTS (SELECT id FROM Category_Sequence WHERE id = 1);
@@ -0,0 +1,6 @@
+-- Removes a category's tags along with it, so the item queries never return items for a category which has gone. Tags
+-- already left behind by deleted categories are removed first, otherwise the constraint could not be added.
+DELETE FROM Category_Items WHERE name NOT IN (SELECT name FROM Categories);
+
+ALTER TABLE Category_Items ADD CONSTRAINT Category_Items_Category FOREIGN KEY (name) REFERENCES Categories (name)
+  ON DELETE CASCADE;
@@ -0,0 +1,18 @@
+package uk.pallas.systems.categr;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+
+/**
+ * Configuration the DAO tests start from, the JPA entities and repositories beneath this package are found by Spring
+ * Boot's test slices, which only apply the auto-configuration they need.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+public class CategrTestConfiguration {
+
+  /** Default class constructor. */
+  public CategrTestConfiguration() {
+    // Do Nothing
+  }
+}
@@ -0,0 +1,110 @@
+package uk.pallas.systems.categr.services;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.flywaydb.core.Flyway;
+import org.hsqldb.jdbc.JDBCDataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This is a test class designed to check the migrations are retried on a background thread until the database can be
+ * reached, and that closing the strategy stops the retries.
+ */
+class BackgroundMigrationStrategyTest {
+
+  /** How long to wait for the background thread to do something before failing. */
+  private static final long WAIT_MILLIS = 10_000;
+
+  /** Public Constructor. */
+  public BackgroundMigrationStrategyTest() {}
+
+  @Test
+  void testRetriedUntilReachable() throws Exception {
+    final FlakyDataSource database = new FlakyDataSource("backgroundMigrationReachable");
+    try (BackgroundMigrationStrategy strategy = new BackgroundMigrationStrategy(Duration.ZERO)) {
+      strategy.migrate(Flyway.configure().dataSource(database).load());
+
+      // A zero retry delay is raised to the minimum, so the unreachable database is not retried in a loop. Each try
+      // can ask for more than one connection, but there are only a couple of tries in this time.
+      Thread.sleep(CategoryThreads.MIN_RETRY_DELAY.toMillis() * 3 / 2);
+      Assertions.assertTrue(database.attempts.get() > 0);
+      Assertions.assertTrue(database.attempts.get() < 10, () -> database.attempts + " connections asked for");
+      Assertions.assertFalse(strategy.isComplete());
+
+      database.reachable = true;
+      await(strategy::isComplete);
+      try (Connection connection = database.getConnection(); Statement statement = connection.createStatement();
+           ResultSet rows = statement.executeQuery("SELECT COUNT(*) FROM Categories")) {
+        Assertions.assertTrue(rows.next());
+        Assertions.assertEquals(10, rows.getInt(1));
+      }
+    }
+  }
+
+  @Test
+  void testCloseStopsRetrying() throws Exception {
+    final FlakyDataSource database = new FlakyDataSource("backgroundMigrationClosed");
+    final BackgroundMigrationStrategy strategy = new BackgroundMigrationStrategy(Duration.ZERO);
+    strategy.migrate(Flyway.configure().dataSource(database).load());
+    await(() -> database.attempts.get() > 0);
+
+    strategy.close();
+    // A try already under way is left to finish.
+    Thread.sleep(CategoryThreads.POLL_MILLIS);
+    final int attempts = database.attempts.get();
+    Thread.sleep(CategoryThreads.MIN_RETRY_DELAY.toMillis() * 2);
+    Assertions.assertEquals(attempts, database.attempts.get());
+    Assertions.assertFalse(strategy.isComplete());
+  }
+
+  /**
+   * Waits for the background thread to make the supplied condition true.
+   *
+   * @param condition checked until it is true or the wait times out.
+   */
+  private static void await(final BooleanSupplier condition) {
+    final long until = System.nanoTime() + WAIT_MILLIS * 1_000_000;
+    while (!condition.getAsBoolean() && System.nanoTime() < until) {
+      Assertions.assertTrue(CategoryThreads.pause(Duration.ofMillis(10), () -> true));
+    }
+    Assertions.assertTrue(condition.getAsBoolean());
+  }
+
+  /**
+   * An in memory database which refuses connections until it is made reachable.
+   */
+  private static final class FlakyDataSource extends JDBCDataSource {
+    /** Serialisation identifier. */
+    private static final long serialVersionUID = 1L;
+    /** Number of connections asked for. */
+    private final AtomicInteger attempts = new AtomicInteger();
+    /** Whether connections are handed out. */
+    private volatile boolean reachable;
+
+    /**
+     * Class Constructor.
+     *
+     * @param name the name of the in memory database.
+     */
+    private FlakyDataSource(final String name) {
+      this.setUrl("jdbc:hsqldb:mem:" + name + ";sql.syntax_pgs=true");
+      this.setUser("SA");
+      this.setPassword("");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      this.attempts.incrementAndGet();
+      if (!this.reachable) {
+        throw new SQLException("BackgroundMigrationStrategyTest database unreachable");
+      }
+      return super.getConnection();
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package uk.pallas.systems.categr.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.entities.v1.CategoryRecord;
+
+/**
+ * This is a test class designed to check conflicting writes made at the same time are refused rather than both being
+ * applied. Unlike {@link CategoriesDAOTest} each write commits, so the categories written are deleted afterwards.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CategoriesDAO.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CategoriesDAOConcurrencyTest {
+
+  /** How many times each race is run, the writers start together but the database decides who goes first. */
+  private static final int ROUNDS = 10;
+
+  /** The DAO being tested. */
+  @Autowired
+  private CategoriesDAO dao;
+
+  /** Public Constructor. */
+  public CategoriesDAOConcurrencyTest() {}
+
+  @AfterEach
+  void tearDown() {
+    for (final String name : List.of("Racer", "Left", "Right")) {
+      this.dao.delete(name, CategoriesDAOService.ANY_VERSION);
+    }
+  }
+
+  @Test
+  void testConcurrentUpdatesAtSameVersion() throws Exception {
+    for (int round = 0; round < ROUNDS; round++) {
+      final Category created = this.dao.create(new CategoryRecord("Racer", null, null, 0));
+      final long version = created.getVersion();
+
+      final List<Object> outcomes = race(
+        () -> this.dao.update(new CategoryRecord("Racer", "CategoriesDAOConcurrencyTest-left", null, 0), version),
+        () -> this.dao.update(new CategoryRecord("Racer", "CategoriesDAOConcurrencyTest-right", null, 0), version));
+
+      // One writer wins, the other finds the category has moved on.
+      Assertions.assertEquals(1, outcomes.stream().filter(Category.class::isInstance).count(), outcomes::toString);
+      Assertions.assertEquals(1, outcomes.stream().filter(CategoryConflictException.class::isInstance).count());
+      final Category stored = this.dao.findByName("Racer");
+      Assertions.assertEquals(version + 1, stored.getVersion());
+
+      this.dao.delete("Racer", CategoriesDAOService.ANY_VERSION);
+    }
+  }
+
+  @Test
+  void testConcurrentCreates() throws Exception {
+    for (int round = 0; round < ROUNDS; round++) {
+      final List<Object> outcomes = race(
+        () -> this.dao.create(new CategoryRecord("Racer", "CategoriesDAOConcurrencyTest-left", null, 0)),
+        () -> this.dao.create(new CategoryRecord("Racer", "CategoriesDAOConcurrencyTest-right", null, 0)));
+
+      Assertions.assertEquals(1, outcomes.stream().filter(Category.class::isInstance).count(), outcomes::toString);
+      Assertions.assertEquals(1, outcomes.stream().filter(CategoryConflictException.class::isInstance).count());
+
+      this.dao.delete("Racer", CategoriesDAOService.ANY_VERSION);
+    }
+  }
+
+  @Test
+  void testConcurrentHierarchyLoop() throws Exception {
+    this.dao.upsertAll(List.of(new CategoryRecord("Left", null, null, 0), new CategoryRecord("Right", null, null, 0)));
+
+    for (int round = 0; round < ROUNDS; round++) {
+      // Each write is fine on its own, together they would put both categories beneath each other.
+      final List<Object> outcomes = race(
+        () -> this.dao.update(new CategoryRecord("Left", null, "Right", 0), CategoriesDAOService.ANY_VERSION),
+        () -> this.dao.upsertAll(List.of(new CategoryRecord("Right", null, "Left", 0))));
+
+      Assertions.assertEquals(1, outcomes.stream().filter(CategoryHierarchyException.class::isInstance).count(),
+        outcomes::toString);
+      final boolean leftMoved = "Right".equals(this.dao.findByName("Left").getParent());
+      final boolean rightMoved = "Left".equals(this.dao.findByName("Right").getParent());
+      Assertions.assertNotEquals(leftMoved, rightMoved);
+
+      this.dao.upsertAll(List.of(new CategoryRecord("Left", null, null, 0),
+        new CategoryRecord("Right", null, null, 0)));
+    }
+  }
+
+  /**
+   * Runs two writes at the same time, each in its own transaction.
+   *
+   * @param first the first write.
+   * @param second the second write.
+   * @return what each write returned, or the exception it threw.
+   * @throws Exception if a write could not be waited for.
+   */
+  private static List<Object> race(final Callable<?> first, final Callable<?> second) throws Exception {
+    final CyclicBarrier start = new CyclicBarrier(2);
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (final Callable<?> write : List.of(first, second)) {
+        futures.add(executor.submit(() -> {
+          start.await(5, TimeUnit.SECONDS);
+          return write.call();
+        }));
+      }
+
+      final List<Object> result = new ArrayList<>();
+      for (final Future<?> future : futures) {
+        try {
+          result.add(future.get(30, TimeUnit.SECONDS));
+        } catch (final ExecutionException exception) {
+          result.add(exception.getCause());
+        }
+      }
+      return result;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,240 @@
+package uk.pallas.systems.categr.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.entities.v1.CategoryRecord;
+
+/**
+ * This is a test class designed to check the DAO's queries against the schema created by the migrations, starting
+ * from the seeded categories. Each test runs in a transaction which is rolled back.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CategoriesDAO.class)
+class CategoriesDAOTest {
+
+  /** The DAO being tested. */
+  @Autowired
+  private CategoriesDAO dao;
+
+  /** The persistence context the DAO reads through. */
+  @Autowired
+  private TestEntityManager entities;
+
+  /** Public Constructor. */
+  public CategoriesDAOTest() {}
+
+  @Test
+  void testFindByNames() {
+    final Map<String, Category> found = this.dao.findByNames(Arrays.asList("Edge", "Land", "Missing", null, " ",
+      "Edge"));
+    Assertions.assertEquals(2, found.size());
+    Assertions.assertEquals("Edge", found.get("Edge").getName());
+    Assertions.assertEquals("Domain", found.get("Land").getParent());
+
+    Assertions.assertTrue(this.dao.findByNames(null).isEmpty());
+    Assertions.assertTrue(this.dao.findByNames(Arrays.asList(null, "")).isEmpty());
+  }
+
+  @Test
+  void testLookupTransaction() {
+    final PlatformTransactionManager previous = this.dao.getTransactionManager();
+    final List<TransactionDefinition> started = new ArrayList<>();
+    this.dao.setTransactionManager(new PlatformTransactionManager() {
+      @Override
+      public TransactionStatus getTransaction(final TransactionDefinition definition) {
+        started.add(definition);
+        return previous.getTransaction(definition);
+      }
+
+      @Override
+      public void commit(final TransactionStatus status) {
+        previous.commit(status);
+      }
+
+      @Override
+      public void rollback(final TransactionStatus status) {
+        previous.rollback(status);
+      }
+    });
+    try {
+      Assertions.assertNotNull(this.dao.findByName("Edge"));
+      Assertions.assertNull(this.dao.findByName("CategoriesDAOTest-testLookupTransaction"));
+      // The miss is remembered, so asking again never reaches the database or starts a transaction.
+      Assertions.assertNull(this.dao.findByName("CategoriesDAOTest-testLookupTransaction"));
+
+      Assertions.assertEquals(2, started.size());
+      Assertions.assertTrue(started.stream().allMatch(TransactionDefinition::isReadOnly));
+    } finally {
+      this.dao.setTransactionManager(previous);
+    }
+  }
+
+  @Test
+  void testFindPage() {
+    final List<String> expected = this.dao.findAll().stream().map(Category::getName).sorted().toList();
+    Assertions.assertEquals(10, expected.size());
+
+    final List<String> names = new ArrayList<>();
+    List<Category> page = this.dao.findPage(null, 3);
+    while (!page.isEmpty()) {
+      Assertions.assertTrue(page.size() <= 3);
+      page.forEach(category -> names.add(category.getName()));
+      page = this.dao.findPage(names.get(names.size() - 1), 3);
+    }
+    Assertions.assertEquals(expected, names);
+
+    Assertions.assertEquals(List.of("Edge"), this.dao.findPage("Domain", 1).stream().map(Category::getName).toList());
+    Assertions.assertEquals("Air", this.dao.findPage("", 1).get(0).getName());
+  }
+
+  @Test
+  void testForEachCategory() {
+    final List<String> expected = this.dao.findAll().stream().map(Category::getName).sorted().toList();
+    final List<Category> streamed = new ArrayList<>();
+    this.dao.forEachCategory(streamed::add);
+
+    Assertions.assertEquals(expected, streamed.stream().map(Category::getName).toList());
+    Assertions.assertEquals("Maritime", streamed.get(expected.indexOf("Surface")).getParent());
+  }
+
+  @Test
+  void testFindSubtree() {
+    Assertions.assertEquals(List.of("Maritime", "Sub-surface", "Surface"),
+      this.dao.findSubtree("Maritime").stream().map(Category::getName).toList());
+    Assertions.assertEquals(List.of("Domain", "Air", "Land", "Maritime", "Sub-surface", "Surface", "Space"),
+      this.dao.findSubtree("Domain").stream().map(Category::getName).toList());
+    Assertions.assertEquals(List.of("Edge"), this.dao.findSubtree("Edge").stream().map(Category::getName).toList());
+
+    Assertions.assertTrue(this.dao.findSubtree("Missing").isEmpty());
+    Assertions.assertTrue(this.dao.findSubtree(" ").isEmpty());
+    Assertions.assertTrue(this.dao.findSubtree(null).isEmpty());
+  }
+
+  @Test
+  void testFindAncestors() {
+    final List<Category> ancestors = this.dao.findAncestors("Surface");
+    Assertions.assertEquals(List.of("Maritime", "Domain"), ancestors.stream().map(Category::getName).toList());
+    Assertions.assertEquals("Domain", ancestors.get(0).getParent());
+
+    Assertions.assertTrue(this.dao.findAncestors("Domain").isEmpty());
+    Assertions.assertTrue(this.dao.findAncestors("Missing").isEmpty());
+    Assertions.assertTrue(this.dao.findAncestors(null).isEmpty());
+  }
+
+  @Test
+  void testIsDescendantOf() {
+    Assertions.assertTrue(this.dao.isDescendantOf("Surface", "Maritime"));
+    Assertions.assertTrue(this.dao.isDescendantOf("Surface", "Domain"));
+    Assertions.assertFalse(this.dao.isDescendantOf("Domain", "Surface"));
+    Assertions.assertFalse(this.dao.isDescendantOf("Surface", "Surface"));
+    Assertions.assertFalse(this.dao.isDescendantOf("Air", "Maritime"));
+    Assertions.assertFalse(this.dao.isDescendantOf("Missing", "Domain"));
+    Assertions.assertFalse(this.dao.isDescendantOf("Surface", null));
+  }
+
+  @Test
+  void testHierarchyLoopEnds() {
+    // Writes through the DAO refuse loops, so make one behind its back: Edge is given itself as a grandparent.
+    this.dao.getJdbcTemplate().update("INSERT INTO Categories (name, parent, version) VALUES ('Loop', 'Edge', 0)");
+    this.dao.getJdbcTemplate().update("UPDATE Categories SET parent = 'Loop' WHERE name = 'Edge'");
+
+    Assertions.assertEquals(2, this.dao.findSubtree("Edge").size());
+    Assertions.assertFalse(this.dao.isDescendantOf("Air", "Edge"));
+  }
+
+  @Test
+  void testHierarchyChecked() {
+    Assertions.assertThrows(CategoryHierarchyException.class,
+      () -> this.dao.update(new CategoryRecord("Domain", null, "Surface", 0), CategoriesDAOService.ANY_VERSION));
+    Assertions.assertThrows(CategoryHierarchyException.class,
+      () -> this.dao.update(new CategoryRecord("Edge", null, "Edge", 0), CategoriesDAOService.ANY_VERSION));
+    // Neither category loops on its own, only once both are written.
+    Assertions.assertThrows(CategoryHierarchyException.class, () -> this.dao.upsertAll(List.of(
+      new CategoryRecord("Edge", null, "Velocity", 0), new CategoryRecord("Velocity", null, "Edge", 0))));
+    Assertions.assertThrows(CategoryHierarchyException.class, () -> this.dao.upsertAll(List.of(
+      new CategoryRecord("Edge", null, "Sea", 0), new CategoryRecord("Sea", null, "Air", 0),
+      new CategoryRecord("Domain", null, "Edge", 0))));
+    Assertions.assertNull(this.dao.findByName("Sea"));
+
+    // Moving a branch beneath a category which is itself moving out of the way is fine.
+    Assertions.assertEquals(2, this.dao.upsertAll(List.of(new CategoryRecord("Maritime", null, "Edge", 0),
+      new CategoryRecord("Edge", null, "Domain", 0))));
+    this.entities.clear();
+    Assertions.assertEquals(List.of("Edge", "Domain"),
+      this.dao.findAncestors("Maritime").stream().map(Category::getName).toList());
+    Assertions.assertNotNull(this.dao.create(new CategoryRecord("Sea", null, "Surface", 0)));
+  }
+
+  @Test
+  void testChangeFeed() {
+    // The migrations seed the change sequence, so the first write only has to lock it.
+    final long start = this.dao.getLatestChange();
+    Assertions.assertTrue(this.dao.findChanges(start, 10).isEmpty());
+
+    final Category created = this.dao.create(new CategoryRecord("Feed", "CategoriesDAOTest-testChangeFeed", "Edge", 0));
+    Assertions.assertEquals(start + 1, created.getVersion());
+    // Every write is its own transaction outside the test, so forget what JPA read before JDBC changed the rows.
+    this.entities.clear();
+    final Category updated = this.dao.update(new CategoryRecord("Feed", "CategoriesDAOTest-updated", null, 0),
+      created.getVersion());
+    this.entities.clear();
+    Assertions.assertTrue(this.dao.delete("Feed", updated.getVersion()));
+    // Writing a category exactly as it is records nothing.
+    final Category edge = this.dao.findByName("Edge");
+    Assertions.assertEquals(2, this.dao.upsertAll(List.of(edge, new CategoryRecord("Batch", null, null, 0))));
+    Assertions.assertEquals(start + 4, this.dao.getLatestChange());
+
+    final List<CategoryChange> changes = this.dao.findChanges(start, 10);
+    Assertions.assertEquals(List.of(ChangeType.CREATED, ChangeType.UPDATED, ChangeType.DELETED, ChangeType.CREATED),
+      changes.stream().map(CategoryChange::getType).toList());
+    Assertions.assertEquals("Edge", changes.get(0).getCategory().getParent());
+    Assertions.assertEquals("CategoriesDAOTest-updated", changes.get(1).getCategory().getDescription());
+    Assertions.assertEquals("Feed", changes.get(2).getName());
+    Assertions.assertNull(changes.get(2).getCategory());
+    Assertions.assertEquals("Batch", changes.get(3).getName());
+
+    // Reading in pages of two hands back the same changes, each page starting after the last one seen.
+    final List<CategoryChange> paged = new ArrayList<>(this.dao.findChanges(start, 2));
+    Assertions.assertEquals(2, paged.size());
+    paged.addAll(this.dao.findChanges(paged.get(1).getSequence(), 2));
+    Assertions.assertEquals(changes, paged);
+    Assertions.assertTrue(this.dao.findChanges(start + 4, 2).isEmpty());
+  }
+
+  @Test
+  void testFailedWriteTimed() {
+    final MeterRegistry previous = this.dao.getMeterRegistry();
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    this.dao.setMeterRegistry(registry);
+    try {
+      Assertions.assertNotNull(this.dao.findByName("Edge"));
+      Assertions.assertThrows(CategoryConflictException.class,
+        () -> this.dao.create(new CategoryRecord("Edge", "CategoriesDAOTest-testFailedWriteTimed", null, 0)));
+
+      Assertions.assertEquals(1, registry.get(CategoriesDAO.METRIC_REQUESTS)
+        .tag(CategoriesDAO.TAG_OPERATION, "findByName").timer().count());
+      Assertions.assertEquals(1, registry.get(CategoriesDAO.METRIC_REQUESTS)
+        .tag(CategoriesDAO.TAG_OPERATION, "create").timer().count());
+      Assertions.assertEquals(1, registry.get(CategoriesDAO.METRIC_RESULTS)
+        .tag(CategoriesDAO.TAG_OPERATION, "findByName").summary().totalAmount());
+    } finally {
+      this.dao.setMeterRegistry(previous);
+    }
+  }
+}
@@ -0,0 +1,255 @@
+package uk.pallas.systems.categr.services;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import uk.pallas.systems.categr.entities.v1.Category;
+
+/**
+ * This is a test class designed to check the change notifications are applied to the cache, that the listener stops by
+ * itself against databases without them, and that a lost connection is retried until the listener is closed.
+ */
+class CategoryChangeListenerTest {
+
+  /** How long to wait for the background thread to do something before failing. */
+  private static final long WAIT_MILLIS = 10_000;
+
+  /** Public Constructor. */
+  public CategoryChangeListenerTest() {}
+
+  @Test
+  void testStopsWithoutNotifications() throws SQLException {
+    final RecordingCache cache = new RecordingCache();
+    try (HikariDataSource pool = new HikariDataSource()) {
+      pool.setJdbcUrl("jdbc:hsqldb:mem:changeListenerHsqldb");
+      pool.setUsername("SA");
+      pool.setPassword("");
+      pool.setMaximumPoolSize(1);
+      pool.setConnectionTimeout(Duration.ofSeconds(1).toMillis());
+
+      try (CategoryChangeListener listener = new CategoryChangeListener(pool, cache, Duration.ZERO)) {
+        listener.start();
+        await(() -> !listener.isRunning());
+
+        // The only connection in the pool is handed back as the listener finishes.
+        await(() -> 0 == pool.getHikariPoolMXBean().getActiveConnections());
+        try (Connection connection = pool.getConnection()) {
+          Assertions.assertTrue(connection.isValid(1));
+        }
+        Assertions.assertEquals(0, listener.getNotificationCount());
+        Assertions.assertTrue(cache.applied.isEmpty());
+      }
+    }
+  }
+
+  @Test
+  void testNotificationsApplied() {
+    final RecordingCache cache = new RecordingCache();
+    final StubDatabase database = new StubDatabase();
+    database.notifications.add(new PGNotification[] {notification("7"), notification("3"), notification("junk")});
+
+    try (CategoryChangeListener listener = new CategoryChangeListener(database.dataSource(), cache, null)) {
+      listener.start();
+      await(() -> listener.getNotificationCount() == 3);
+      await(() -> cache.applied.size() == 2);
+
+      // The listener catches up once it is listening, then applies the latest sequence in each batch.
+      Assertions.assertEquals(List.of(CategoriesDAOService.UNVERSIONED, 7L), cache.applied);
+      Assertions.assertEquals(List.of("LISTEN " + CategoriesDAO.CHANGE_CHANNEL), database.statements);
+      Assertions.assertTrue(listener.isRunning());
+      Assertions.assertEquals(1, database.connections.size());
+    }
+  }
+
+  @Test
+  void testReconnectsUntilClosed() throws InterruptedException {
+    final RecordingCache cache = new RecordingCache();
+    final StubDatabase database = new StubDatabase();
+    database.unreachable = true;
+
+    final CategoryChangeListener listener = new CategoryChangeListener(database.dataSource(), cache, Duration.ZERO);
+    listener.start();
+    await(() -> database.connections.size() >= 2);
+
+    // A zero reconnect delay is raised to the minimum, so the failed connection is not retried in a loop.
+    final long gap = database.connections.get(1) - database.connections.get(0);
+    Assertions.assertTrue(gap >= CategoryThreads.MIN_RETRY_DELAY.toNanos() * 9 / 10, () -> gap + "ns between tries");
+    Assertions.assertTrue(listener.isRunning());
+
+    listener.close();
+    Assertions.assertFalse(listener.isRunning());
+    final int tries = database.connections.size();
+    Thread.sleep(CategoryThreads.MIN_RETRY_DELAY.toMillis() * 2);
+    Assertions.assertEquals(tries, database.connections.size());
+    Assertions.assertTrue(cache.applied.isEmpty());
+  }
+
+  /**
+   * Waits for the background thread to make the supplied condition true.
+   *
+   * @param condition checked until it is true or the wait times out.
+   */
+  private static void await(final BooleanSupplier condition) {
+    final long until = System.nanoTime() + WAIT_MILLIS * 1_000_000;
+    while (!condition.getAsBoolean() && System.nanoTime() < until) {
+      Assertions.assertTrue(CategoryThreads.pause(Duration.ofMillis(10), () -> true));
+    }
+    Assertions.assertTrue(condition.getAsBoolean());
+  }
+
+  /**
+   * Creates a notification on the change channel.
+   *
+   * @param payload the notification payload.
+   * @return never null.
+   */
+  private static PGNotification notification(final String payload) {
+    return stub(PGNotification.class, (method, args) -> switch (method) {
+      case "getName" -> CategoriesDAO.CHANGE_CHANNEL;
+      case "getParameter" -> payload;
+      default -> 0;
+    });
+  }
+
+  /**
+   * Implements an interface by answering each call from the supplied function.
+   *
+   * @param type the interface to implement.
+   * @param answer answers each call from the method name and arguments.
+   * @param <T> the interface to implement.
+   * @return never null.
+   */
+  private static <T> T stub(final Class<T> type, final Answer answer) {
+    return type.cast(Proxy.newProxyInstance(CategoryChangeListenerTest.class.getClassLoader(), new Class<?>[] {type},
+      (proxy, method, args) -> answer.apply(method.getName(), args)));
+  }
+
+  /**
+   * Answers a call made to a stubbed interface.
+   */
+  @FunctionalInterface
+  private interface Answer {
+    /**
+     * Answers a call.
+     *
+     * @param method the name of the method called.
+     * @param args the arguments passed, null if there were none.
+     * @return the result of the call.
+     * @throws Exception to fail the call.
+     */
+    Object apply(String method, Object[] args) throws Exception;
+  }
+
+  /**
+   * A PostgreSQL database which hands out queued notifications, and can be made unreachable.
+   */
+  private static final class StubDatabase {
+    /** The batches of notifications to hand out, one per poll. */
+    private final Queue<PGNotification[]> notifications = new ConcurrentLinkedQueue<>();
+    /** The statements executed. */
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+    /** When each connection was asked for, from System.nanoTime(). */
+    private final List<Long> connections = new CopyOnWriteArrayList<>();
+    /** Whether connections are refused. */
+    private volatile boolean unreachable;
+
+    /**
+     * Creates the data source handing out connections to this database.
+     *
+     * @return never null.
+     */
+    private DataSource dataSource() {
+      return stub(DataSource.class, (method, args) -> {
+        if (!"getConnection".equals(method)) {
+          throw new UnsupportedOperationException(method);
+        }
+        this.connections.add(System.nanoTime());
+        if (this.unreachable) {
+          throw new SQLException("CategoryChangeListenerTest database unreachable");
+        }
+        return this.connection();
+      });
+    }
+
+    /**
+     * Creates a connection which unwraps to a PostgreSQL connection.
+     *
+     * @return never null.
+     */
+    private Connection connection() {
+      final DatabaseMetaData metaData = stub(DatabaseMetaData.class, (method, args) -> "PostgreSQL");
+      final Statement statement = stub(Statement.class, (method, args) -> {
+        if ("execute".equals(method)) {
+          this.statements.add((String) args[0]);
+        }
+        return false;
+      });
+      final PGConnection notifier = stub(PGConnection.class, (method, args) -> {
+        PGNotification[] result = this.notifications.poll();
+        if (null == result) {
+          // Stands in for waiting on the socket.
+          Thread.sleep(Math.min(50, (Integer) args[0]));
+          result = new PGNotification[0];
+        }
+        return result;
+      });
+
+      return stub(Connection.class, (method, args) -> switch (method) {
+        case "getMetaData" -> metaData;
+        case "createStatement" -> statement;
+        case "unwrap" -> notifier;
+        default -> null;
+      });
+    }
+  }
+
+  /**
+   * Records the sequences applied rather than reading the change feed.
+   */
+  private static final class RecordingCache extends CachingCategoriesDAOService {
+    /** The sequences passed to applyChanges, in order. */
+    private final List<Long> applied = new CopyOnWriteArrayList<>();
+
+    /** Class Constructor. */
+    private RecordingCache() {
+      super(new StubService(), Duration.ZERO);
+    }
+
+    @Override
+    public boolean applyChanges(final long latest) {
+      this.applied.add(latest);
+      return true;
+    }
+  }
+
+  /**
+   * A backend without any categories.
+   */
+  private static final class StubService implements CategoriesDAOService {
+    @Override
+    public Category findByName(final String identifier) {
+      return null;
+    }
+
+    @Override
+    public Collection<Category> findAll() {
+      return new ArrayList<>();
+    }
+  }
+}
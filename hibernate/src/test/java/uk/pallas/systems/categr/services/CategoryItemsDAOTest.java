@@ -0,0 +1,134 @@
+package uk.pallas.systems.categr.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * This is a test class designed to check the SQL item queries against the schema created by the migrations, and that
+ * they give the same answers as the bitmap index built from the same tags. Each test runs in a transaction which is
+ * rolled back.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CategoryItemsDAO.class)
+class CategoryItemsDAOTest {
+
+  /** The DAO being tested. */
+  @Autowired
+  private CategoryItemsDAO dao;
+
+  /** Used to change the categories underneath the DAO. */
+  @Autowired
+  private JdbcTemplate template;
+
+  /** Public Constructor. */
+  public CategoryItemsDAOTest() {}
+
+  @BeforeEach
+  void setUp() {
+    this.dao.setCategories("field-1", List.of("Edge", "Location"));
+    this.dao.setCategories("field-2", List.of("Edge"));
+    this.dao.setCategories("field-3", List.of("Location", "Velocity", "Edge"));
+    this.dao.setCategories("field-4", List.of("Velocity"));
+    this.dao.setCategories("field-5", List.of("Location", "Edge"));
+  }
+
+  @Test
+  void testSetCategories() {
+    Assertions.assertEquals(List.of("Edge", "Location", "Velocity"), this.dao.findCategories("field-3"));
+    Assertions.assertEquals(2, this.dao.setCategories("field-3", List.of("Air", "Air", " ", "Land")));
+    Assertions.assertEquals(List.of("Air", "Land"), this.dao.findCategories("field-3"));
+
+    Assertions.assertEquals(0, this.dao.setCategories("field-3", List.of()));
+    Assertions.assertTrue(this.dao.findCategories("field-3").isEmpty());
+    Assertions.assertTrue(this.dao.findCategories(null).isEmpty());
+  }
+
+  @Test
+  void testUnknownCategoriesRefused() {
+    final CategoryNotFoundException exception = Assertions.assertThrows(CategoryNotFoundException.class,
+      () -> this.dao.setCategories("field-1", List.of("Air", "Missing", "Gone")));
+
+    Assertions.assertEquals(List.of("Missing", "Gone"), exception.getNames());
+    Assertions.assertEquals(List.of("Edge", "Location"), this.dao.findCategories("field-1"));
+  }
+
+  @Test
+  void testDeletingCategoryRemovesTags() {
+    this.template.update("DELETE FROM Categories WHERE name = ?", "Velocity");
+
+    Assertions.assertEquals(List.of("Edge", "Location"), this.dao.findCategories("field-3"));
+    Assertions.assertTrue(this.dao.findCategories("field-4").isEmpty());
+    Assertions.assertEquals(0, this.dao.countItems(List.of("Velocity"), ItemMatch.ANY));
+  }
+
+  @Test
+  void testFindItems() {
+    Assertions.assertEquals(List.of("field-1", "field-3", "field-5"),
+      this.dao.findItems(List.of("Edge", "Location"), ItemMatch.ALL, null, 10));
+    Assertions.assertEquals(List.of("field-1", "field-2", "field-3", "field-4", "field-5"),
+      this.dao.findItems(List.of("Edge", "Velocity"), ItemMatch.ANY, "", 10));
+    Assertions.assertEquals(List.of("field-3"),
+      this.dao.findItems(List.of("Edge", "Location", "Velocity"), null, null, 10));
+
+    Assertions.assertTrue(this.dao.findItems(List.of("Edge", "Air"), ItemMatch.ALL, null, 10).isEmpty());
+    Assertions.assertTrue(this.dao.findItems(List.of(" "), ItemMatch.ANY, null, 10).isEmpty());
+    Assertions.assertTrue(this.dao.findItems(List.of("Edge"), ItemMatch.ANY, null, 0).isEmpty());
+  }
+
+  @Test
+  void testFindItemsPaged() {
+    final List<String> pages = new ArrayList<>();
+    String after = null;
+    List<String> page = this.dao.findItems(List.of("Edge", "Velocity"), ItemMatch.ANY, after, 2);
+    while (!page.isEmpty()) {
+      Assertions.assertTrue(page.size() <= 2);
+      pages.addAll(page);
+      after = page.get(page.size() - 1);
+      page = this.dao.findItems(List.of("Edge", "Velocity"), ItemMatch.ANY, after, 2);
+    }
+
+    Assertions.assertEquals(List.of("field-1", "field-2", "field-3", "field-4", "field-5"), pages);
+    Assertions.assertEquals(List.of("field-5"),
+      this.dao.findItems(List.of("Edge", "Location"), ItemMatch.ALL, "field-3", 2));
+  }
+
+  @Test
+  void testCountItems() {
+    Assertions.assertEquals(3, this.dao.countItems(List.of("Edge", "Location"), ItemMatch.ALL));
+    Assertions.assertEquals(5, this.dao.countItems(List.of("Edge", "Velocity"), ItemMatch.ANY));
+    Assertions.assertEquals(0, this.dao.countItems(List.of("Edge", "Air"), ItemMatch.ALL));
+    Assertions.assertEquals(0, this.dao.countItems(null, ItemMatch.ANY));
+  }
+
+  @Test
+  void testMatchesBitmapIndex() {
+    final Map<String, List<String>> tags = new HashMap<>();
+    this.dao.forEachTag((item, category) -> tags.computeIfAbsent(item, key -> new ArrayList<>()).add(category));
+    final CategoryItemIndex index = new CategoryItemIndex(tags, 0);
+    Assertions.assertEquals(9, index.getTagCount());
+
+    final List<List<String>> queries = List.of(List.of("Edge"), List.of("Edge", "Location"), List.of("Location",
+      "Velocity"), List.of("Edge", "Location", "Velocity"), List.of("Air", "Edge"), List.of("Missing"));
+    for (final List<String> categories : queries) {
+      for (final ItemMatch match : ItemMatch.values()) {
+        Assertions.assertEquals(index.countItems(categories, match), this.dao.countItems(categories, match),
+          () -> match + " " + categories);
+        for (final String after : new String[] {null, "field-1", "field-3", "field-9"}) {
+          Assertions.assertEquals(index.getItems(categories, match, after, 2),
+            this.dao.findItems(categories, match, after, 2), () -> match + " " + categories + " after " + after);
+        }
+      }
+    }
+  }
+}
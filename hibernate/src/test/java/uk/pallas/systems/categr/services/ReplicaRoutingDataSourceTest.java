@@ -0,0 +1,72 @@
+package uk.pallas.systems.categr.services;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import org.hsqldb.jdbc.JDBCDataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * This is a test class designed to check read only transactions are spread across the replicas, everything else goes
+ * to the primary, and a replica which is down is skipped.
+ */
+class ReplicaRoutingDataSourceTest {
+
+  /** Public Constructor. */
+  public ReplicaRoutingDataSourceTest() {}
+
+  /** Creates an in memory database standing in for a primary or a replica. */
+  private static JDBCDataSource database(final String name) {
+    final JDBCDataSource result = new JDBCDataSource();
+    result.setUrl("jdbc:hsqldb:mem:" + name);
+    result.setUser("SA");
+    result.setPassword("");
+    return result;
+  }
+
+  /** Retrieves the URL of the database a connection is from. */
+  private static String connect(final ReplicaRoutingDataSource routing) throws SQLException {
+    try (Connection connection = routing.getConnection()) {
+      return connection.getMetaData().getURL();
+    }
+  }
+
+  @Test
+  void testReadOnlyTransactionsUseReplicas() throws SQLException {
+    final ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(database("routingPrimary"),
+      List.of(database("routingReplicaA"), database("routingReplicaB")));
+
+    Assertions.assertEquals("jdbc:hsqldb:mem:routingPrimary", connect(routing));
+
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    try {
+      Assertions.assertEquals("jdbc:hsqldb:mem:routingReplicaA", connect(routing));
+      Assertions.assertEquals("jdbc:hsqldb:mem:routingReplicaB", connect(routing));
+      Assertions.assertEquals("jdbc:hsqldb:mem:routingReplicaA", connect(routing));
+    } finally {
+      TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    Assertions.assertEquals(1, routing.getPrimaryConnectionCount());
+    Assertions.assertEquals(3, routing.getReplicaConnectionCount());
+  }
+
+  @Test
+  void testUnavailableReplicaSkipped() throws SQLException {
+    final JDBCDataSource missing = database("routingMissing;ifexists=true");
+    final ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(database("failoverPrimary"),
+      List.of(missing));
+
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    try {
+      Assertions.assertEquals("jdbc:hsqldb:mem:failoverPrimary", connect(routing));
+    } finally {
+      TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    Assertions.assertEquals(1, routing.getFailoverCount());
+    Assertions.assertEquals(1, routing.getPrimaryConnectionCount());
+  }
+}
@@ -0,0 +1,148 @@
+package uk.pallas.systems.categr.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The packaged categr application, started in its own JVM so the load generator does not compete with it for heap
+ * or JIT time. The application runs with its default embedded HSQLDB database on a free port, and its output is
+ * written to a log file for inspection after the run.
+ */
+public final class ApplicationProcess implements AutoCloseable {
+
+  /** Path polled until the application answers, the health endpoint only reports UP once startup has finished. */
+  private static final String HEALTH_PATH = "/actuator/health";
+
+  /** How long the application has to start. */
+  private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+  /** How long to wait between readiness checks. */
+  private static final long POLL_MILLIS = 250;
+
+  /** How long the application has to stop before it is killed. */
+  private static final long SHUTDOWN_SECONDS = 30;
+
+  /** The running application. */
+  private final Process process;
+
+  /** The address the application is listening on, e.g. http://localhost:12345 */
+  private final URI baseUri;
+
+  /**
+   * Starts the application, returning once it is ready to serve requests.
+   *
+   * @param settings supplies the jar, arguments and output directory.
+   * @throws IOException if the application cannot be started or does not become ready.
+   * @throws InterruptedException if interrupted while waiting for the application.
+   */
+  public ApplicationProcess(final LoadTestSettings settings) throws IOException, InterruptedException {
+    if (!Files.isRegularFile(settings.getJar())) {
+      throw new IOException("No application jar at " + settings.getJar().toAbsolutePath()
+        + ", build it first with: mvn -pl runnable -am package -DskipTests");
+    }
+
+    final int port = freePort();
+    this.baseUri = URI.create("http://localhost:" + port);
+
+    final List<String> command = new ArrayList<>();
+    command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    command.addAll(settings.getAppJvmArgs());
+    command.add("-jar");
+    command.add(settings.getJar().toAbsolutePath().toString());
+    command.add("--server.port=" + port);
+    command.addAll(settings.getAppArgs());
+
+    Files.createDirectories(settings.getOutput());
+    final Path log = settings.getOutput().resolve("application.log");
+    this.process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+
+    try {
+      this.awaitReady(log);
+    } catch (final IOException | InterruptedException exception) {
+      this.close();
+      throw exception;
+    }
+  }
+
+  /**
+   * Retrieves the address the application is listening on.
+   *
+   * @return e.g. http://localhost:12345
+   */
+  public URI getBaseUri() {
+    return this.baseUri;
+  }
+
+  /**
+   * Stops the application, killing it if it does not stop in time.
+   */
+  @Override
+  public void close() {
+    this.process.destroy();
+    try {
+      if (!this.process.waitFor(SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+        this.process.destroyForcibly();
+      }
+    } catch (final InterruptedException exception) {
+      this.process.destroyForcibly();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Polls the health endpoint until the application answers.
+   *
+   * @param log the application log, named in the error if it fails to start.
+   * @throws IOException if the application exits or does not become ready in time.
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  private void awaitReady(final Path log) throws IOException, InterruptedException {
+    final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    final HttpRequest request = HttpRequest.newBuilder(this.baseUri.resolve(HEALTH_PATH))
+      .timeout(Duration.ofSeconds(1)).build();
+    final long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+
+    boolean ready = false;
+    while (!ready) {
+      if (!this.process.isAlive()) {
+        throw new IOException("The application exited with " + this.process.exitValue() + ", see " + log);
+      }
+      if (System.nanoTime() > deadline) {
+        throw new IOException("The application did not start within " + STARTUP_TIMEOUT + ", see " + log);
+      }
+
+      try {
+        ready = 200 == client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+      } catch (final IOException exception) {
+        // Not listening yet.
+        ready = false;
+      }
+      if (!ready) {
+        Thread.sleep(POLL_MILLIS);
+      }
+    }
+  }
+
+  /**
+   * Finds a port nothing is listening on.
+   *
+   * @return the port number.
+   * @throws IOException if no port could be found.
+   */
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      socket.setReuseAddress(true);
+      return socket.getLocalPort();
+    }
+  }
+}
@@ -0,0 +1,336 @@
+package uk.pallas.systems.categr.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.HdrHistogram.Histogram;
+
+/**
+ * The latency percentiles of a load test run, stored as JSON so later runs can be checked against them. A baseline is
+ * only comparable with runs using the same rate, catalogue and request mix, and should be recorded on the machine the
+ * checks run on.
+ */
+public final class Baseline {
+
+  /** Reads and writes the baseline file. */
+  private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+  /** Requests started per second. */
+  private int rate;
+
+  /** Number of categories in the catalogue. */
+  private int catalogueSize;
+
+  /** The request mix, as configured. */
+  private String mix;
+
+  /** The latency percentiles of each endpoint, keyed on endpoint name. */
+  private Map<String, Percentiles> endpoints = new LinkedHashMap<>();
+
+  /** Default class constructor, used when reading the file. */
+  public Baseline() {
+    // Do Nothing
+  }
+
+  /**
+   * Creates a baseline from the results of a run.
+   *
+   * @param settings the settings the run used.
+   * @param results the results of the run.
+   * @return a new baseline holding an entry for each endpoint which was requested.
+   */
+  public static Baseline from(final LoadTestSettings settings, final LoadResults results) {
+    final Baseline result = new Baseline();
+    result.setRate(settings.getRate());
+    result.setCatalogueSize(settings.getCatalogueSize());
+    result.setMix(describeMix(settings));
+    for (final Endpoint endpoint : settings.getMix().keySet()) {
+      result.getEndpoints().put(endpoint.getName(), new Percentiles(results.getHistogram(endpoint)));
+    }
+
+    return result;
+  }
+
+  /**
+   * Reads a baseline file.
+   *
+   * @param file the file to read.
+   * @return null if the file does not exist.
+   * @throws IOException if the file cannot be read.
+   */
+  public static Baseline read(final Path file) throws IOException {
+    return Files.exists(file) ? MAPPER.readValue(file.toFile(), Baseline.class) : null;
+  }
+
+  /**
+   * Writes the baseline to a file, replacing any baseline already there.
+   *
+   * @param file the file to write.
+   * @throws IOException if the file cannot be written.
+   */
+  public void write(final Path file) throws IOException {
+    final Path parent = file.toAbsolutePath().getParent();
+    if (null != parent) {
+      Files.createDirectories(parent);
+    }
+    MAPPER.writeValue(file.toFile(), this);
+  }
+
+  /**
+   * Checks the 99th percentile latency of each endpoint in a run against this baseline. An endpoint has regressed when
+   * its 99th percentile is both more than the tolerance and more than the slack slower than the baseline, the slack
+   * stops endpoints answering in a few hundred microseconds failing on scheduling noise.
+   *
+   * @param measured the baseline created from the run.
+   * @param settings supplies the tolerance and slack.
+   * @return a description of each regression, empty if there are none.
+   * @throws IllegalArgumentException if the run used a different rate, catalogue or request mix.
+   */
+  public List<String> findRegressions(final Baseline measured, final LoadTestSettings settings) {
+    if (this.rate != measured.rate || this.catalogueSize != measured.catalogueSize
+        || !Objects.equals(this.mix, measured.mix)) {
+      throw new IllegalArgumentException("The baseline was recorded at " + this.rate + " requests/s against "
+        + this.catalogueSize + " categories with mix " + this.mix + ", record a new one for these settings with "
+        + "-Dloadtest.update-baseline=true");
+    }
+
+    final List<String> result = new ArrayList<>();
+    final long slack = settings.getP99Slack().toNanos() / 1000;
+    this.endpoints.forEach((name, expected) -> {
+      final Percentiles actual = measured.getEndpoints().get(name);
+      if (null != actual) {
+        final double limit = Math.max(expected.getP99() * (1 + settings.getP99Tolerance()), expected.getP99() + slack);
+        if (actual.getP99() > limit) {
+          result.add(String.format("%s p99 is %,dus, the baseline is %,dus and the limit %,.0fus", name,
+            actual.getP99(), expected.getP99(), limit));
+        }
+      }
+    });
+
+    return result;
+  }
+
+  /**
+   * Retrieves the number of requests started per second.
+   * @return one or more.
+   */
+  public int getRate() {
+    return this.rate;
+  }
+
+  /**
+   * Sets the number of requests started per second.
+   * @param requestRate one or more.
+   */
+  public void setRate(final int requestRate) {
+    this.rate = requestRate;
+  }
+
+  /**
+   * Retrieves the number of categories in the catalogue.
+   * @return one or more.
+   */
+  public int getCatalogueSize() {
+    return this.catalogueSize;
+  }
+
+  /**
+   * Sets the number of categories in the catalogue.
+   * @param size one or more.
+   */
+  public void setCatalogueSize(final int size) {
+    this.catalogueSize = size;
+  }
+
+  /**
+   * Retrieves the request mix.
+   * @return e.g. categories:1,names:2,category:17
+   */
+  public String getMix() {
+    return this.mix;
+  }
+
+  /**
+   * Sets the request mix.
+   * @param requestMix e.g. categories:1,names:2,category:17
+   */
+  public void setMix(final String requestMix) {
+    this.mix = requestMix;
+  }
+
+  /**
+   * Retrieves the latency percentiles of each endpoint.
+   * @return endpoint names mapped to their percentiles.
+   */
+  public Map<String, Percentiles> getEndpoints() {
+    return this.endpoints;
+  }
+
+  /**
+   * Sets the latency percentiles of each endpoint.
+   * @param latencies endpoint names mapped to their percentiles.
+   */
+  public void setEndpoints(final Map<String, Percentiles> latencies) {
+    this.endpoints = null == latencies ? new LinkedHashMap<>() : latencies;
+  }
+
+  /**
+   * Describes the request mix in the form it is configured in.
+   *
+   * @param settings holds the mix.
+   * @return e.g. categories:1,names:2,category:17
+   */
+  private static String describeMix(final LoadTestSettings settings) {
+    final StringBuilder result = new StringBuilder();
+    settings.getMix().forEach((endpoint, weight) -> result.append(result.isEmpty() ? "" : ",")
+      .append(endpoint.getName()).append(':').append(weight));
+
+    return result.toString();
+  }
+
+  /**
+   * The latency percentiles of a single endpoint, in microseconds.
+   */
+  public static final class Percentiles {
+
+    /** Number of successful requests measured. */
+    private long count;
+
+    /** Median latency. */
+    private long p50;
+
+    /** 90th percentile latency. */
+    private long p90;
+
+    /** 99th percentile latency. */
+    private long p99;
+
+    /** 99.9th percentile latency. */
+    private long p999;
+
+    /** Slowest request. */
+    private long max;
+
+    /** Default class constructor, used when reading the file. */
+    public Percentiles() {
+      // Do Nothing
+    }
+
+    /**
+     * Class Constructor.
+     *
+     * @param histogram the latencies of the endpoint in microseconds.
+     */
+    public Percentiles(final Histogram histogram) {
+      this.count = histogram.getTotalCount();
+      this.p50 = histogram.getValueAtPercentile(50);
+      this.p90 = histogram.getValueAtPercentile(90);
+      this.p99 = histogram.getValueAtPercentile(99);
+      this.p999 = histogram.getValueAtPercentile(99.9);
+      this.max = histogram.getMaxValue();
+    }
+
+    /**
+     * Retrieves the number of successful requests measured.
+     * @return zero or more.
+     */
+    public long getCount() {
+      return this.count;
+    }
+
+    /**
+     * Sets the number of successful requests measured.
+     * @param requests zero or more.
+     */
+    public void setCount(final long requests) {
+      this.count = requests;
+    }
+
+    /**
+     * Retrieves the median latency.
+     * @return microseconds.
+     */
+    public long getP50() {
+      return this.p50;
+    }
+
+    /**
+     * Sets the median latency.
+     * @param micros microseconds.
+     */
+    public void setP50(final long micros) {
+      this.p50 = micros;
+    }
+
+    /**
+     * Retrieves the 90th percentile latency.
+     * @return microseconds.
+     */
+    public long getP90() {
+      return this.p90;
+    }
+
+    /**
+     * Sets the 90th percentile latency.
+     * @param micros microseconds.
+     */
+    public void setP90(final long micros) {
+      this.p90 = micros;
+    }
+
+    /**
+     * Retrieves the 99th percentile latency.
+     * @return microseconds.
+     */
+    public long getP99() {
+      return this.p99;
+    }
+
+    /**
+     * Sets the 99th percentile latency.
+     * @param micros microseconds.
+     */
+    public void setP99(final long micros) {
+      this.p99 = micros;
+    }
+
+    /**
+     * Retrieves the 99.9th percentile latency.
+     * @return microseconds.
+     */
+    public long getP999() {
+      return this.p999;
+    }
+
+    /**
+     * Sets the 99.9th percentile latency.
+     * @param micros microseconds.
+     */
+    public void setP999(final long micros) {
+      this.p999 = micros;
+    }
+
+    /**
+     * Retrieves the slowest request.
+     * @return microseconds.
+     */
+    public long getMax() {
+      return this.max;
+    }
+
+    /**
+     * Sets the slowest request.
+     * @param micros microseconds.
+     */
+    public void setMax(final long micros) {
+      this.max = micros;
+    }
+  }
+}
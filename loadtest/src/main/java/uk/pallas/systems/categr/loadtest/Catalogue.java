@@ -0,0 +1,98 @@
+package uk.pallas.systems.categr.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A repeatable catalogue of categories written to the application before the load starts, so every run measures the
+ * same data. Categories form a tree ten wide, with descriptions about the size of real ones.
+ */
+public final class Catalogue {
+
+  /** Path of the bulk upsert endpoint. */
+  private static final String UPSERT_PATH = "/categr/v1/bulk/upsert?checkVersions=false";
+
+  /** Number of categories written per request, within the upsert endpoint's limit. */
+  private static final int BATCH_SIZE = 500;
+
+  /** Number of children each category has. */
+  private static final int FAN_OUT = 10;
+
+  /** Length of each description. */
+  private static final int DESCRIPTION_LENGTH = 200;
+
+  /** The generated categories, as the JSON objects sent to the application. */
+  private final List<Map<String, String>> categories;
+
+  /**
+   * Class Constructor, generates the catalogue.
+   *
+   * @param size the number of categories.
+   */
+  public Catalogue(final int size) {
+    this.categories = new ArrayList<>(size);
+    for (int index = 0; index < size; index++) {
+      final Map<String, String> category = new LinkedHashMap<>();
+      category.put("name", name(index));
+      category.put("description", ("Load test category " + index + ". ").repeat(DESCRIPTION_LENGTH / 20)
+        .substring(0, DESCRIPTION_LENGTH));
+      if (index > 0) {
+        category.put("parent", name((index - 1) / FAN_OUT));
+      }
+      this.categories.add(category);
+    }
+  }
+
+  /**
+   * Retrieves the names of the categories.
+   *
+   * @return the names in the order they are written.
+   */
+  public List<String> getNames() {
+    return this.categories.stream().map(category -> category.get("name")).toList();
+  }
+
+  /**
+   * Writes the catalogue to the application, parents are always written before their children.
+   *
+   * @param client sends the requests.
+   * @param baseUri the address of the application.
+   * @param mapper serialises the categories.
+   * @throws IOException if a batch could not be written.
+   * @throws InterruptedException if interrupted while writing.
+   */
+  public void upload(final HttpClient client, final URI baseUri, final ObjectMapper mapper)
+      throws IOException, InterruptedException {
+    for (int start = 0; start < this.categories.size(); start += BATCH_SIZE) {
+      final List<Map<String, String>> batch =
+        this.categories.subList(start, Math.min(this.categories.size(), start + BATCH_SIZE));
+      final HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(UPSERT_PATH))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(batch)))
+        .build();
+
+      final HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+      if (200 != response.statusCode()) {
+        throw new IOException("Writing the catalogue failed with " + response.statusCode() + ": " + response.body());
+      }
+    }
+  }
+
+  /**
+   * Creates the name of a generated category, names sort in the same order as their index.
+   *
+   * @param index the position of the category in the catalogue.
+   * @return a unique category name.
+   */
+  private static String name(final int index) {
+    return String.format("LoadTest-%07d", index);
+  }
+}
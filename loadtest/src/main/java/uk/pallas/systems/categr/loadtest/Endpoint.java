@@ -0,0 +1,66 @@
+package uk.pallas.systems.categr.loadtest;
+
+import java.util.Locale;
+
+/**
+ * The read endpoints exercised by the load test.
+ */
+public enum Endpoint {
+
+  /** GET /categr/v1/, every category. */
+  CATEGORIES("/categr/v1/"),
+
+  /** GET /categr/v1/names, every category name. */
+  NAMES("/categr/v1/names"),
+
+  /** GET /categr/v1/names/{name}, a single category chosen at random. */
+  CATEGORY("/categr/v1/names/");
+
+  /** The path requested, the category name is appended for {@link #CATEGORY}. */
+  private final String path;
+
+  /**
+   * Class Constructor.
+   *
+   * @param endpointPath the path requested.
+   */
+  Endpoint(final String endpointPath) {
+    this.path = endpointPath;
+  }
+
+  /**
+   * Retrieves the path to request.
+   *
+   * @param name the category to look up, ignored by the listing endpoints.
+   * @return the path, starting with a slash.
+   */
+  public String getPath(final String name) {
+    return CATEGORY == this ? this.path + name : this.path;
+  }
+
+  /**
+   * Retrieves the name used for the endpoint in settings, reports and the baseline.
+   *
+   * @return the lower case name.
+   */
+  public String getName() {
+    return this.name().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Looks up an endpoint using the name used in settings, reports and the baseline.
+   *
+   * @param name the name to look up.
+   * @return null if there is no such endpoint.
+   */
+  public static Endpoint forName(final String name) {
+    Endpoint result = null;
+    for (final Endpoint endpoint : values()) {
+      if (endpoint.getName().equals(name)) {
+        result = endpoint;
+      }
+    }
+
+    return result;
+  }
+}
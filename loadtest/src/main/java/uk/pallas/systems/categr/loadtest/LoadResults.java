@@ -0,0 +1,98 @@
+package uk.pallas.systems.categr.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * The latencies and errors recorded for each endpoint during a load test. Latencies are recorded in microseconds from
+ * the time each request was due to be sent rather than when it actually was, so a stall in the application (or the
+ * driver) shows up in the results instead of quietly delaying the requests behind it.
+ */
+public final class LoadResults {
+
+  /** Number of significant digits kept by the histograms, 0.1% accuracy. */
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  /** Latencies of the successful requests, safe to record into from the HTTP client's threads. */
+  private final Map<Endpoint, Recorder> recorders = new EnumMap<>(Endpoint.class);
+
+  /** Number of requests which failed, returned an error status or could not be sent. */
+  private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+
+  /** The latencies recorded, null until the run has finished. */
+  private Map<Endpoint, Histogram> histograms;
+
+  /** Default class constructor. */
+  public LoadResults() {
+    for (final Endpoint endpoint : Endpoint.values()) {
+      this.recorders.put(endpoint, new Recorder(SIGNIFICANT_DIGITS));
+      this.errors.put(endpoint, new LongAdder());
+    }
+  }
+
+  /**
+   * Records a successful request.
+   *
+   * @param endpoint the endpoint requested.
+   * @param micros the time from when the request was due to when the response was read.
+   */
+  public void recordSuccess(final Endpoint endpoint, final long micros) {
+    this.recorders.get(endpoint).recordValue(Math.max(0, micros));
+  }
+
+  /**
+   * Records a failed request.
+   *
+   * @param endpoint the endpoint requested.
+   */
+  public void recordError(final Endpoint endpoint) {
+    this.errors.get(endpoint).increment();
+  }
+
+  /**
+   * Stops recording, the histograms can then be read.
+   */
+  public void finish() {
+    final Map<Endpoint, Histogram> result = new EnumMap<>(Endpoint.class);
+    this.recorders.forEach((endpoint, recorder) -> result.put(endpoint, recorder.getIntervalHistogram()));
+    this.histograms = result;
+  }
+
+  /**
+   * Retrieves the latencies of the successful requests to an endpoint.
+   *
+   * @param endpoint the endpoint.
+   * @return latencies in microseconds.
+   * @throws IllegalStateException if the run has not finished.
+   */
+  public Histogram getHistogram(final Endpoint endpoint) {
+    if (null == this.histograms) {
+      throw new IllegalStateException("The run has not finished");
+    }
+
+    return this.histograms.get(endpoint);
+  }
+
+  /**
+   * Retrieves the number of failed requests to an endpoint.
+   *
+   * @param endpoint the endpoint.
+   * @return zero or more.
+   */
+  public long getErrors(final Endpoint endpoint) {
+    return this.errors.get(endpoint).sum();
+  }
+
+  /**
+   * Retrieves the number of requests due to an endpoint, whether or not they succeeded.
+   *
+   * @param endpoint the endpoint.
+   * @return zero or more.
+   */
+  public long getRequests(final Endpoint endpoint) {
+    return this.getHistogram(endpoint).getTotalCount() + this.getErrors(endpoint);
+  }
+}
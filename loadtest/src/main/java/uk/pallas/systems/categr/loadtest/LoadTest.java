@@ -0,0 +1,145 @@
+package uk.pallas.systems.categr.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Load tests the packaged categr application. The application is started against its embedded HSQLDB database and
+ * seeded with a repeatable catalogue, then the read endpoints are driven at a fixed request rate (see
+ * {@link OpenModelDriver}), first to warm up and then while latencies are recorded. The run fails, exiting with a
+ * non-zero status, if too many requests fail or an endpoint's 99th percentile has regressed against the stored
+ * baseline. If there is no baseline the results become the baseline.
+ */
+public final class LoadTest {
+
+  /** Exit status of a run which failed its checks or could not complete. */
+  private static final int FAILED = 1;
+
+  /** Name of the results file written to the output directory. */
+  private static final String RESULTS_FILE = "results.json";
+
+  /** Where the report is written. */
+  private static final PrintStream OUT = System.out;
+
+  /** Unused utility Class Constructor. */
+  private LoadTest() {
+    // Do Nothing
+  }
+
+  /**
+   * Runs the load test, configured through loadtest.* system properties (see {@link LoadTestSettings}).
+   *
+   * @param args ignored.
+   */
+  public static void main(final String[] args) {
+    int status = FAILED;
+    try {
+      status = run(new LoadTestSettings()) ? 0 : FAILED;
+    } catch (final IOException | IllegalArgumentException exception) {
+      System.err.println("Load test failed: " + exception.getMessage());
+    } catch (final InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      System.err.println("Load test interrupted");
+    }
+
+    System.exit(status);
+  }
+
+  /**
+   * Runs the load test.
+   *
+   * @param settings the settings for the run.
+   * @return true if the run passed its checks.
+   * @throws IOException if the application could not be started or seeded, or a file could not be written.
+   * @throws InterruptedException if interrupted during the run.
+   */
+  public static boolean run(final LoadTestSettings settings) throws IOException, InterruptedException {
+    final HttpClient client = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .connectTimeout(Duration.ofSeconds(5))
+      .build();
+    final Catalogue catalogue = new Catalogue(settings.getCatalogueSize());
+
+    final LoadResults results;
+    try (ApplicationProcess application = new ApplicationProcess(settings)) {
+      OUT.println("Application started at " + application.getBaseUri() + ", writing " + settings.getCatalogueSize()
+        + " categories");
+      catalogue.upload(client, application.getBaseUri(), new ObjectMapper());
+
+      final OpenModelDriver driver = new OpenModelDriver(client, application.getBaseUri(), settings,
+        catalogue.getNames());
+      if (!settings.getWarmup().isZero()) {
+        OUT.println("Warming up at " + settings.getRate() + " requests/s for " + settings.getWarmup());
+        driver.run(settings.getWarmup());
+      }
+      OUT.println("Measuring at " + settings.getRate() + " requests/s for " + settings.getDuration());
+      results = driver.run(settings.getDuration());
+    }
+
+    final Baseline measured = Baseline.from(settings, results);
+    report(settings, results);
+    measured.write(settings.getOutput().resolve(RESULTS_FILE));
+
+    final List<String> failures = new ArrayList<>();
+    long requests = 0;
+    long errors = 0;
+    for (final Endpoint endpoint : settings.getMix().keySet()) {
+      requests += results.getRequests(endpoint);
+      errors += results.getErrors(endpoint);
+    }
+    if (errors > requests * settings.getMaxErrorRate()) {
+      failures.add(String.format("%,d of %,d requests failed, more than the %.2f%% allowed", errors, requests,
+        settings.getMaxErrorRate() * 100));
+    }
+
+    final Baseline baseline = Baseline.read(settings.getBaseline());
+    if (null == baseline || settings.isUpdateBaseline()) {
+      if (failures.isEmpty()) {
+        measured.write(settings.getBaseline());
+        OUT.println("Baseline written to " + settings.getBaseline().toAbsolutePath());
+      }
+    } else {
+      failures.addAll(baseline.findRegressions(measured, settings));
+    }
+
+    failures.forEach(failure -> OUT.println("FAILED: " + failure));
+    if (failures.isEmpty()) {
+      OUT.println("PASSED");
+    }
+
+    return failures.isEmpty();
+  }
+
+  /**
+   * Prints the percentiles of each endpoint and writes their full latency distributions to the output directory, in
+   * the .hgrm format HdrHistogram's plotter reads.
+   *
+   * @param settings supplies the request mix and output directory.
+   * @param results the results of the run.
+   * @throws IOException if a distribution could not be written.
+   */
+  private static void report(final LoadTestSettings settings, final LoadResults results) throws IOException {
+    OUT.println(String.format("%n%-12s %10s %8s %10s %10s %10s %10s %10s", "endpoint", "requests", "errors",
+      "p50 (us)", "p90 (us)", "p99 (us)", "p99.9 (us)", "max (us)"));
+
+    for (final Endpoint endpoint : settings.getMix().keySet()) {
+      final Baseline.Percentiles percentiles = new Baseline.Percentiles(results.getHistogram(endpoint));
+      OUT.println(String.format("%-12s %,10d %,8d %,10d %,10d %,10d %,10d %,10d", endpoint.getName(),
+        results.getRequests(endpoint), results.getErrors(endpoint), percentiles.getP50(), percentiles.getP90(),
+        percentiles.getP99(), percentiles.getP999(), percentiles.getMax()));
+
+      final Path distribution = settings.getOutput().resolve(endpoint.getName() + ".hgrm");
+      try (PrintStream output = new PrintStream(Files.newOutputStream(distribution), false, "UTF-8")) {
+        results.getHistogram(endpoint).outputPercentileDistribution(output, 1.0);
+      }
+    }
+    OUT.println();
+  }
+}
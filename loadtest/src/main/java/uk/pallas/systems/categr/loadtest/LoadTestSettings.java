@@ -0,0 +1,268 @@
+package uk.pallas.systems.categr.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The settings for a load test run, read from loadtest.* system properties so the run can be configured from the
+ * Maven command line (e.g. -Dloadtest.rate=500). Every setting has a default, so the harness can also be started
+ * directly from an IDE once the application jar has been built.
+ */
+public final class LoadTestSettings {
+
+  /** Prefix of every system property read. */
+  private static final String PREFIX = "loadtest.";
+
+  /** The packaged application to start. */
+  private final Path jar;
+
+  /** Extra Spring arguments passed to the application, e.g. to enable prerender mode. */
+  private final List<String> appArgs;
+
+  /** Extra JVM arguments for the application, e.g. to size its heap. */
+  private final List<String> appJvmArgs;
+
+  /** Number of categories written to the application before the load starts. */
+  private final int catalogueSize;
+
+  /** Requests started per second, whatever the response times. */
+  private final int rate;
+
+  /** How long load is applied before measurement starts. */
+  private final Duration warmup;
+
+  /** How long load is applied while it is measured. */
+  private final Duration duration;
+
+  /** Relative weight of each endpoint in the request mix. */
+  private final Map<Endpoint, Integer> mix;
+
+  /** Maximum number of requests outstanding, requests due while this many are waiting count as errors. */
+  private final int maxInFlight;
+
+  /** Seed for the request mix and category lookups, so runs can be repeated. */
+  private final long seed;
+
+  /** The stored baseline results are compared against. */
+  private final Path baseline;
+
+  /** Whether the results should replace the baseline rather than be checked against it. */
+  private final boolean updateBaseline;
+
+  /** How much slower than the baseline the 99th percentile may be, as a fraction of the baseline. */
+  private final double p99Tolerance;
+
+  /** How much slower than the baseline the 99th percentile may always be, so fast endpoints do not fail on noise. */
+  private final Duration p99Slack;
+
+  /** The fraction of requests which may fail before the run fails. */
+  private final double maxErrorRate;
+
+  /** Where the application log, latency distributions and results are written. */
+  private final Path output;
+
+  /**
+   * Class Constructor, reads the settings from the system properties.
+   *
+   * @throws IllegalArgumentException if a setting cannot be parsed.
+   */
+  public LoadTestSettings() {
+    this.jar = Path.of(property("jar", "runnable/target/runnable.jar"));
+    this.appArgs = words(property("app-args", ""));
+    this.appJvmArgs = words(property("app-jvm-args", "-Xmx512m"));
+    this.catalogueSize = Integer.parseInt(property("catalogue-size", "1000"));
+    this.rate = Integer.parseInt(property("rate", "200"));
+    this.warmup = Duration.parse(property("warmup", "PT15S"));
+    this.duration = Duration.parse(property("duration", "PT60S"));
+    this.mix = parseMix(property("mix", "categories:1,names:2,category:17"));
+    this.maxInFlight = Integer.parseInt(property("max-in-flight", "256"));
+    this.seed = Long.parseLong(property("seed", "42"));
+    this.baseline = Path.of(property("baseline", "loadtest/baseline.json"));
+    this.updateBaseline = Boolean.parseBoolean(property("update-baseline", "false"));
+    this.p99Tolerance = Double.parseDouble(property("p99-tolerance", "0.25"));
+    this.p99Slack = Duration.parse(property("p99-slack", "PT0.002S"));
+    this.maxErrorRate = Double.parseDouble(property("max-error-rate", "0.001"));
+    this.output = Path.of(property("output", "loadtest/target/loadtest"));
+
+    if (this.rate < 1 || this.catalogueSize < 1 || this.maxInFlight < 1 || this.duration.isNegative()
+        || this.duration.isZero() || this.warmup.isNegative()) {
+      throw new IllegalArgumentException("The rate, catalogue size, max in flight and duration must be positive");
+    }
+  }
+
+  /**
+   * Retrieves the packaged application to start.
+   * @return never null.
+   */
+  public Path getJar() {
+    return this.jar;
+  }
+
+  /**
+   * Retrieves the extra Spring arguments passed to the application.
+   * @return never null.
+   */
+  public List<String> getAppArgs() {
+    return this.appArgs;
+  }
+
+  /**
+   * Retrieves the extra JVM arguments for the application.
+   * @return never null.
+   */
+  public List<String> getAppJvmArgs() {
+    return this.appJvmArgs;
+  }
+
+  /**
+   * Retrieves the number of categories written to the application before the load starts.
+   * @return one or more.
+   */
+  public int getCatalogueSize() {
+    return this.catalogueSize;
+  }
+
+  /**
+   * Retrieves the number of requests started per second.
+   * @return one or more.
+   */
+  public int getRate() {
+    return this.rate;
+  }
+
+  /**
+   * Retrieves how long load is applied before measurement starts.
+   * @return zero or more.
+   */
+  public Duration getWarmup() {
+    return this.warmup;
+  }
+
+  /**
+   * Retrieves how long load is applied while it is measured.
+   * @return a positive duration.
+   */
+  public Duration getDuration() {
+    return this.duration;
+  }
+
+  /**
+   * Retrieves the relative weight of each endpoint in the request mix.
+   * @return endpoints mapped to positive weights.
+   */
+  public Map<Endpoint, Integer> getMix() {
+    return this.mix;
+  }
+
+  /**
+   * Retrieves the maximum number of requests outstanding.
+   * @return one or more.
+   */
+  public int getMaxInFlight() {
+    return this.maxInFlight;
+  }
+
+  /**
+   * Retrieves the seed for the request mix and category lookups.
+   * @return the seed.
+   */
+  public long getSeed() {
+    return this.seed;
+  }
+
+  /**
+   * Retrieves the stored baseline results are compared against.
+   * @return never null, the file may not exist yet.
+   */
+  public Path getBaseline() {
+    return this.baseline;
+  }
+
+  /**
+   * Checks whether the results should replace the baseline.
+   * @return true to record a new baseline.
+   */
+  public boolean isUpdateBaseline() {
+    return this.updateBaseline;
+  }
+
+  /**
+   * Retrieves how much slower than the baseline the 99th percentile may be.
+   * @return a fraction of the baseline, e.g. 0.25 allows 25% slower.
+   */
+  public double getP99Tolerance() {
+    return this.p99Tolerance;
+  }
+
+  /**
+   * Retrieves how much slower than the baseline the 99th percentile may always be.
+   * @return never null.
+   */
+  public Duration getP99Slack() {
+    return this.p99Slack;
+  }
+
+  /**
+   * Retrieves the fraction of requests which may fail.
+   * @return between zero and one.
+   */
+  public double getMaxErrorRate() {
+    return this.maxErrorRate;
+  }
+
+  /**
+   * Retrieves where the application log, latency distributions and results are written.
+   * @return never null.
+   */
+  public Path getOutput() {
+    return this.output;
+  }
+
+  /**
+   * Reads a setting.
+   *
+   * @param name the name of the setting, without the prefix.
+   * @param defaultValue used if the property is not set or is blank.
+   * @return the value, trimmed.
+   */
+  private static String property(final String name, final String defaultValue) {
+    final String value = System.getProperty(PREFIX + name);
+    return null == value || value.isBlank() ? defaultValue : value.trim();
+  }
+
+  /**
+   * Splits an argument list on whitespace.
+   *
+   * @param value the arguments.
+   * @return an unmodifiable list, empty if the value is blank.
+   */
+  private static List<String> words(final String value) {
+    return value.isBlank() ? List.of() : List.of(value.trim().split("\\s+"));
+  }
+
+  /**
+   * Parses a request mix such as "categories:1,names:2,category:17".
+   *
+   * @param value the mix.
+   * @return endpoints mapped to weights, in the order they were given.
+   * @throws IllegalArgumentException if an endpoint is unknown or a weight is not a positive number.
+   */
+  private static Map<Endpoint, Integer> parseMix(final String value) {
+    final Map<Endpoint, Integer> result = new LinkedHashMap<>();
+    for (final String entry : value.split(",")) {
+      final String[] parts = entry.trim().split(":");
+      final Endpoint endpoint = Endpoint.forName(parts[0].trim());
+      final int weight = parts.length == 2 ? Integer.parseInt(parts[1].trim()) : 0;
+      if (null == endpoint || weight < 1) {
+        throw new IllegalArgumentException("Invalid request mix entry " + entry
+          + ", expected categories, names or category and a positive weight");
+      }
+      result.put(endpoint, weight);
+    }
+
+    return result;
+  }
+}
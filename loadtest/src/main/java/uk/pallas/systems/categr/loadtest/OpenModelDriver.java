@@ -0,0 +1,150 @@
+package uk.pallas.systems.categr.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a fixed rate whatever the response times (an open workload model, like real clients arriving
+ * independently), unlike a closed model where a fixed pool of users each wait for a response before sending the
+ * next request and so slow down with the server. Requests are spread across the endpoints by weight, and a request
+ * due while the maximum number are already outstanding is counted as an error rather than queued, so an overloaded
+ * server fails the run instead of silently lowering the rate.
+ */
+public final class OpenModelDriver {
+
+  /** Number of nanoseconds in a second. */
+  private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  /** How long a single request may take before it is counted as an error. */
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+  /** Sends the requests. */
+  private final HttpClient client;
+
+  /** The address of the application. */
+  private final URI baseUri;
+
+  /** Supplies the rate, request mix, concurrency limit and seed. */
+  private final LoadTestSettings settings;
+
+  /** The names of the categories which can be looked up. */
+  private final List<String> names;
+
+  /**
+   * Class Constructor.
+   *
+   * @param httpClient sends the requests.
+   * @param applicationUri the address of the application.
+   * @param loadSettings supplies the rate, request mix, concurrency limit and seed.
+   * @param categoryNames the names of the categories which can be looked up, must not be empty.
+   */
+  public OpenModelDriver(final HttpClient httpClient, final URI applicationUri, final LoadTestSettings loadSettings,
+                         final List<String> categoryNames) {
+    this.client = httpClient;
+    this.baseUri = applicationUri;
+    this.settings = loadSettings;
+    this.names = List.copyOf(categoryNames);
+  }
+
+  /**
+   * Applies load for the supplied time and waits for the outstanding requests to finish.
+   *
+   * @param duration how long requests are started for.
+   * @return the latencies and errors recorded.
+   * @throws InterruptedException if interrupted while applying load.
+   */
+  public LoadResults run(final Duration duration) throws InterruptedException {
+    final LoadResults results = new LoadResults();
+    final SplittableRandom random = new SplittableRandom(this.settings.getSeed());
+    final Endpoint[] endpoints = this.settings.getMix().keySet().toArray(new Endpoint[0]);
+    final int[] cumulative = cumulativeWeights(this.settings.getMix(), endpoints);
+
+    final int maxInFlight = this.settings.getMaxInFlight();
+    final Semaphore inFlight = new Semaphore(maxInFlight);
+    final long rate = this.settings.getRate();
+    final long start = System.nanoTime();
+    final long end = start + duration.toNanos();
+
+    for (long sent = 0; ; sent++) {
+      final long due = start + sent * NANOS_PER_SECOND / rate;
+      if (due - end >= 0) {
+        break;
+      }
+      for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+        LockSupport.parkNanos(wait);
+      }
+
+      final Endpoint endpoint = pick(endpoints, cumulative, random.nextInt(cumulative[cumulative.length - 1]));
+      final String name = this.names.get(random.nextInt(this.names.size()));
+      if (inFlight.tryAcquire()) {
+        final HttpRequest request = HttpRequest.newBuilder(this.baseUri.resolve(endpoint.getPath(name)))
+          .timeout(REQUEST_TIMEOUT)
+          .GET()
+          .build();
+        this.client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+          final long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due);
+          if (null == failure && 200 == response.statusCode()) {
+            results.recordSuccess(endpoint, micros);
+          } else {
+            results.recordError(endpoint);
+          }
+          inFlight.release();
+        });
+      } else {
+        results.recordError(endpoint);
+      }
+    }
+
+    // Every outstanding request has either completed or timed out once all the permits are back.
+    if (inFlight.tryAcquire(maxInFlight, REQUEST_TIMEOUT.multipliedBy(2).toMillis(), TimeUnit.MILLISECONDS)) {
+      inFlight.release(maxInFlight);
+    }
+    results.finish();
+
+    return results;
+  }
+
+  /**
+   * Works out the running total of the endpoint weights.
+   *
+   * @param mix the weight of each endpoint.
+   * @param endpoints the endpoints in the order they will be picked from.
+   * @return the total weight of each endpoint and those before it.
+   */
+  private static int[] cumulativeWeights(final Map<Endpoint, Integer> mix, final Endpoint[] endpoints) {
+    final int[] result = new int[endpoints.length];
+    int total = 0;
+    for (int i = 0; i < endpoints.length; i++) {
+      total += mix.get(endpoints[i]);
+      result[i] = total;
+    }
+
+    return result;
+  }
+
+  /**
+   * Picks the endpoint a random number falls on.
+   *
+   * @param endpoints the endpoints.
+   * @param cumulative the running total of their weights.
+   * @param value between zero and the total weight.
+   * @return the endpoint whose weight range holds the value.
+   */
+  private static Endpoint pick(final Endpoint[] endpoints, final int[] cumulative, final int value) {
+    int index = 0;
+    while (value >= cumulative[index]) {
+      index++;
+    }
+
+    return endpoints[index];
+  }
+}
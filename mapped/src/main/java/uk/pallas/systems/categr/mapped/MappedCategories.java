@@ -0,0 +1,299 @@
+package uk.pallas.systems.categr.mapped;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.zip.CRC32;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.services.CategoryHierarchy;
+import uk.pallas.systems.categr.services.CategoryNameIndex;
+import uk.pallas.systems.categr.services.CategoryTextIndex;
+import uk.pallas.systems.categr.services.LazyIndex;
+
+/**
+ * An immutable catalogue of categories read straight out of a memory-mapped snapshot file. Nothing is copied onto the
+ * heap when the file is opened, names are compared in place during a lookup and a category's fields are only decoded
+ * into strings when they are read. The file layout (all numbers big endian) is:
+ *
+ * <pre>
+ * header   int magic "CATG", short format version, short flags (zero), int category count, long data version,
+ *          int CRC32 of everything after the header, eight reserved bytes (zero)
+ * index    one int per category, the offset of its record, in name order
+ * records  short name length, name, short parent length (-1 for none), parent, int description length (-1 for none),
+ *          description, long version, strings are UTF-8
+ * </pre>
+ *
+ * Records are sorted by the unsigned bytes of their UTF-8 names, which is code point order.
+ */
+public final class MappedCategories {
+
+  /** First four bytes of every snapshot file, "CATG". */
+  static final int MAGIC = 0x43415447;
+
+  /** The version of the file layout written and understood by this class. */
+  static final short FORMAT_VERSION = 1;
+
+  /** The number of bytes before the index. */
+  static final int HEADER_SIZE = 32;
+
+  /** Length written for a string which is null. */
+  static final int NULL_LENGTH = -1;
+
+  /** The largest file which can be mapped as a single buffer. */
+  private static final long MAX_FILE_SIZE = Integer.MAX_VALUE;
+
+  /** The mapped file, shared read only by every category handed out. */
+  private final ByteBuffer buffer;
+
+  /** The number of categories in the file. */
+  private final int count;
+
+  /** The data version written into the file by whoever created it. */
+  private final long dataVersion;
+
+  /** Search index over the category names, built the first time it is needed. */
+  private final LazyIndex<CategoryNameIndex> nameIndex = new LazyIndex<>(() -> new CategoryNameIndex(this.asList()));
+
+  /** Full text index over the category descriptions, built the first time it is needed. */
+  private final LazyIndex<CategoryTextIndex> textIndex = new LazyIndex<>(() -> new CategoryTextIndex(this.asList()));
+
+  /** The categories arranged by parent, built the first time it is needed. */
+  private final LazyIndex<CategoryHierarchy> hierarchy = new LazyIndex<>(() -> new CategoryHierarchy(this.asList()));
+
+  /**
+   * Class Constructor, checks the supplied buffer holds a complete snapshot.
+   *
+   * @param data the snapshot, positioned at the start of the header.
+   * @throws IllegalArgumentException if the buffer does not hold a snapshot this class understands or is corrupt.
+   */
+  MappedCategories(final ByteBuffer data) {
+    final ByteBuffer view = data.slice().order(ByteOrder.BIG_ENDIAN);
+    if (view.capacity() < HEADER_SIZE || MAGIC != view.getInt(0)) {
+      throw new IllegalArgumentException("Not a categories snapshot");
+    }
+    if (FORMAT_VERSION != view.getShort(4)) {
+      throw new IllegalArgumentException("Unsupported snapshot format version " + view.getShort(4));
+    }
+
+    final int entries = view.getInt(8);
+    if (entries < 0 || (long) HEADER_SIZE + (long) entries * Integer.BYTES > view.capacity()) {
+      throw new IllegalArgumentException("Snapshot is truncated, it should hold " + entries + " categories");
+    }
+
+    final CRC32 crc = new CRC32();
+    crc.update(view.slice(HEADER_SIZE, view.capacity() - HEADER_SIZE));
+    if ((int) crc.getValue() != view.getInt(20)) {
+      throw new IllegalArgumentException("Snapshot checksum does not match, the file is corrupt or incomplete");
+    }
+
+    this.buffer = view;
+    this.count = entries;
+    this.dataVersion = view.getLong(12);
+  }
+
+  /**
+   * Maps a snapshot file into memory. The mapping stays valid after the file is closed, and after it is replaced by
+   * renaming a new file over it, but the file must never be rewritten in place while it is mapped.
+   *
+   * @param file the snapshot file to open.
+   * @return the categories held in the file.
+   * @throws IOException if the file cannot be read.
+   * @throws IllegalArgumentException if the file is not a snapshot this class understands or is corrupt.
+   */
+  public static MappedCategories open(final Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final long size = channel.size();
+      if (size > MAX_FILE_SIZE) {
+        throw new IllegalArgumentException("Snapshot " + file + " is larger than 2GB");
+      }
+      final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      return new MappedCategories(mapped);
+    }
+  }
+
+  /**
+   * Creates an empty catalogue, served until a snapshot file is available.
+   *
+   * @return a catalogue with no categories.
+   */
+  public static MappedCategories empty() {
+    return new MappedCategories(MappedCategoriesWriter.encode(List.of(), 0));
+  }
+
+  /**
+   * Retrieves the number of categories held.
+   *
+   * @return zero or more.
+   */
+  public int size() {
+    return this.count;
+  }
+
+  /**
+   * Retrieves the data version written into the file by whoever created it.
+   *
+   * @return zero if the creator did not supply one.
+   */
+  public long getDataVersion() {
+    return this.dataVersion;
+  }
+
+  /**
+   * Retrieves the category at a position in name order.
+   *
+   * @param index the position, between zero and {@link #size()}.
+   * @return a view over the category's record.
+   */
+  public Category get(final int index) {
+    return new MappedCategory(this.buffer, this.recordOffset(index), null);
+  }
+
+  /**
+   * Retrieves a category using its name, with a binary search comparing the name against the file in place.
+   *
+   * @param identifier the name of the category to find.
+   * @return null if the category is not in the file.
+   */
+  public Category findByName(final String identifier) {
+    Category result = null;
+
+    if (null != identifier) {
+      final byte[] key = identifier.getBytes(StandardCharsets.UTF_8);
+      final int index = this.lowerBound(key);
+      if (index < this.count && 0 == this.compareName(this.recordOffset(index), key)) {
+        // The caller's string is the name, so there is no need to decode it from the file.
+        result = new MappedCategory(this.buffer, this.recordOffset(index), identifier);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Retrieves the position of the first category whose name sorts after the supplied name.
+   *
+   * @param after the name to start after (null for the first category).
+   * @return between zero and {@link #size()}.
+   */
+  public int indexAfter(final String after) {
+    int result = 0;
+
+    if (null != after) {
+      final byte[] key = after.getBytes(StandardCharsets.UTF_8);
+      result = this.lowerBound(key);
+      if (result < this.count && 0 == this.compareName(this.recordOffset(result), key)) {
+        result++;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Retrieves every category as a list in name order, categories are viewed from the file as they are read rather
+   * than being copied up front.
+   *
+   * @return an unmodifiable list, never null.
+   */
+  public List<Category> asList() {
+    return new AbstractList<>() {
+      @Override
+      public Category get(final int index) {
+        if (index < 0 || index >= MappedCategories.this.count) {
+          throw new IndexOutOfBoundsException(index);
+        }
+        return MappedCategories.this.get(index);
+      }
+
+      @Override
+      public int size() {
+        return MappedCategories.this.count;
+      }
+    };
+  }
+
+  /**
+   * Retrieves the search index over the category names, building it the first time it is asked for.
+   *
+   * @return should never be null.
+   */
+  public CategoryNameIndex getNameIndex() {
+    return this.nameIndex.get();
+  }
+
+  /**
+   * Retrieves the full text index over the category descriptions, building it the first time it is asked for.
+   *
+   * @return should never be null.
+   */
+  public CategoryTextIndex getTextIndex() {
+    return this.textIndex.get();
+  }
+
+  /**
+   * Retrieves the categories arranged by parent, building the hierarchy the first time it is asked for.
+   *
+   * @return should never be null.
+   */
+  public CategoryHierarchy getHierarchy() {
+    return this.hierarchy.get();
+  }
+
+  /**
+   * Finds the position of the first category whose name does not sort before the supplied name.
+   *
+   * @param key the UTF-8 bytes of the name.
+   * @return between zero and {@link #size()}.
+   */
+  private int lowerBound(final byte[] key) {
+    int low = 0;
+    int high = this.count;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (this.compareName(this.recordOffset(mid), key) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+
+    return low;
+  }
+
+  /**
+   * Compares the name of the record at the supplied offset with a name, byte by byte without decoding it.
+   *
+   * @param offset the offset of the record.
+   * @param key the UTF-8 bytes of the name to compare with.
+   * @return negative, zero or positive as the record's name sorts before, the same as, or after the key.
+   */
+  private int compareName(final int offset, final byte[] key) {
+    final int length = Short.toUnsignedInt(this.buffer.getShort(offset));
+    final int shared = Math.min(length, key.length);
+    final int start = offset + Short.BYTES;
+
+    int result = 0;
+    for (int i = 0; i < shared && 0 == result; i++) {
+      result = Byte.toUnsignedInt(this.buffer.get(start + i)) - Byte.toUnsignedInt(key[i]);
+    }
+
+    return 0 == result ? length - key.length : result;
+  }
+
+  /**
+   * Retrieves the offset of a record from the index.
+   *
+   * @param index the position of the category in name order.
+   * @return the offset of the category's record.
+   */
+  private int recordOffset(final int index) {
+    return this.buffer.getInt(HEADER_SIZE + index * Integer.BYTES);
+  }
+}
@@ -0,0 +1,67 @@
+package uk.pallas.systems.categr.mapped;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import uk.pallas.systems.categr.CategoryConstants;
+import uk.pallas.systems.categr.services.CategoryThreads;
+
+/**
+ * Spring configuration for the mapped profile, categories are served from a snapshot file in place of the database.
+ * A snapshot can be exported from a running database backed instance through the bulk snapshot endpoint.
+ */
+@Configuration
+@Profile(CategoryConstants.MAPPED_PROFILE)
+public class MappedCategoriesConfiguration {
+
+  /** Default class constructor. */
+  public MappedCategoriesConfiguration() {
+    // Do Nothing
+  }
+
+  /**
+   * Creates the service and loads the snapshot, Spring stops it checking for new files when the context is closed.
+   *
+   * @param file the snapshot file to serve categories from.
+   * @param pollInterval how often the file is checked for a new snapshot (zero never checks).
+   * @param threads supplies what the file is checked on, platform threads are used if not supplied.
+   * @return a started service.
+   */
+  @Bean
+  public MappedCategoriesDAOService mappedCategoriesDAOService(
+      @Value("${categr.mapped.file:categr.snapshot}") final Path file,
+      @Value("${categr.mapped.poll-interval:PT5S}") final Duration pollInterval,
+      final ObjectProvider<CategoryThreads> threads) {
+    final MappedCategoriesDAOService result = new MappedCategoriesDAOService(file, pollInterval);
+    threads.ifAvailable(result::setThreads);
+    result.start();
+    return result;
+  }
+
+  /**
+   * Publishes the number of categories being served along with how many snapshots have been loaded or rejected.
+   *
+   * @param service the service to report on.
+   * @return a binder which Spring Boot will register with the meter registry.
+   */
+  @Bean
+  public MeterBinder mappedCategoriesDAOServiceMetrics(final MappedCategoriesDAOService service) {
+    return registry -> {
+      FunctionCounter.builder("categr.mapped.loads", service, MappedCategoriesDAOService::getLoadCount)
+        .description("Times a new category snapshot file was swapped in").register(registry);
+      FunctionCounter.builder("categr.mapped.failures", service, MappedCategoriesDAOService::getFailureCount)
+        .description("Times a category snapshot file could not be loaded").register(registry);
+      Gauge.builder("categr.mapped.size", service, mapped -> mapped.getCurrent().size())
+        .description("Number of categories in the snapshot being served").register(registry);
+      Gauge.builder("categr.mapped.version", service, mapped -> mapped.getCurrent().getDataVersion())
+        .description("Data version written into the snapshot being served").register(registry);
+    };
+  }
+}
@@ -0,0 +1,319 @@
+package uk.pallas.systems.categr.mapped;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.services.CategoriesDAOService;
+import uk.pallas.systems.categr.services.CategoryThreads;
+import uk.pallas.systems.categr.services.NameMatch;
+import uk.pallas.systems.categr.services.TextMatch;
+
+/**
+ * A read only CategoriesDAOService with no database behind it, categories are served from a snapshot file mapped into
+ * memory (see {@link MappedCategories}). The file is checked every poll interval and when a new one has been dropped
+ * in (written alongside and renamed over the old one) it is mapped, checked and swapped in atomically, requests already
+ * in flight finish against the snapshot they started with. A file which cannot be read is logged and the current
+ * snapshot is kept.
+ */
+public class MappedCategoriesDAOService implements CategoriesDAOService, AutoCloseable {
+
+  /** Static Logger for the class. */
+  private static final Log LOGGER = LogFactory.getLog(MappedCategoriesDAOService.class);
+
+  /** The snapshot file categories are served from. */
+  private final Path file;
+
+  /** How often the file is checked for a new snapshot. */
+  private final Duration pollInterval;
+
+  /** Ensures only a single thread loads the file at any one time. */
+  private final ReentrantLock reloadLock = new ReentrantLock();
+
+  /** Number of times a new snapshot has been swapped in, also used as the data version. */
+  private final AtomicLong loads = new AtomicLong();
+
+  /** Number of times a new file could not be loaded. */
+  private final AtomicLong failures = new AtomicLong();
+
+  /** The snapshot currently being served, never null. */
+  private volatile MappedCategories current = MappedCategories.empty();
+
+  /** Identifies the file last loaded or found to be broken (inode, modification time and size), null if none. */
+  private Object loadedFrom;
+
+  /** Creates the background thread. */
+  private CategoryThreads threads = CategoryThreads.PLATFORM;
+
+  /** Checks the file for a new snapshot, null until started. */
+  private ScheduledExecutorService poller;
+
+  /**
+   * Class Constructor, nothing is loaded until the service is started.
+   *
+   * @param snapshotFile the snapshot file to serve categories from.
+   * @param interval how often the file is checked for a new snapshot (null or zero never checks).
+   */
+  public MappedCategoriesDAOService(final Path snapshotFile, final Duration interval) {
+    if (null == snapshotFile) {
+      throw new IllegalArgumentException("A snapshot file must be supplied");
+    }
+
+    this.file = snapshotFile;
+    this.pollInterval = null == interval || interval.isNegative() ? Duration.ZERO : interval;
+  }
+
+  /**
+   * Retrieves what the background thread is created with.
+   * @return never null, platform threads unless something else was set.
+   */
+  public CategoryThreads getThreads() {
+    return this.threads;
+  }
+
+  /**
+   * Sets what the background thread is created with, so it follows the application's threading mode.
+   * @param categoryThreads creates the background thread (null for platform threads).
+   */
+  public void setThreads(final CategoryThreads categoryThreads) {
+    this.threads = null == categoryThreads ? CategoryThreads.PLATFORM : categoryThreads;
+  }
+
+  /**
+   * Loads the snapshot file and starts checking it for changes.
+   */
+  public synchronized void start() {
+    this.reload();
+
+    if (null == this.poller && !this.pollInterval.isZero()) {
+      this.poller = Executors.newSingleThreadScheduledExecutor(this.getThreads().factory("categr-snapshot"));
+
+      final long interval = Math.max(1, this.pollInterval.toMillis());
+      this.poller.scheduleWithFixedDelay(this::reload, interval, interval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Stops checking the file for changes.
+   */
+  @Override
+  public synchronized void close() {
+    if (null != this.poller) {
+      this.poller.shutdownNow();
+      this.poller = null;
+    }
+  }
+
+  /**
+   * Loads the snapshot file if it has changed since it was last loaded.
+   *
+   * @return true if a new snapshot was swapped in.
+   */
+  public boolean reload() {
+    boolean result = false;
+
+    this.reloadLock.lock();
+    List<Object> identity = null;
+    try {
+      final BasicFileAttributes attributes = Files.readAttributes(this.file, BasicFileAttributes.class);
+      identity = List.of(Objects.toString(attributes.fileKey()), attributes.lastModifiedTime(), attributes.size());
+
+      if (!identity.equals(this.loadedFrom)) {
+        final MappedCategories loaded = MappedCategories.open(this.file);
+        this.current = loaded;
+        this.loadedFrom = identity;
+        this.loads.incrementAndGet();
+        result = true;
+
+        if (LOGGER.isInfoEnabled()) {
+          LOGGER.info("reload - Loaded " + loaded.size() + " categories (data version " + loaded.getDataVersion()
+            + ") from " + this.file);
+        }
+      }
+    } catch (final NoSuchFileException exception) {
+      if (null == this.loadedFrom && LOGGER.isWarnEnabled()) {
+        LOGGER.warn("reload - No snapshot at " + this.file + ", serving no categories until one is written");
+      }
+    } catch (final IOException | RuntimeException exception) {
+      // Remember the broken file, so it is reported once rather than on every poll until it is replaced.
+      if (null != identity) {
+        this.loadedFrom = identity;
+      }
+      this.failures.incrementAndGet();
+      if (LOGGER.isErrorEnabled()) {
+        LOGGER.error("reload - Unable to load snapshot " + this.file + ", keeping the current categories", exception);
+      }
+    } finally {
+      this.reloadLock.unlock();
+    }
+
+    return result;
+  }
+
+  /**
+   * Retrieves the snapshot currently being served.
+   *
+   * @return never null.
+   */
+  public MappedCategories getCurrent() {
+    return this.current;
+  }
+
+  /**
+   * Retrieves the snapshot file categories are served from.
+   *
+   * @return never null.
+   */
+  public Path getFile() {
+    return this.file;
+  }
+
+  /**
+   * Retrieves the number of times a new snapshot has been swapped in.
+   *
+   * @return zero if no snapshot has been loaded.
+   */
+  public long getLoadCount() {
+    return this.loads.get();
+  }
+
+  /**
+   * Retrieves the number of times a snapshot file could not be loaded.
+   *
+   * @return zero or more.
+   */
+  public long getFailureCount() {
+    return this.failures.get();
+  }
+
+  /**
+   * This will retrieve a specific Category from the snapshot using the primary key (e.g name).
+   *
+   * @param identifier the name of the Category to retrieve.
+   * @return null if the category could not be located.
+   */
+  @Override
+  public Category findByName(final String identifier) {
+    return this.current.findByName(identifier);
+  }
+
+  /**
+   * This retrieves all categories in the snapshot, the categories are read from the file as the list is walked.
+   *
+   * @return an unmodifiable list ordered by name, empty if there is no category data.
+   */
+  @Override
+  public Collection<Category> findAll() {
+    return this.current.asList();
+  }
+
+  /**
+   * Retrieves a page of categories ordered by name, located with a binary search of the snapshot.
+   *
+   * @param after the name of the last category on the previous page (null or empty for the first page).
+   * @param limit the maximum number of categories to return.
+   * @return an unmodifiable view of up to limit categories, empty if there are no more.
+   */
+  @Override
+  public List<Category> findPage(final String after, final int limit) {
+    final MappedCategories snapshot = this.current;
+    final int start = snapshot.indexAfter(null == after || after.isEmpty() ? null : after);
+    final int end = (int) Math.min(snapshot.size(), (long) start + Math.max(0, limit));
+    return snapshot.asList().subList(start, end);
+  }
+
+  /**
+   * Searches the category names using an index built once per snapshot.
+   *
+   * @param query the search term (null or blank matches nothing).
+   * @param match how the search term should be matched against the names (null is treated as prefix).
+   * @param maxDistance the maximum number of edits allowed for a fuzzy match, ignored by other match types.
+   * @param limit the maximum number of categories to return.
+   * @return the matching categories, never null.
+   */
+  @Override
+  public List<Category> searchNames(final String query, final NameMatch match, final int maxDistance,
+                                    final int limit) {
+    return this.current.getNameIndex().search(query, match, maxDistance, limit);
+  }
+
+  /**
+   * Searches the category descriptions using an index built once per snapshot.
+   *
+   * @param query the terms to search for (null or blank matches nothing).
+   * @param limit the maximum number of matches to return.
+   * @return the most relevant matches, best first, never null.
+   */
+  @Override
+  public List<TextMatch> searchDescriptions(final String query, final int limit) {
+    return this.current.getTextIndex().search(query, limit);
+  }
+
+  /**
+   * Retrieves a category and every category beneath it, using a hierarchy built once per snapshot.
+   *
+   * @param identifier the name of the category at the top of the subtree.
+   * @return the category followed by its descendants depth first, empty if the category could not be located.
+   */
+  @Override
+  public List<Category> findSubtree(final String identifier) {
+    return this.current.getHierarchy().getSubtree(identifier);
+  }
+
+  /**
+   * Retrieves the categories above a category, using a hierarchy built once per snapshot.
+   *
+   * @param identifier the name of the category whose ancestors are wanted.
+   * @return the parent first up to the root, empty for a root category or one which could not be located.
+   */
+  @Override
+  public List<Category> findAncestors(final String identifier) {
+    return this.current.getHierarchy().getAncestors(identifier);
+  }
+
+  /**
+   * Checks whether a category sits anywhere beneath another, using a hierarchy built once per snapshot.
+   *
+   * @param identifier the name of the possible descendant.
+   * @param ancestor the name of the possible ancestor.
+   * @return true if the first category is a child, grandchild, etc.. of the second.
+   */
+  @Override
+  public boolean isDescendantOf(final String identifier, final String ancestor) {
+    return this.current.getHierarchy().isDescendant(identifier, ancestor);
+  }
+
+  /**
+   * Passes every category in the snapshot, ordered by name, to the supplied consumer.
+   *
+   * @param consumer called with each category in turn.
+   */
+  @Override
+  public void forEachCategory(final Consumer<? super Category> consumer) {
+    this.current.asList().forEach(consumer);
+  }
+
+  /**
+   * Retrieves a number which changes every time a new snapshot is swapped in.
+   *
+   * @return a positive increasing number, one for the empty catalogue served before any snapshot is loaded.
+   */
+  @Override
+  public long getDataVersion() {
+    return this.loads.get() + 1;
+  }
+}
@@ -0,0 +1,182 @@
+package uk.pallas.systems.categr.mapped;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import uk.pallas.systems.categr.entities.v1.Category;
+
+/**
+ * Utility class writing categories into the snapshot format read by {@link MappedCategories}.
+ */
+public final class MappedCategoriesWriter {
+
+  /** Unused utility Class Constructor. */
+  private MappedCategoriesWriter() {
+    // Do Nothing
+  }
+
+  /**
+   * Encodes the supplied categories as a snapshot.
+   *
+   * @param categories the categories to hold (nulls and entries without a name are ignored, the last entry for a name
+   *     wins).
+   * @param dataVersion a version for the content, e.g. the latest change sequence of the backend it was read from.
+   * @return a buffer holding the whole snapshot, positioned at the start.
+   * @throws IllegalArgumentException if a name, parent or the whole snapshot is too long for the format.
+   */
+  public static ByteBuffer encode(final Collection<? extends Category> categories, final long dataVersion) {
+    final Map<String, Category> latest = new LinkedHashMap<>();
+    if (null != categories) {
+      categories.stream().filter(cat -> null != cat && null != cat.getName())
+        .forEach(cat -> latest.put(cat.getName(), cat));
+    }
+
+    final List<Record> records = new ArrayList<>(latest.size());
+    latest.values().forEach(cat -> records.add(new Record(cat)));
+    records.sort((first, second) -> Arrays.compareUnsigned(first.name, second.name));
+
+    long size = (long) MappedCategories.HEADER_SIZE + (long) records.size() * Integer.BYTES;
+    for (final Record record : records) {
+      size += record.size();
+    }
+    if (size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("The categories are too large for a single snapshot");
+    }
+
+    final ByteBuffer result = ByteBuffer.allocate((int) size).order(ByteOrder.BIG_ENDIAN);
+    result.putInt(MappedCategories.MAGIC)
+      .putShort(MappedCategories.FORMAT_VERSION)
+      .putShort((short) 0)
+      .putInt(records.size())
+      .putLong(dataVersion)
+      .putInt(0)
+      .putLong(0);
+
+    int offset = MappedCategories.HEADER_SIZE + records.size() * Integer.BYTES;
+    for (final Record record : records) {
+      result.putInt(offset);
+      offset += record.size();
+    }
+    records.forEach(record -> record.write(result));
+
+    final CRC32 crc = new CRC32();
+    crc.update(result.array(), MappedCategories.HEADER_SIZE, result.capacity() - MappedCategories.HEADER_SIZE);
+    result.putInt(20, (int) crc.getValue());
+
+    return result.rewind();
+  }
+
+  /**
+   * Writes the supplied categories to a snapshot file. The snapshot is written to a temporary file alongside the
+   * target and then renamed over it, so a service mapping the target never sees a partly written file.
+   *
+   * @param categories the categories to hold (nulls and entries without a name are ignored).
+   * @param dataVersion a version for the content, e.g. the latest change sequence of the backend it was read from.
+   * @param file the snapshot file to create or replace.
+   * @throws IOException if the file cannot be written.
+   */
+  public static void write(final Collection<? extends Category> categories, final long dataVersion, final Path file)
+      throws IOException {
+    final Path target = file.toAbsolutePath();
+    final Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+        final ByteBuffer snapshot = encode(categories, dataVersion);
+        while (snapshot.hasRemaining()) {
+          channel.write(snapshot);
+        }
+        channel.force(true);
+      }
+
+      try {
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (final AtomicMoveNotSupportedException exception) {
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * A single category encoded ready to be written.
+   */
+  private static final class Record {
+
+    /** The UTF-8 name. */
+    private final byte[] name;
+
+    /** The UTF-8 parent, null for a root category. */
+    private final byte[] parent;
+
+    /** The UTF-8 description, null if there isn't one. */
+    private final byte[] description;
+
+    /** The category's version. */
+    private final long version;
+
+    /**
+     * Class Constructor.
+     *
+     * @param category the category to encode.
+     * @throws IllegalArgumentException if the name or parent is too long for the format.
+     */
+    Record(final Category category) {
+      this.name = category.getName().getBytes(StandardCharsets.UTF_8);
+      this.parent = null == category.getParent() ? null : category.getParent().getBytes(StandardCharsets.UTF_8);
+      this.description = null == category.getDescription()
+        ? null : category.getDescription().getBytes(StandardCharsets.UTF_8);
+      this.version = category.getVersion();
+
+      if (this.name.length > Short.MAX_VALUE || null != this.parent && this.parent.length > Short.MAX_VALUE) {
+        throw new IllegalArgumentException("The name or parent of " + category.getName() + " is too long");
+      }
+    }
+
+    /**
+     * Retrieves the number of bytes the record takes up.
+     *
+     * @return the encoded size.
+     */
+    int size() {
+      return Short.BYTES + this.name.length
+        + Short.BYTES + (null == this.parent ? 0 : this.parent.length)
+        + Integer.BYTES + (null == this.description ? 0 : this.description.length)
+        + Long.BYTES;
+    }
+
+    /**
+     * Writes the record at the buffer's position.
+     *
+     * @param buffer the snapshot being written.
+     */
+    void write(final ByteBuffer buffer) {
+      buffer.putShort((short) this.name.length).put(this.name);
+      if (null == this.parent) {
+        buffer.putShort((short) MappedCategories.NULL_LENGTH);
+      } else {
+        buffer.putShort((short) this.parent.length).put(this.parent);
+      }
+      if (null == this.description) {
+        buffer.putInt(MappedCategories.NULL_LENGTH);
+      } else {
+        buffer.putInt(this.description.length).put(this.description);
+      }
+      buffer.putLong(this.version);
+    }
+  }
+}
@@ -0,0 +1,185 @@
+package uk.pallas.systems.categr.mapped;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import uk.pallas.systems.categr.entities.v1.Category;
+
+/**
+ * A read only view over a single category record in a memory-mapped snapshot, see {@link MappedCategories} for the
+ * record layout. Each field is decoded from the file when it is read, so looking a category up costs a small object
+ * rather than three strings, and views over a file which has since been swapped out keep reading the old mapping.
+ */
+final class MappedCategory implements Category {
+
+  /** The mapped snapshot the record is in. */
+  private final ByteBuffer buffer;
+
+  /** The offset of the record within the snapshot. */
+  private final int offset;
+
+  /** The name, when the caller already had it, otherwise null and decoded from the record on request. */
+  private final String knownName;
+
+  /**
+   * Class Constructor.
+   *
+   * @param data the mapped snapshot the record is in.
+   * @param position the offset of the record within the snapshot.
+   * @param name the category name if the caller already has it (null to decode it from the record).
+   */
+  MappedCategory(final ByteBuffer data, final int position, final String name) {
+    this.buffer = data;
+    this.offset = position;
+    this.knownName = name;
+  }
+
+  /**
+   * Compares the supplied object to this one, using the same rules as the other Category implementations.
+   *
+   * @param toCompare the object to compare (can be null or a child class, etc..)
+   * @return false if the name, description, parent or version differ.
+   */
+  @Override
+  public boolean equals(final Object toCompare) {
+
+    final boolean result;
+    if (this == toCompare) {
+      result = true;
+    } else if (toCompare instanceof Category that) {
+      result = Objects.equals(this.getName(), that.getName())
+        && Objects.equals(this.getDescription(), that.getDescription())
+        && Objects.equals(this.getParent(), that.getParent())
+        && this.getVersion() == that.getVersion();
+    } else {
+      result = false;
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates a hashcode from the category's fields.
+   *
+   * @return a valid integer representation of this object.
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.getName(), this.getDescription(), this.getParent(), this.getVersion());
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return non null value.
+   */
+  @Override
+  public String getName() {
+    return null == this.knownName
+      ? this.decode(this.offset + Short.BYTES, Short.toUnsignedInt(this.buffer.getShort(this.offset)))
+      : this.knownName;
+  }
+
+  /**
+   * Snapshots are read only.
+   *
+   * @param identifier ignored.
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void setName(final String identifier) {
+    throw new UnsupportedOperationException("Memory-mapped categories are read only");
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return null if the category has no description.
+   */
+  @Override
+  public String getDescription() {
+    final int position = this.descriptionOffset();
+    return this.decode(position + Integer.BYTES, this.buffer.getInt(position));
+  }
+
+  /**
+   * Snapshots are read only.
+   *
+   * @param detailedDescription ignored.
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void setDescription(final String detailedDescription) {
+    throw new UnsupportedOperationException("Memory-mapped categories are read only");
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return null for a root category.
+   */
+  @Override
+  public String getParent() {
+    final int position = this.parentOffset();
+    return this.decode(position + Short.BYTES, this.buffer.getShort(position));
+  }
+
+  /**
+   * Snapshots are read only.
+   *
+   * @param parentName ignored.
+   * @throws UnsupportedOperationException always.
+   */
+  @Override
+  public void setParent(final String parentName) {
+    throw new UnsupportedOperationException("Memory-mapped categories are read only");
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return zero if the category's version was not known when the snapshot was written.
+   */
+  @Override
+  public long getVersion() {
+    final int position = this.descriptionOffset();
+    return this.buffer.getLong(position + Integer.BYTES + Math.max(0, this.buffer.getInt(position)));
+  }
+
+  /**
+   * Retrieves the offset of the parent length within the snapshot.
+   *
+   * @return the offset just after the name.
+   */
+  private int parentOffset() {
+    return this.offset + Short.BYTES + Short.toUnsignedInt(this.buffer.getShort(this.offset));
+  }
+
+  /**
+   * Retrieves the offset of the description length within the snapshot.
+   *
+   * @return the offset just after the parent.
+   */
+  private int descriptionOffset() {
+    final int position = this.parentOffset();
+    return position + Short.BYTES + Math.max(0, this.buffer.getShort(position));
+  }
+
+  /**
+   * Decodes a UTF-8 string from the snapshot.
+   *
+   * @param position the offset of the first byte.
+   * @param length the number of bytes, negative for null.
+   * @return null if the length is negative.
+   */
+  private String decode(final int position, final int length) {
+    String result = null;
+    if (length >= 0) {
+      final byte[] bytes = new byte[length];
+      this.buffer.get(position, bytes);
+      result = new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    return result;
+  }
+}
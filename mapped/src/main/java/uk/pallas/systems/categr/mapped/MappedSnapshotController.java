@@ -0,0 +1,90 @@
+package uk.pallas.systems.categr.mapped;
+
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.rest.CatgegoriesConstants;
+import uk.pallas.systems.categr.services.CategoriesDAOService;
+
+/**
+ * Exports the whole category catalogue as a snapshot file, which can be dropped in for an instance running the mapped
+ * profile to serve without a database.
+ */
+@RestController("Categories Snapshot API")
+@Profile("!" + CatgegoriesConstants.REACTIVE_PROFILE)
+@RequestMapping("/categr/v1/bulk")
+public class MappedSnapshotController {
+
+  /** The file name suggested to clients saving the snapshot. */
+  private static final String SNAPSHOT_FILE_NAME = "categr.snapshot";
+
+  /**
+   * The backend service to read from.
+   */
+  @Autowired
+  private CategoriesDAOService services;
+
+  /**
+   * Default Constructor.
+   */
+  public MappedSnapshotController() {
+    // Do Nothing
+  }
+
+  /**
+   * Retrieves the backend service categories are read from.
+   * @return if null someone has gone wrong.
+   */
+  public CategoriesDAOService getServices() {
+    return this.services;
+  }
+
+  /**
+   * Sets the backend service categories are read from.
+   * @param categoriesSrv the backend service.
+   */
+  public void setServices(final CategoriesDAOService categoriesSrv) {
+    this.services = categoriesSrv;
+  }
+
+  /**
+   * Exports every category as a snapshot file, stamped with the latest point in the change feed so consumers can tell
+   * how current it is.
+   * @return the snapshot file.
+   */
+  @GetMapping("/snapshot")
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully exported a snapshot of the database",
+      content = {
+        @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+      })
+  })
+  public ResponseEntity<byte[]> exportSnapshot() {
+    // Read the change feed position first, so a write made during the export is never claimed by the version.
+    final long dataVersion = this.getServices().getLatestChange();
+    final List<Category> categories = new ArrayList<>();
+    this.getServices().forEachCategory(categories::add);
+
+    final ByteBuffer snapshot = MappedCategoriesWriter.encode(categories, dataVersion);
+    return ResponseEntity.ok()
+      .contentType(MediaType.APPLICATION_OCTET_STREAM)
+      .header(HttpHeaders.CONTENT_DISPOSITION,
+        ContentDisposition.attachment().filename(SNAPSHOT_FILE_NAME).build().toString())
+      .body(snapshot.array());
+  }
+}
@@ -0,0 +1,92 @@
+package uk.pallas.systems.categr.mapped;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.entities.v1.CategoryRecord;
+import uk.pallas.systems.categr.services.CategoryLoad;
+import uk.pallas.systems.categr.services.CategorySnapshotStore;
+
+/**
+ * Keeps the categories in a snapshot file, in the same versioned and checksummed format served by the mapped profile,
+ * so the file kept by a database backed instance can also be served by a mapped instance. The data version in the
+ * header holds the latest change the categories include.
+ */
+public class MappedSnapshotStore implements CategorySnapshotStore {
+
+  /** The snapshot file. */
+  private final Path file;
+
+  /**
+   * Class Constructor.
+   *
+   * @param snapshot the snapshot file, its directory is created when it is first written.
+   */
+  public MappedSnapshotStore(final Path snapshot) {
+    if (null == snapshot) {
+      throw new IllegalArgumentException("A snapshot file must be supplied");
+    }
+
+    this.file = snapshot;
+  }
+
+  /**
+   * Retrieves the snapshot file.
+   *
+   * @return never null.
+   */
+  public Path getFile() {
+    return this.file;
+  }
+
+  /**
+   * Reads the snapshot file onto the heap, rather than mapping it, as the categories are held long after the file is
+   * replaced.
+   *
+   * @return null if the file does not exist.
+   * @throws IOException if the file cannot be read, is corrupt or is in a format version that is not understood.
+   */
+  @Override
+  public CategoryLoad read() throws IOException {
+    CategoryLoad result = null;
+
+    if (Files.exists(this.file)) {
+      final MappedCategories snapshot;
+      try {
+        snapshot = new MappedCategories(ByteBuffer.wrap(Files.readAllBytes(this.file)));
+      } catch (final IllegalArgumentException exception) {
+        throw new IOException("Unable to read snapshot " + this.file + ": " + exception.getMessage(), exception);
+      }
+
+      final List<Category> categories = new ArrayList<>(snapshot.size());
+      snapshot.asList().forEach(category -> categories.add(CategoryRecord.of(category)));
+      result = new CategoryLoad(categories, snapshot.getDataVersion());
+    }
+
+    return result;
+  }
+
+  /**
+   * Writes a new snapshot alongside the file and renames it into place.
+   *
+   * @param load the categories and the latest change they include.
+   * @throws IOException if the file cannot be written, in which case the previous file is kept.
+   */
+  @Override
+  public void write(final CategoryLoad load) throws IOException {
+    final Path parent = this.file.toAbsolutePath().getParent();
+    if (null != parent) {
+      Files.createDirectories(parent);
+    }
+
+    try {
+      MappedCategoriesWriter.write(load.categories(), load.changeSequence(), this.file);
+    } catch (final IllegalArgumentException exception) {
+      throw new IOException("Unable to write snapshot " + this.file + ": " + exception.getMessage(), exception);
+    }
+  }
+}
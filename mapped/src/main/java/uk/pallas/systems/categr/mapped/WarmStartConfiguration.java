@@ -0,0 +1,75 @@
+package uk.pallas.systems.categr.mapped;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import uk.pallas.systems.categr.CategoryConstants;
+import uk.pallas.systems.categr.services.CachingCategoriesDAOService;
+import uk.pallas.systems.categr.services.CategoryThreads;
+import uk.pallas.systems.categr.services.CategoryWarmStart;
+
+/**
+ * Spring configuration which keeps a copy of the cached categories in a snapshot file (categr.cache.snapshot.file),
+ * so a restarted instance serves reads from the file while the database is still unreachable. Nothing is created if
+ * the cache is disabled or no file is configured.
+ */
+@Configuration
+@Profile("!" + CategoryConstants.MAPPED_PROFILE)
+@ConditionalOnExpression("${categr.cache.enabled:true} and '${categr.cache.snapshot.file:}' != ''")
+public class WarmStartConfiguration {
+
+  /** Default class constructor. */
+  public WarmStartConfiguration() {
+    // Do Nothing
+  }
+
+  /**
+   * Creates the warm start, Spring starts it once the cache exists, so the stored categories are served from the first
+   * request, and stops it on shutdown, writing the cache's content one last time.
+   *
+   * @param cache the cache which is warmed and whose content is written.
+   * @param file the snapshot file the categories are kept in.
+   * @param retryDelay how long to wait before trying to reach the database again.
+   * @param writeInterval how often the cache is checked for content which has not been written.
+   * @param threads supplies what the warm start runs on, platform threads are used if not supplied.
+   * @return a new warm start.
+   */
+  @Bean(initMethod = "start")
+  public CategoryWarmStart categoryWarmStart(final CachingCategoriesDAOService cache,
+      @Value("${categr.cache.snapshot.file}") final Path file,
+      @Value("${categr.cache.snapshot.retry-delay:PT5S}") final Duration retryDelay,
+      @Value("${categr.cache.snapshot.write-interval:PT1M}") final Duration writeInterval,
+      final ObjectProvider<CategoryThreads> threads) {
+    final CategoryWarmStart result = new CategoryWarmStart(cache, new MappedSnapshotStore(file), retryDelay,
+      writeInterval);
+    threads.ifAvailable(result::setThreads);
+    return result;
+  }
+
+  /**
+   * Publishes whether the cache has been reconciled with the database and how often the snapshot file was written or
+   * could not be read or written.
+   *
+   * @param warmStart the warm start to report on.
+   * @return a binder which Spring Boot will register with the meter registry.
+   */
+  @Bean
+  public MeterBinder categoryWarmStartMetrics(final CategoryWarmStart warmStart) {
+    return registry -> {
+      FunctionCounter.builder("categr.cache.snapshot.writes", warmStart, CategoryWarmStart::getWriteCount)
+        .description("Times the category snapshot file was written").register(registry);
+      FunctionCounter.builder("categr.cache.snapshot.failures", warmStart, CategoryWarmStart::getFailureCount)
+        .description("Times the category snapshot file could not be read or written").register(registry);
+      Gauge.builder("categr.cache.reconciled", warmStart, started -> started.isReconciled() ? 1 : 0)
+        .description("One once the categories have been reconciled with the database").register(registry);
+    };
+  }
+}
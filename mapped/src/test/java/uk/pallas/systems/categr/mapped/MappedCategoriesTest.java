@@ -0,0 +1,148 @@
+package uk.pallas.systems.categr.mapped;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryDTO;
+import uk.pallas.systems.categr.services.CategoryLoad;
+
+/**
+ * A set of tests to confirm snapshots are written, searched and swapped correctly.
+ */
+class MappedCategoriesTest {
+
+  /** Directory the snapshot files are written to. */
+  @TempDir
+  Path folder;
+
+  /** Public Constructor. */
+  public MappedCategoriesTest() {}
+
+  /**
+   * Creates a category with a version.
+   *
+   * @param name the category name.
+   * @param description the category description.
+   * @param parent the parent category name.
+   * @param version the category version.
+   * @return a new category.
+   */
+  private static CategoryDTO category(final String name, final String description, final String parent,
+                                      final long version) {
+    final CategoryDTO result = new CategoryDTO(name, description, parent);
+    result.setVersion(version);
+    return result;
+  }
+
+  @Test
+  void testRoundTrip() {
+    final List<CategoryDTO> categories = List.of(
+      category("Zulu", null, null, 3),
+      category("Alpha", "First été", null, 1),
+      category("alpha", "Lower case", "Alpha", 2),
+      category("École", "Non ASCII name", "Alpha", 0),
+      category("Alpha", "Replaced", null, 4));
+
+    final MappedCategories snapshot = new MappedCategories(MappedCategoriesWriter.encode(categories, 42));
+    Assertions.assertEquals(4, snapshot.size());
+    Assertions.assertEquals(42, snapshot.getDataVersion());
+    // Sorted by code point, so upper case first and non ASCII last.
+    Assertions.assertEquals(List.of("Alpha", "Zulu", "alpha", "École"),
+      snapshot.asList().stream().map(Category::getName).toList());
+
+    final Category alpha = snapshot.findByName("Alpha");
+    Assertions.assertEquals("Replaced", alpha.getDescription());
+    Assertions.assertNull(alpha.getParent());
+    Assertions.assertEquals(4, alpha.getVersion());
+
+    final Category ecole = snapshot.findByName("École");
+    Assertions.assertEquals("Alpha", ecole.getParent());
+    Assertions.assertEquals("Non ASCII name", ecole.getDescription());
+    Assertions.assertEquals(ecole, snapshot.get(3));
+    Assertions.assertEquals(ecole.hashCode(), snapshot.get(3).hashCode());
+
+    Assertions.assertNull(snapshot.findByName("Zulu").getDescription());
+    Assertions.assertNull(snapshot.findByName("Alph"));
+    Assertions.assertNull(snapshot.findByName("Alphabet"));
+    Assertions.assertNull(snapshot.findByName(null));
+    Assertions.assertThrows(UnsupportedOperationException.class, () -> alpha.setName("Beta"));
+
+    Assertions.assertEquals(0, snapshot.indexAfter(null));
+    Assertions.assertEquals(1, snapshot.indexAfter("Alpha"));
+    Assertions.assertEquals(1, snapshot.indexAfter("B"));
+    Assertions.assertEquals(4, snapshot.indexAfter("École"));
+
+    Assertions.assertEquals(List.of("alpha", "École"), snapshot.getHierarchy().getSubtree("Alpha").stream()
+      .skip(1).map(Category::getName).sorted().toList());
+  }
+
+  @Test
+  void testCorruptSnapshot() {
+    final ByteBuffer snapshot = MappedCategoriesWriter.encode(List.of(category("Alpha", "First", null, 1)), 1);
+    final byte[] data = snapshot.array();
+    data[data.length - 1] ^= 1;
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new MappedCategories(ByteBuffer.wrap(data)));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new MappedCategories(ByteBuffer.allocate(8)));
+  }
+
+  @Test
+  void testSnapshotStore() throws IOException {
+    final Path file = this.folder.resolve("warm").resolve("categories.snapshot");
+    final MappedSnapshotStore store = new MappedSnapshotStore(file);
+    Assertions.assertNull(store.read());
+
+    store.write(new CategoryLoad(List.of(category("Edge", "Kept", null, 2), category("Land", null, "Edge", 0)), 7));
+    final CategoryLoad read = store.read();
+    Assertions.assertEquals(7, read.changeSequence());
+    Assertions.assertEquals(List.of("Edge", "Land"), read.categories().stream().map(Category::getName).toList());
+    Assertions.assertEquals("Edge", read.categories().stream().toList().get(1).getParent());
+
+    // A truncated file is refused rather than served.
+    final byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+    Assertions.assertThrows(IOException.class, store::read);
+  }
+
+  @Test
+  void testReload() throws IOException {
+    final Path file = this.folder.resolve("categr.snapshot");
+    try (MappedCategoriesDAOService service = new MappedCategoriesDAOService(file, null)) {
+      service.start();
+      Assertions.assertTrue(service.findAll().isEmpty());
+
+      MappedCategoriesWriter.write(List.of(category("Alpha", "First", null, 1), category("Beta", null, null, 1)),
+        7, file);
+      Assertions.assertTrue(service.reload());
+      Assertions.assertFalse(service.reload());
+      Assertions.assertEquals(7, service.getCurrent().getDataVersion());
+      Assertions.assertEquals(List.of("Beta"), service.findPage("Alpha", 10).stream().map(Category::getName)
+        .toList());
+
+      final Category held = service.findByName("Alpha");
+      MappedCategoriesWriter.write(List.of(category("Alpha", "Second", null, 2)), 8, file);
+      Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+      Assertions.assertTrue(service.reload());
+      Assertions.assertEquals("Second", service.findByName("Alpha").getDescription());
+      Assertions.assertNull(service.findByName("Beta"));
+      // A category handed out before the swap still reads the snapshot it came from.
+      Assertions.assertEquals("First", held.getDescription());
+
+      // A broken file is rejected and the current snapshot kept, it is renamed in as the mapped file must not change.
+      final Path broken = Files.write(this.folder.resolve("broken"), new byte[] {1, 2, 3});
+      Files.move(broken, file, StandardCopyOption.REPLACE_EXISTING);
+      Assertions.assertFalse(service.reload());
+      Assertions.assertEquals(1, service.getFailureCount());
+      Assertions.assertEquals("Second", service.findByName("Alpha").getDescription());
+    }
+  }
+}
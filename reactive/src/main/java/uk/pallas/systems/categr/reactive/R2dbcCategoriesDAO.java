@@ -0,0 +1,167 @@
+package uk.pallas.systems.categr.reactive;
+
+import io.r2dbc.spi.Readable;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.rest.CatgegoriesConstants;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryDTO;
+
+/**
+ * Reads categories from the same Categories table the JPA entities are mapped to, but through R2DBC so no thread is
+ * blocked while the database responds.
+ */
+@Service
+@Profile(CatgegoriesConstants.REACTIVE_PROFILE)
+public class R2dbcCategoriesDAO implements ReactiveCategoriesDAOService {
+
+  /** Static Logger for the class. */
+  private static final Log LOGGER = LogFactory.getLog(R2dbcCategoriesDAO.class);
+
+  /** Query retrieving a single category. */
+  private static final String FIND_BY_NAME_SQL = "SELECT name, description, parent, version FROM Categories "
+    + "WHERE name = :name";
+
+  /** Query retrieving a number of categories, the names collection is expanded into one bind marker per name. */
+  private static final String FIND_BY_NAMES_SQL = "SELECT name, description, parent, version FROM Categories "
+    + "WHERE name IN (:names)";
+
+  /** Query retrieving every category. */
+  private static final String FIND_ALL_SQL = "SELECT name, description, parent, version FROM Categories ORDER BY name";
+
+  /** Keyset query retrieving a page of categories. */
+  private static final String FIND_PAGE_SQL = "SELECT name, description, parent, version FROM Categories "
+    + "WHERE name > :after ORDER BY name LIMIT :limit";
+
+  /** The reactive database client. */
+  @Autowired
+  private DatabaseClient client;
+
+  /**
+   * Retrieves the reactive client used to query the database.
+   * @return should never be null unless something has happened to spring.
+   */
+  public DatabaseClient getClient() {
+    return this.client;
+  }
+
+  /**
+   * Sets the reactive client used to query the database.
+   * @param databaseClient the reactive client used to query the database.
+   */
+  public void setClient(final DatabaseClient databaseClient) {
+    this.client = databaseClient;
+  }
+
+  /**
+   * This will retrieve a specific Category using the primary key (e.g name).
+   *
+   * @param identifier the name of the Category to retrieve.
+   * @return empty if the category could not be located.
+   */
+  @Override
+  public Mono<Category> findByName(final String identifier) {
+    final Mono<Category> result;
+
+    if (null == identifier || identifier.isBlank()) {
+      if (LOGGER.isInfoEnabled()) {
+        LOGGER.info("findByName - Invalid Name supplied");
+      }
+      result = Mono.empty();
+    } else {
+      result = this.getClient().sql(FIND_BY_NAME_SQL)
+        .bind("name", identifier)
+        .map(R2dbcCategoriesDAO::toCategory)
+        .one();
+    }
+
+    return result;
+  }
+
+  /**
+   * This will retrieve a number of Categories using their primary keys (e.g name) in a single query.
+   *
+   * @param identifiers the names of the Categories to retrieve (null and blank names are ignored).
+   * @return the categories which were located, in no particular order.
+   */
+  @Override
+  public Flux<Category> findByNames(final Collection<String> identifiers) {
+    final Set<String> names = null == identifiers ? Set.of() : identifiers.stream()
+      .filter(name -> null != name && !name.isBlank())
+      .collect(Collectors.toSet());
+
+    final Flux<Category> result;
+    if (names.isEmpty()) {
+      if (LOGGER.isInfoEnabled()) {
+        LOGGER.info("findByNames - No valid names supplied");
+      }
+      result = Flux.empty();
+    } else {
+      result = this.getClient().sql(FIND_BY_NAMES_SQL)
+        .bind("names", names)
+        .map(R2dbcCategoriesDAO::toCategory)
+        .all();
+    }
+
+    return result;
+  }
+
+  /**
+   * This retrieves all categories ordered by name, rows are published as the database returns them.
+   *
+   * @return empty if there is no category data.
+   */
+  @Override
+  public Flux<Category> findAll() {
+    return this.getClient().sql(FIND_ALL_SQL)
+      .map(R2dbcCategoriesDAO::toCategory)
+      .all();
+  }
+
+  /**
+   * Retrieves a page of categories ordered by name using a keyset (name greater than) query.
+   *
+   * @param after the name of the last category on the previous page (null or empty for the first page).
+   * @param limit the maximum number of categories to return.
+   * @return up to limit categories whose names sort after the supplied name.
+   */
+  @Override
+  public Flux<Category> findPage(final String after, final int limit) {
+    final Flux<Category> result;
+
+    if (limit < 1) {
+      result = Flux.empty();
+    } else {
+      result = this.getClient().sql(FIND_PAGE_SQL)
+        .bind("after", null == after ? "" : after)
+        .bind("limit", limit)
+        .map(R2dbcCategoriesDAO::toCategory)
+        .all();
+    }
+
+    return result;
+  }
+
+  /**
+   * Converts a row from the Categories table into a Category.
+   *
+   * @param row the row read from the database.
+   * @return a new Category holding the name, description, parent and version.
+   */
+  private static Category toCategory(final Readable row) {
+    final CategoryDTO category = new CategoryDTO(row.get("name", String.class), row.get("description", String.class),
+      row.get("parent", String.class));
+    final Long version = row.get("version", Long.class);
+    category.setVersion(null == version ? 0 : version);
+    return category;
+  }
+}
@@ -0,0 +1,80 @@
+package uk.pallas.systems.categr.reactive;
+
+import io.r2dbc.spi.Closeable;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+import uk.pallas.systems.categr.rest.CatgegoriesConstants;
+
+/**
+ * Spring configuration for the reactive profile, this creates the R2DBC client the reactive DAO reads through.
+ * The ConnectionFactory is deliberately not a bean: Spring Boot stops configuring the JDBC DataSource (which JPA still
+ * uses to create and seed the schema) as soon as a ConnectionFactory bean exists, so the factory is held here and
+ * closed when the context shuts down.
+ */
+@Configuration
+@Profile(CatgegoriesConstants.REACTIVE_PROFILE)
+public class ReactiveCategoriesConfiguration implements DisposableBean {
+
+  /** The connection factory (normally a pool) the database client uses, null until the client is created. */
+  private ConnectionFactory connectionFactory;
+
+  /** Default class constructor. */
+  public ReactiveCategoriesConfiguration() {
+    // Do Nothing
+  }
+
+  /**
+   * Serves requests using Netty's event loop, without this Spring Boot would choose Tomcat as it is on the classpath
+   * for the servlet API.
+   *
+   * @return a new Netty server factory.
+   */
+  @Bean
+  public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+    return new NettyReactiveWebServerFactory();
+  }
+
+  /**
+   * Creates the reactive database client.
+   *
+   * @param url the R2DBC URL to connect to, use an r2dbc:pool: URL to pool connections.
+   * @param username the user to connect as (blank to use the URL as is).
+   * @param password the password to connect with.
+   * @return a new client.
+   */
+  @Bean
+  public DatabaseClient categoriesDatabaseClient(@Value("${categr.r2dbc.url}") final String url,
+      @Value("${categr.r2dbc.username:}") final String username,
+      @Value("${categr.r2dbc.password:}") final String password) {
+
+    ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url);
+    if (!username.isBlank()) {
+      options = options.mutate()
+        .option(ConnectionFactoryOptions.USER, username)
+        .option(ConnectionFactoryOptions.PASSWORD, password)
+        .build();
+    }
+
+    this.connectionFactory = ConnectionFactories.get(options);
+    return DatabaseClient.create(this.connectionFactory);
+  }
+
+  /**
+   * Closes the connection factory (e.g. the pool) when the context shuts down.
+   */
+  @Override
+  public void destroy() {
+    if (this.connectionFactory instanceof Closeable closeable) {
+      Mono.from(closeable.close()).block();
+    }
+  }
+}
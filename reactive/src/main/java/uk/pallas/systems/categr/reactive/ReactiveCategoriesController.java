@@ -0,0 +1,261 @@
+package uk.pallas.systems.categr.reactive;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.rest.CatgegoriesConstants;
+import uk.pallas.systems.categr.rest.PageCursors;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryBatchDTO;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryDTO;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryPageDTO;
+
+/**
+ * WebFlux version of the Categories API, it serves the same read endpoints and bodies as the servlet controller but
+ * every response is built from a non-blocking R2DBC query so a small number of event loop threads can serve a large
+ * number of concurrent connections.
+ */
+@RestController("Reactive Categories API")
+@RequestMapping("/categr/v1")
+@Profile(CatgegoriesConstants.REACTIVE_PROFILE)
+public class ReactiveCategoriesController {
+
+  /**
+   * The reactive backend service to retrieve categories from.
+   */
+  @Autowired
+  private ReactiveCategoriesDAOService services;
+
+  /**
+   * Default Constructor.
+   */
+  public ReactiveCategoriesController() {
+    // Do Nothing
+  }
+
+  /**
+   * Retrieves the reactive backend service categories are read from.
+   * @return if null someone has gone wrong.
+   */
+  public ReactiveCategoriesDAOService getServices() {
+    return this.services;
+  }
+
+  /**
+   * Sets the reactive backend service categories are read from.
+   * @param categoriesSrv the reactive backend service.
+   */
+  public void setServices(final ReactiveCategoriesDAOService categoriesSrv) {
+    this.services = categoriesSrv;
+  }
+
+  /**
+   * Retrieves all categories held within Categr, ordered by name.
+   *
+   * @return the categories, written as they are read from the database.
+   */
+  @GetMapping(value = "/", produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully retrieved data from the database",
+      content = @Content(mediaType = "application/json",
+        array = @ArraySchema(schema = @Schema(implementation = CategoryDTO.class)))
+      ),
+    @ApiResponse(
+      responseCode = "404",
+      description = CatgegoriesConstants.NOT_FOUND_ERROR_MSG
+      )
+  })
+  public Flux<CategoryDTO> getCategories() {
+    return this.getServices().findAll()
+      .map(CategoryDTO::new)
+      .switchIfEmpty(Flux.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+        CatgegoriesConstants.NOT_FOUND_ERROR_MSG)));
+  }
+
+  /**
+   * Retrieves the Names of all categories held within Categr, ordered by name.
+   *
+   * @return the category names.
+   */
+  @GetMapping(value = "/names", produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully retrieved data from the database",
+      content = @Content(mediaType = "application/json",
+        array = @ArraySchema(schema = @Schema(implementation = String.class)))
+      ),
+    @ApiResponse(
+      responseCode = "404",
+      description = CatgegoriesConstants.NOT_FOUND_ERROR_MSG
+      )
+  })
+  public Mono<List<String>> getCategoryNames() {
+    // Collected into a list, as a Flux of Strings would be written as raw text rather than a JSON array.
+    return this.getServices().findAll()
+      .map(Category::getName)
+      .collectList()
+      .filter(names -> !names.isEmpty())
+      .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+        CatgegoriesConstants.NOT_FOUND_ERROR_MSG)));
+  }
+
+  /**
+   * Retrieves a specific Category.
+   *
+   * @param name the Category Name (primary key for the record) to retrieve.
+   * @return the category.
+   */
+  @GetMapping(value = "/names/{name}", produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully retrieved data from the database",
+      content = @Content(mediaType = "application/json", schema = @Schema(implementation = CategoryDTO.class))
+      ),
+    @ApiResponse(
+      responseCode = "404",
+      description = "No Categories found with that name"
+      )
+  })
+  public Mono<CategoryDTO> getCategoryByName(@PathVariable(name = "name") final String name) {
+    return this.getServices().findByName(name)
+      .map(CategoryDTO::new)
+      .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+        "No Categories found with that name")));
+  }
+
+  /**
+   * Looks up a number of categories by name in a single request.
+   *
+   * @param names the Category Names (primary keys for the records) to look up.
+   * @return the categories which were found and the names which were not, both in the order requested.
+   */
+  @PostMapping(value = "/names", produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully looked up the names in the database",
+      content = @Content(mediaType = "application/json", schema = @Schema(implementation = CategoryBatchDTO.class))
+      ),
+    @ApiResponse(
+      responseCode = "400",
+      description = CatgegoriesConstants.BATCH_SIZE_ERROR_MSG
+      )
+  })
+  public Mono<CategoryBatchDTO> getCategoriesByName(@RequestBody final List<String> names) {
+
+    if (null == names || names.isEmpty() || names.size() > CatgegoriesConstants.MAX_BATCH_SIZE) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.BATCH_SIZE_ERROR_MSG);
+    }
+
+    final Collection<String> requested = new LinkedHashSet<>();
+    names.stream().filter(Objects::nonNull).forEach(requested::add);
+
+    return this.getServices().findByNames(requested)
+      .collectMap(Category::getName)
+      .map(cats -> toBatch(requested, cats));
+  }
+
+  /**
+   * Retrieves a single page of categories ordered by name.
+   *
+   * @param cursor the next cursor from the previous page (omit for the first page).
+   * @param size the maximum number of categories to return.
+   * @return the categories on the page and the cursor for the next page.
+   */
+  @GetMapping(value = "/page", produces = MediaType.APPLICATION_JSON_VALUE)
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully retrieved data from the database",
+      content = @Content(mediaType = "application/json", schema = @Schema(implementation = CategoryPageDTO.class))
+      ),
+    @ApiResponse(
+      responseCode = "400",
+      description = CatgegoriesConstants.PAGE_REQUEST_ERROR_MSG
+      )
+  })
+  public Mono<CategoryPageDTO> getCategoryPage(@RequestParam(name = "cursor", required = false) final String cursor,
+      @RequestParam(name = "size", defaultValue = CatgegoriesConstants.DEFAULT_PAGE_SIZE) final int size) {
+
+    if (size < 1 || size > CatgegoriesConstants.MAX_PAGE_SIZE) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.PAGE_REQUEST_ERROR_MSG);
+    }
+
+    // Ask for one more than needed, so we know whether there is a next page without another query.
+    return this.getServices().findPage(PageCursors.decode(cursor), size + 1)
+      .map(CategoryDTO::new)
+      .collectList()
+      .map(cats -> {
+        final boolean more = cats.size() > size;
+        final List<CategoryDTO> page = more ? cats.subList(0, size) : cats;
+        return new CategoryPageDTO(page, more ? PageCursors.encode(page.get(page.size() - 1).getName()) : null);
+      });
+  }
+
+  /**
+   * Streams every category as newline delimited JSON (one category per line), each category is written as soon as
+   * its row is read, with back pressure applied to the database if the client reads slowly.
+   *
+   * @return the categories.
+   */
+  @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully streamed data from the database",
+      content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+        schema = @Schema(implementation = CategoryDTO.class))
+      )
+  })
+  public Flux<CategoryDTO> streamCategories() {
+    return this.getServices().findAll().map(CategoryDTO::new);
+  }
+
+  /**
+   * Splits the requested names into the categories which were found and the names which were not.
+   *
+   * @param requested the names requested, in order.
+   * @param cats the categories found keyed on their name.
+   * @return the batch response.
+   */
+  private static CategoryBatchDTO toBatch(final Collection<String> requested, final Map<String, Category> cats) {
+    final List<CategoryDTO> found = new ArrayList<>(cats.size());
+    final List<String> missing = new ArrayList<>();
+    for (final String name : requested) {
+      final Category cat = cats.get(name);
+      if (null == cat) {
+        missing.add(name);
+      } else {
+        found.add(new CategoryDTO(cat));
+      }
+    }
+
+    return new CategoryBatchDTO(found, missing);
+  }
+}
@@ -0,0 +1,45 @@
+package uk.pallas.systems.categr.reactive;
+
+import java.util.Collection;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.pallas.systems.categr.entities.v1.Category;
+
+/**
+ * Non-blocking equivalent of the CategoriesDAOService, results are published as they are read from the backend so
+ * callers never hold a thread while waiting on the database.
+ */
+public interface ReactiveCategoriesDAOService {
+
+  /**
+   * This will retrieve a specific Category using the primary key (e.g name).
+   *
+   * @param identifier the name of the Category to retrieve.
+   * @return empty if the category could not be located.
+   */
+  Mono<Category> findByName(String identifier);
+
+  /**
+   * This will retrieve a number of Categories using their primary keys (e.g name) in a single query.
+   *
+   * @param identifiers the names of the Categories to retrieve (null and blank names are ignored).
+   * @return the categories which were located, in no particular order.
+   */
+  Flux<Category> findByNames(Collection<String> identifiers);
+
+  /**
+   * This retrieves all categories ordered by name.
+   *
+   * @return empty if there is no category data.
+   */
+  Flux<Category> findAll();
+
+  /**
+   * Retrieves a page of categories ordered by name, pages are located using the last name on the previous page.
+   *
+   * @param after the name of the last category on the previous page (null or empty for the first page).
+   * @param limit the maximum number of categories to return.
+   * @return up to limit categories whose names sort after the supplied name.
+   */
+  Flux<Category> findPage(String after, int limit);
+}
@@ -0,0 +1,100 @@
+package uk.pallas.systems.categr.reactive;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import uk.pallas.systems.categr.entities.v1.Category;
+
+/**
+ * This is a test class designed to check the R2DBC queries against an in memory H2 database.
+ */
+class R2dbcCategoriesDAOTest {
+
+  /** The DAO being tested. */
+  private R2dbcCategoriesDAO dao;
+
+  /** Used to drop the database after each test. */
+  private DatabaseClient client;
+
+  /** Public Constructor. */
+  public R2dbcCategoriesDAOTest() {}
+
+  @BeforeEach
+  void setUp() {
+    final ConnectionFactory factory = ConnectionFactories.get("r2dbc:h2:mem:///categrReactiveDAOTest"
+      + "?options=DB_CLOSE_DELAY=-1");
+    new ResourceDatabasePopulator(new ClassPathResource("categories.sql")).populate(factory).block();
+
+    this.client = DatabaseClient.create(factory);
+    this.dao = new R2dbcCategoriesDAO();
+    this.dao.setClient(this.client);
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.client.sql("DROP ALL OBJECTS").then().block();
+  }
+
+  @Test
+  void testFindByName() {
+    final Category air = this.dao.findByName("Air").block();
+    Assertions.assertNotNull(air);
+    Assertions.assertEquals("R2dbcCategoriesDAOTest Air", air.getDescription());
+    Assertions.assertEquals("Domain", air.getParent());
+
+    final Category land = this.dao.findByName("Land").block();
+    Assertions.assertNotNull(land);
+    Assertions.assertNull(land.getDescription());
+
+    Assertions.assertNull(this.dao.findByName("Missing").block());
+    Assertions.assertNull(this.dao.findByName(" ").block());
+    Assertions.assertNull(this.dao.findByName(null).block());
+  }
+
+  @Test
+  void testFindByNames() {
+    final Set<String> found = this.dao.findByNames(Arrays.asList("Air", "Edge", "Missing", null, " ", "Air"))
+      .map(Category::getName)
+      .collect(Collectors.toSet())
+      .block();
+    Assertions.assertEquals(Set.of("Air", "Edge"), found);
+
+    Assertions.assertEquals(0, this.dao.findByNames(Arrays.asList(null, "")).count().block());
+    Assertions.assertEquals(0, this.dao.findByNames(null).count().block());
+  }
+
+  @Test
+  void testFindAll() {
+    final List<String> names = this.dao.findAll().map(Category::getName).collectList().block();
+    Assertions.assertEquals(List.of("Air", "Domain", "Edge", "Land", "Space"), names);
+  }
+
+  @Test
+  void testFindPage() {
+    Assertions.assertEquals(List.of("Air", "Domain"), this.dao.findPage(null, 2).map(Category::getName)
+      .collectList().block());
+    Assertions.assertEquals(List.of("Edge", "Land"), this.dao.findPage("Domain", 2).map(Category::getName)
+      .collectList().block());
+    Assertions.assertEquals(List.of("Space"), this.dao.findPage("Land", 2).map(Category::getName)
+      .collectList().block());
+    Assertions.assertEquals(0, this.dao.findPage("Space", 2).count().block());
+    Assertions.assertEquals(0, this.dao.findPage(null, 0).count().block());
+  }
+
+  @Test
+  void testVersionRead() {
+    final Category edge = this.dao.findByName("Edge").block();
+    Assertions.assertNotNull(edge);
+    Assertions.assertEquals(5, edge.getVersion());
+  }
+}
@@ -0,0 +1,197 @@
+package uk.pallas.systems.categr.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.entities.v1.CategoryRecord;
+import uk.pallas.systems.categr.rest.CatgegoriesConstants;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryPageDTO;
+
+/**
+ * This is a test class designed to check the reactive category endpoints through WebFlux, against a backend held in
+ * memory.
+ */
+class ReactiveCategoriesControllerTest {
+
+  /** The backend the controller reads from. */
+  private StubService backend;
+
+  /** Holds the controller and the WebFlux infrastructure. */
+  private AnnotationConfigApplicationContext context;
+
+  /** Sends requests to the controller. */
+  private WebTestClient client;
+
+  /** Public Constructor. */
+  public ReactiveCategoriesControllerTest() {}
+
+  @BeforeEach
+  void setUp() {
+    this.backend = new StubService();
+    for (final String name : List.of("Air", "Edge", "Land", "Maritime", "Space")) {
+      this.backend.data.add(new CategoryRecord(name, "ReactiveCategoriesControllerTest " + name, null, 1));
+    }
+
+    // The controller is only created under the reactive profile, and autowires its backend.
+    this.context = new AnnotationConfigApplicationContext();
+    this.context.getEnvironment().setActiveProfiles(CatgegoriesConstants.REACTIVE_PROFILE);
+    this.context.registerBean(ReactiveCategoriesDAOService.class, () -> this.backend);
+    this.context.register(WebConfiguration.class, ReactiveCategoriesController.class);
+    this.context.refresh();
+    this.client = WebTestClient.bindToApplicationContext(this.context).build();
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.context.close();
+  }
+
+  @Test
+  void testGetCategories() {
+    this.client.get().uri("/categr/v1/").exchange()
+      .expectStatus().isOk()
+      .expectBody()
+      .jsonPath("$.length()").isEqualTo(5)
+      .jsonPath("$[0].name").isEqualTo("Air")
+      .jsonPath("$[4].description").isEqualTo("ReactiveCategoriesControllerTest Space");
+
+    this.client.get().uri("/categr/v1/names").exchange()
+      .expectStatus().isOk()
+      .expectBody()
+      .json("[\"Air\", \"Edge\", \"Land\", \"Maritime\", \"Space\"]", true);
+  }
+
+  @Test
+  void testNoCategories() {
+    this.backend.data.clear();
+    this.client.get().uri("/categr/v1/").exchange().expectStatus().isNotFound();
+    this.client.get().uri("/categr/v1/names").exchange().expectStatus().isNotFound();
+  }
+
+  @Test
+  void testGetCategoryByName() {
+    this.client.get().uri("/categr/v1/names/Edge").exchange()
+      .expectStatus().isOk()
+      .expectBody()
+      .jsonPath("$.name").isEqualTo("Edge")
+      .jsonPath("$.description").isEqualTo("ReactiveCategoriesControllerTest Edge");
+
+    this.client.get().uri("/categr/v1/names/Missing").exchange().expectStatus().isNotFound();
+  }
+
+  @Test
+  void testGetCategoriesByName() {
+    this.client.post().uri("/categr/v1/names").contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(List.of("Space", "Missing", "Air", "Space"))
+      .exchange()
+      .expectStatus().isOk()
+      .expectBody()
+      .jsonPath("$.found.length()").isEqualTo(2)
+      .jsonPath("$.found[0].name").isEqualTo("Space")
+      .jsonPath("$.found[1].name").isEqualTo("Air")
+      .jsonPath("$.missing.length()").isEqualTo(1)
+      .jsonPath("$.missing[0]").isEqualTo("Missing");
+
+    this.client.post().uri("/categr/v1/names").contentType(MediaType.APPLICATION_JSON)
+      .bodyValue(List.of())
+      .exchange()
+      .expectStatus().isBadRequest();
+  }
+
+  @Test
+  void testCursorPaging() {
+    final List<String> names = new ArrayList<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      final String after = cursor;
+      final CategoryPageDTO page = this.client.get()
+        .uri(builder -> builder.path("/categr/v1/page").queryParam("size", 2)
+          .queryParamIfPresent("cursor", Optional.ofNullable(after)).build())
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(CategoryPageDTO.class)
+        .returnResult().getResponseBody();
+      Assertions.assertNotNull(page);
+      page.getCategories().forEach(category -> names.add(category.getName()));
+      cursor = page.getNext();
+      pages++;
+    } while (null != cursor);
+
+    Assertions.assertEquals(List.of("Air", "Edge", "Land", "Maritime", "Space"), names);
+    Assertions.assertEquals(3, pages);
+
+    this.client.get().uri("/categr/v1/page?size=0").exchange().expectStatus().isBadRequest();
+    this.client.get().uri("/categr/v1/page?size=" + (CatgegoriesConstants.MAX_PAGE_SIZE + 1)).exchange()
+      .expectStatus().isBadRequest();
+  }
+
+  @Test
+  void testStream() throws Exception {
+    final String body = this.client.get().uri("/categr/v1/stream").accept(MediaType.APPLICATION_NDJSON).exchange()
+      .expectStatus().isOk()
+      .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+      .expectBody(String.class)
+      .returnResult().getResponseBody();
+
+    Assertions.assertNotNull(body);
+    final ObjectMapper mapper = new ObjectMapper();
+    final String[] lines = body.split("\n");
+    Assertions.assertEquals(5, lines.length);
+    Assertions.assertEquals("Air", mapper.readTree(lines[0]).get("name").asText());
+    Assertions.assertEquals("ReactiveCategoriesControllerTest Space",
+      mapper.readTree(lines[4]).get("description").asText());
+  }
+
+  /**
+   * Sets up WebFlux to serve the controller.
+   */
+  @Configuration
+  @EnableWebFlux
+  static class WebConfiguration {
+  }
+
+  /**
+   * Backend publishing the categories held in a list, which is kept in name order.
+   */
+  private static final class StubService implements ReactiveCategoriesDAOService {
+    /** The categories to publish. */
+    private final List<Category> data = new ArrayList<>();
+
+    @Override
+    public Mono<Category> findByName(final String identifier) {
+      return Flux.fromIterable(this.data).filter(category -> category.getName().equals(identifier)).next();
+    }
+
+    @Override
+    public Flux<Category> findByNames(final Collection<String> identifiers) {
+      return Flux.fromIterable(this.data).filter(category -> identifiers.contains(category.getName()));
+    }
+
+    @Override
+    public Flux<Category> findAll() {
+      return Flux.fromIterable(this.data);
+    }
+
+    @Override
+    public Flux<Category> findPage(final String after, final int limit) {
+      return Flux.fromIterable(this.data)
+        .filter(category -> null == after || category.getName().compareTo(after) > 0)
+        .take(limit);
+    }
+  }
+}
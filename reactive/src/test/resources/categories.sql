@@ -0,0 +1,14 @@
+-- The Categories table as created by the Flyway migrations, with a few categories for the DAO tests to read.
+CREATE TABLE Categories (
+  name VARCHAR(100) NOT NULL,
+  description VARCHAR(4096),
+  parent VARCHAR(100),
+  version BIGINT DEFAULT 0 NOT NULL,
+  PRIMARY KEY (name)
+);
+
+INSERT INTO Categories (name, description, parent, version) VALUES ('Domain', 'R2dbcCategoriesDAOTest Domain', NULL, 1);
+INSERT INTO Categories (name, description, parent, version) VALUES ('Air', 'R2dbcCategoriesDAOTest Air', 'Domain', 2);
+INSERT INTO Categories (name, description, parent, version) VALUES ('Land', NULL, 'Domain', 3);
+INSERT INTO Categories (name, description, parent, version) VALUES ('Space', 'R2dbcCategoriesDAOTest Space', 'Domain', 0);
+INSERT INTO Categories (name, description, parent, version) VALUES ('Edge', 'R2dbcCategoriesDAOTest Edge', NULL, 5);
@@ -0,0 +1,528 @@
+package uk.pallas.systems.categr.rest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import uk.pallas.systems.categr.CategoryConstants;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryDTO;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryImportDTO;
+import uk.pallas.systems.categr.services.CategoriesDAOService;
+import uk.pallas.systems.categr.services.CategoryConflictException;
+import uk.pallas.systems.categr.services.CategoryHierarchyException;
+
+/**
+ * Bulk import and export of the whole category catalogue as NDJSON (one category per line) or CSV (with a name,
+ * description and parent header). Uploads are parsed a record at a time and written in batches, exports are written
+ * as the categories are read, so neither side holds the whole catalogue in memory. Smaller edits can be written as a
+ * single version checked transaction through the upsert endpoint.
+ */
+@RestController("Categories Bulk API")
+@Profile("!" + CatgegoriesConstants.REACTIVE_PROFILE)
+@RequestMapping("/categr/v1/bulk")
+public class CategoriesBulkController {
+
+  /** Static Logger for the class. */
+  private static final Log LOGGER = LogFactory.getLog(CategoriesBulkController.class);
+
+  /** The columns in an imported or exported CSV file. */
+  private static final CsvSchema CSV_SCHEMA = CsvSchema.builder()
+    .addColumn("name")
+    .addColumn("description")
+    .addColumn("parent")
+    .build()
+    .withHeader();
+
+  /** Reads and writes CSV files. */
+  private static final CsvMapper CSV_MAPPER = new CsvMapper();
+
+  /**
+   * The backend service to read from and write to.
+   */
+  @Autowired
+  private CategoriesDAOService services;
+
+  /**
+   * Used to read and write NDJSON records.
+   */
+  @Autowired
+  private ObjectMapper mapper;
+
+  /**
+   * Records metrics about imports.
+   */
+  @Autowired
+  private CategoriesMetrics metrics;
+
+  /**
+   * The number of categories written in each batch of an import.
+   */
+  @Value("${categr.import.chunk-size:" + CatgegoriesConstants.DEFAULT_IMPORT_CHUNK_SIZE + "}")
+  private int chunkSize;
+
+  /**
+   * Default Constructor.
+   */
+  public CategoriesBulkController() {
+    // Do Nothing
+  }
+
+  /**
+   * Retrieves the backend service categories are read from and written to.
+   * @return if null someone has gone wrong.
+   */
+  public CategoriesDAOService getServices() {
+    return this.services;
+  }
+
+  /**
+   * Sets the backend service categories are read from and written to.
+   * @param categoriesSrv the backend service.
+   */
+  public void setServices(final CategoriesDAOService categoriesSrv) {
+    this.services = categoriesSrv;
+  }
+
+  /**
+   * Retrieves the mapper used to read and write NDJSON records.
+   * @return if null someone has gone wrong.
+   */
+  public ObjectMapper getMapper() {
+    return this.mapper;
+  }
+
+  /**
+   * Sets the mapper used to read and write NDJSON records.
+   * @param jsonMapper the new mapper.
+   */
+  public void setMapper(final ObjectMapper jsonMapper) {
+    this.mapper = jsonMapper;
+  }
+
+  /**
+   * Retrieves the recorder of import metrics.
+   * @return if null someone has gone wrong.
+   */
+  public CategoriesMetrics getMetrics() {
+    return this.metrics;
+  }
+
+  /**
+   * Sets the recorder of import metrics.
+   * @param recorder the new recorder of import metrics.
+   */
+  public void setMetrics(final CategoriesMetrics recorder) {
+    this.metrics = recorder;
+  }
+
+  /**
+   * Retrieves the number of categories written in each batch of an import.
+   * @return a positive number.
+   */
+  public int getChunkSize() {
+    return Math.max(1, this.chunkSize);
+  }
+
+  /**
+   * Sets the number of categories written in each batch of an import.
+   * @param size the number of categories written in each batch.
+   */
+  public void setChunkSize(final int size) {
+    this.chunkSize = size;
+  }
+
+  /**
+   * Imports categories from newline delimited JSON, each line holding a single category. Categories which already
+   * exist have their description replaced, lines which cannot be parsed or are invalid are skipped and reported.
+   * @param body the uploaded NDJSON.
+   * @return a summary of the import.
+   * @throws IOException if the upload cannot be read.
+   */
+  @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "The upload was read, see the summary for how many categories were written",
+      content = @Content(mediaType = "application/json", schema = @Schema(implementation = CategoryImportDTO.class))
+      ),
+    @ApiResponse(
+      responseCode = "501",
+      description = CatgegoriesConstants.READ_ONLY_ERROR_MSG
+      )
+  })
+  public CategoryImportDTO importNdjson(final InputStream body) throws IOException {
+    final ObjectReader reader = this.getMapper().readerFor(CategoryDTO.class);
+
+    try (Importer importer = new Importer();
+         BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+      long lineNumber = 0;
+      String line = lines.readLine();
+      while (null != line) {
+        lineNumber++;
+        if (!line.isBlank()) {
+          try {
+            importer.add(lineNumber, reader.readValue(line));
+          } catch (final JsonProcessingException exception) {
+            importer.reject(lineNumber, "not a valid category: " + exception.getOriginalMessage());
+          }
+        }
+        line = lines.readLine();
+      }
+
+      return importer.finish(true);
+    }
+  }
+
+  /**
+   * Imports categories from CSV with a name and description header. Categories which already exist have their
+   * description replaced, rows which are invalid are skipped and reported, if the file cannot be parsed the import
+   * stops at that point (categories already written are kept).
+   * @param body the uploaded CSV.
+   * @return a summary of the import.
+   * @throws IOException if the upload cannot be read.
+   */
+  @PostMapping(value = "/import", consumes = CatgegoriesConstants.TEXT_CSV_VALUE)
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "The upload was read, see the summary for how many categories were written",
+      content = @Content(mediaType = "application/json", schema = @Schema(implementation = CategoryImportDTO.class))
+      ),
+    @ApiResponse(
+      responseCode = "501",
+      description = CatgegoriesConstants.READ_ONLY_ERROR_MSG
+      )
+  })
+  public CategoryImportDTO importCsv(final InputStream body) throws IOException {
+    final ObjectReader reader = CSV_MAPPER.readerFor(CategoryDTO.class)
+      .with(CSV_SCHEMA)
+      .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    try (Importer importer = new Importer()) {
+      boolean complete = true;
+      try (MappingIterator<CategoryDTO> rows = reader.readValues(body)) {
+        while (rows.hasNextValue()) {
+          // The parser is now at the start of the row, so this is the line the row begins on.
+          final long lineNumber = rows.getCurrentLocation().getLineNr();
+          try {
+            final CategoryDTO row = rows.nextValue();
+            // CSV has no null, so an empty description (as exported for a category without one) means no description.
+            if (null != row && null != row.getDescription() && row.getDescription().isEmpty()) {
+              row.setDescription(null);
+            }
+            importer.add(lineNumber, row);
+          } catch (final RuntimeJsonMappingException exception) {
+            importer.reject(lineNumber, "not a valid category: " + exception.getMessage());
+          }
+        }
+      } catch (final JsonProcessingException | RuntimeJsonMappingException exception) {
+        importer.error("the CSV could not be parsed, the import stopped: " + exception.getMessage());
+        complete = false;
+      }
+
+      return importer.finish(complete);
+    }
+  }
+
+  /**
+   * Writes a batch of categories as a single transaction, either every category is written or none are. Unlike an
+   * import each category's version is checked by default, a category must be at the version it carries (omit the
+   * version for a category which has never been written) so edits made by someone else are never overwritten.
+   * @param categories the categories to write.
+   * @param checkVersions false to overwrite the categories whatever version they are at.
+   * @return a summary of the write.
+   */
+  @PostMapping(value = "/upsert", consumes = MediaType.APPLICATION_JSON_VALUE)
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Every category was written",
+      content = @Content(mediaType = "application/json", schema = @Schema(implementation = CategoryImportDTO.class))
+      ),
+    @ApiResponse(
+      responseCode = "400",
+      description = "Too many or too few categories were supplied, or one of them was invalid or would sit beneath "
+        + "itself, nothing was written"
+      ),
+    @ApiResponse(
+      responseCode = "409",
+      description = CatgegoriesConstants.UPSERT_CONFLICT_ERROR_MSG
+      ),
+    @ApiResponse(
+      responseCode = "501",
+      description = CatgegoriesConstants.READ_ONLY_ERROR_MSG
+      )
+  })
+  public CategoryImportDTO upsertCategories(@RequestBody final List<CategoryDTO> categories,
+      @RequestParam(name = "checkVersions", defaultValue = "true") final boolean checkVersions) {
+
+    if (null == categories || categories.isEmpty() || categories.size() > CatgegoriesConstants.MAX_BATCH_SIZE) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Between 1 and " + CatgegoriesConstants.MAX_BATCH_SIZE
+        + " categories must be supplied");
+    }
+
+    final List<CategoryDTO> batch = new ArrayList<>(categories.size());
+    for (final CategoryDTO category : categories) {
+      batch.add(CategoryWrites.validate(category, null));
+    }
+
+    final int written;
+    try {
+      written = this.getServices().upsertAll(batch, checkVersions);
+    } catch (final UnsupportedOperationException exception) {
+      throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, CatgegoriesConstants.READ_ONLY_ERROR_MSG,
+        exception);
+    } catch (final CategoryConflictException exception) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT, CatgegoriesConstants.UPSERT_CONFLICT_ERROR_MSG + ": "
+        + exception.getMessage(), exception);    } catch (final CategoryHierarchyException exception) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.HIERARCHY_LOOP_ERROR_MSG + ": "
+        + exception.getMessage(), exception);
+    }
+    this.getMetrics().recordImport(written, 0);
+
+    final CategoryImportDTO result = new CategoryImportDTO();
+    result.setProcessed(batch.size());
+    result.setImported(written);
+    result.setChunks(1);
+    result.setComplete(true);
+    return result;
+  }
+
+  /**
+   * Exports every category, ordered by name, as NDJSON or CSV. Categories are written as they are read from the
+   * backend rather than being collected first.
+   * @param format the format to export in, either ndjson or csv.
+   * @return a streamed response body.
+   */
+  @GetMapping("/export")
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully streamed data from the database",
+      content = {
+        @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = CategoryDTO.class)),
+        @Content(mediaType = CatgegoriesConstants.TEXT_CSV_VALUE)
+      }),
+    @ApiResponse(
+      responseCode = "400",
+      description = CatgegoriesConstants.EXPORT_FORMAT_ERROR_MSG
+      )
+  })
+  public ResponseEntity<StreamingResponseBody> exportCategories(
+      @RequestParam(name = "format", defaultValue = "ndjson") final String format) {
+
+    final ObjectWriter writer;
+    final MediaType mediaType;
+    switch (format.trim().toLowerCase(Locale.ROOT)) {
+      case "ndjson":
+        writer = this.getMapper().writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+          .withRootValueSeparator((String) null);
+        mediaType = MediaType.APPLICATION_NDJSON;
+        break;
+      case "csv":
+        writer = CSV_MAPPER.writer(CSV_SCHEMA).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+          .with(JsonGenerator.Feature.IGNORE_UNKNOWN);
+        mediaType = MediaType.parseMediaType(CatgegoriesConstants.TEXT_CSV_VALUE);
+        break;
+      default:
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.EXPORT_FORMAT_ERROR_MSG);
+    }
+
+    final boolean ndjson = MediaType.APPLICATION_NDJSON.equals(mediaType);
+    final CategoriesDAOService backend = this.getServices();
+    final StreamingResponseBody body = output -> {
+      try (JsonGenerator generator = writer.createGenerator(output);
+           SequenceWriter sequence = writer.writeValues(generator)) {
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        backend.forEachCategory(cat -> {
+          try {
+            // CSV columns are bound to the DTO's properties, NDJSON uses the application mapper which writes any
+            // category in the same shape so the category is not copied.
+            sequence.write(ndjson ? cat : new CategoryDTO(cat));
+            if (ndjson) {
+              // Every NDJSON record is terminated by a newline, including the last one.
+              generator.writeRaw('\n');
+            }
+          } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+          }
+        });
+      }
+    };
+
+    return ResponseEntity.ok().contentType(mediaType).body(body);
+  }
+
+  /**
+   * Collects imported records into batches and writes each batch once it is full, keeping a running summary. Closing
+   * the importer tells the backend the import has finished, so any cache in front of it is brought up to date once
+   * rather than after every batch.
+   */
+  private final class Importer implements AutoCloseable {
+
+    /** The summary returned to the client. */
+    private final CategoryImportDTO summary = new CategoryImportDTO();
+
+    /** The categories waiting to be written. */
+    private final List<CategoryDTO> chunk = new ArrayList<>();
+
+    /** The line the first category waiting to be written was read from. */
+    private long chunkStart;
+
+    /**
+     * Validates a record and queues it to be written, writing the batch if it is now full.
+     *
+     * @param lineNumber the line the record was read from.
+     * @param category the record read (can be null).
+     */
+    void add(final long lineNumber, final CategoryDTO category) {
+      final String name = null == category || null == category.getName() ? null : category.getName().trim();
+      // CSV has no null, so an empty parent (as exported for a root category) means no parent.
+      final String parent = null == category || null == category.getParent() || category.getParent().isBlank()
+        ? null : category.getParent().trim();
+
+      if (null == name || name.isEmpty() || name.length() > CategoryConstants.MAX_NAME_LENGTH) {
+        this.reject(lineNumber, "the name must be between 1 and " + CategoryConstants.MAX_NAME_LENGTH
+          + " characters");
+      } else if (null != category.getDescription()
+          && category.getDescription().length() > CategoryConstants.MAX_DESCRIPTION_LENGTH) {
+        this.reject(lineNumber, "the description must be at most " + CategoryConstants.MAX_DESCRIPTION_LENGTH
+          + " characters");
+      } else if (null != parent && parent.length() > CategoryConstants.MAX_NAME_LENGTH) {
+        this.reject(lineNumber, "the parent must be at most " + CategoryConstants.MAX_NAME_LENGTH + " characters");
+      } else {
+        this.summary.setProcessed(this.summary.getProcessed() + 1);
+        if (this.chunk.isEmpty()) {
+          this.chunkStart = lineNumber;
+        }
+        this.chunk.add(new CategoryDTO(name, category.getDescription(), parent));
+        if (this.chunk.size() >= CategoriesBulkController.this.getChunkSize()) {
+          this.flush(lineNumber);
+        }
+      }
+    }
+
+    /**
+     * Counts a record which could not be imported and notes why.
+     *
+     * @param lineNumber the line the record was read from.
+     * @param reason why the record could not be imported.
+     */
+    void reject(final long lineNumber, final String reason) {
+      this.summary.setProcessed(this.summary.getProcessed() + 1);
+      this.summary.setRejected(this.summary.getRejected() + 1);
+      this.error("Line " + lineNumber + ": " + reason);
+      CategoriesBulkController.this.getMetrics().recordImport(0, 1);
+    }
+
+    /**
+     * Notes a problem with the import, only the first few problems are kept.
+     *
+     * @param message the problem.
+     */
+    void error(final String message) {
+      if (this.summary.getErrors().size() < CatgegoriesConstants.MAX_IMPORT_ERRORS) {
+        this.summary.getErrors().add(message);
+      }
+    }
+
+    /**
+     * Writes any categories still waiting and completes the summary.
+     *
+     * @param complete whether the whole upload was read.
+     * @return the summary of the import.
+     */
+    CategoryImportDTO finish(final boolean complete) {
+      this.flush(-1);
+      this.summary.setComplete(complete);
+
+      if (LOGGER.isInfoEnabled()) {
+        LOGGER.info("importCategories - Finished, processed: " + this.summary.getProcessed() + " imported: "
+          + this.summary.getImported() + " rejected: " + this.summary.getRejected() + " complete: " + complete);
+      }
+
+      return this.summary;
+    }
+
+    /**
+     * Tells the backend the import has finished, whether or not it got to the end of the upload.
+     */
+    @Override
+    public void close() {
+      CategoriesBulkController.this.getServices().importFinished();
+    }
+
+    /**
+     * Writes the categories waiting to be written as a single batch, if the batch fails its categories are counted
+     * as rejected and the import carries on with the next batch.
+     *
+     * @param lineNumber the line the last category in the batch was read from (-1 if unknown).
+     */
+    private void flush(final long lineNumber) {
+      if (!this.chunk.isEmpty()) {
+        final int size = this.chunk.size();
+        int written = 0;
+        try {
+          written = CategoriesBulkController.this.getServices().importBatch(this.chunk);
+        } catch (final UnsupportedOperationException exception) {
+          throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, CatgegoriesConstants.READ_ONLY_ERROR_MSG,
+            exception);
+        } catch (final RuntimeException exception) {
+          this.error("Lines " + this.chunkStart + " to " + (lineNumber < 0 ? "end" : lineNumber)
+            + ": the batch could not be written: " + exception.getMessage());
+          if (LOGGER.isWarnEnabled()) {
+            LOGGER.warn("importCategories - Unable to write batch starting at line " + this.chunkStart, exception);
+          }
+        }
+
+        this.summary.setChunks(this.summary.getChunks() + 1);
+        this.summary.setImported(this.summary.getImported() + written);
+        this.summary.setRejected(this.summary.getRejected() + size - written);
+        CategoriesBulkController.this.getMetrics().recordImport(written, size - written);
+        this.chunk.clear();
+
+        if (LOGGER.isInfoEnabled()) {
+          LOGGER.info("importCategories - Progress, processed: " + this.summary.getProcessed() + " imported: "
+            + this.summary.getImported() + " rejected: " + this.summary.getRejected());
+        }
+      }
+    }
+  }
+}
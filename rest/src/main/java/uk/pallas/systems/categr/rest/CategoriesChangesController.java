@@ -0,0 +1,238 @@
+package uk.pallas.systems.categr.rest;
+
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryChangeDTO;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryChangesDTO;
+import uk.pallas.systems.categr.services.CategoriesDAOService;
+import uk.pallas.systems.categr.services.CategoryChange;
+
+/**
+ * The category change feed, lets clients keep a copy of the categories current by fetching only what has changed
+ * since they last looked (or by having changes pushed to them) rather than downloading every category again. A client
+ * reads the latest sequence, loads every category, and from then on asks for the changes after that sequence.
+ */
+@RestController("Categories Changes API")
+@Profile("!" + CatgegoriesConstants.REACTIVE_PROFILE)
+@RequestMapping("/categr/v1/changes")
+public class CategoriesChangesController {
+
+  /** Metrics tag value for the endpoint retrieving changes. */
+  private static final String ENDPOINT_CHANGES = "changes";
+
+  /**
+   * The backend service to read the change feed from.
+   */
+  @Autowired
+  private CategoriesDAOService services;
+
+  /**
+   * Pushes changes to streaming clients.
+   */
+  @Autowired
+  private CategoryChangeBroadcaster broadcaster;
+
+  /**
+   * Records metrics about the responses sent.
+   */
+  @Autowired
+  private CategoriesMetrics metrics;
+
+  /**
+   * Default Constructor.
+   */
+  public CategoriesChangesController() {
+    // Do Nothing
+  }
+
+  /**
+   * Retrieves the backend service the change feed is read from.
+   * @return if null someone has gone wrong.
+   */
+  public CategoriesDAOService getServices() {
+    return this.services;
+  }
+
+  /**
+   * Sets the backend service the change feed is read from.
+   * @param categoriesSrv the backend service.
+   */
+  public void setServices(final CategoriesDAOService categoriesSrv) {
+    this.services = categoriesSrv;
+  }
+
+  /**
+   * Retrieves the component pushing changes to streaming clients.
+   * @return if null someone has gone wrong.
+   */
+  public CategoryChangeBroadcaster getBroadcaster() {
+    return this.broadcaster;
+  }
+
+  /**
+   * Sets the component pushing changes to streaming clients.
+   * @param changeBroadcaster the component pushing changes to streaming clients.
+   */
+  public void setBroadcaster(final CategoryChangeBroadcaster changeBroadcaster) {
+    this.broadcaster = changeBroadcaster;
+  }
+
+  /**
+   * Retrieves the recorder of response metrics.
+   * @return if null someone has gone wrong.
+   */
+  public CategoriesMetrics getMetrics() {
+    return this.metrics;
+  }
+
+  /**
+   * Sets the recorder of response metrics.
+   * @param recorder the new recorder of response metrics.
+   */
+  public void setMetrics(final CategoriesMetrics recorder) {
+    this.metrics = recorder;
+  }
+
+  /**
+   * Retrieves the changes made after the supplied point in the feed, oldest first.
+   * @param since the sequence of the last change the client has seen (zero for every recorded change).
+   * @param limit the maximum number of changes to return.
+   * @return the changes and the sequence to supply as since on the next request.
+   */
+  @GetMapping
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully retrieved the changes",
+      content = @Content(mediaType = "application/json", schema = @Schema(implementation = CategoryChangesDTO.class))
+      ),
+    @ApiResponse(
+      responseCode = "400",
+      description = CatgegoriesConstants.CHANGES_REQUEST_ERROR_MSG
+      ),
+    @ApiResponse(
+      responseCode = "501",
+      description = CatgegoriesConstants.CHANGES_UNSUPPORTED_ERROR_MSG
+      )
+  })
+  public CategoryChangesDTO getChanges(@RequestParam(name = "since", defaultValue = "0") final long since,
+      @RequestParam(name = "limit", defaultValue = CatgegoriesConstants.DEFAULT_CHANGES_LIMIT) final int limit) {
+
+    if (since < 0 || limit < 1 || limit > CatgegoriesConstants.MAX_CHANGES_LIMIT) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.CHANGES_REQUEST_ERROR_MSG);
+    }
+
+    final List<CategoryChange> changes;
+    try {
+      // Ask for one more than needed, so we know whether there are more changes without another query.
+      changes = this.getServices().findChanges(since, limit + 1);
+    } catch (final UnsupportedOperationException exception) {
+      throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, CatgegoriesConstants.CHANGES_UNSUPPORTED_ERROR_MSG,
+        exception);
+    }
+
+    final boolean more = changes.size() > limit;
+    final List<CategoryChangeDTO> batch = (more ? changes.subList(0, limit) : changes).stream()
+      .map(CategoryChangeDTO::new)
+      .toList();
+    this.getMetrics().recordResults(ENDPOINT_CHANGES, batch.size());
+
+    return new CategoryChangesDTO(batch, batch.isEmpty() ? since : batch.get(batch.size() - 1).getSequence(), more);
+  }
+
+  /**
+   * Retrieves the sequence of the most recent change, a client loading every category should read this first and then
+   * ask for the changes after it.
+   * @return zero if nothing has changed yet.
+   */
+  @GetMapping("/latest")
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully retrieved the latest change sequence",
+      content = @Content(mediaType = "application/json", schema = @Schema(implementation = Long.class))
+      ),
+    @ApiResponse(
+      responseCode = "501",
+      description = CatgegoriesConstants.CHANGES_UNSUPPORTED_ERROR_MSG
+      )
+  })
+  public long getLatestChange() {
+    final long latest = this.getServices().getLatestChange();
+    if (CategoriesDAOService.UNVERSIONED == latest) {
+      throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, CatgegoriesConstants.CHANGES_UNSUPPORTED_ERROR_MSG);
+    }
+
+    return latest;
+  }
+
+  /**
+   * Streams changes to the client as Server-Sent Events as they are made. Each event's id is the change sequence, so
+   * a client which reconnects (browsers do so automatically, sending a Last-Event-ID header) misses nothing.
+   * @param since the sequence of the last change the client has seen, the latest change if omitted.
+   * @param lastEventId the id of the last event received, sent by clients when they reconnect.
+   * @return the event stream.
+   */
+  @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Streaming changes as they are made",
+      content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+        schema = @Schema(implementation = CategoryChangeDTO.class))
+      ),
+    @ApiResponse(
+      responseCode = "400",
+      description = CatgegoriesConstants.CHANGES_REQUEST_ERROR_MSG
+      ),
+    @ApiResponse(
+      responseCode = "501",
+      description = CatgegoriesConstants.CHANGES_UNSUPPORTED_ERROR_MSG
+      )
+  })
+  public SseEmitter streamChanges(@RequestParam(name = "since", required = false) final Long since,
+      @RequestHeader(name = "Last-Event-ID", required = false) final String lastEventId) {
+
+    if (null != since && since < 0) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.CHANGES_REQUEST_ERROR_MSG);
+    }
+
+    // A reconnecting client knows better than the URL it was first given where it got up to.
+    long start = null == since ? -1 : since;
+    if (null != lastEventId && !lastEventId.isBlank()) {
+      try {
+        start = Long.parseLong(lastEventId.trim());
+      } catch (final NumberFormatException exception) {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.CHANGES_REQUEST_ERROR_MSG,
+          exception);
+      }
+      if (start < 0) {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.CHANGES_REQUEST_ERROR_MSG);
+      }
+    }
+
+    final SseEmitter result;
+    try {
+      result = this.getBroadcaster().subscribe(start);
+    } catch (final UnsupportedOperationException exception) {
+      throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, CatgegoriesConstants.CHANGES_UNSUPPORTED_ERROR_MSG,
+        exception);
+    }
+
+    return result;
+  }
+}
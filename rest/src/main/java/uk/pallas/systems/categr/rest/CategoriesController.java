@@ -1,5 +1,9 @@
 package uk.pallas.systems.categr.rest;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.info.Info;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -7,34 +11,117 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryBatchDTO;
 import uk.pallas.systems.categr.rest.entities.v1.CategoryDTO;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryMatchDTO;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryPageDTO;
 import uk.pallas.systems.categr.entities.v1.Category;
 import uk.pallas.systems.categr.services.CategoriesDAOService;
+import uk.pallas.systems.categr.services.CategoryConflictException;
+import uk.pallas.systems.categr.services.CategoryHierarchyException;
+import uk.pallas.systems.categr.services.NameMatch;
 
 /**
  * This Defines an interface for retrieving Field Definitions stored within Typr.
  */
 @RestController("Categories API")
+@Profile("!" + CatgegoriesConstants.REACTIVE_PROFILE)
 @RequestMapping("/categr/v1")
 @OpenAPIDefinition(info = @Info(title = "Categories API"))
 public class CategoriesController {
 
+  /** Metrics tag value for the endpoint listing all categories. */
+  private static final String ENDPOINT_CATEGORIES = "categories";
+
+  /** Metrics tag value for the endpoint listing all category names. */
+  private static final String ENDPOINT_NAMES = "names";
+
+  /** Metrics tag value for the endpoint retrieving a single category. */
+  private static final String ENDPOINT_CATEGORY = "category";
+
+  /** Metrics tag value for the endpoint looking up many categories. */
+  private static final String ENDPOINT_BATCH = "batch";
+
+  /** Metrics tag value for the endpoint retrieving a page of categories. */
+  private static final String ENDPOINT_PAGE = "page";
+
+  /** Metrics tag value for the endpoint searching category names. */
+  private static final String ENDPOINT_SEARCH = "search";
+
+  /** Metrics tag value for the endpoint searching category descriptions. */
+  private static final String ENDPOINT_TEXT_SEARCH = "search.descriptions";
+
+  /** Metrics tag value for the endpoint retrieving a category and its descendants. */
+  private static final String ENDPOINT_SUBTREE = "subtree";
+
+  /** Metrics tag value for the endpoint retrieving a category's ancestors. */
+  private static final String ENDPOINT_ANCESTORS = "ancestors";
+
+  /** Metrics tag value for the endpoint checking whether one category is beneath another. */
+  private static final String ENDPOINT_DESCENDANT = "descendant";
+
   /**
    * The backend service to retrieve.
    */
   @Autowired
   private CategoriesDAOService services;
 
+  /**
+   * Holds pre-rendered response bodies, used when prerender mode is enabled.
+   */
+  @Autowired
+  private PrerenderedResponses responses;
+
+  /**
+   * Used to serialise categories when streaming them.
+   */
+  @Autowired
+  private ObjectMapper mapper;
+
+  /**
+   * Records metrics about the responses sent.
+   */
+  @Autowired
+  private CategoriesMetrics metrics;
+
+  /**
+   * Whether responses are served from pre-rendered JSON (with entity tags) rather than serialised on each request.
+   */
+  @Value("${categr.rest.prerender.enabled:false}")
+  private boolean prerender;
+
   /** Default class constructor. */
   public CategoriesController() {
     // Do Nothing
@@ -56,9 +143,76 @@ public class CategoriesController {
     this.services = fieldDefSrv;
   }
 
+  /**
+   * Retrieves the holder of pre-rendered response bodies.
+   * @return if null and prerender mode is enabled someone has gone wrong.
+   */
+  public PrerenderedResponses getResponses() {
+    return this.responses;
+  }
+
+  /**
+   * Sets the holder of pre-rendered response bodies.
+   * @param rendered the new holder of pre-rendered response bodies.
+   */
+  public void setResponses(final PrerenderedResponses rendered) {
+    this.responses = rendered;
+  }
+
+  /**
+   * Retrieves the mapper used to serialise categories when streaming them.
+   * @return if null someone has gone wrong.
+   */
+  public ObjectMapper getMapper() {
+    return this.mapper;
+  }
+
+  /**
+   * Sets the mapper used to serialise categories when streaming them.
+   * @param jsonMapper the new mapper.
+   */
+  public void setMapper(final ObjectMapper jsonMapper) {
+    this.mapper = jsonMapper;
+  }
+
+  /**
+   * Retrieves the recorder of response metrics.
+   * @return if null someone has gone wrong.
+   */
+  public CategoriesMetrics getMetrics() {
+    return this.metrics;
+  }
+
+  /**
+   * Sets the recorder of response metrics.
+   * @param recorder the new recorder of response metrics.
+   */
+  public void setMetrics(final CategoriesMetrics recorder) {
+    this.metrics = recorder;
+  }
+
+  /**
+   * Checks whether responses are served from pre-rendered JSON.
+   * @return true if prerender mode is enabled.
+   */
+  public boolean isPrerender() {
+    return this.prerender;
+  }
+
+  /**
+   * Sets whether responses are served from pre-rendered JSON.
+   * @param enabled true to enable prerender mode.
+   */
+  public void setPrerender(final boolean enabled) {
+    this.prerender = enabled;
+  }
+
   /**
    * Retrieves all Categories held within Categr.
    *
+   * @param accept the formats the client accepts, used in prerender mode to pick the body to send.
+   * @param ifNoneMatch entity tags the client already holds, used in prerender mode to answer with a 304.
+   * @param acceptEncoding the encodings the client accepts, used in prerender mode to send gzip bodies.
    * @return A list of categories to be offered to the user
    */
   @GetMapping("/")
@@ -71,26 +225,49 @@ public class CategoriesController {
           oneOf = {CategoryDTO.class}))
         )
       ),
+    @ApiResponse(
+        responseCode = "304",
+        description = CatgegoriesConstants.NOT_MODIFIED_MSG
+      ),
     @ApiResponse(
         responseCode = "404",
         description = CatgegoriesConstants.NOT_FOUND_ERROR_MSG
       )
   })
-  public Collection<CategoryDTO> getCategories() {
+  public ResponseEntity<?> getCategories(
+      @RequestHeader(name = HttpHeaders.ACCEPT, required = false) final String accept,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch,
+      @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding) {
 
-    final Collection<Category> cats = this.getServices().findAll();
-    if (null == cats || cats.isEmpty()) {
-      throw new ResponseStatusException(HttpStatus.NOT_FOUND, CatgegoriesConstants.NOT_FOUND_ERROR_MSG);
+    final ResponseEntity<?> result;
+    if (this.isPrerender()) {
+      final MediaType format = negotiate(accept);
+      final RenderedBody body = this.getResponses().getCategories(this.getServices(), format);
+      if (null == body) {
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, CatgegoriesConstants.NOT_FOUND_ERROR_MSG);
+      }
+      result = this.toResponse(ENDPOINT_CATEGORIES, format, body, ifNoneMatch, acceptEncoding);
+    } else {
+      final Collection<Category> cats = this.getServices().findAll();
+      if (null == cats || cats.isEmpty()) {
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, CatgegoriesConstants.NOT_FOUND_ERROR_MSG);
+      }
+
+      // The backend's categories are serialised as they are (see CategoryJsonSerializer), with the cache enabled this
+      // is the snapshot's own list so nothing is copied per request.
+      this.getMetrics().recordResults(ENDPOINT_CATEGORIES, cats.size());
+      result = ResponseEntity.ok(cats);
     }
 
-    return cats.stream().filter(Objects::nonNull)
-      .map(CategoryDTO::new)
-      .toList();
+    return result;
   }
 
   /**
    * Retrieves the Names of all categories held within Categr.
    *
+   * @param accept the formats the client accepts, used in prerender mode to pick the body to send.
+   * @param ifNoneMatch entity tags the client already holds, used in prerender mode to answer with a 304.
+   * @param acceptEncoding the encodings the client accepts, used in prerender mode to send gzip bodies.
    * @return A list of categories to be offered to the user
    */
   @GetMapping("/names")
@@ -103,26 +280,50 @@ public class CategoriesController {
           oneOf = {CategoryDTO.class}))
       )
       ),
+    @ApiResponse(
+      responseCode = "304",
+      description = CatgegoriesConstants.NOT_MODIFIED_MSG
+      ),
     @ApiResponse(
       responseCode = "404",
       description = CatgegoriesConstants.NOT_FOUND_ERROR_MSG
       )
   })
-  public Collection<String> getCategoryNames() {
+  public ResponseEntity<?> getCategoryNames(
+      @RequestHeader(name = HttpHeaders.ACCEPT, required = false) final String accept,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch,
+      @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding) {
+
+    final ResponseEntity<?> result;
+    if (this.isPrerender()) {
+      final MediaType format = negotiate(accept);
+      final RenderedBody body = this.getResponses().getCategoryNames(this.getServices(), format);
+      if (null == body) {
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, CatgegoriesConstants.NOT_FOUND_ERROR_MSG);
+      }
+      result = this.toResponse(ENDPOINT_NAMES, format, body, ifNoneMatch, acceptEncoding);
+    } else {
+      final Collection<Category> cats = this.getServices().findAll();
+      if (null == cats || cats.isEmpty()) {
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, CatgegoriesConstants.NOT_FOUND_ERROR_MSG);
+      }
 
-    final Collection<Category> cats = this.getServices().findAll();
-    if (null == cats || cats.isEmpty()) {
-      throw new ResponseStatusException(HttpStatus.NOT_FOUND, CatgegoriesConstants.NOT_FOUND_ERROR_MSG);
+      final List<String> names = cats.stream().filter(Objects::nonNull)
+        .map(Category::getName)
+        .toList();
+      this.getMetrics().recordResults(ENDPOINT_NAMES, names.size());
+      result = ResponseEntity.ok(names);
     }
 
-    return cats.stream().filter(Objects::nonNull)
-      .map(Category::getName)
-      .toList();
+    return result;
   }
 
   /**
    * Retrieves the Names of all categories held within Categr.
    * @param name the Category Name (primary key for record).
+   * @param accept the formats the client accepts, used in prerender mode to pick the body to send.
+   * @param ifNoneMatch entity tags the client already holds, used in prerender mode to answer with a 304.
+   * @param acceptEncoding the encodings the client accepts, used in prerender mode to send gzip bodies.
    * @return A list of categories to be offered to the user
    */
   @GetMapping("/names/{name}")
@@ -135,6 +336,10 @@ public class CategoriesController {
           oneOf = {CategoryDTO.class}))
         )
       ),
+    @ApiResponse(
+      responseCode = "304",
+      description = CatgegoriesConstants.NOT_MODIFIED_MSG
+      ),
     @ApiResponse(
       responseCode = "400",
       description = "The supplied name path variable was blank or missing"
@@ -144,18 +349,561 @@ public class CategoriesController {
       description = "No Categories found with that name"
       )
   })
-  public Category getCategoryByName(@PathVariable(name = "name") final String name) {
+  public ResponseEntity<?> getCategoryByName(@PathVariable(name = "name") final String name,
+      @RequestHeader(name = HttpHeaders.ACCEPT, required = false) final String accept,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch,
+      @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding) {
 
     if (null == name || name.isBlank()) {
       throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No Category Name was supplied.");
     }
 
-    final Category cats = this.getServices().findByName(name);
-    if (null == cats) {
-      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No Categories found with that name");
+    final ResponseEntity<?> result;
+    if (this.isPrerender()) {
+      final MediaType format = negotiate(accept);
+      final RenderedBody body = this.getResponses().getCategory(this.getServices(), name, format);
+      if (null == body) {
+        this.getMetrics().recordMisses(ENDPOINT_CATEGORY, 1);
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No Categories found with that name");
+      }
+      this.getMetrics().recordLookup(name);
+      result = this.toResponse(ENDPOINT_CATEGORY, format, body, ifNoneMatch, acceptEncoding);
+    } else {
+      final Category cats = this.getServices().findByName(name);
+      if (null == cats) {
+        this.getMetrics().recordMisses(ENDPOINT_CATEGORY, 1);
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No Categories found with that name");
+      }
+      this.getMetrics().recordLookup(name);
+      this.getMetrics().markPayload(ENDPOINT_CATEGORY);
+      result = ResponseEntity.ok(cats);
+    }
+
+    return result;
+  }
+
+  /**
+   * Retrieves a category and every category beneath it in the hierarchy.
+   * @param name the Category Name at the top of the subtree.
+   * @return the category followed by its descendants, depth first with siblings ordered by name.
+   */
+  @GetMapping("/names/{name}/subtree")
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully retrieved the subtree",
+      content = @Content(mediaType = "application/json",
+        array = @ArraySchema(schema = @Schema(implementation = CategoryDTO.class)))
+      ),
+    @ApiResponse(
+      responseCode = "404",
+      description = CatgegoriesConstants.CATEGORY_NOT_FOUND_ERROR_MSG
+      )
+  })
+  public List<CategoryDTO> getSubtree(@PathVariable(name = "name") final String name) {
+    final List<CategoryDTO> results = this.getServices().findSubtree(name).stream().map(CategoryDTO::new).toList();
+    if (results.isEmpty()) {
+      this.getMetrics().recordMisses(ENDPOINT_SUBTREE, 1);
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, CatgegoriesConstants.CATEGORY_NOT_FOUND_ERROR_MSG);
+    }
+    this.getMetrics().recordResults(ENDPOINT_SUBTREE, results.size());
+
+    return results;
+  }
+
+  /**
+   * Retrieves the categories above a category in the hierarchy.
+   * @param name the Category Name whose ancestors are wanted.
+   * @return the parent first up to the root category, empty for a root category.
+   */
+  @GetMapping("/names/{name}/ancestors")
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully retrieved the ancestors",
+      content = @Content(mediaType = "application/json",
+        array = @ArraySchema(schema = @Schema(implementation = CategoryDTO.class)))
+      ),
+    @ApiResponse(
+      responseCode = "404",
+      description = CatgegoriesConstants.CATEGORY_NOT_FOUND_ERROR_MSG
+      )
+  })
+  public List<CategoryDTO> getAncestors(@PathVariable(name = "name") final String name) {
+    if (null == this.getServices().findByName(name)) {
+      this.getMetrics().recordMisses(ENDPOINT_ANCESTORS, 1);
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, CatgegoriesConstants.CATEGORY_NOT_FOUND_ERROR_MSG);
+    }
+
+    final List<CategoryDTO> results = this.getServices().findAncestors(name).stream().map(CategoryDTO::new).toList();
+    this.getMetrics().recordResults(ENDPOINT_ANCESTORS, results.size());
+
+    return results;
+  }
+
+  /**
+   * Checks whether a category sits anywhere beneath another in the hierarchy.
+   * @param name the Category Name of the possible descendant.
+   * @param ancestor the Category Name of the possible ancestor.
+   * @return true if the first category is a child, grandchild, etc.. of the second.
+   */
+  @GetMapping("/names/{name}/descendant-of/{ancestor}")
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully checked the hierarchy",
+      content = @Content(mediaType = "application/json", schema = @Schema(implementation = Boolean.class))
+      ),
+    @ApiResponse(
+      responseCode = "404",
+      description = CatgegoriesConstants.CATEGORY_NOT_FOUND_ERROR_MSG
+      )
+  })
+  public boolean isDescendantOf(@PathVariable(name = "name") final String name,
+      @PathVariable(name = "ancestor") final String ancestor) {
+
+    final Map<String, Category> cats = this.getServices().findByNames(List.of(name, ancestor));
+    if (!cats.containsKey(name) || !cats.containsKey(ancestor)) {
+      this.getMetrics().recordMisses(ENDPOINT_DESCENDANT, 1);
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, CatgegoriesConstants.CATEGORY_NOT_FOUND_ERROR_MSG);
+    }
+    this.getMetrics().recordResults(ENDPOINT_DESCENDANT, 1);
+
+    return this.getServices().isDescendantOf(name, ancestor);
+  }
+
+  /**
+   * Creates a new category, the response carries the new version as its entity tag for use in later If-Match headers.
+   * @param category the category to create.
+   * @return the category as stored.
+   */
+  @PostMapping("/")
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "201",
+      description = "Successfully created the category",
+      content = @Content(mediaType = "application/json", schema = @Schema(implementation = CategoryDTO.class))
+      ),
+    @ApiResponse(
+      responseCode = "400",
+      description = "The category was missing, too long or sits beneath itself"
+      ),
+    @ApiResponse(
+      responseCode = "409",
+      description = CatgegoriesConstants.CATEGORY_EXISTS_ERROR_MSG
+      ),
+    @ApiResponse(
+      responseCode = "501",
+      description = CatgegoriesConstants.READ_ONLY_ERROR_MSG
+      )
+  })
+  public ResponseEntity<CategoryDTO> createCategory(@RequestBody final CategoryDTO category) {
+    final CategoryDTO toCreate = CategoryWrites.validate(category, null);
+
+    final Category created;
+    try {
+      created = this.getServices().create(toCreate);
+    } catch (final UnsupportedOperationException exception) {
+      throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, CatgegoriesConstants.READ_ONLY_ERROR_MSG,
+        exception);
+    } catch (final CategoryConflictException exception) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT, CatgegoriesConstants.CATEGORY_EXISTS_ERROR_MSG,
+        exception);
+    } catch (final CategoryHierarchyException exception) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.HIERARCHY_LOOP_ERROR_MSG,
+        exception);
+    }
+    if (null == created) {
+      throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "The category could not be created");
+    }
+
+    final URI location = UriComponentsBuilder.fromPath("/categr/v1/names/{name}")
+      .buildAndExpand(created.getName()).encode().toUri();
+    return ResponseEntity.created(location).eTag(CategoryWrites.toEtag(created.getVersion()))
+      .body(new CategoryDTO(created));
+  }
+
+  /**
+   * Replaces the description and parent of a category, provided it has not been changed since the client read it.
+   * @param name the Category Name (primary key for record).
+   * @param ifMatch the version the client last read in quotes, or * to overwrite whatever is there.
+   * @param category the new values for the category.
+   * @return the category as stored.
+   */
+  @PutMapping("/names/{name}")
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully updated the category",
+      content = @Content(mediaType = "application/json", schema = @Schema(implementation = CategoryDTO.class))
+      ),
+    @ApiResponse(
+      responseCode = "400",
+      description = "The category was missing, too long, renamed or sits beneath itself"
+      ),
+    @ApiResponse(
+      responseCode = "404",
+      description = CatgegoriesConstants.CATEGORY_NOT_FOUND_ERROR_MSG
+      ),
+    @ApiResponse(
+      responseCode = "412",
+      description = CatgegoriesConstants.STALE_VERSION_MSG
+      ),
+    @ApiResponse(
+      responseCode = "428",
+      description = CatgegoriesConstants.IF_MATCH_REQUIRED_MSG
+      ),
+    @ApiResponse(
+      responseCode = "501",
+      description = CatgegoriesConstants.READ_ONLY_ERROR_MSG
+      )
+  })
+  public ResponseEntity<CategoryDTO> updateCategory(@PathVariable(name = "name") final String name,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
+      @RequestBody final CategoryDTO category) {
+
+    final Set<Long> versions = CategoryWrites.parseIfMatch(ifMatch);
+    final CategoryDTO toUpdate = CategoryWrites.validate(category, name);
+    final long expected = this.expectedVersion(versions, toUpdate.getName());
+
+    final Category updated;
+    try {
+      updated = this.getServices().update(toUpdate, expected);
+    } catch (final UnsupportedOperationException exception) {
+      throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, CatgegoriesConstants.READ_ONLY_ERROR_MSG,
+        exception);
+    } catch (final CategoryConflictException exception) {
+      throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, CatgegoriesConstants.STALE_VERSION_MSG,
+        exception);
+    } catch (final CategoryHierarchyException exception) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.HIERARCHY_LOOP_ERROR_MSG,
+        exception);
+    }
+    if (null == updated) {
+      this.getMetrics().recordMisses(ENDPOINT_CATEGORY, 1);
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, CatgegoriesConstants.CATEGORY_NOT_FOUND_ERROR_MSG);
+    }
+
+    return ResponseEntity.ok().eTag(CategoryWrites.toEtag(updated.getVersion())).body(new CategoryDTO(updated));
+  }
+
+  /**
+   * Deletes a category, provided it has not been changed since the client read it. Categories beneath it become root
+   * categories until a category with the same name is created again.
+   * @param name the Category Name (primary key for record).
+   * @param ifMatch the version the client last read in quotes, or * to delete whatever is there.
+   * @return an empty response.
+   */
+  @DeleteMapping("/names/{name}")
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "204",
+      description = "Successfully deleted the category"
+      ),
+    @ApiResponse(
+      responseCode = "404",
+      description = CatgegoriesConstants.CATEGORY_NOT_FOUND_ERROR_MSG
+      ),
+    @ApiResponse(
+      responseCode = "412",
+      description = CatgegoriesConstants.STALE_VERSION_MSG
+      ),
+    @ApiResponse(
+      responseCode = "428",
+      description = CatgegoriesConstants.IF_MATCH_REQUIRED_MSG
+      ),
+    @ApiResponse(
+      responseCode = "501",
+      description = CatgegoriesConstants.READ_ONLY_ERROR_MSG
+      )
+  })
+  public ResponseEntity<Void> deleteCategory(@PathVariable(name = "name") final String name,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch) {
+
+    final long expected = this.expectedVersion(CategoryWrites.parseIfMatch(ifMatch), name);
+
+    final boolean deleted;
+    try {
+      deleted = this.getServices().delete(name, expected);
+    } catch (final UnsupportedOperationException exception) {
+      throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, CatgegoriesConstants.READ_ONLY_ERROR_MSG,
+        exception);
+    } catch (final CategoryConflictException exception) {
+      throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, CatgegoriesConstants.STALE_VERSION_MSG,
+        exception);
+    }
+    if (!deleted) {
+      this.getMetrics().recordMisses(ENDPOINT_CATEGORY, 1);
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, CatgegoriesConstants.CATEGORY_NOT_FOUND_ERROR_MSG);
+    }
+
+    return ResponseEntity.noContent().build();
+  }
+
+  /**
+   * Looks up a number of categories by name in a single request.
+   * @param names the Category Names (primary keys for the records) to look up.
+   * @return the categories which were found and the names which were not, both in the order requested.
+   */
+  @PostMapping("/names")
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully looked up the names in the database",
+      content = @Content(mediaType = "application/json",
+        schema = @Schema(implementation = CategoryBatchDTO.class))
+      ),
+    @ApiResponse(
+      responseCode = "400",
+      description = CatgegoriesConstants.BATCH_SIZE_ERROR_MSG
+      )
+  })
+  public CategoryBatchDTO getCategoriesByName(@RequestBody final List<String> names) {
+
+    if (null == names || names.isEmpty() || names.size() > CatgegoriesConstants.MAX_BATCH_SIZE) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.BATCH_SIZE_ERROR_MSG);
+    }
+
+    final Collection<String> requested = new LinkedHashSet<>();
+    names.stream().filter(Objects::nonNull).forEach(requested::add);
+    final Map<String, Category> cats = this.getServices().findByNames(requested);
+
+    final List<CategoryDTO> found = new ArrayList<>(cats.size());
+    final List<String> missing = new ArrayList<>(requested.size() - cats.size());
+    for (final String name : requested) {
+      final Category cat = cats.get(name);
+      if (null == cat) {
+        missing.add(name);
+      } else {
+        this.getMetrics().recordLookup(name);
+        found.add(new CategoryDTO(cat));
+      }
+    }
+
+    this.getMetrics().recordResults(ENDPOINT_BATCH, found.size());
+    this.getMetrics().recordMisses(ENDPOINT_BATCH, missing.size());
+    return new CategoryBatchDTO(found, missing);
+  }
+
+  /**
+   * Retrieves a single page of categories ordered by name, so a client can walk a large catalogue a page at a time.
+   * With the snapshot cache enabled (the default) the page is cut from the categories it already holds, with
+   * categr.cache.enabled=false each page is a single keyset query.
+   * @param cursor the next cursor from the previous page (omit for the first page).
+   * @param size the maximum number of categories to return.
+   * @return the categories on the page and the cursor for the next page.
+   */
+  @GetMapping("/page")
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully retrieved data from the database",
+      content = @Content(mediaType = "application/json",
+        schema = @Schema(implementation = CategoryPageDTO.class))
+      ),
+    @ApiResponse(
+      responseCode = "400",
+      description = CatgegoriesConstants.PAGE_REQUEST_ERROR_MSG
+      )
+  })
+  public CategoryPageDTO getCategoryPage(@RequestParam(name = "cursor", required = false) final String cursor,
+      @RequestParam(name = "size", defaultValue = CatgegoriesConstants.DEFAULT_PAGE_SIZE) final int size) {
+
+    if (size < 1 || size > CatgegoriesConstants.MAX_PAGE_SIZE) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.PAGE_REQUEST_ERROR_MSG);
+    }
+
+    // Ask for one more than needed, so we know whether there is a next page without another query.
+    final List<Category> cats = this.getServices().findPage(PageCursors.decode(cursor), size + 1);
+    final boolean more = cats.size() > size;
+    final List<CategoryDTO> page = cats.stream().limit(size).map(CategoryDTO::new).toList();
+    this.getMetrics().recordResults(ENDPOINT_PAGE, page.size());
+
+    return new CategoryPageDTO(page, more ? PageCursors.encode(page.get(page.size() - 1).getName()) : null);
+  }
+
+  /**
+   * Searches the category names ignoring case, so clients can type ahead without downloading every category.
+   * @param query the search term.
+   * @param match how the term is matched against names: prefix, contains or fuzzy (edit distance).
+   * @param distance the maximum number of edits a fuzzy match allows.
+   * @param limit the maximum number of categories to return.
+   * @return the matching categories ordered by name, fuzzy matches are ordered by distance first.
+   */
+  @GetMapping("/search")
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully searched the category names",
+      content = @Content(mediaType = "application/json",
+        array = @ArraySchema(schema = @Schema(implementation = CategoryDTO.class)))
+      ),
+    @ApiResponse(
+      responseCode = "400",
+      description = CatgegoriesConstants.SEARCH_REQUEST_ERROR_MSG
+      )
+  })
+  public List<CategoryDTO> searchCategories(@RequestParam(name = "q") final String query,
+      @RequestParam(name = "match", defaultValue = "prefix") final String match,
+      @RequestParam(name = "distance", defaultValue = CatgegoriesConstants.DEFAULT_SEARCH_DISTANCE) final int distance,
+      @RequestParam(name = "limit", defaultValue = CatgegoriesConstants.DEFAULT_SEARCH_LIMIT) final int limit) {
+
+    if (null == query || query.isBlank() || distance < 0 || distance > CatgegoriesConstants.MAX_SEARCH_DISTANCE
+        || limit < 1 || limit > CatgegoriesConstants.MAX_PAGE_SIZE) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.SEARCH_REQUEST_ERROR_MSG);
+    }
+
+    final NameMatch matchType;
+    try {
+      matchType = NameMatch.valueOf(match.trim().toUpperCase(Locale.ROOT));
+    } catch (final IllegalArgumentException exception) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.SEARCH_REQUEST_ERROR_MSG,
+        exception);
+    }
+
+    final List<CategoryDTO> results = this.getServices().searchNames(query, matchType, distance, limit).stream()
+      .map(CategoryDTO::new)
+      .toList();
+    this.getMetrics().recordResults(ENDPOINT_SEARCH, results.size());
+
+    return results;
+  }
+
+  /**
+   * Searches the category descriptions, returning the most relevant categories first with a snippet of each
+   * description showing where the terms were found.
+   * @param query the terms to search for, categories matching any term are returned.
+   * @param limit the maximum number of categories to return.
+   * @return the most relevant matches, best first.
+   */
+  @GetMapping("/search/descriptions")
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully searched the category descriptions",
+      content = @Content(mediaType = "application/json",
+        array = @ArraySchema(schema = @Schema(implementation = CategoryMatchDTO.class)))
+      ),
+    @ApiResponse(
+      responseCode = "400",
+      description = CatgegoriesConstants.TEXT_SEARCH_REQUEST_ERROR_MSG
+      )
+  })
+  public List<CategoryMatchDTO> searchDescriptions(@RequestParam(name = "q") final String query,
+      @RequestParam(name = "limit", defaultValue = CatgegoriesConstants.DEFAULT_TEXT_SEARCH_LIMIT) final int limit) {
+
+    if (null == query || query.isBlank() || limit < 1 || limit > CatgegoriesConstants.MAX_TEXT_SEARCH_LIMIT) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.TEXT_SEARCH_REQUEST_ERROR_MSG);
+    }
+
+    final List<CategoryMatchDTO> results = this.getServices().searchDescriptions(query, limit).stream()
+      .map(CategoryMatchDTO::new)
+      .toList();
+    this.getMetrics().recordResults(ENDPOINT_TEXT_SEARCH, results.size());
+
+    return results;
+  }
+
+  /**
+   * Streams every category as newline delimited JSON (one category per line), categories are written as they are read
+   * from the backend rather than being collected into a list first. With the snapshot cache enabled (the default) they
+   * are read from the categories it already holds, with categr.cache.enabled=false they are streamed from the database.
+   * @return a streamed response body.
+   */
+  @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully streamed data from the database",
+      content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+        schema = @Schema(implementation = CategoryDTO.class))
+      )
+  })
+  public ResponseEntity<StreamingResponseBody> streamCategories() {
+    final CategoriesDAOService backend = this.getServices();
+    final ObjectWriter writer = this.getMapper().writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    final StreamingResponseBody body = output -> {
+      try (JsonGenerator generator = writer.createGenerator(output)) {
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        backend.forEachCategory(cat -> {
+          try {
+            writer.writeValue(generator, cat);
+            generator.writeRaw('\n');
+          } catch (final IOException exception) {
+            throw new UncheckedIOException(exception);
+          }
+        });
+      }
+    };
+
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  /**
+   * Chooses the version a write expects the category to be at from those listed in an If-Match header, the category is
+   * only read when there is more than one to choose from.
+   *
+   * @param versions the versions the client will accept.
+   * @param name the name of the category being written.
+   * @return the version to hand the backend.
+   */
+  private long expectedVersion(final Set<Long> versions, final String name) {
+    final Category current = versions.size() > 1 ? this.getServices().findByName(name) : null;
+
+    return CategoryWrites.expectedVersion(versions, current);
+  }
+
+  /**
+   * Chooses the format of a pre-rendered body, Spring MVC does this itself for bodies it serialises.
+   *
+   * @param accept the Accept header supplied by the client (can be null).
+   * @return one of WireFormats.MEDIA_TYPES.
+   * @throws ResponseStatusException (406) if the client accepts none of the formats.
+   */
+  private static MediaType negotiate(final String accept) {
+    final MediaType result = WireFormats.negotiate(accept);
+    if (null == result) {
+      throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE, CatgegoriesConstants.NOT_ACCEPTABLE_MSG);
+    }
+
+    return result;
+  }
+
+  /**
+   * Converts a pre-rendered body into a response, if the client already holds the body a 304 is returned instead.
+   *
+   * @param endpoint the endpoint responding, used to tag metrics.
+   * @param format the format the body was rendered in.
+   * @param body the pre-rendered body to send.
+   * @param ifNoneMatch the If-None-Match header supplied by the client (can be null).
+   * @param acceptEncoding the Accept-Encoding header supplied by the client (can be null).
+   * @return a response holding either the body or no body and a 304 status.
+   */
+  private ResponseEntity<?> toResponse(final String endpoint, final MediaType format, final RenderedBody body,
+                                       final String ifNoneMatch, final String acceptEncoding) {
+    final boolean gzip = RenderedBody.acceptsGzip(acceptEncoding);
+
+    final ResponseEntity<?> result;
+    if (body.matches(ifNoneMatch)) {
+      this.getMetrics().recordNotModified(endpoint);
+      result = ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+        .eTag(body.getEtag(gzip))
+        .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+        .build();
+    } else {
+      final ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+        .eTag(body.getEtag(gzip))
+        .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+        .contentType(format);
+      if (body.isGzipped(gzip)) {
+        builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+      }
+      this.getMetrics().markPayload(endpoint);
+      result = builder.body(body.getBody(gzip));
     }
 
-    // Convert into
-    return new CategoryDTO(cats);
+    return result;
   }
 }
@@ -0,0 +1,192 @@
+package uk.pallas.systems.categr.rest;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Records metrics about the responses the Categories API sends, request latency is already recorded by Spring Boot
+ * (http.server.requests) so this covers what that cannot see: result sizes, payload sizes, misses and which
+ * categories are being asked for.
+ */
+@Component
+public class CategoriesMetrics {
+
+  /** Name of the distribution summary recording the number of categories in each response. */
+  public static final String METRIC_RESULTS = "categr.http.results";
+
+  /** Name of the distribution summary recording the size of each response body, see {@link PayloadMetricsFilter}. */
+  public static final String METRIC_PAYLOAD = "categr.http.payload";
+
+  /** Name of the counter recording how many requested names could not be found. */
+  public static final String METRIC_MISSES = "categr.http.misses";
+
+  /** Name of the counter recording how many requests were answered with a 304. */
+  public static final String METRIC_NOT_MODIFIED = "categr.http.not.modified";
+
+  /** Name of the counter recording how often each category is looked up. */
+  public static final String METRIC_LOOKUPS = "categr.http.lookups";
+
+  /** Name of the counter recording how many imported records were written or rejected, this tracks import progress. */
+  public static final String METRIC_IMPORT = "categr.import.records";
+
+  /** Name of the counter recording how many lookups were refused because the client exceeded its rate limit. */
+  public static final String METRIC_RATE_LIMITED = "categr.http.rate.limited";
+
+  /** Request attribute naming the endpoint whose response body size is recorded by {@link PayloadMetricsFilter}. */
+  public static final String PAYLOAD_ENDPOINT_ATTRIBUTE = CategoriesMetrics.class.getName() + ".endpoint";
+
+  /** Tag identifying which endpoint a metric was recorded for. */
+  public static final String TAG_ENDPOINT = "endpoint";
+
+  /** Tag identifying which category a lookup was for. */
+  public static final String TAG_CATEGORY = "category";
+
+  /** Tag identifying whether imported records were written or rejected. */
+  public static final String TAG_OUTCOME = "outcome";
+
+  /** Registry used to record metrics, the global registry is used if Spring has not supplied one. */
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
+
+  /**
+   * Whether lookups are counted per category, this adds a time series per category so is off by default.
+   */
+  @Value("${categr.metrics.per-category:false}")
+  private boolean perCategory;
+
+  /** Default class constructor. */
+  public CategoriesMetrics() {
+    // Do Nothing
+  }
+
+  /**
+   * Retrieves the registry metrics are recorded in.
+   * @return the Spring supplied registry, or the global registry if there isn't one.
+   */
+  public MeterRegistry getMeterRegistry() {
+    return null == this.meterRegistry ? Metrics.globalRegistry : this.meterRegistry;
+  }
+
+  /**
+   * Sets the registry metrics are recorded in.
+   * @param registry the registry to record metrics in (null uses the global registry).
+   */
+  public void setMeterRegistry(final MeterRegistry registry) {
+    this.meterRegistry = registry;
+  }
+
+  /**
+   * Checks whether lookups are counted per category.
+   * @return true if a counter is kept for each category.
+   */
+  public boolean isPerCategory() {
+    return this.perCategory;
+  }
+
+  /**
+   * Sets whether lookups are counted per category.
+   * @param enabled true to keep a counter for each category.
+   */
+  public void setPerCategory(final boolean enabled) {
+    this.perCategory = enabled;
+  }
+
+  /**
+   * Records the number of categories returned by an endpoint, and marks the request so the size of its body is
+   * recorded once written.
+   *
+   * @param endpoint the endpoint which responded.
+   * @param count the number of categories (or names) in the response.
+   */
+  public void recordResults(final String endpoint, final int count) {
+    this.getMeterRegistry().summary(METRIC_RESULTS, TAG_ENDPOINT, endpoint).record(count);
+    this.markPayload(endpoint);
+  }
+
+  /**
+   * Marks the request being handled by the current thread as answered by an endpoint, {@link PayloadMetricsFilter}
+   * records the size of its body once written. Nothing is marked outside a request.
+   *
+   * @param endpoint the endpoint which responded.
+   */
+  public void markPayload(final String endpoint) {
+    final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (null != attributes) {
+      attributes.setAttribute(PAYLOAD_ENDPOINT_ATTRIBUTE, endpoint, RequestAttributes.SCOPE_REQUEST);
+    }
+  }
+
+  /**
+   * Records the size of a response body sent by an endpoint.
+   *
+   * @param endpoint the endpoint which responded.
+   * @param bytes the number of bytes in the body.
+   */
+  public void recordPayload(final String endpoint, final long bytes) {
+    DistributionSummary.builder(METRIC_PAYLOAD)
+      .baseUnit("bytes")
+      .tag(TAG_ENDPOINT, endpoint)
+      .register(this.getMeterRegistry())
+      .record(bytes);
+  }
+
+  /**
+   * Records requested names which could not be found.
+   *
+   * @param endpoint the endpoint which was asked for the names.
+   * @param count the number of names which could not be found.
+   */
+  public void recordMisses(final String endpoint, final int count) {
+    if (count > 0) {
+      this.getMeterRegistry().counter(METRIC_MISSES, TAG_ENDPOINT, endpoint).increment(count);
+    }
+  }
+
+  /**
+   * Records a request answered with a 304 because the client already held the response.
+   *
+   * @param endpoint the endpoint which responded.
+   */
+  public void recordNotModified(final String endpoint) {
+    this.getMeterRegistry().counter(METRIC_NOT_MODIFIED, TAG_ENDPOINT, endpoint).increment();
+  }
+
+  /**
+   * Records a request refused because the client exceeded its rate limit.
+   */
+  public void recordRateLimited() {
+    this.getMeterRegistry().counter(METRIC_RATE_LIMITED).increment();
+  }
+
+  /**
+   * Records a successful lookup of a category, only if per category metrics are enabled.
+   *
+   * @param name the name of the category which was found.
+   */
+  public void recordLookup(final String name) {
+    if (this.isPerCategory() && null != name) {
+      this.getMeterRegistry().counter(METRIC_LOOKUPS, TAG_CATEGORY, name).increment();
+    }
+  }
+
+  /**
+   * Records the outcome of importing a batch of records.
+   *
+   * @param imported the number of records written.
+   * @param rejected the number of records which were not written.
+   */
+  public void recordImport(final int imported, final int rejected) {
+    if (imported > 0) {
+      this.getMeterRegistry().counter(METRIC_IMPORT, TAG_OUTCOME, "imported").increment(imported);
+    }
+    if (rejected > 0) {
+      this.getMeterRegistry().counter(METRIC_IMPORT, TAG_OUTCOME, "rejected").increment(rejected);
+    }
+  }
+}
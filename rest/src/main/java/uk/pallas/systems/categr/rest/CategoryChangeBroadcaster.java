@@ -0,0 +1,363 @@
+package uk.pallas.systems.categr.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryChangeDTO;
+import uk.pallas.systems.categr.services.CategoriesDAOService;
+import uk.pallas.systems.categr.services.CategoryChange;
+import uk.pallas.systems.categr.services.CategoryThreads;
+
+/**
+ * Pushes the category change feed to Server-Sent Events subscribers. A single background thread reads the feed once
+ * per poll interval for every subscriber together, and each change is serialised once however many subscribers it is
+ * sent to, so the cost to the backend does not grow with the number of clients listening.
+ */
+@Component
+@Profile("!" + CatgegoriesConstants.REACTIVE_PROFILE)
+public class CategoryChangeBroadcaster implements DisposableBean {
+
+  /** Static Logger for the class. */
+  private static final Log LOGGER = LogFactory.getLog(CategoryChangeBroadcaster.class);
+
+  /** Name of the gauge recording how many clients are subscribed to the change stream. */
+  public static final String METRIC_SUBSCRIBERS = "categr.changes.subscribers";
+
+  /** How often an idle stream is sent a comment, so proxies do not close it and departed clients are noticed. */
+  private static final long HEARTBEAT_NANOS = TimeUnit.SECONDS.toNanos(15);
+
+  /** The clients currently subscribed. */
+  private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+  /** The backend service the change feed is read from. */
+  @Autowired
+  private CategoriesDAOService services;
+
+  /** Used to serialise each change. */
+  @Autowired
+  private ObjectMapper mapper;
+
+  /** Registry used to record metrics, the global registry is used if Spring has not supplied one. */
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
+
+  /** How often the change feed is read while there are subscribers. */
+  @Value("${categr.changes.poll-interval:PT1S}")
+  private Duration pollInterval = Duration.ofSeconds(1);
+
+  /** How long a stream is held open before the client is asked to reconnect. */
+  @Value("${categr.changes.stream-timeout:PT30M}")
+  private Duration streamTimeout = Duration.ofMinutes(30);
+
+  /** Creates the thread the change feed is read on, platform threads if Spring has not supplied anything. */
+  @Autowired(required = false)
+  private CategoryThreads threads = CategoryThreads.PLATFORM;
+
+  /** Reads the change feed in the background, null until the first client subscribes. */
+  private ScheduledExecutorService poller;
+
+  /** The {@link System#nanoTime()} value when subscribers were last sent anything. */
+  private long lastSent = System.nanoTime();
+
+  /** Default class constructor. */
+  public CategoryChangeBroadcaster() {
+    // Do Nothing
+  }
+
+  /**
+   * Retrieves the backend service the change feed is read from.
+   * @return if null someone has gone wrong.
+   */
+  public CategoriesDAOService getServices() {
+    return this.services;
+  }
+
+  /**
+   * Sets the backend service the change feed is read from.
+   * @param categoriesSrv the backend service.
+   */
+  public void setServices(final CategoriesDAOService categoriesSrv) {
+    this.services = categoriesSrv;
+  }
+
+  /**
+   * Retrieves the mapper used to serialise each change.
+   * @return if null someone has gone wrong.
+   */
+  public ObjectMapper getMapper() {
+    return this.mapper;
+  }
+
+  /**
+   * Sets the mapper used to serialise each change.
+   * @param jsonMapper the new mapper.
+   */
+  public void setMapper(final ObjectMapper jsonMapper) {
+    this.mapper = jsonMapper;
+  }
+
+  /**
+   * Retrieves what the thread the change feed is read on is created with.
+   * @return never null.
+   */
+  public CategoryThreads getThreads() {
+    return null == this.threads ? CategoryThreads.PLATFORM : this.threads;
+  }
+
+  /**
+   * Sets what the thread the change feed is read on is created with.
+   * @param categoryThreads creates the polling thread (null for platform threads).
+   */
+  public void setThreads(final CategoryThreads categoryThreads) {
+    this.threads = categoryThreads;
+  }
+
+  /**
+   * Retrieves the registry metrics are recorded in.
+   * @return the Spring supplied registry, or the global registry if there isn't one.
+   */
+  public MeterRegistry getMeterRegistry() {
+    return null == this.meterRegistry ? Metrics.globalRegistry : this.meterRegistry;
+  }
+
+  /**
+   * Sets the registry metrics are recorded in.
+   * @param registry the registry to record metrics in (null uses the global registry).
+   */
+  public void setMeterRegistry(final MeterRegistry registry) {
+    this.meterRegistry = registry;
+  }
+
+  /**
+   * Retrieves how often the change feed is read while there are subscribers.
+   * @return should never be null.
+   */
+  public Duration getPollInterval() {
+    return this.pollInterval;
+  }
+
+  /**
+   * Sets how often the change feed is read while there are subscribers, this only applies before the first client
+   * subscribes.
+   * @param interval how often the change feed is read.
+   */
+  public void setPollInterval(final Duration interval) {
+    this.pollInterval = interval;
+  }
+
+  /**
+   * Retrieves how long a stream is held open before the client is asked to reconnect.
+   * @return should never be null.
+   */
+  public Duration getStreamTimeout() {
+    return this.streamTimeout;
+  }
+
+  /**
+   * Sets how long a stream is held open before the client is asked to reconnect.
+   * @param timeout how long a stream is held open.
+   */
+  public void setStreamTimeout(final Duration timeout) {
+    this.streamTimeout = timeout;
+  }
+
+  /**
+   * Retrieves the number of clients currently subscribed.
+   * @return zero or more.
+   */
+  public int getSubscriberCount() {
+    return this.subscribers.size();
+  }
+
+  /**
+   * Subscribes a client to the change feed, every change after the supplied point is sent as an event whose id is the
+   * change sequence, so a client which reconnects with a Last-Event-ID header carries on where it left off.
+   *
+   * @param since the sequence of the last change the client has seen, negative to start from the latest change.
+   * @return the emitter to return from the request handler.
+   * @throws UnsupportedOperationException if the backend does not record changes.
+   */
+  public SseEmitter subscribe(final long since) {
+    final long latest = this.getServices().getLatestChange();
+    if (CategoriesDAOService.UNVERSIONED == latest) {
+      throw new UnsupportedOperationException(CatgegoriesConstants.CHANGES_UNSUPPORTED_ERROR_MSG);
+    }
+    final long start = since < 0 ? latest : since;
+
+    final SseEmitter emitter = new SseEmitter(this.getStreamTimeout().toMillis());
+    final Subscriber subscriber = new Subscriber(emitter, start);
+    emitter.onCompletion(() -> this.subscribers.remove(subscriber));
+    emitter.onTimeout(() -> this.subscribers.remove(subscriber));
+    emitter.onError(error -> this.subscribers.remove(subscriber));
+
+    this.startPolling();
+    this.subscribers.add(subscriber);
+
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("subscribe - Client subscribed to changes after " + start + ", " + this.subscribers.size()
+        + " subscribers");
+    }
+
+    return emitter;
+  }
+
+  /**
+   * Reads any new changes from the feed and sends them to each subscriber which has not yet seen them.
+   */
+  void poll() {
+    if (!this.subscribers.isEmpty()) {
+      long from = Long.MAX_VALUE;
+      for (final Subscriber subscriber : this.subscribers) {
+        from = Math.min(from, subscriber.last);
+      }
+
+      List<CategoryChange> batch;
+      do {
+        batch = this.getServices().findChanges(from, CatgegoriesConstants.MAX_CHANGES_LIMIT);
+        for (final CategoryChange change : batch) {
+          this.send(change);
+          from = change.getSequence();
+        }
+      } while (batch.size() >= CatgegoriesConstants.MAX_CHANGES_LIMIT);
+
+      if (System.nanoTime() - this.lastSent > HEARTBEAT_NANOS) {
+        this.heartbeat();
+      }
+    }
+  }
+
+  /**
+   * Sends a change to every subscriber which has not yet seen it.
+   *
+   * @param change the change to send.
+   */
+  private void send(final CategoryChange change) {
+    final String data;
+    try {
+      data = this.getMapper().writeValueAsString(new CategoryChangeDTO(change));
+    } catch (final JsonProcessingException exception) {
+      throw new IllegalStateException("Unable to serialise change " + change.getSequence(), exception);
+    }
+
+    // Events are left unnamed so browsers deliver them to onmessage, the change type is part of the data.
+    final SseEmitter.SseEventBuilder event = SseEmitter.event()
+      .id(Long.toString(change.getSequence()))
+      .data(data, MediaType.APPLICATION_JSON);
+
+    for (final Subscriber subscriber : this.subscribers) {
+      if (change.getSequence() > subscriber.last) {
+        this.deliver(subscriber, event);
+        subscriber.last = change.getSequence();
+      }
+    }
+    this.lastSent = System.nanoTime();
+  }
+
+  /**
+   * Sends a comment to every subscriber, this keeps idle streams open and finds clients which have gone away.
+   */
+  private void heartbeat() {
+    final SseEmitter.SseEventBuilder event = SseEmitter.event().comment("keep-alive");
+    for (final Subscriber subscriber : this.subscribers) {
+      this.deliver(subscriber, event);
+    }
+    this.lastSent = System.nanoTime();
+  }
+
+  /**
+   * Sends an event to a subscriber, dropping the subscriber if it can no longer be written to.
+   *
+   * @param subscriber the client to send to.
+   * @param event the event to send.
+   */
+  private void deliver(final Subscriber subscriber, final SseEmitter.SseEventBuilder event) {
+    try {
+      subscriber.emitter.send(event);
+    } catch (final IOException | IllegalStateException exception) {
+      this.subscribers.remove(subscriber);
+      subscriber.emitter.completeWithError(exception);
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("deliver - Dropped subscriber which could not be written to: " + exception.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Starts the background poller the first time a client subscribes.
+   */
+  private synchronized void startPolling() {
+    if (null == this.poller) {
+      this.poller = Executors.newSingleThreadScheduledExecutor(this.getThreads().factory("categr-changes"));
+
+      final long interval = Math.max(1, this.getPollInterval().toMillis());
+      this.poller.scheduleWithFixedDelay(() -> {
+        try {
+          this.poll();
+        } catch (final RuntimeException exception) {
+          // Thrown out of the task this would cancel every later poll, so log it and try again next time.
+          if (LOGGER.isErrorEnabled()) {
+            LOGGER.error("poll - Unable to read the change feed", exception);
+          }
+        }
+      }, interval, interval, TimeUnit.MILLISECONDS);
+
+      Gauge.builder(METRIC_SUBSCRIBERS, this, CategoryChangeBroadcaster::getSubscriberCount)
+        .description("Clients subscribed to the category change stream").register(this.getMeterRegistry());
+    }
+  }
+
+  /**
+   * Stops the poller and closes every stream when the context shuts down.
+   */
+  @Override
+  public synchronized void destroy() {
+    if (null != this.poller) {
+      this.poller.shutdownNow();
+    }
+
+    final List<Subscriber> remaining = new ArrayList<>(this.subscribers);
+    this.subscribers.clear();
+    remaining.forEach(subscriber -> subscriber.emitter.complete());
+  }
+
+  /**
+   * A client subscribed to the change feed.
+   */
+  private static final class Subscriber {
+
+    /** The stream to the client. */
+    private final SseEmitter emitter;
+
+    /** The sequence of the last change sent to the client, only changed by the poller thread. */
+    private volatile long last;
+
+    /**
+     * Class Constructor.
+     * @param stream the stream to the client.
+     * @param since the sequence of the last change the client has seen.
+     */
+    Subscriber(final SseEmitter stream, final long since) {
+      this.emitter = stream;
+      this.last = since;
+    }
+  }
+}
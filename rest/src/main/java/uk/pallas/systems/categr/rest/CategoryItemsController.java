@@ -0,0 +1,273 @@
+package uk.pallas.systems.categr.rest;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryItemDTO;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryItemsDTO;
+import uk.pallas.systems.categr.services.CategoryItemsService;
+import uk.pallas.systems.categr.services.CategoryNotFoundException;
+import uk.pallas.systems.categr.services.ItemMatch;
+
+/**
+ * Tags items held by other services (e.g. Typr field types) with categories, so they can say "this field is an Edge
+ * and a Location", and finds the items tagged with all, or any, of a set of categories.
+ */
+@RestController("Category Items API")
+@Profile("!" + CatgegoriesConstants.REACTIVE_PROFILE)
+@RequestMapping("/categr/v1/items")
+public class CategoryItemsController {
+
+  /** Metrics tag value for the endpoint retrieving an item's categories. */
+  private static final String ENDPOINT_ITEM = "item";
+
+  /** Metrics tag value for the endpoint finding items by category. */
+  private static final String ENDPOINT_ITEMS = "items";
+
+  /**
+   * The backend service holding the tags, null if the backend does not record them.
+   */
+  @Autowired(required = false)
+  private CategoryItemsService items;
+
+  /**
+   * Records metrics about the responses sent.
+   */
+  @Autowired
+  private CategoriesMetrics metrics;
+
+  /**
+   * Default Constructor.
+   */
+  public CategoryItemsController() {
+    // Do Nothing
+  }
+
+  /**
+   * Retrieves the backend service holding the tags.
+   * @return null if the backend does not record tags.
+   */
+  public CategoryItemsService getItems() {
+    return this.items;
+  }
+
+  /**
+   * Sets the backend service holding the tags.
+   * @param itemsSrv the backend service (null if the backend does not record tags).
+   */
+  public void setItems(final CategoryItemsService itemsSrv) {
+    this.items = itemsSrv;
+  }
+
+  /**
+   * Retrieves the recorder of response metrics.
+   * @return if null someone has gone wrong.
+   */
+  public CategoriesMetrics getMetrics() {
+    return this.metrics;
+  }
+
+  /**
+   * Sets the recorder of response metrics.
+   * @param recorder the new recorder of response metrics.
+   */
+  public void setMetrics(final CategoriesMetrics recorder) {
+    this.metrics = recorder;
+  }
+
+  /**
+   * Finds the items tagged with all, or any, of the supplied categories a page at a time.
+   * @param categories the names of the categories to match, repeat the parameter for each one.
+   * @param match all to find items tagged with every category, any for items tagged with at least one.
+   * @param cursor the next cursor from the previous page (omit for the first page).
+   * @param size the maximum number of items to return.
+   * @return the item IDs on the page, the number of matching items and the cursor for the next page.
+   */
+  @GetMapping
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully found the items",
+      content = @Content(mediaType = "application/json", schema = @Schema(implementation = CategoryItemsDTO.class))
+      ),
+    @ApiResponse(
+      responseCode = "400",
+      description = CatgegoriesConstants.ITEMS_REQUEST_ERROR_MSG
+      ),
+    @ApiResponse(
+      responseCode = "501",
+      description = CatgegoriesConstants.ITEMS_UNSUPPORTED_ERROR_MSG
+      )
+  })
+  public CategoryItemsDTO findItems(@RequestParam(name = "category") final List<String> categories,
+      @RequestParam(name = "match", defaultValue = "all") final String match,
+      @RequestParam(name = "cursor", required = false) final String cursor,
+      @RequestParam(name = "size", defaultValue = CatgegoriesConstants.DEFAULT_PAGE_SIZE) final int size) {
+
+    final Set<String> names = CategoryItemsService.toCategoryNames(categories);
+    if (names.isEmpty() || names.size() > CatgegoriesConstants.MAX_BATCH_SIZE || size < 1
+        || size > CatgegoriesConstants.MAX_PAGE_SIZE) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.ITEMS_REQUEST_ERROR_MSG);
+    }
+
+    final ItemMatch matchType;
+    try {
+      matchType = ItemMatch.valueOf(match.trim().toUpperCase(Locale.ROOT));
+    } catch (final IllegalArgumentException exception) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.ITEMS_REQUEST_ERROR_MSG,
+        exception);
+    }
+
+    final CategoryItemsService itemsSrv = this.requireItems();
+    // Ask for one more than needed, so we know whether there is a next page without another query.
+    final List<String> found = itemsSrv.findItems(names, matchType, PageCursors.decode(cursor), size + 1);
+    final boolean more = found.size() > size;
+    final List<String> page = more ? found.subList(0, size) : found;
+    this.getMetrics().recordResults(ENDPOINT_ITEMS, page.size());
+
+    return new CategoryItemsDTO(page, itemsSrv.countItems(names, matchType),
+      more ? PageCursors.encode(page.get(page.size() - 1)) : null);
+  }
+
+  /**
+   * Retrieves the categories an item is tagged with.
+   * @param item the ID of the item.
+   * @return the item and its categories ordered by name.
+   */
+  @GetMapping("/{item}")
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully retrieved the item's categories",
+      content = @Content(mediaType = "application/json", schema = @Schema(implementation = CategoryItemDTO.class))
+      ),
+    @ApiResponse(
+      responseCode = "404",
+      description = CatgegoriesConstants.ITEM_NOT_FOUND_ERROR_MSG
+      ),
+    @ApiResponse(
+      responseCode = "501",
+      description = CatgegoriesConstants.ITEMS_UNSUPPORTED_ERROR_MSG
+      )
+  })
+  public CategoryItemDTO getItem(@PathVariable(name = "item") final String item) {
+
+    final List<String> categories = this.requireItems().findCategories(item);
+    if (categories.isEmpty()) {
+      this.getMetrics().recordMisses(ENDPOINT_ITEM, 1);
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, CatgegoriesConstants.ITEM_NOT_FOUND_ERROR_MSG);
+    }
+    this.getMetrics().recordResults(ENDPOINT_ITEM, categories.size());
+
+    return new CategoryItemDTO(item, categories);
+  }
+
+  /**
+   * Replaces the categories an item is tagged with, every category must already exist. The backend checks this as part
+   * of the write, so a category deleted at the same time is refused too. Supplying no categories removes the item.
+   * @param item the ID of the item.
+   * @param categories the names of the categories the item is now tagged with.
+   * @return the item and its categories ordered by name.
+   */
+  @PutMapping("/{item}")
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "200",
+      description = "Successfully tagged the item",
+      content = @Content(mediaType = "application/json", schema = @Schema(implementation = CategoryItemDTO.class))
+      ),
+    @ApiResponse(
+      responseCode = "400",
+      description = CatgegoriesConstants.ITEM_REQUEST_ERROR_MSG
+      ),
+    @ApiResponse(
+      responseCode = "422",
+      description = CatgegoriesConstants.UNKNOWN_CATEGORIES_ERROR_MSG
+      ),
+    @ApiResponse(
+      responseCode = "501",
+      description = CatgegoriesConstants.ITEMS_UNSUPPORTED_ERROR_MSG
+      )
+  })
+  public CategoryItemDTO setItem(@PathVariable(name = "item") final String item,
+      @RequestBody @ArraySchema(schema = @Schema(example = "Location")) final List<String> categories) {
+
+    final Set<String> names = CategoryItemsService.toCategoryNames(categories);
+    if (null == item || item.isBlank() || item.length() > CategoryItemsService.MAX_ITEM_LENGTH
+        || names.size() > CatgegoriesConstants.MAX_BATCH_SIZE) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.ITEM_REQUEST_ERROR_MSG);
+    }
+
+    try {
+      this.requireItems().setCategories(item, names);
+    } catch (final CategoryNotFoundException exception) {
+      throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+        CatgegoriesConstants.UNKNOWN_CATEGORIES_ERROR_MSG + ": " + exception.getNames().stream()
+          .limit(CatgegoriesConstants.MAX_IMPORT_ERRORS).toList(), exception);
+    }
+
+    return new CategoryItemDTO(item, names.stream().sorted().toList());
+  }
+
+  /**
+   * Removes every tag from an item.
+   * @param item the ID of the item.
+   * @return an empty response.
+   */
+  @DeleteMapping("/{item}")
+  @ApiResponses(value = {
+    @ApiResponse(
+      responseCode = "204",
+      description = "Successfully removed the item's tags"
+      ),
+    @ApiResponse(
+      responseCode = "404",
+      description = CatgegoriesConstants.ITEM_NOT_FOUND_ERROR_MSG
+      ),
+    @ApiResponse(
+      responseCode = "501",
+      description = CatgegoriesConstants.ITEMS_UNSUPPORTED_ERROR_MSG
+      )
+  })
+  public ResponseEntity<Void> deleteItem(@PathVariable(name = "item") final String item) {
+
+    if (!this.requireItems().removeItem(item)) {
+      this.getMetrics().recordMisses(ENDPOINT_ITEM, 1);
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, CatgegoriesConstants.ITEM_NOT_FOUND_ERROR_MSG);
+    }
+
+    return ResponseEntity.noContent().build();
+  }
+
+  /**
+   * Retrieves the backend service holding the tags, failing the request if there isn't one.
+   * @return never null.
+   * @throws ResponseStatusException (501) if the backend does not record tags.
+   */
+  private CategoryItemsService requireItems() {
+    final CategoryItemsService result = this.getItems();
+    if (null == result) {
+      throw new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, CatgegoriesConstants.ITEMS_UNSUPPORTED_ERROR_MSG);
+    }
+
+    return result;
+  }
+}
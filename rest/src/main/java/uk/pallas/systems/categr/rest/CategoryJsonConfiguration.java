@@ -0,0 +1,28 @@
+package uk.pallas.systems.categr.rest;
+
+import com.fasterxml.jackson.databind.Module;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring configuration registering {@link CategoryJsonSerializer} with the application's ObjectMapper (Spring Boot adds
+ * every Module bean to it), so the controllers can return the categories a backend holds without copying them.
+ */
+@Configuration
+public class CategoryJsonConfiguration {
+
+  /** Default class constructor. */
+  public CategoryJsonConfiguration() {
+    // Do Nothing
+  }
+
+  /**
+   * Creates the module writing every Category in the CategoryDTO shape.
+   *
+   * @return a module Spring Boot registers with the ObjectMapper.
+   */
+  @Bean
+  public Module categoryJsonModule() {
+    return CategoryJsonSerializer.module();
+  }
+}
@@ -0,0 +1,60 @@
+package uk.pallas.systems.categr.rest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import uk.pallas.systems.categr.entities.v1.Category;
+
+/**
+ * Writes any Category in the same shape as {@link uk.pallas.systems.categr.rest.entities.v1.CategoryDTO}, so the
+ * categories held by a backend (cached records, memory-mapped views, etc..) can be serialised as they are rather than
+ * being copied into a DTO on every request. The fields are written directly, without the bean introspection Jackson
+ * would otherwise do, in the order Jackson writes a CategoryDTO; the parent is omitted for a root category and the
+ * version when it is not known.
+ */
+public final class CategoryJsonSerializer extends StdSerializer<Category> {
+
+  /** Serialization version. */
+  private static final long serialVersionUID = 1L;
+
+  /** Default class constructor. */
+  public CategoryJsonSerializer() {
+    super(Category.class);
+  }
+
+  /**
+   * Creates a module registering the serializer for every Category implementation.
+   *
+   * @return a new module which can be registered with an ObjectMapper.
+   */
+  public static SimpleModule module() {
+    return new SimpleModule("categr-category").addSerializer(Category.class, new CategoryJsonSerializer());
+  }
+
+  /**
+   * Writes the category as a JSON object.
+   *
+   * @param category the category to write.
+   * @param generator where the category is written.
+   * @param provider unused.
+   * @throws IOException if the category cannot be written.
+   */
+  @Override
+  public void serialize(final Category category, final JsonGenerator generator, final SerializerProvider provider)
+      throws IOException {
+    generator.writeStartObject(category);
+    generator.writeStringField("description", category.getDescription());
+    final String parent = category.getParent();
+    if (null != parent) {
+      generator.writeStringField("parent", parent);
+    }
+    final long version = category.getVersion();
+    if (0 != version) {
+      generator.writeNumberField("version", version);
+    }
+    generator.writeStringField("name", category.getName());
+    generator.writeEndObject();
+  }
+}
@@ -0,0 +1,247 @@
+package uk.pallas.systems.categr.rest;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryDTO;
+
+/**
+ * Utility class reading and writing categories as Protocol Buffers, following the schema published at
+ * /categr/v1/category.proto. The three messages are small and fixed, so they are written by hand with the protobuf
+ * runtime rather than generated, which keeps protoc out of the build and writes straight from the DTOs without
+ * copying them into generated message objects first.
+ */
+public final class CategoryProtobuf {
+
+  /** Category.name field number. */
+  private static final int NAME_FIELD = 1;
+
+  /** Category.description field number. */
+  private static final int DESCRIPTION_FIELD = 2;
+
+  /** Category.parent field number. */
+  private static final int PARENT_FIELD = 3;
+
+  /** Category.version field number. */
+  private static final int VERSION_FIELD = 4;
+
+  /** CategoryList.categories and CategoryNames.names field number. */
+  private static final int ITEMS_FIELD = 1;
+
+  /** Number of bits the field number is shifted by in a tag, the wire type is held in the low bits. */
+  private static final int TAG_TYPE_BITS = 3;
+
+  /** Tag of the Category.name field. */
+  private static final int NAME_TAG = NAME_FIELD << TAG_TYPE_BITS | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+  /** Tag of the Category.description field. */
+  private static final int DESCRIPTION_TAG = DESCRIPTION_FIELD << TAG_TYPE_BITS | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+  /** Tag of the Category.parent field. */
+  private static final int PARENT_TAG = PARENT_FIELD << TAG_TYPE_BITS | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+  /** Tag of the Category.version field. */
+  private static final int VERSION_TAG = VERSION_FIELD << TAG_TYPE_BITS | WireFormat.WIRETYPE_VARINT;
+
+  /** Tag of the CategoryList.categories and CategoryNames.names fields. */
+  private static final int ITEMS_TAG = ITEMS_FIELD << TAG_TYPE_BITS | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+  /** Unused utility Class Constructor. */
+  private CategoryProtobuf() {
+    // Do Nothing
+  }
+
+  /**
+   * Writes a single category as a Category message.
+   *
+   * @param category the category to write.
+   * @param output where the message is written, this is not closed.
+   * @throws IOException if the message cannot be written.
+   */
+  public static void writeCategory(final Category category, final OutputStream output) throws IOException {
+    final CodedOutputStream coded = CodedOutputStream.newInstance(output);
+    writeFields(category, coded);
+    coded.flush();
+  }
+
+  /**
+   * Writes categories as a CategoryList message.
+   *
+   * @param categories the categories to write, nulls are skipped.
+   * @param output where the message is written, this is not closed.
+   * @throws IOException if the message cannot be written.
+   */
+  public static void writeCategories(final Collection<? extends Category> categories, final OutputStream output)
+      throws IOException {
+    final CodedOutputStream coded = CodedOutputStream.newInstance(output);
+    for (final Category category : categories) {
+      if (null != category) {
+        coded.writeTag(ITEMS_FIELD, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        coded.writeUInt32NoTag(fieldsSize(category));
+        writeFields(category, coded);
+      }
+    }
+    coded.flush();
+  }
+
+  /**
+   * Writes category names as a CategoryNames message.
+   *
+   * @param names the names to write, nulls are skipped.
+   * @param output where the message is written, this is not closed.
+   * @throws IOException if the message cannot be written.
+   */
+  public static void writeNames(final Collection<String> names, final OutputStream output) throws IOException {
+    final CodedOutputStream coded = CodedOutputStream.newInstance(output);
+    for (final String name : names) {
+      if (null != name) {
+        coded.writeString(ITEMS_FIELD, name);
+      }
+    }
+    coded.flush();
+  }
+
+  /**
+   * Reads a Category message.
+   *
+   * @param input the message, read to the end but not closed.
+   * @return a new DTO, fields missing from the message are null (or zero for the version).
+   * @throws IOException if the message is malformed.
+   */
+  public static CategoryDTO readCategory(final InputStream input) throws IOException {
+    return readFields(CodedInputStream.newInstance(input.readAllBytes()));
+  }
+
+  /**
+   * Reads a CategoryList message.
+   *
+   * @param input the message, read to the end but not closed.
+   * @return the categories in the order they were written.
+   * @throws IOException if the message is malformed.
+   */
+  public static List<CategoryDTO> readCategories(final InputStream input) throws IOException {
+    final List<CategoryDTO> results = new ArrayList<>();
+
+    final CodedInputStream coded = CodedInputStream.newInstance(input.readAllBytes());
+    for (int tag = coded.readTag(); 0 != tag; tag = coded.readTag()) {
+      if (ITEMS_TAG == tag) {
+        final int limit = coded.pushLimit(coded.readRawVarint32());
+        results.add(readFields(coded));
+        coded.popLimit(limit);
+      } else {
+        coded.skipField(tag);
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * Reads a CategoryNames message.
+   *
+   * @param input the message, read to the end but not closed.
+   * @return the names in the order they were written.
+   * @throws IOException if the message is malformed.
+   */
+  public static List<String> readNames(final InputStream input) throws IOException {
+    final List<String> results = new ArrayList<>();
+
+    final CodedInputStream coded = CodedInputStream.newInstance(input.readAllBytes());
+    for (int tag = coded.readTag(); 0 != tag; tag = coded.readTag()) {
+      if (ITEMS_TAG == tag) {
+        results.add(coded.readStringRequireUtf8());
+      } else {
+        coded.skipField(tag);
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * Writes the fields of a Category message, fields holding their default value are left out as proto3 does.
+   *
+   * @param category the category to write.
+   * @param coded where the fields are written.
+   * @throws IOException if the fields cannot be written.
+   */
+  private static void writeFields(final Category category, final CodedOutputStream coded) throws IOException {
+    if (null != category.getName() && !category.getName().isEmpty()) {
+      coded.writeString(NAME_FIELD, category.getName());
+    }
+    if (null != category.getDescription()) {
+      coded.writeString(DESCRIPTION_FIELD, category.getDescription());
+    }
+    if (null != category.getParent()) {
+      coded.writeString(PARENT_FIELD, category.getParent());
+    }
+    if (0 != category.getVersion()) {
+      coded.writeInt64(VERSION_FIELD, category.getVersion());
+    }
+  }
+
+  /**
+   * Works out the size of the fields written by {@link #writeFields(Category, CodedOutputStream)}.
+   *
+   * @param category the category to be written.
+   * @return the number of bytes.
+   */
+  private static int fieldsSize(final Category category) {
+    int result = 0;
+    if (null != category.getName() && !category.getName().isEmpty()) {
+      result += CodedOutputStream.computeStringSize(NAME_FIELD, category.getName());
+    }
+    if (null != category.getDescription()) {
+      result += CodedOutputStream.computeStringSize(DESCRIPTION_FIELD, category.getDescription());
+    }
+    if (null != category.getParent()) {
+      result += CodedOutputStream.computeStringSize(PARENT_FIELD, category.getParent());
+    }
+    if (0 != category.getVersion()) {
+      result += CodedOutputStream.computeInt64Size(VERSION_FIELD, category.getVersion());
+    }
+
+    return result;
+  }
+
+  /**
+   * Reads the fields of a Category message up to the end of the input or the current limit.
+   *
+   * @param coded the message.
+   * @return a new DTO.
+   * @throws IOException if the fields are malformed.
+   */
+  private static CategoryDTO readFields(final CodedInputStream coded) throws IOException {
+    final CategoryDTO result = new CategoryDTO();
+
+    for (int tag = coded.readTag(); 0 != tag; tag = coded.readTag()) {
+      switch (tag) {
+        case NAME_TAG:
+          result.setName(coded.readStringRequireUtf8());
+          break;
+        case DESCRIPTION_TAG:
+          result.setDescription(coded.readStringRequireUtf8());
+          break;
+        case PARENT_TAG:
+          result.setParent(coded.readStringRequireUtf8());
+          break;
+        case VERSION_TAG:
+          result.setVersion(coded.readInt64());
+          break;
+        default:
+          // Fields added to the schema later are skipped, as protobuf readers are expected to.
+          coded.skipField(tag);
+          break;
+      }
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,145 @@
+package uk.pallas.systems.categr.rest;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryDTO;
+
+/**
+ * Reads and writes categories as Protocol Buffers (see {@link CategoryProtobuf}) for clients sending
+ * Accept: application/x-protobuf. A single category is a Category message, a list of categories a CategoryList and a
+ * list of names a CategoryNames. Other responses (e.g. pages and search matches) have no message in the schema, so
+ * clients asking for them as protobuf are answered with a 406.
+ */
+public class CategoryProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+  /** The media type written and read. */
+  public static final MediaType PROTOBUF = MediaType.parseMediaType(CatgegoriesConstants.PROTOBUF_VALUE);
+
+  /** Default class constructor. */
+  public CategoryProtobufHttpMessageConverter() {
+    super(PROTOBUF);
+  }
+
+  /**
+   * Checks whether the class could be a category or a list of categories or names, the element type is checked by
+   * the generic methods when it is known.
+   *
+   * @param clazz the class to check.
+   * @return true for categories and collections.
+   */
+  @Override
+  protected boolean supports(final Class<?> clazz) {
+    return Category.class.isAssignableFrom(clazz) || Collection.class.isAssignableFrom(clazz);
+  }
+
+  /**
+   * Checks whether the body can be read, only a category or a list of categories can be sent to the API.
+   *
+   * @param type the type of the parameter the body is read into.
+   * @param contextClass the controller the parameter belongs to.
+   * @param mediaType the media type of the body.
+   * @return true if a protobuf body can be read into the parameter.
+   */
+  @Override
+  public boolean canRead(final Type type, final Class<?> contextClass, final MediaType mediaType) {
+    final ResolvableType resolved = ResolvableType.forType(type);
+    return this.canRead(mediaType) && (CategoryDTO.class == resolved.resolve()
+      || List.class.isAssignableFrom(resolved.toClass()) && CategoryDTO.class == resolved.getGeneric().resolve());
+  }
+
+  /**
+   * Checks whether the body can be written. When the controller declares the element type only collections of
+   * categories or names are accepted, when it does not (e.g. ResponseEntity&lt;?&gt;) the elements are checked as
+   * they are written.
+   *
+   * @param type the declared type of the body, may not be resolvable.
+   * @param clazz the class of the body.
+   * @param mediaType the media type to write.
+   * @return true if the body can be written as protobuf.
+   */
+  @Override
+  public boolean canWrite(final Type type, final Class<?> clazz, final MediaType mediaType) {
+    boolean result = this.canWrite(clazz, mediaType);
+    if (result && null != type && Collection.class.isAssignableFrom(clazz)) {
+      final Class<?> element = ResolvableType.forType(type).as(Collection.class).getGeneric().resolve();
+      result = null == element || Object.class == element || Category.class.isAssignableFrom(element)
+        || String.class == element;
+    }
+
+    return result;
+  }
+
+  /**
+   * Writes a category, or a collection of categories or names.
+   *
+   * @param body the object to write.
+   * @param type the declared type of the body (ignored, the elements are checked).
+   * @param outputMessage where the body is written.
+   * @throws IOException if the body cannot be written.
+   * @throws HttpMessageNotWritableException if a collection holds something other than categories or names.
+   */
+  @Override
+  protected void writeInternal(final Object body, final Type type, final HttpOutputMessage outputMessage)
+      throws IOException {
+    if (body instanceof Category category) {
+      CategoryProtobuf.writeCategory(category, outputMessage.getBody());
+    } else if (body instanceof Collection<?> items) {
+      if (items.stream().allMatch(Category.class::isInstance)) {
+        CategoryProtobuf.writeCategories(items.stream().map(Category.class::cast).toList(),
+          outputMessage.getBody());
+      } else if (items.stream().allMatch(String.class::isInstance)) {
+        CategoryProtobuf.writeNames(items.stream().map(String.class::cast).toList(), outputMessage.getBody());
+      } else {
+        throw new HttpMessageNotWritableException("Only categories and category names can be sent as protobuf");
+      }
+    } else {
+      throw new HttpMessageNotWritableException("Only categories and category names can be sent as protobuf");
+    }
+  }
+
+  /**
+   * Reads a category or a list of categories.
+   *
+   * @param type the type of the parameter the body is read into.
+   * @param contextClass the controller the parameter belongs to.
+   * @param inputMessage the body.
+   * @return a CategoryDTO or a list of them.
+   * @throws IOException if the body cannot be read.
+   * @throws HttpMessageNotReadableException if the body is not a valid message.
+   */
+  @Override
+  public Object read(final Type type, final Class<?> contextClass, final HttpInputMessage inputMessage)
+      throws IOException {
+    return this.readInternal(ResolvableType.forType(type).toClass(), inputMessage);
+  }
+
+  /**
+   * Reads a category or a list of categories.
+   *
+   * @param clazz CategoryDTO or a list class.
+   * @param inputMessage the body.
+   * @return a CategoryDTO or a list of them.
+   * @throws IOException if the body cannot be read.
+   * @throws HttpMessageNotReadableException if the body is not a valid message.
+   */
+  @Override
+  protected Object readInternal(final Class<?> clazz, final HttpInputMessage inputMessage) throws IOException {
+    try {
+      return CategoryDTO.class.isAssignableFrom(clazz) ? CategoryProtobuf.readCategory(inputMessage.getBody())
+        : CategoryProtobuf.readCategories(inputMessage.getBody());
+    } catch (final InvalidProtocolBufferException exception) {
+      throw new HttpMessageNotReadableException("The body is not a valid protobuf message", exception, inputMessage);
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package uk.pallas.systems.categr.rest;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import uk.pallas.systems.categr.CategoryConstants;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryDTO;
+import uk.pallas.systems.categr.services.CategoriesDAOService;
+
+/**
+ * Utility class checking the categories and preconditions supplied when writing categories. A category's entity tag
+ * on a write is its version in quotes, so a client sends back the version it read in an If-Match header and the write
+ * is refused if someone else has changed the category since.
+ */
+public final class CategoryWrites {
+
+  /** Unused utility Class Constructor. */
+  private CategoryWrites() {
+    // Do Nothing
+  }
+
+  /**
+   * Converts a category version into the entity tag sent to clients.
+   *
+   * @param version the category version.
+   * @return the version in quotes.
+   */
+  public static String toEtag(final long version) {
+    return "\"" + version + "\"";
+  }
+
+  /**
+   * Converts an If-Match header into the versions the client will accept the category being at. Weak tags are accepted
+   * as the version is the only thing compared, and tags which cannot be a version are skipped as they never match.
+   *
+   * @param ifMatch the If-Match header supplied by the client (can be null).
+   * @return the listed versions in order, just {@link CategoriesDAOService#ANY_VERSION} for a wildcard.
+   * @throws ResponseStatusException (428) if no header was supplied, (412) if it cannot match any version.
+   */
+  public static Set<Long> parseIfMatch(final String ifMatch) {
+    if (null == ifMatch || ifMatch.isBlank()) {
+      throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED, CatgegoriesConstants.IF_MATCH_REQUIRED_MSG);
+    }
+
+    final Set<Long> result = new LinkedHashSet<>();
+    for (final String listed : ifMatch.split(",")) {
+      String tag = listed.trim();
+      if ("*".equals(tag)) {
+        result.clear();
+        result.add(CategoriesDAOService.ANY_VERSION);
+        break;
+      }
+
+      if (tag.startsWith("W/")) {
+        tag = tag.substring(2);
+      }
+      if (tag.length() > 1 && tag.startsWith("\"") && tag.endsWith("\"")) {
+        tag = tag.substring(1, tag.length() - 1);
+      }
+      try {
+        final long version = Long.parseLong(tag);
+        if (version >= 0) {
+          result.add(version);
+        }
+      } catch (final NumberFormatException exception) {
+        // Not one of our tags, so it can never match.
+      }
+    }
+
+    if (result.isEmpty()) {
+      throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, CatgegoriesConstants.STALE_VERSION_MSG);
+    }
+
+    return result;
+  }
+
+  /**
+   * Chooses the version to hand the backend as the one the category is expected to be at. The backend compares a
+   * single version while the category is locked, so when several are listed the one the category is currently at is
+   * chosen; if the category changes before it is locked the backend still refuses the write.
+   *
+   * @param versions the versions the client will accept, as returned by {@link #parseIfMatch(String)}.
+   * @param current the category as last read (null if it could not be found, or was not read as one version was
+   *     listed).
+   * @return the matching version, otherwise the first version listed which the backend will refuse.
+   */
+  public static long expectedVersion(final Set<Long> versions, final Category current) {
+    final long first = versions.iterator().next();
+
+    return null != current && versions.contains(current.getVersion()) ? current.getVersion() : first;
+  }
+
+  /**
+   * Checks a category supplied by a client can be written, trimming the name and treating a blank parent as none.
+   *
+   * @param category the category supplied by the client (can be null).
+   * @param name the name from the URL, used when the body has no name (null if the body must hold the name).
+   * @return a new category holding the values to write, the version supplied is kept.
+   * @throws ResponseStatusException (400) if the category is missing, too long, names a different category to the
+   *     URL, or sits beneath itself.
+   */
+  public static CategoryDTO validate(final CategoryDTO category, final String name) {
+    if (null == category) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No Category was supplied.");
+    }
+
+    final String bodyName = null == category.getName() || category.getName().isBlank()
+      ? null : category.getName().trim();
+    final String identifier = null == name ? bodyName : name.trim();
+    final String parent = null == category.getParent() || category.getParent().isBlank()
+      ? null : category.getParent().trim();
+
+    if (null == identifier || identifier.isEmpty() || identifier.length() > CategoryConstants.MAX_NAME_LENGTH) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The name must be between 1 and "
+        + CategoryConstants.MAX_NAME_LENGTH + " characters");
+    } else if (null != bodyName && !bodyName.equals(identifier)) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The name in the body does not match the URL, "
+        + "categories cannot be renamed");
+    } else if (null != category.getDescription()
+        && category.getDescription().length() > CategoryConstants.MAX_DESCRIPTION_LENGTH) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The description must be at most "
+        + CategoryConstants.MAX_DESCRIPTION_LENGTH + " characters");
+    } else if (null != parent && parent.length() > CategoryConstants.MAX_NAME_LENGTH) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The parent must be at most "
+        + CategoryConstants.MAX_NAME_LENGTH + " characters");
+    } else if (identifier.equals(parent)) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.HIERARCHY_LOOP_ERROR_MSG);
+    }
+
+    final CategoryDTO result = new CategoryDTO(identifier, category.getDescription(), parent);
+    result.setVersion(category.getVersion());
+    return result;
+  }
+}
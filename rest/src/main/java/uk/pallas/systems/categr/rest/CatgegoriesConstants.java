@@ -1,13 +1,147 @@
 package uk.pallas.systems.categr.rest;
 
+import uk.pallas.systems.categr.services.CategoryItemsService;
+
 /**
  * Utility class to hold error messages supplied by the Rest Controller.
  */
 public final class CatgegoriesConstants {
 
+  /** Spring profile which serves the API using WebFlux and R2DBC in place of the servlet controllers. */
+  public static final String REACTIVE_PROFILE = "reactive";
+
   /** Error message to use when there isn't a categories object in the data store. */
   public static final String NOT_FOUND_ERROR_MSG = "No Categories stored within categr";
 
+  /** Error message to use when a named category does not exist. */
+  public static final String CATEGORY_NOT_FOUND_ERROR_MSG = "No Categories found with that name";
+
+  /** Message to use when the client already holds the current version of a response. */
+  public static final String NOT_MODIFIED_MSG = "The client already holds the current version (If-None-Match)";
+
+  /** The maximum number of names which can be looked up in a single batch request. */
+  public static final int MAX_BATCH_SIZE = 1000;
+
+  /** Error message to use when a batch lookup is empty or has too many names. */
+  public static final String BATCH_SIZE_ERROR_MSG = "Between 1 and " + MAX_BATCH_SIZE + " names must be supplied";
+
+  /** The number of categories returned in a page when the client does not ask for a size. */
+  public static final String DEFAULT_PAGE_SIZE = "100";
+
+  /** The maximum number of categories which can be returned in a single page. */
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  /** Error message to use when a page request has an invalid cursor or size. */
+  public static final String PAGE_REQUEST_ERROR_MSG = "The cursor must come from a previous page and the size must be "
+    + "between 1 and " + MAX_PAGE_SIZE;
+
+  /** The number of categories returned by a search when the client does not ask for a limit. */
+  public static final String DEFAULT_SEARCH_LIMIT = "20";
+
+  /** The number of edits allowed by a fuzzy search when the client does not ask for a distance. */
+  public static final String DEFAULT_SEARCH_DISTANCE = "2";
+
+  /** The maximum number of edits a fuzzy search can allow, larger distances match almost every short name. */
+  public static final int MAX_SEARCH_DISTANCE = 3;
+
+  /** Error message to use when a search request has an invalid term, match type, distance or limit. */
+  public static final String SEARCH_REQUEST_ERROR_MSG = "A search term must be supplied, match must be one of prefix, "
+    + "contains or fuzzy, the distance between 0 and " + MAX_SEARCH_DISTANCE + " and the limit between 1 and "
+    + MAX_PAGE_SIZE;
+
+  /** The number of matches returned by a description search when the client does not ask for a limit. */
+  public static final String DEFAULT_TEXT_SEARCH_LIMIT = "10";
+
+  /** The maximum number of matches a description search can return. */
+  public static final int MAX_TEXT_SEARCH_LIMIT = 100;
+
+  /** Error message to use when a description search has no terms or an invalid limit. */
+  public static final String TEXT_SEARCH_REQUEST_ERROR_MSG = "Search terms must be supplied and the limit must be "
+    + "between 1 and " + MAX_TEXT_SEARCH_LIMIT;
+
+  /** Media type of Protocol Buffers responses, following the schema at /categr/v1/category.proto. */
+  public static final String PROTOBUF_VALUE = "application/x-protobuf";
+
+  /** Media type of Smile (binary JSON) responses. */
+  public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+  /** Error message to use when none of the formats the client accepts can be sent. */
+  public static final String NOT_ACCEPTABLE_MSG = "The response can be sent as application/json, application/cbor, "
+    + SMILE_VALUE + " or " + PROTOBUF_VALUE;
+
+  /** Media type used when importing and exporting categories as CSV, with name, description and parent columns. */
+  public static final String TEXT_CSV_VALUE = "text/csv";
+
+  /** The number of categories written in each batch of an import when none is configured. */
+  public static final String DEFAULT_IMPORT_CHUNK_SIZE = "500";
+
+  /** The maximum number of rejected records described in an import summary. */
+  public static final int MAX_IMPORT_ERRORS = 100;
+
+  /** Error message to use when an export is requested in a format which is not supported. */
+  public static final String EXPORT_FORMAT_ERROR_MSG = "The format must be either ndjson or csv";
+
+  /** Error message to use when categories are imported into a backend which cannot be written to. */
+  public static final String READ_ONLY_ERROR_MSG = "The categories backend is read only";
+
+  /** The number of changes returned by the change feed when no limit is supplied. */
+  public static final String DEFAULT_CHANGES_LIMIT = "500";
+
+  /** The maximum number of changes returned by a single change feed request. */
+  public static final int MAX_CHANGES_LIMIT = 1000;
+
+  /** Error message to use when a change feed request has an invalid starting point or limit. */
+  public static final String CHANGES_REQUEST_ERROR_MSG = "since must be zero or more and the limit must be between 1 "
+    + "and " + MAX_CHANGES_LIMIT;
+
+  /** Error message to use when the backend does not record changes. */
+  public static final String CHANGES_UNSUPPORTED_ERROR_MSG = "The categories backend does not record changes";
+
+  /** Error message to use when a category is updated or deleted without an If-Match header. */
+  public static final String IF_MATCH_REQUIRED_MSG = "An If-Match header holding the version last read (or *) must "
+    + "be supplied";
+
+  /** Error message to use when a category has been changed since the client read it. */
+  public static final String STALE_VERSION_MSG = "The category has been changed since it was read (If-Match)";
+
+  /** Error message to use when creating a category which already exists. */
+  public static final String CATEGORY_EXISTS_ERROR_MSG = "A category with that name already exists";
+
+  /** Error message to use when a category would be placed beneath itself. */
+  public static final String HIERARCHY_LOOP_ERROR_MSG = "A category cannot sit beneath itself or one of its "
+    + "descendants";
+
+  /** Error message to use when a bulk upsert holds a category which has been changed by someone else. */
+  public static final String UPSERT_CONFLICT_ERROR_MSG = "A category has been changed since it was read, nothing was "
+    + "written";
+
+  /** Error message to use when a client has made more lookups than its rate limit allows. */
+  public static final String RATE_LIMITED_MSG = "Too many lookups, retry after the number of seconds in Retry-After";
+
+  /** Request header asking for the time spent in each stage of the request to be returned in a Server-Timing header. */
+  public static final String TIMING_HEADER = "X-Categr-Timing";
+
+  /** Response header holding the time spent in each stage of the request, in milliseconds. */
+  public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+  /** Error message to use when an item has not been tagged with any categories. */
+  public static final String ITEM_NOT_FOUND_ERROR_MSG = "The item has not been tagged with any categories";
+
+  /** Error message to use when the tags supplied for an item are invalid. */
+  public static final String ITEM_REQUEST_ERROR_MSG = "The item ID must be at most "
+    + CategoryItemsService.MAX_ITEM_LENGTH + " characters and at most " + MAX_BATCH_SIZE + " categories supplied";
+
+  /** Error message to use when an item is tagged with categories which do not exist. */
+  public static final String UNKNOWN_CATEGORIES_ERROR_MSG = "Items can only be tagged with categories which exist";
+
+  /** Error message to use when the parameters of an item query are invalid. */
+  public static final String ITEMS_REQUEST_ERROR_MSG = "Between 1 and " + MAX_BATCH_SIZE + " categories must be "
+    + "supplied, match must be all or any, the cursor must come from a previous page and the size must be between 1 "
+    + "and " + MAX_PAGE_SIZE;
+
+  /** Error message to use when the backend does not record item tags. */
+  public static final String ITEMS_UNSUPPORTED_ERROR_MSG = "The categories backend does not record item tags";
+
   /**  Unused utlity Class Constructor. */
   private CatgegoriesConstants() {
 
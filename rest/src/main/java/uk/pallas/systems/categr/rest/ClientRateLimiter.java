@@ -0,0 +1,132 @@
+package uk.pallas.systems.categr.rest;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket rate limit kept separately for each client, implemented as the generic cell rate algorithm so each
+ * client's bucket is a single number: the time at which its bucket will next be full (the theoretical arrival time).
+ * A request is allowed if moving that time on by one emission interval leaves it no more than the burst ahead of now.
+ *
+ * <p>No locks are taken. Clients are held in a concurrent map, whose bins are locked independently only when a new
+ * client is added, and each client's time is moved on with a compare and set, so a client hammering the service only
+ * contends with itself rather than slowing down everyone else's checks. Clients whose bucket has refilled are swept out
+ * once the number held passes the maximum, so memory is bounded by the clients active within a burst window.</p>
+ */
+public final class ClientRateLimiter {
+
+  /** Nanoseconds per second. */
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+  /** Each client's theoretical arrival time, the clock reading at which its bucket will be full again. */
+  private final ConcurrentMap<String, AtomicLong> clients = new ConcurrentHashMap<>();
+
+  /** Ensures only a single thread sweeps idle clients at once. */
+  private final AtomicBoolean sweeping = new AtomicBoolean();
+
+  /** Number of requests refused. */
+  private final AtomicLong rejected = new AtomicLong();
+
+  /** Nanoseconds between tokens being added to a bucket. */
+  private final long interval;
+
+  /** How far ahead of now a client's arrival time may run, the burst size in nanoseconds. */
+  private final long tolerance;
+
+  /** The number of clients held before idle ones are swept out. */
+  private final int maxClients;
+
+  /** Supplies the current time in nanoseconds. */
+  private final LongSupplier clock;
+
+  /**
+   * Class Constructor.
+   *
+   * @param rate the number of requests a client may make each second on average.
+   * @param burst the number of requests a client may make at once after being idle (at least one).
+   * @param maximum the number of clients held before idle ones are swept out.
+   * @param nanoClock supplies the current time in nanoseconds (null uses {@link System#nanoTime()}).
+   * @throws IllegalArgumentException if the rate is not positive.
+   */
+  public ClientRateLimiter(final double rate, final int burst, final int maximum, final LongSupplier nanoClock) {
+    if (!(rate > 0)) {
+      throw new IllegalArgumentException("The rate limit must be greater than zero");
+    }
+
+    this.interval = Math.max(1, Math.round(NANOS_PER_SECOND / rate));
+    this.tolerance = this.interval * Math.max(1, burst);
+    this.maxClients = Math.max(1, maximum);
+    this.clock = null == nanoClock ? System::nanoTime : nanoClock;
+  }
+
+  /**
+   * Takes a token from the client's bucket if there is one.
+   *
+   * @param client identifies the client making the request.
+   * @return zero if the request is allowed, otherwise the nanoseconds until the client may retry.
+   */
+  public long tryAcquire(final String client) {
+    final long now = this.clock.getAsLong();
+    final AtomicLong arrival = this.clients.computeIfAbsent(client, key -> new AtomicLong(now));
+
+    long result = 0;
+    boolean done = false;
+    while (!done) {
+      final long current = arrival.get();
+      final long next = Math.max(current - now, 0) + now + this.interval;
+      final long ahead = next - now;
+      if (ahead > this.tolerance) {
+        result = ahead - this.tolerance;
+        done = true;
+      } else {
+        done = arrival.compareAndSet(current, next);
+      }
+    }
+
+    if (result > 0) {
+      this.rejected.incrementAndGet();
+    }
+    if (this.clients.size() > this.maxClients) {
+      this.sweep(now);
+    }
+
+    return result;
+  }
+
+  /**
+   * Retrieves the number of clients currently held.
+   *
+   * @return zero or more.
+   */
+  public int getClientCount() {
+    return this.clients.size();
+  }
+
+  /**
+   * Retrieves the number of requests refused.
+   *
+   * @return zero or more.
+   */
+  public long getRejectedCount() {
+    return this.rejected.get();
+  }
+
+  /**
+   * Drops every client whose bucket has refilled, they are indistinguishable from a client never seen before. If every
+   * client is active the map is allowed to grow, refusing new clients would let existing ones lock them out.
+   *
+   * @param now the current clock reading.
+   */
+  private void sweep(final long now) {
+    if (this.sweeping.compareAndSet(false, true)) {
+      try {
+        this.clients.values().removeIf(arrival -> arrival.get() - now <= 0);
+      } finally {
+        this.sweeping.set(false);
+      }
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package uk.pallas.systems.categr.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Utility class converting between category names and the opaque cursors handed to clients when paging through the
+ * categories, the cursor is simply the URL safe base64 of the last name on a page.
+ */
+public final class PageCursors {
+
+  /** Unused utility Class Constructor. */
+  private PageCursors() {
+    // Do Nothing
+  }
+
+  /**
+   * Converts a category name into an opaque page cursor.
+   *
+   * @param name the name of the last category on a page.
+   * @return a URL safe cursor.
+   */
+  public static String encode(final String name) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(name.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Converts an opaque page cursor back into the category name it was created from.
+   *
+   * @param cursor the cursor supplied by the client (can be null or blank).
+   * @return null if no cursor was supplied.
+   * @throws ResponseStatusException (400) if the cursor was not created by {@link #encode(String)}.
+   */
+  public static String decode(final String cursor) {
+    String result = null;
+
+    if (null != cursor && !cursor.isBlank()) {
+      try {
+        result = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+      } catch (final IllegalArgumentException exception) {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, CatgegoriesConstants.PAGE_REQUEST_ERROR_MSG,
+          exception);
+      }
+    }
+
+    return result;
+  }
+}
@@ -0,0 +1,204 @@
+package uk.pallas.systems.categr.rest;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Counts the bytes of each response body written to the output stream and records them against the endpoint which
+ * answered (see {@link CategoriesMetrics#markPayload(String)}), whether the body was pre-rendered or serialised for the
+ * request. Streamed responses are written after the request has left the filter so are not recorded.
+ */
+@Component
+@Profile("!" + CatgegoriesConstants.REACTIVE_PROFILE)
+public class PayloadMetricsFilter extends OncePerRequestFilter {
+
+  /** Records the size of each body. */
+  @Autowired(required = false)
+  private CategoriesMetrics metrics;
+
+  /** Default class constructor. */
+  public PayloadMetricsFilter() {
+    // Do Nothing
+  }
+
+  /**
+   * Retrieves the component recording the size of each body.
+   * @return null if metrics are not being recorded.
+   */
+  public CategoriesMetrics getMetrics() {
+    return this.metrics;
+  }
+
+  /**
+   * Sets the component recording the size of each body.
+   * @param categoriesMetrics the component to record metrics with.
+   */
+  public void setMetrics(final CategoriesMetrics categoriesMetrics) {
+    this.metrics = categoriesMetrics;
+  }
+
+  /**
+   * Passes the request on, counting the bytes written, then records them if an endpoint marked the request.
+   *
+   * @param request the request being handled.
+   * @param response the response being sent.
+   * @param filterChain passes the request on.
+   * @throws ServletException if a later filter or the controller fails.
+   * @throws IOException if the response cannot be written.
+   */
+  @Override
+  protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                  final FilterChain filterChain) throws ServletException, IOException {
+    final CategoriesMetrics recorder = this.getMetrics();
+    if (null == recorder) {
+      filterChain.doFilter(request, response);
+    } else {
+      final CountingResponse counted = new CountingResponse(response);
+      filterChain.doFilter(request, counted);
+
+      if (!request.isAsyncStarted()
+          && request.getAttribute(CategoriesMetrics.PAYLOAD_ENDPOINT_ATTRIBUTE) instanceof String endpoint) {
+        recorder.recordPayload(endpoint, counted.getCount());
+      }
+    }
+  }
+
+  /**
+   * Counts the bytes written to the response's output stream, every message converter writes through it.
+   */
+  private static final class CountingResponse extends HttpServletResponseWrapper {
+
+    /** Counts the bytes written, null until the output stream is first asked for. */
+    private CountingOutputStream output;
+
+    /**
+     * Class Constructor.
+     *
+     * @param response the response being sent.
+     */
+    CountingResponse(final HttpServletResponse response) {
+      super(response);
+    }
+
+    /**
+     * Retrieves the number of bytes written to the output stream.
+     *
+     * @return zero if nothing was written.
+     */
+    long getCount() {
+      return null == this.output ? 0 : this.output.count;
+    }
+
+    /**
+     * Retrieves the stream the body is written to.
+     *
+     * @return a stream counting the bytes written to the response's own stream.
+     * @throws IOException if the stream cannot be opened.
+     */
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      if (null == this.output) {
+        this.output = new CountingOutputStream(super.getOutputStream());
+      }
+      return this.output;
+    }
+  }
+
+  /**
+   * Passes everything written on to the response's stream, counting the bytes as it goes.
+   */
+  private static final class CountingOutputStream extends ServletOutputStream {
+
+    /** The response's own stream. */
+    private final ServletOutputStream delegate;
+
+    /** The number of bytes written so far. */
+    private long count;
+
+    /**
+     * Class Constructor.
+     *
+     * @param stream the response's own stream.
+     */
+    CountingOutputStream(final ServletOutputStream stream) {
+      super();
+      this.delegate = stream;
+    }
+
+    /**
+     * Writes a single byte.
+     *
+     * @param value the byte to write.
+     * @throws IOException if the byte cannot be written.
+     */
+    @Override
+    public void write(final int value) throws IOException {
+      this.delegate.write(value);
+      this.count++;
+    }
+
+    /**
+     * Writes part of an array of bytes.
+     *
+     * @param bytes the bytes to write.
+     * @param offset where in the array to start.
+     * @param length the number of bytes to write.
+     * @throws IOException if the bytes cannot be written.
+     */
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+      this.delegate.write(bytes, offset, length);
+      this.count += length;
+    }
+
+    /**
+     * Flushes the response's stream.
+     *
+     * @throws IOException if the stream cannot be flushed.
+     */
+    @Override
+    public void flush() throws IOException {
+      this.delegate.flush();
+    }
+
+    /**
+     * Closes the response's stream.
+     *
+     * @throws IOException if the stream cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+      this.delegate.close();
+    }
+
+    /**
+     * Checks whether data can be written without blocking.
+     *
+     * @return as per the response's stream.
+     */
+    @Override
+    public boolean isReady() {
+      return this.delegate.isReady();
+    }
+
+    /**
+     * Sets the listener told when data can be written without blocking.
+     *
+     * @param listener the listener to tell.
+     */
+    @Override
+    public void setWriteListener(final WriteListener listener) {
+      this.delegate.setWriteListener(listener);
+    }
+  }
+}
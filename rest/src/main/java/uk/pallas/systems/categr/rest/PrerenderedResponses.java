@@ -0,0 +1,217 @@
+package uk.pallas.systems.categr.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryDTO;
+import uk.pallas.systems.categr.services.CategoriesDAOService;
+
+/**
+ * Holds the serialised bodies for the Categories API endpoints, in each of the {@link WireFormats} clients have asked
+ * for, these are only rebuilt when the data version reported by the CategoriesDAOService changes. If the service does
+ * not track a data version the bodies are rendered on every request (which still allows entity tags to be used).
+ */
+@Component
+public class PrerenderedResponses {
+
+  /** Key used to hold the body listing all categories. */
+  private static final String ALL_KEY = "/";
+
+  /** Key used to hold the body listing all category names. */
+  private static final String NAMES_KEY = "/names";
+
+  /** Prefix of the key used to hold the body of a single category. */
+  private static final String NAME_KEY_PREFIX = "/names/";
+
+  /** Used to serialise the responses, this is the same mapper Spring MVC uses. */
+  @Autowired
+  private ObjectMapper mapper;
+
+  /** Serialises the bodies in each format, created from the mapper when first needed. */
+  private volatile WireFormats formats;
+
+  /** Whether gzip compressed copies of each body should be kept. */
+  @Value("${categr.rest.prerender.gzip:true}")
+  private boolean gzip;
+
+  /** The bodies rendered for the current data version. */
+  private volatile Generation current = new Generation(CategoriesDAOService.UNVERSIONED);
+
+  /** Default class constructor. */
+  public PrerenderedResponses() {
+    // Do Nothing
+  }
+
+  /**
+   * Retrieves the mapper used to serialise responses.
+   * @return if null someone has gone wrong.
+   */
+  public ObjectMapper getMapper() {
+    return this.mapper;
+  }
+
+  /**
+   * Sets the mapper used to serialise responses.
+   * @param jsonMapper the new mapper.
+   */
+  public void setMapper(final ObjectMapper jsonMapper) {
+    this.mapper = jsonMapper;
+    this.formats = null;
+  }
+
+  /**
+   * Retrieves the formats bodies can be rendered in, creating them from the mapper the first time.
+   * @return never null once a mapper has been set.
+   */
+  public WireFormats getFormats() {
+    WireFormats result = this.formats;
+    if (null == result) {
+      result = new WireFormats(this.getMapper());
+      this.formats = result;
+    }
+
+    return result;
+  }
+
+  /**
+   * Checks whether gzip compressed bodies are being kept.
+   * @return true if compressed bodies are created.
+   */
+  public boolean isGzip() {
+    return this.gzip;
+  }
+
+  /**
+   * Sets whether gzip compressed bodies should be kept, this only affects bodies rendered afterwards.
+   * @param compress true if compressed bodies should be created.
+   */
+  public void setGzip(final boolean compress) {
+    this.gzip = compress;
+  }
+
+  /**
+   * Retrieves the rendered list of all categories.
+   *
+   * @param services the service to retrieve the categories from.
+   * @param format the format to render the body in, one of WireFormats.MEDIA_TYPES.
+   * @return null if there are no categories.
+   */
+  public RenderedBody getCategories(final CategoriesDAOService services, final MediaType format) {
+    return this.get(services, format, ALL_KEY, () -> {
+      final Collection<Category> cats = services.findAll();
+      return null == cats || cats.isEmpty() ? null
+        : cats.stream().filter(Objects::nonNull).map(CategoryDTO::new).toList();
+    });
+  }
+
+  /**
+   * Retrieves the rendered list of all category names.
+   *
+   * @param services the service to retrieve the categories from.
+   * @param format the format to render the body in, one of WireFormats.MEDIA_TYPES.
+   * @return null if there are no categories.
+   */
+  public RenderedBody getCategoryNames(final CategoriesDAOService services, final MediaType format) {
+    return this.get(services, format, NAMES_KEY, () -> {
+      final Collection<Category> cats = services.findAll();
+      return null == cats || cats.isEmpty() ? null
+        : cats.stream().filter(Objects::nonNull).map(Category::getName).toList();
+    });
+  }
+
+  /**
+   * Retrieves a rendered category.
+   *
+   * @param services the service to retrieve the category from.
+   * @param name the name of the category.
+   * @param format the format to render the body in, one of WireFormats.MEDIA_TYPES.
+   * @return null if the category does not exist.
+   */
+  public RenderedBody getCategory(final CategoriesDAOService services, final String name, final MediaType format) {
+    return this.get(services, format, NAME_KEY_PREFIX + name, () -> {
+      final Category cat = services.findByName(name);
+      return null == cat ? null : new CategoryDTO(cat);
+    });
+  }
+
+  /**
+   * Retrieves a rendered body for the current data version, rendering it if it has not been rendered yet.
+   *
+   * @param services the service the data comes from.
+   * @param format the format to render the body in.
+   * @param key identifies the body within a data version.
+   * @param content supplies the object to render, this may return null if there is nothing to render.
+   * @return null if there was nothing to render.
+   */
+  private RenderedBody get(final CategoriesDAOService services, final MediaType format, final String key,
+                           final Supplier<Object> content) {
+    final long version = services.getDataVersion();
+
+    final RenderedBody result;
+    if (CategoriesDAOService.UNVERSIONED == version) {
+      result = this.render(format, content.get());
+    } else {
+      Generation generation = this.current;
+      if (version > generation.version) {
+        generation = new Generation(version);
+        this.current = generation;
+      }
+
+      // A caller which read an older version than the one held should not replace the newer bodies.
+      result = version == generation.version
+        ? generation.bodies.computeIfAbsent(format.getSubtype() + key, ignored -> this.render(format, content.get()))
+        : this.render(format, content.get());
+    }
+
+    return result;
+  }
+
+  /**
+   * Serialises the supplied object.
+   *
+   * @param format the format to serialise the object in.
+   * @param content the object to serialise.
+   * @return null if the content was null.
+   */
+  private RenderedBody render(final MediaType format, final Object content) {
+    RenderedBody result = null;
+
+    if (null != content) {
+      try {
+        result = new RenderedBody(this.getFormats().write(format, content), this.isGzip());
+      } catch (final IOException exception) {
+        throw new IllegalStateException("Unable to serialise categories response", exception);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * The bodies rendered for a single data version.
+   */
+  private static final class Generation {
+    /** The data version the bodies were rendered from. */
+    private final long version;
+
+    /** The rendered bodies keyed on format and endpoint. */
+    private final Map<String, RenderedBody> bodies = new ConcurrentHashMap<>();
+
+    /**
+     * Class Constructor.
+     * @param dataVersion the data version the bodies were rendered from.
+     */
+    private Generation(final long dataVersion) {
+      this.version = dataVersion;
+    }
+  }
+}
@@ -0,0 +1,213 @@
+package uk.pallas.systems.categr.rest;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Applies a per client rate limit to the lookup endpoints (GET and POST under /categr/v1/names), so a single client
+ * looking up names as fast as it can is answered with a 429 and a Retry-After header rather than being allowed to
+ * queue work in front of everyone else. Clients are identified by their remote address, so the limit is off by default:
+ * behind a proxy or load balancer every client would share the proxy's address, and so its limit. Only turn it on when
+ * the remote address is the real client, either because clients connect directly or because Spring Boot's forwarded
+ * header handling (server.forward-headers-strategy) takes it from the headers set by trusted proxies.
+ */
+@Component
+@Profile("!" + CatgegoriesConstants.REACTIVE_PROFILE)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  /** Static Logger for the class. */
+  private static final Log LOGGER = LogFactory.getLog(RateLimitFilter.class);
+
+  /** The path every rate limited endpoint sits beneath. */
+  private static final String LOOKUP_PATH = "/categr/v1/names";
+
+  /** Records how many requests were refused. */
+  @Autowired(required = false)
+  private CategoriesMetrics metrics;
+
+  /** Whether lookups are rate limited. */
+  @Value("${categr.rest.rate-limit.enabled:false}")
+  private boolean enabled;
+
+  /** The number of lookups a client may make each second on average. */
+  @Value("${categr.rest.rate-limit.rate:500}")
+  private double rate = 500;
+
+  /** The number of lookups a client may make at once after being idle. */
+  @Value("${categr.rest.rate-limit.burst:1000}")
+  private int burst = 1000;
+
+  /** The number of clients tracked before idle ones are dropped. */
+  @Value("${categr.rest.rate-limit.max-clients:100000}")
+  private int maxClients = 100_000;
+
+  /** The limiter built from the settings, null until the first request (or a setting changes). */
+  private volatile ClientRateLimiter limiter;
+
+  /** Default class constructor. */
+  public RateLimitFilter() {
+    // Do Nothing
+  }
+
+  /**
+   * Retrieves the component recording how many requests were refused.
+   * @return null if metrics are not being recorded.
+   */
+  public CategoriesMetrics getMetrics() {
+    return this.metrics;
+  }
+
+  /**
+   * Sets the component recording how many requests were refused.
+   * @param categoriesMetrics the component to record metrics with.
+   */
+  public void setMetrics(final CategoriesMetrics categoriesMetrics) {
+    this.metrics = categoriesMetrics;
+  }
+
+  /**
+   * Checks whether lookups are rate limited.
+   * @return false if every request is let through.
+   */
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  /**
+   * Sets whether lookups are rate limited.
+   * @param limit true to rate limit lookups.
+   */
+  public void setEnabled(final boolean limit) {
+    this.enabled = limit;
+  }
+
+  /**
+   * Retrieves the number of lookups a client may make each second on average.
+   * @return greater than zero.
+   */
+  public double getRate() {
+    return this.rate;
+  }
+
+  /**
+   * Sets the number of lookups a client may make each second on average.
+   * @param perSecond greater than zero.
+   */
+  public void setRate(final double perSecond) {
+    this.rate = perSecond;
+    this.limiter = null;
+  }
+
+  /**
+   * Retrieves the number of lookups a client may make at once after being idle.
+   * @return at least one.
+   */
+  public int getBurst() {
+    return this.burst;
+  }
+
+  /**
+   * Sets the number of lookups a client may make at once after being idle.
+   * @param size at least one.
+   */
+  public void setBurst(final int size) {
+    this.burst = size;
+    this.limiter = null;
+  }
+
+  /**
+   * Retrieves the number of clients tracked before idle ones are dropped.
+   * @return at least one.
+   */
+  public int getMaxClients() {
+    return this.maxClients;
+  }
+
+  /**
+   * Sets the number of clients tracked before idle ones are dropped.
+   * @param maximum at least one.
+   */
+  public void setMaxClients(final int maximum) {
+    this.maxClients = maximum;
+    this.limiter = null;
+  }
+
+  /**
+   * Retrieves the limiter built from the settings, building it the first time it is needed.
+   * @return never null.
+   */
+  public ClientRateLimiter getLimiter() {
+    ClientRateLimiter result = this.limiter;
+    if (null == result) {
+      // Two requests racing here each build one, the loser's clients are simply forgotten.
+      result = new ClientRateLimiter(this.getRate(), this.getBurst(), this.getMaxClients(), System::nanoTime);
+      this.limiter = result;
+
+      if (LOGGER.isInfoEnabled()) {
+        LOGGER.info("getLimiter - Limiting lookups to " + this.getRate() + " a second per client, bursts of "
+          + this.getBurst());
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Only lookups are limited, writes are already serialised by the backend and everything else is served from memory.
+   *
+   * @param request the request about to be handled.
+   * @return true if the request is not rate limited.
+   */
+  @Override
+  protected boolean shouldNotFilter(final HttpServletRequest request) {
+    final String method = request.getMethod();
+    final String path = request.getRequestURI().substring(request.getContextPath().length());
+    return !this.isEnabled()
+      || !(HttpMethod.GET.matches(method) || HttpMethod.POST.matches(method))
+      || !(path.equals(LOOKUP_PATH) || path.startsWith(LOOKUP_PATH + "/"));
+  }
+
+  /**
+   * Lets the request through if the client has a token left, otherwise answers with a 429.
+   *
+   * @param request the request being handled.
+   * @param response the response being sent.
+   * @param filterChain passes the request on.
+   * @throws ServletException if a later filter or the controller fails.
+   * @throws IOException if the response cannot be written.
+   */
+  @Override
+  protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                  final FilterChain filterChain) throws ServletException, IOException {
+    final long wait = this.getLimiter().tryAcquire(request.getRemoteAddr());
+    if (0 == wait) {
+      filterChain.doFilter(request, response);
+    } else {
+      final CategoriesMetrics categoriesMetrics = this.getMetrics();
+      if (null != categoriesMetrics) {
+        categoriesMetrics.recordRateLimited();
+      }
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("doFilterInternal - Rate limited " + request.getRemoteAddr());
+      }
+
+      final long seconds = Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+      response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+      response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), CatgegoriesConstants.RATE_LIMITED_MSG);
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package uk.pallas.systems.categr.rest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An immutable, already serialised response body along with its gzip compressed form and strong entity tags for
+ * both, so it can be written straight to the client without being serialised again.
+ */
+public final class RenderedBody {
+
+  /** Bodies smaller than this are not worth compressing. */
+  public static final int MIN_GZIP_SIZE = 512;
+
+  /** Number of bytes from the SHA-256 digest of the body used in the entity tag. */
+  private static final int ETAG_DIGEST_BYTES = 16;
+
+  /** Suffix added to the entity tag of the gzip compressed body, as it is a different representation. */
+  private static final String GZIP_ETAG_SUFFIX = "-gz";
+
+  /** The uncompressed serialised body. */
+  private final byte[] identity;
+
+  /** The gzip compressed body, null if compression is disabled or the body is too small to bother. */
+  private final byte[] gzipped;
+
+  /** Strong entity tag (including quotes) for the uncompressed body. */
+  private final String etag;
+
+  /**
+   * Class Constructor.
+   *
+   * @param body the serialised body.
+   * @param compress whether a gzip compressed copy of the body should be created.
+   */
+  public RenderedBody(final byte[] body, final boolean compress) {
+    this.identity = body.clone();
+    this.gzipped = compress && body.length >= MIN_GZIP_SIZE ? gzip(body) : null;
+    this.etag = '"' + digest(body) + '"';
+  }
+
+  /**
+   * Retrieves the body to send to the client.
+   *
+   * @param gzip true if the client accepts gzip encoded responses.
+   * @return the compressed body if the client accepts it and one exists, otherwise the uncompressed body. The array is
+   *     shared between requests so must not be modified.
+   */
+  public byte[] getBody(final boolean gzip) {
+    return this.isGzipped(gzip) ? this.gzipped : this.identity;
+  }
+
+  /**
+   * Checks whether the body returned by {@link #getBody(boolean)} will be gzip compressed.
+   *
+   * @param gzip true if the client accepts gzip encoded responses.
+   * @return true if the compressed body will be sent.
+   */
+  public boolean isGzipped(final boolean gzip) {
+    return gzip && null != this.gzipped;
+  }
+
+  /**
+   * Retrieves the entity tag of the body returned by {@link #getBody(boolean)}.
+   *
+   * @param gzip true if the client accepts gzip encoded responses.
+   * @return a strong entity tag including the surrounding quotes.
+   */
+  public String getEtag(final boolean gzip) {
+    return this.isGzipped(gzip) ? this.etag.substring(0, this.etag.length() - 1) + GZIP_ETAG_SUFFIX + '"'
+      : this.etag;
+  }
+
+  /**
+   * Checks an If-None-Match header value against the entity tags of this body. Both the compressed and uncompressed
+   * tags are accepted as they carry the same content, weak tags are compared as per RFC 9110 weak comparison.
+   *
+   * @param ifNoneMatch the If-None-Match header value (can be null).
+   * @return true if the client already holds this body and a 304 can be sent.
+   */
+  public boolean matches(final String ifNoneMatch) {
+    boolean result = false;
+
+    if (null != ifNoneMatch && !ifNoneMatch.isBlank()) {
+      final String gzipTag = this.getEtag(true);
+      for (final String candidate : ifNoneMatch.split(",")) {
+        String tag = candidate.trim();
+        if (tag.startsWith("W/")) {
+          tag = tag.substring(2);
+        }
+
+        if ("*".equals(tag) || this.etag.equals(tag) || gzipTag.equals(tag)) {
+          result = true;
+          break;
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Checks whether a client accepts gzip content encoding.
+   *
+   * @param acceptEncoding the Accept-Encoding header value (can be null).
+   * @return true if gzip is listed and not explicitly refused with q=0.
+   */
+  public static boolean acceptsGzip(final String acceptEncoding) {
+    boolean result = false;
+
+    if (null != acceptEncoding) {
+      for (final String coding : acceptEncoding.split(",")) {
+        final String[] parts = coding.trim().split(";");
+        if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+          result = parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+          break;
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Compresses the supplied data using gzip.
+   *
+   * @param body the data to compress.
+   * @return the compressed data.
+   */
+  private static byte[] gzip(final byte[] body) {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream(body.length / 2);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+      gzip.write(body);
+    } catch (final IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+
+    return output.toByteArray();
+  }
+
+  /**
+   * Creates a hex encoded digest of the body to use as its entity tag.
+   *
+   * @param body the data to digest.
+   * @return a hex string.
+   */
+  private static String digest(final byte[] body) {
+    try {
+      final byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+      return HexFormat.of().formatHex(hash, 0, ETAG_DIGEST_BYTES);
+    } catch (final NoSuchAlgorithmException exception) {
+      // Every Java platform is required to support SHA-256, so this should never happen.
+      throw new IllegalStateException("SHA-256 is not available", exception);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package uk.pallas.systems.categr.rest;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import uk.pallas.systems.categr.services.CategoryStages;
+
+/**
+ * Starts the {@link CategoryStages#SERIALIZE} stage as each response body is handed to a message converter, ending
+ * the {@link CategoryStages#HANDLER} stage of requests being timed. The {@link StageTimingFilter} stops it once the
+ * body has been written. Streamed responses (server sent events, NDJSON and exports) are written without a message
+ * converter so have no serialize stage.
+ */
+@ControllerAdvice
+@Profile("!" + CatgegoriesConstants.REACTIVE_PROFILE)
+public class StageTimingAdvice implements ResponseBodyAdvice<Object> {
+
+  /** Registry the serialize stage is reported to, nothing is reported if not supplied. */
+  @Autowired(required = false)
+  private ObservationRegistry observationRegistry;
+
+  /** Default class constructor. */
+  public StageTimingAdvice() {
+    // Do Nothing
+  }
+
+  /**
+   * Retrieves the registry the serialize stage is reported to.
+   * @return null if the stage is not reported.
+   */
+  public ObservationRegistry getObservationRegistry() {
+    return this.observationRegistry;
+  }
+
+  /**
+   * Sets the registry the serialize stage is reported to.
+   * @param registry the registry to report to (null stops reporting).
+   */
+  public void setObservationRegistry(final ObservationRegistry registry) {
+    this.observationRegistry = registry;
+  }
+
+  /**
+   * Every response body is serialised, whichever controller returned it.
+   *
+   * @param returnType the controller method's return type.
+   * @param converterType the converter chosen to write the body.
+   * @return always true.
+   */
+  @Override
+  public boolean supports(final MethodParameter returnType,
+                          final Class<? extends HttpMessageConverter<?>> converterType) {
+    return true;
+  }
+
+  /**
+   * Ends the handler stage and starts the serialize stage, the body is returned unchanged.
+   *
+   * @param body the body about to be written.
+   * @param returnType the controller method's return type.
+   * @param selectedContentType the content type the body is written as.
+   * @param selectedConverterType the converter writing the body.
+   * @param request the request being answered.
+   * @param response the response the body is written to.
+   * @return the supplied body.
+   */
+  @Override
+  public Object beforeBodyWrite(final Object body, final MethodParameter returnType,
+                                final MediaType selectedContentType,
+                                final Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                final ServerHttpRequest request, final ServerHttpResponse response) {
+    if (request instanceof ServletServerHttpRequest servletRequest) {
+      final HttpServletRequest servlet = servletRequest.getServletRequest();
+      if (!servlet.isAsyncStarted() && null == servlet.getAttribute(StageTimingFilter.SERIALIZE_ATTRIBUTE)) {
+        final StageTimings timings = StageTimings.get(servlet);
+        if (null != timings) {
+          timings.markHandled(System.nanoTime());
+        }
+
+        final ObservationRegistry registry = this.getObservationRegistry();
+        if (null != registry && !registry.isNoop()) {
+          final Observation serialize = CategoryStages.create(registry, CategoryStages.SERIALIZE).start();
+          servlet.setAttribute(StageTimingFilter.SERIALIZE_ATTRIBUTE, serialize);
+        }
+      }
+    }
+
+    return body;
+  }
+}
@@ -0,0 +1,283 @@
+package uk.pallas.systems.categr.rest;
+
+import io.micrometer.observation.Observation;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Returns the time spent in each stage of a request (see {@link StageTimings}) in a Server-Timing header, when the
+ * request is sent with the {@link CatgegoriesConstants#TIMING_HEADER} header and categr.rest.timing.enabled is set
+ * (off by default, the tracing profile turns it on). The header has to be set before the body
+ * is sent, so the body of a timed request is held in memory from the moment the controller returns it until it has
+ * been written. Streamed responses are never held, and are sent without the header.
+ *
+ * <p>Every request passes through here so the serialize stage started by {@link StageTimingAdvice} can be stopped once
+ * the body has been written.</p>
+ */
+@Component
+@Profile("!" + CatgegoriesConstants.REACTIVE_PROFILE)
+public class StageTimingFilter extends OncePerRequestFilter {
+
+  /** Request attribute holding the serialize stage while the response body is written. */
+  public static final String SERIALIZE_ATTRIBUTE = StageTimingFilter.class.getName() + ".serialize";
+
+  /** Static Logger for the class. */
+  private static final Log LOGGER = LogFactory.getLog(StageTimingFilter.class);
+
+  /** Whether clients can ask for the stage timings of a request, off unless debugging. */
+  @Value("${categr.rest.timing.enabled:false}")
+  private boolean enabled;
+
+  /** Default class constructor. */
+  public StageTimingFilter() {
+    // Do Nothing
+  }
+
+  /**
+   * Checks whether clients can ask for the stage timings of a request.
+   * @return false if the timing header is ignored.
+   */
+  public boolean isEnabled() {
+    return this.enabled;
+  }
+
+  /**
+   * Sets whether clients can ask for the stage timings of a request.
+   * @param timing true to answer the timing header.
+   */
+  public void setEnabled(final boolean timing) {
+    this.enabled = timing;
+  }
+
+  /**
+   * Error pages are serialised like any other response, so their serialize stage needs stopping too.
+   *
+   * @return always false.
+   */
+  @Override
+  protected boolean shouldNotFilterErrorDispatch() {
+    return false;
+  }
+
+  /**
+   * Passes the request on, timing it if asked to, then stops the serialize stage and sends any held body.
+   *
+   * @param request the request being handled.
+   * @param response the response being sent.
+   * @param filterChain passes the request on.
+   * @throws ServletException if a later filter or the controller fails.
+   * @throws IOException if the response cannot be written.
+   */
+  @Override
+  protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                  final FilterChain filterChain) throws ServletException, IOException {
+    if (this.isEnabled() && null != request.getHeader(CatgegoriesConstants.TIMING_HEADER)) {
+      final StageTimings timings = new StageTimings(System.nanoTime());
+      request.setAttribute(StageTimings.ATTRIBUTE, timings);
+
+      final TimedResponse timed = new TimedResponse(response, timings);
+      try {
+        filterChain.doFilter(request, timed);
+      } finally {
+        stopSerializing(request);
+        if (!response.isCommitted()) {
+          response.setHeader(CatgegoriesConstants.SERVER_TIMING_HEADER, timings.toHeader(System.nanoTime()));
+        } else if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug("doFilterInternal - Response to " + request.getRequestURI() + " already sent, no timings");
+        }
+        timed.copyBodyToResponse();
+      }
+    } else {
+      try {
+        filterChain.doFilter(request, response);
+      } finally {
+        stopSerializing(request);
+      }
+    }
+  }
+
+  /**
+   * Stops the serialize stage of the request, if one was started.
+   *
+   * @param request the request being handled.
+   */
+  private static void stopSerializing(final HttpServletRequest request) {
+    if (request.getAttribute(SERIALIZE_ATTRIBUTE) instanceof Observation serialize) {
+      request.removeAttribute(SERIALIZE_ATTRIBUTE);
+      serialize.stop();
+    }
+  }
+
+  /**
+   * Holds the response body in memory once the controller has returned it, so the Server-Timing header can be set
+   * after it has been written. Anything written before then (a streamed response) is sent straight to the client.
+   */
+  private static final class TimedResponse extends HttpServletResponseWrapper {
+
+    /** The timings of the request, which note when the controller has returned. */
+    private final StageTimings timings;
+
+    /** Holds the body, null until the controller has returned. */
+    private ContentCachingResponseWrapper body;
+
+    /**
+     * Class Constructor.
+     *
+     * @param response the response being sent.
+     * @param stages the timings of the request.
+     */
+    TimedResponse(final HttpServletResponse response, final StageTimings stages) {
+      super(response);
+      this.timings = stages;
+    }
+
+    /**
+     * Sends the held body, if there is one.
+     *
+     * @throws IOException if the body cannot be written.
+     */
+    void copyBodyToResponse() throws IOException {
+      if (null != this.body) {
+        this.body.copyBodyToResponse();
+      }
+    }
+
+    /**
+     * Retrieves the stream the body is written to.
+     *
+     * @return the held body's stream once the controller has returned.
+     * @throws IOException if the stream cannot be opened.
+     */
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      return this.target().getOutputStream();
+    }
+
+    /**
+     * Retrieves the writer the body is written to.
+     *
+     * @return the held body's writer once the controller has returned.
+     * @throws IOException if the writer cannot be opened.
+     */
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      return this.target().getWriter();
+    }
+
+    /**
+     * Flushes the response, a held body is only sent once the timings have been added.
+     *
+     * @throws IOException if the response cannot be flushed.
+     */
+    @Override
+    public void flushBuffer() throws IOException {
+      this.target().flushBuffer();
+    }
+
+    /**
+     * Sets the length of the body, held until the body is sent.
+     *
+     * @param len the length of the body.
+     */
+    @Override
+    public void setContentLength(final int len) {
+      this.target().setContentLength(len);
+    }
+
+    /**
+     * Sets the length of the body, held until the body is sent.
+     *
+     * @param len the length of the body.
+     */
+    @Override
+    public void setContentLengthLong(final long len) {
+      this.target().setContentLengthLong(len);
+    }
+
+    /**
+     * Sets the size of the response's buffer.
+     *
+     * @param size the size of the buffer.
+     */
+    @Override
+    public void setBufferSize(final int size) {
+      this.target().setBufferSize(size);
+    }
+
+    /**
+     * Discards the body written so far.
+     */
+    @Override
+    public void resetBuffer() {
+      this.target().resetBuffer();
+    }
+
+    /**
+     * Discards the body, headers and status written so far.
+     */
+    @Override
+    public void reset() {
+      this.target().reset();
+    }
+
+    /**
+     * Sends an error, first sending anything held.
+     *
+     * @param status the error status.
+     * @throws IOException if the error cannot be sent.
+     */
+    @Override
+    public void sendError(final int status) throws IOException {
+      this.target().sendError(status);
+    }
+
+    /**
+     * Sends an error, first sending anything held.
+     *
+     * @param status the error status.
+     * @param message the error message.
+     * @throws IOException if the error cannot be sent.
+     */
+    @Override
+    public void sendError(final int status, final String message) throws IOException {
+      this.target().sendError(status, message);
+    }
+
+    /**
+     * Sends a redirect, first sending anything held.
+     *
+     * @param location where the client is redirected to.
+     * @throws IOException if the redirect cannot be sent.
+     */
+    @Override
+    public void sendRedirect(final String location) throws IOException {
+      this.target().sendRedirect(location);
+    }
+
+    /**
+     * Retrieves where the body is written, switching to holding it once the controller has returned.
+     *
+     * @return the held body, or the response being sent if the controller has not returned.
+     */
+    private HttpServletResponse target() {
+      if (null == this.body && this.timings.isHandled()) {
+        this.body = new ContentCachingResponseWrapper((HttpServletResponse) this.getResponse());
+      }
+
+      return null == this.body ? (HttpServletResponse) this.getResponse() : this.body;
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package uk.pallas.systems.categr.rest;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import uk.pallas.systems.categr.services.CategoryStages;
+
+/**
+ * Adds the time spent in each stage observation (see {@link CategoryStages}) to the {@link StageTimings} of the request
+ * running it. Spring Boot registers this with the observation registry alongside the metrics and tracing handlers, it
+ * only handles stages run while handling a request which asked for a timing breakdown.
+ */
+@Component
+@Profile("!" + CatgegoriesConstants.REACTIVE_PROFILE)
+public class StageTimingHandler implements ObservationHandler<Observation.Context> {
+
+  /** Context key holding when the stage started, as per {@link System#nanoTime()}. */
+  private static final String STARTED_KEY = StageTimingHandler.class.getName() + ".started";
+
+  /** Default class constructor. */
+  public StageTimingHandler() {
+    // Do Nothing
+  }
+
+  /**
+   * Notes the timings the stage is added to and when it started.
+   *
+   * @param context the stage's context.
+   */
+  @Override
+  public void onStart(final Observation.Context context) {
+    final StageTimings timings = StageTimings.current();
+    if (null != timings) {
+      context.put(StageTimings.class, timings);
+      context.put(STARTED_KEY, System.nanoTime());
+    }
+  }
+
+  /**
+   * Adds the time spent in the stage to the request's timings.
+   *
+   * @param context the stage's context.
+   */
+  @Override
+  public void onStop(final Observation.Context context) {
+    final StageTimings timings = context.get(StageTimings.class);
+    final Long started = context.get(STARTED_KEY);
+    final KeyValue stage = context.getLowCardinalityKeyValue(CategoryStages.STAGE_KEY);
+    if (null != timings && null != started && null != stage) {
+      timings.record(stage.getValue(), System.nanoTime() - started);
+    }
+  }
+
+  /**
+   * Only stage observations are handled, and only while handling a request which asked for a timing breakdown.
+   *
+   * @param context the context of an observation being created.
+   * @return true if the observation is a stage of a request being timed.
+   */
+  @Override
+  public boolean supportsContext(final Observation.Context context) {
+    return CategoryStages.OBSERVATION.equals(context.getName()) && null != StageTimings.current();
+  }
+}
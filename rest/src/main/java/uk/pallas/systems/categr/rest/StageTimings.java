@@ -0,0 +1,140 @@
+package uk.pallas.systems.categr.rest;
+
+import jakarta.servlet.ServletRequest;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import uk.pallas.systems.categr.services.CategoryStages;
+
+/**
+ * Collects how long each stage of a single request took, for requests asking for a timing breakdown (see
+ * {@link CatgegoriesConstants#TIMING_HEADER}), and renders them as a Server-Timing header. Stages nest, the database
+ * query runs within the cache load which runs within the handler, so their durations overlap rather than adding up to
+ * the total.
+ */
+public class StageTimings {
+
+  /** Request attribute holding the timings of the request. */
+  public static final String ATTRIBUTE = StageTimings.class.getName();
+
+  /** Name of the entry holding how long the whole request took. */
+  public static final String TOTAL = "total";
+
+  /** Nanoseconds in a millisecond, Server-Timing durations are in milliseconds. */
+  private static final double NANOS_PER_MILLI = 1_000_000d;
+
+  /** When the request was received, as per {@link System#nanoTime()}. */
+  private final long started;
+
+  /** The time spent in each stage and the number of times it ran, in the order the stages first finished. */
+  private final Map<String, long[]> stages = new LinkedHashMap<>();
+
+  /** When the controller returned the response body, zero until it has. */
+  private long handled;
+
+  /**
+   * Class Constructor.
+   *
+   * @param startNanos when the request was received, as per {@link System#nanoTime()}.
+   */
+  public StageTimings(final long startNanos) {
+    this.started = startNanos;
+  }
+
+  /**
+   * Retrieves the timings of the supplied request.
+   *
+   * @param request the request being handled.
+   * @return null if the request did not ask for a timing breakdown.
+   */
+  public static StageTimings get(final ServletRequest request) {
+    return request.getAttribute(ATTRIBUTE) instanceof StageTimings timings ? timings : null;
+  }
+
+  /**
+   * Retrieves the timings of the request the current thread is handling.
+   *
+   * @return null if the thread is not handling a request or it did not ask for a timing breakdown.
+   */
+  public static StageTimings current() {
+    final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    return null != attributes && attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+      instanceof StageTimings timings ? timings : null;
+  }
+
+  /**
+   * Retrieves when the request was received.
+   *
+   * @return as per {@link System#nanoTime()}.
+   */
+  public long getStarted() {
+    return this.started;
+  }
+
+  /**
+   * Adds the time spent in a stage, a stage which runs more than once is reported once with the total time spent in it.
+   *
+   * @param stage the name of the stage.
+   * @param nanos the time spent in the stage.
+   */
+  public synchronized void record(final String stage, final long nanos) {
+    final long[] totals = this.stages.computeIfAbsent(stage, name -> new long[2]);
+    totals[0] += nanos;
+    totals[1]++;
+  }
+
+  /**
+   * Records that the controller has returned the response body, ending the {@link CategoryStages#HANDLER} stage. Only
+   * the first call is recorded.
+   *
+   * @param now as per {@link System#nanoTime()}.
+   */
+  public synchronized void markHandled(final long now) {
+    if (0 == this.handled) {
+      this.handled = now;
+      this.record(CategoryStages.HANDLER, now - this.started);
+    }
+  }
+
+  /**
+   * Checks whether the controller has returned the response body, so the body is now being written.
+   *
+   * @return false while the request is still being handled, or if the response is streamed.
+   */
+  public synchronized boolean isHandled() {
+    return 0 != this.handled;
+  }
+
+  /**
+   * Renders the timings as a Server-Timing header value, e.g. handler;dur=1.234, total;dur=2.345.
+   *
+   * @param now when the request finished, as per {@link System#nanoTime()}.
+   * @return never null, each stage followed by the total.
+   */
+  public synchronized String toHeader(final long now) {
+    final StringBuilder result = new StringBuilder();
+    for (final Map.Entry<String, long[]> stage : this.stages.entrySet()) {
+      append(result, stage.getKey(), stage.getValue()[0]);
+      if (stage.getValue()[1] > 1) {
+        result.append(";desc=\"").append(stage.getValue()[1]).append(" calls\"");
+      }
+      result.append(", ");
+    }
+    append(result, TOTAL, now - this.started);
+
+    return result.toString();
+  }
+
+  /**
+   * Appends a single Server-Timing entry.
+   *
+   * @param header the header being built.
+   * @param name the name of the entry.
+   * @param nanos the duration of the entry.
+   */
+  private static void append(final StringBuilder header, final String name, final long nanos) {
+    header.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / NANOS_PER_MILLI));
+  }
+}
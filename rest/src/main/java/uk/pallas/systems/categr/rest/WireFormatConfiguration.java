@@ -0,0 +1,61 @@
+package uk.pallas.systems.categr.rest;
+
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC configuration for the binary {@link WireFormats}. Spring's own CBOR and Smile converters are replaced by
+ * ones sharing the application's JSON mapper configuration, and a protobuf converter is added. The binary converters
+ * are kept after the JSON one so clients which accept anything (or send no Accept header) are still sent JSON.
+ */
+@Configuration
+@Profile("!" + CatgegoriesConstants.REACTIVE_PROFILE)
+public class WireFormatConfiguration implements WebMvcConfigurer {
+
+  /** Holds the mappers the prerendered bodies are written with, shared so both paths write the same bytes. */
+  @Autowired
+  private PrerenderedResponses responses;
+
+  /** Default class constructor. */
+  public WireFormatConfiguration() {
+    // Do Nothing
+  }
+
+  /**
+   * Retrieves the prerendered responses the mappers are shared with.
+   * @return if null someone has gone wrong.
+   */
+  public PrerenderedResponses getResponses() {
+    return this.responses;
+  }
+
+  /**
+   * Sets the prerendered responses the mappers are shared with.
+   * @param rendered the prerendered responses.
+   */
+  public void setResponses(final PrerenderedResponses rendered) {
+    this.responses = rendered;
+  }
+
+  /**
+   * Swaps in the CBOR and Smile converters and adds the protobuf converter, all after the existing converters.
+   *
+   * @param converters the converters Spring MVC has configured.
+   */
+  @Override
+  public void extendMessageConverters(final List<HttpMessageConverter<?>> converters) {
+    converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+      || converter instanceof MappingJackson2SmileHttpMessageConverter);
+
+    final WireFormats formats = this.getResponses().getFormats();
+    converters.add(new MappingJackson2CborHttpMessageConverter(formats.getCborMapper()));
+    converters.add(new MappingJackson2SmileHttpMessageConverter(formats.getSmileMapper()));
+    converters.add(new CategoryProtobufHttpMessageConverter());
+  }
+}
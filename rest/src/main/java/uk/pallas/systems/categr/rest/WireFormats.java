@@ -0,0 +1,145 @@
+package uk.pallas.systems.categr.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import uk.pallas.systems.categr.entities.v1.Category;
+
+/**
+ * The formats responses can be sent in, JSON along with the compact binary CBOR, Smile and Protocol Buffers formats
+ * for high volume clients. The Jackson formats share the configuration of the JSON mapper they are created from, so
+ * every format carries the same fields.
+ */
+public final class WireFormats {
+
+  /** Smile (binary JSON) responses. */
+  public static final MediaType SMILE = MediaType.parseMediaType(CatgegoriesConstants.SMILE_VALUE);
+
+  /** Every format responses can be sent in, in order of preference when a client accepts several equally. */
+  public static final List<MediaType> MEDIA_TYPES = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR,
+    SMILE, CategoryProtobufHttpMessageConverter.PROTOBUF);
+
+  /** Writes JSON. */
+  private final ObjectMapper json;
+
+  /** Writes CBOR, configured like the JSON mapper. */
+  private final ObjectMapper cbor;
+
+  /** Writes Smile, configured like the JSON mapper. */
+  private final ObjectMapper smile;
+
+  /**
+   * Class Constructor.
+   *
+   * @param mapper the JSON mapper, the binary mappers are copies of it.
+   */
+  public WireFormats(final ObjectMapper mapper) {
+    this.json = mapper;
+    this.cbor = mapper.copyWith(new CBORFactory());
+    this.smile = mapper.copyWith(new SmileFactory());
+  }
+
+  /**
+   * Retrieves the mapper which writes CBOR.
+   *
+   * @return never null.
+   */
+  public ObjectMapper getCborMapper() {
+    return this.cbor;
+  }
+
+  /**
+   * Retrieves the mapper which writes Smile.
+   *
+   * @return never null.
+   */
+  public ObjectMapper getSmileMapper() {
+    return this.smile;
+  }
+
+  /**
+   * Chooses the format to send a response in from the client's Accept header. Each format takes the quality of the
+   * most specific media range which includes it, and the format with the highest quality wins, with ties going to
+   * the order of {@link #MEDIA_TYPES} so JSON is sent unless a binary format is preferred.
+   *
+   * @param accept the Accept header (null, blank or malformed is treated as accepting anything).
+   * @return null if the client accepts none of the formats.
+   */
+  public static MediaType negotiate(final String accept) {
+    List<MediaType> ranges;
+    try {
+      ranges = null == accept || accept.isBlank() ? List.of(MediaType.ALL) : MediaType.parseMediaTypes(accept);
+    } catch (final InvalidMediaTypeException exception) {
+      ranges = List.of(MediaType.ALL);
+    }
+
+    MediaType result = null;
+    double best = 0;
+    for (final MediaType format : MEDIA_TYPES) {
+      MediaType match = null;
+      for (final MediaType range : ranges) {
+        if (range.includes(format) && (null == match || specificity(range) > specificity(match))) {
+          match = range;
+        }
+      }
+
+      if (null != match && match.getQualityValue() > best) {
+        best = match.getQualityValue();
+        result = format;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Serialises a response body in the supplied format.
+   *
+   * @param format one of {@link #MEDIA_TYPES}.
+   * @param content the body, protobuf can only write a Category or a collection of them or of names.
+   * @return the serialised body.
+   * @throws IOException if the body cannot be serialised.
+   * @throws IllegalArgumentException if the body cannot be written in the format.
+   */
+  @SuppressWarnings("unchecked")
+  public byte[] write(final MediaType format, final Object content) throws IOException {
+    final byte[] result;
+    if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(format)) {
+      result = this.cbor.writeValueAsBytes(content);
+    } else if (SMILE.equalsTypeAndSubtype(format)) {
+      result = this.smile.writeValueAsBytes(content);
+    } else if (CategoryProtobufHttpMessageConverter.PROTOBUF.equalsTypeAndSubtype(format)) {
+      final ByteArrayOutputStream output = new ByteArrayOutputStream();
+      if (content instanceof Category category) {
+        CategoryProtobuf.writeCategory(category, output);
+      } else if (content instanceof Collection<?> items && items.stream().allMatch(Category.class::isInstance)) {
+        CategoryProtobuf.writeCategories((Collection<Category>) items, output);
+      } else if (content instanceof Collection<?> items && items.stream().allMatch(String.class::isInstance)) {
+        CategoryProtobuf.writeNames((Collection<String>) items, output);
+      } else {
+        throw new IllegalArgumentException("Only categories and category names can be sent as protobuf");
+      }
+      result = output.toByteArray();
+    } else {
+      result = this.json.writeValueAsBytes(content);
+    }
+
+    return result;
+  }
+
+  /**
+   * Ranks how specific a media range is.
+   *
+   * @param range the range from the Accept header.
+   * @return 2 for a concrete type, 1 for type/* and 0 for *&#47;*.
+   */
+  private static int specificity(final MediaType range) {
+    return range.isWildcardType() ? 0 : range.isWildcardSubtype() ? 1 : 2;
+  }
+}
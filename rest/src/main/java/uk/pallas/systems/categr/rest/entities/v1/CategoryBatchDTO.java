@@ -0,0 +1,113 @@
+package uk.pallas.systems.categr.rest.entities.v1;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The result of looking up a number of categories by name in one request.
+ */
+@Schema(description = "The categories found and the names which could not be found when looking up many names at once")
+public class CategoryBatchDTO {
+
+  /**
+   * Categories which were found, in the order their names were requested.
+   */
+  @ArraySchema(schema = @Schema(description = "Categories which were found, in the order they were requested.",
+    implementation = CategoryDTO.class))
+  private List<CategoryDTO> found;
+
+  /**
+   * Names which could not be found, in the order they were requested.
+   */
+  @ArraySchema(schema = @Schema(description = "Names which could not be found, in the order they were requested.",
+    example = "Unknown"))
+  private List<String> missing;
+
+  /**
+   * Default Class Constructor, sets values to empty lists.
+   */
+  public CategoryBatchDTO() {
+    this(null, null);
+  }
+
+  /**
+   * Class Constructor which lets us set all fields within the object.
+   * @param foundCats categories which were found.
+   * @param missingNames names which could not be found.
+   */
+  public CategoryBatchDTO(final List<CategoryDTO> foundCats, final List<String> missingNames) {
+    this.found = null == foundCats ? new ArrayList<>() : foundCats;
+    this.missing = null == missingNames ? new ArrayList<>() : missingNames;
+  }
+
+  /**
+   * Compares the supplied object to this one.
+   *
+   * @param toCompare the object to compare (can be null or a child class, etc..)
+   * @return false if the found and missing fields differ.
+   */
+  @Override
+  public boolean equals(final Object toCompare) {
+
+    final boolean result;
+    if (this == toCompare) {
+      result = true;
+    } else if (toCompare instanceof CategoryBatchDTO that) {
+      result = Objects.equals(this.getFound(), that.getFound())
+        && Objects.equals(this.getMissing(), that.getMissing());
+    } else {
+      result = false;
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates a Unique hashcode for the CategoryBatchDTO class.
+   *
+   * @return a valid integer representation of this object,
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.getFound(), this.getMissing());
+  }
+
+  /**
+   * Retrieves the categories which were found.
+   *
+   * @return non null list.
+   */
+  public List<CategoryDTO> getFound() {
+    return this.found;
+  }
+
+  /**
+   * Sets the categories which were found.
+   *
+   * @param foundCats categories which were found.
+   */
+  public void setFound(final List<CategoryDTO> foundCats) {
+    this.found = foundCats;
+  }
+
+  /**
+   * Retrieves the names which could not be found.
+   *
+   * @return non null list.
+   */
+  public List<String> getMissing() {
+    return this.missing;
+  }
+
+  /**
+   * Sets the names which could not be found.
+   *
+   * @param missingNames names which could not be found.
+   */
+  public void setMissing(final List<String> missingNames) {
+    this.missing = missingNames;
+  }
+}
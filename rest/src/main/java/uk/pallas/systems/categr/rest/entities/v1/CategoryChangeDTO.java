@@ -0,0 +1,180 @@
+package uk.pallas.systems.categr.rest.entities.v1;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Objects;
+import uk.pallas.systems.categr.services.CategoryChange;
+
+/**
+ * A single entry in the category change feed.
+ */
+@Schema(description = "A change to a category, changes are numbered in the order they were made")
+public class CategoryChangeDTO {
+
+  /**
+   * Position of the change in the feed.
+   */
+  @Schema(description = "Position of the change in the feed, supply the last one seen as since to continue.",
+    example = "42")
+  private long sequence;
+
+  /**
+   * What happened to the category.
+   */
+  @Schema(description = "What happened to the category.", allowableValues = {"CREATED", "UPDATED", "DELETED"},
+    example = "UPDATED")
+  private String type;
+
+  /**
+   * Name of the category which changed.
+   */
+  @Schema(description = "Name of the category which changed.", example = "Surface")
+  private String name;
+
+  /**
+   * The category after the change, null when it was deleted.
+   */
+  @Schema(description = "The category after the change, omitted when it was deleted.",
+    implementation = CategoryDTO.class)
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private CategoryDTO category;
+
+  /**
+   * Default Class Constructor, sets values to null.
+   */
+  public CategoryChangeDTO() {
+    this(0, null, null, null);
+  }
+
+  /**
+   * Class Copy Constructor.
+   * @param change the change to be copied into this newly created object.
+   */
+  public CategoryChangeDTO(final CategoryChange change) {
+    this(null == change ? 0 : change.getSequence(),
+      null == change || null == change.getType() ? null : change.getType().name(),
+      null == change ? null : change.getName(),
+      null == change || null == change.getCategory() ? null : new CategoryDTO(change.getCategory()));
+  }
+
+  /**
+   * Class Constructor which lets us set all fields within the object.
+   * @param position position of the change in the feed.
+   * @param changeType what happened to the category.
+   * @param identifier name of the category which changed.
+   * @param changed the category after the change (null when it was deleted).
+   */
+  public CategoryChangeDTO(final long position, final String changeType, final String identifier,
+                           final CategoryDTO changed) {
+    this.sequence = position;
+    this.type = changeType;
+    this.name = identifier;
+    this.category = changed;
+  }
+
+  /**
+   * Compares the supplied object to this one.
+   *
+   * @param toCompare the object to compare (can be null or a child class, etc..)
+   * @return false if the sequence, type, name or category differ.
+   */
+  @Override
+  public boolean equals(final Object toCompare) {
+
+    final boolean result;
+    if (this == toCompare) {
+      result = true;
+    } else if (toCompare instanceof CategoryChangeDTO that) {
+      result = this.getSequence() == that.getSequence()
+        && Objects.equals(this.getType(), that.getType())
+        && Objects.equals(this.getName(), that.getName())
+        && Objects.equals(this.getCategory(), that.getCategory());
+    } else {
+      result = false;
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates a Unique hashcode for the CategoryChangeDTO class.
+   *
+   * @return a valid integer representation of this object,
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.getSequence(), this.getType(), this.getName(), this.getCategory());
+  }
+
+  /**
+   * Retrieves the position of the change in the feed.
+   *
+   * @return a positive number.
+   */
+  public long getSequence() {
+    return this.sequence;
+  }
+
+  /**
+   * Sets the position of the change in the feed.
+   *
+   * @param position a positive number.
+   */
+  public void setSequence(final long position) {
+    this.sequence = position;
+  }
+
+  /**
+   * Retrieves what happened to the category.
+   *
+   * @return one of CREATED, UPDATED or DELETED.
+   */
+  public String getType() {
+    return this.type;
+  }
+
+  /**
+   * Sets what happened to the category.
+   *
+   * @param changeType one of CREATED, UPDATED or DELETED.
+   */
+  public void setType(final String changeType) {
+    this.type = changeType;
+  }
+
+  /**
+   * Retrieves the name of the category which changed.
+   *
+   * @return should never be null.
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Sets the name of the category which changed.
+   *
+   * @param identifier the name of the category which changed.
+   */
+  public void setName(final String identifier) {
+    this.name = identifier;
+  }
+
+  /**
+   * Retrieves the category after the change.
+   *
+   * @return null when the category was deleted.
+   */
+  public CategoryDTO getCategory() {
+    return this.category;
+  }
+
+  /**
+   * Sets the category after the change.
+   *
+   * @param changed null when the category was deleted.
+   */
+  public void setCategory(final CategoryDTO changed) {
+    this.category = changed;
+  }
+}
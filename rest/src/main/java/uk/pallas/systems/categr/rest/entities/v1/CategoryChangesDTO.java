@@ -0,0 +1,139 @@
+package uk.pallas.systems.categr.rest.entities.v1;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A batch of changes from the category change feed, along with where to continue reading from.
+ */
+@Schema(description = "Changes made after the requested point in the feed, oldest first")
+public class CategoryChangesDTO {
+
+  /**
+   * The changes in the order they were made.
+   */
+  @ArraySchema(schema = @Schema(description = "The changes in the order they were made.",
+    implementation = CategoryChangeDTO.class))
+  private List<CategoryChangeDTO> changes;
+
+  /**
+   * The sequence to supply as since on the next request.
+   */
+  @Schema(description = "The sequence to supply as since on the next request.", example = "42")
+  private long latest;
+
+  /**
+   * Whether there are further changes waiting to be read.
+   */
+  @Schema(description = "True if the limit was reached and further changes are waiting, request again straight away.")
+  private boolean more;
+
+  /**
+   * Default Class Constructor, sets an empty batch.
+   */
+  public CategoryChangesDTO() {
+    this(null, 0, false);
+  }
+
+  /**
+   * Class Constructor which lets us set all fields within the object.
+   * @param batch the changes in the order they were made.
+   * @param sequence the sequence to supply as since on the next request.
+   * @param waiting whether there are further changes waiting to be read.
+   */
+  public CategoryChangesDTO(final List<CategoryChangeDTO> batch, final long sequence, final boolean waiting) {
+    this.changes = null == batch ? new ArrayList<>() : batch;
+    this.latest = sequence;
+    this.more = waiting;
+  }
+
+  /**
+   * Compares the supplied object to this one.
+   *
+   * @param toCompare the object to compare (can be null or a child class, etc..)
+   * @return false if the changes, latest sequence or more flag differ.
+   */
+  @Override
+  public boolean equals(final Object toCompare) {
+
+    final boolean result;
+    if (this == toCompare) {
+      result = true;
+    } else if (toCompare instanceof CategoryChangesDTO that) {
+      result = this.getLatest() == that.getLatest()
+        && this.isMore() == that.isMore()
+        && Objects.equals(this.getChanges(), that.getChanges());
+    } else {
+      result = false;
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates a Unique hashcode for the CategoryChangesDTO class.
+   *
+   * @return a valid integer representation of this object,
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.getChanges(), this.getLatest(), this.isMore());
+  }
+
+  /**
+   * Retrieves the changes in the order they were made.
+   *
+   * @return non null list.
+   */
+  public List<CategoryChangeDTO> getChanges() {
+    return this.changes;
+  }
+
+  /**
+   * Sets the changes in the order they were made.
+   *
+   * @param batch the changes.
+   */
+  public void setChanges(final List<CategoryChangeDTO> batch) {
+    this.changes = batch;
+  }
+
+  /**
+   * Retrieves the sequence to supply as since on the next request.
+   *
+   * @return zero or more.
+   */
+  public long getLatest() {
+    return this.latest;
+  }
+
+  /**
+   * Sets the sequence to supply as since on the next request.
+   *
+   * @param sequence zero or more.
+   */
+  public void setLatest(final long sequence) {
+    this.latest = sequence;
+  }
+
+  /**
+   * Checks whether there are further changes waiting to be read.
+   *
+   * @return true if the limit was reached.
+   */
+  public boolean isMore() {
+    return this.more;
+  }
+
+  /**
+   * Sets whether there are further changes waiting to be read.
+   *
+   * @param waiting true if the limit was reached.
+   */
+  public void setMore(final boolean waiting) {
+    this.more = waiting;
+  }
+}
@@ -1,5 +1,6 @@
 package uk.pallas.systems.categr.rest.entities.v1;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Size;
 import java.util.Objects;
@@ -19,6 +20,23 @@ public class CategoryDTO implements Category {
   @Size(max = CategoryConstants.MAX_DESCRIPTION_LENGTH)
   private String description;
 
+  /**
+   * Name of the category this one sits beneath, null for a root category.
+   */
+  @Schema(description = "Name of the category this one sits beneath, omitted for a root category.",
+    example = "Domain")
+  @Size(max = CategoryConstants.MAX_NAME_LENGTH)
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private String parent;
+
+  /**
+   * The change sequence at which the category was last created or modified.
+   */
+  @Schema(description = "The change sequence at which the category was last modified, omitted if it is unknown.",
+    example = "42")
+  @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+  private long version;
+
   /**
    * Name of the field definition e.g. post code, uk mobile.
    */
@@ -38,7 +56,9 @@ public class CategoryDTO implements Category {
    * @param data the object to be copied into this newly created Category object.
    */
   public CategoryDTO(final Category data) {
-    this(null == data ? null : data.getName(), null == data ? null : data.getDescription());
+    this(null == data ? null : data.getName(), null == data ? null : data.getDescription(),
+      null == data ? null : data.getParent());
+    this.version = null == data ? 0 : data.getVersion();
   }
 
   /**
@@ -47,15 +67,26 @@ public class CategoryDTO implements Category {
    * @param desc Detailed description of the field definition.
    */
   public CategoryDTO(final String identifier, final String desc) {
+    this(identifier, desc, null);
+  }
+
+  /**
+   * Class Constructor which lets us set all fields within the object, including the parent.
+   * @param identifier Name of the field definition e.g. post code, uk mobile.
+   * @param desc Detailed description of the field definition.
+   * @param parentName Name of the category this one sits beneath (null for a root category).
+   */
+  public CategoryDTO(final String identifier, final String desc, final String parentName) {
     this.name = identifier;
     this.description = desc;
+    this.parent = parentName;
   }
 
   /**
    * Compares the supplied object to this one, it checks the supplied object is a Category.
    *
    * @param toCompare the object to compare (can be null or a child class, etc..)
-   * @return false if the name and description fields in a category
+   * @return false if the name, description, parent and version fields in a category
    */
   @Override
   public boolean equals(final Object toCompare) {
@@ -65,7 +96,9 @@ public class CategoryDTO implements Category {
       result = true;
     } else if (toCompare instanceof Category that) {
       result = Objects.equals(this.getName(), that.getName())
-        && Objects.equals(this.getDescription(), that.getDescription());
+        && Objects.equals(this.getDescription(), that.getDescription())
+        && Objects.equals(this.getParent(), that.getParent())
+        && this.getVersion() == that.getVersion();
     } else {
       result = false;
     }
@@ -80,7 +113,7 @@ public class CategoryDTO implements Category {
    */
   @Override
   public int hashCode() {
-    return Objects.hash(this.getName(), this.getDescription());
+    return Objects.hash(this.getName(), this.getDescription(), this.getParent(), this.getVersion());
   }
 
   /**
@@ -122,4 +155,43 @@ public class CategoryDTO implements Category {
   public void setDescription(final String detailedDescription) {
     this.description = detailedDescription;
   }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return the parent category name (null for a root category).
+   */
+  @Override
+  public String getParent() {
+    return this.parent;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @param parentName the parent category name (null to make this a root category).
+   */
+  @Override
+  public void setParent(final String parentName) {
+    this.parent = parentName;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return zero if the category has not been changed since it was loaded.
+   */
+  @Override
+  public long getVersion() {
+    return this.version;
+  }
+
+  /**
+   * Sets the change sequence at which the category was last created or modified.
+   *
+   * @param changeSequence the change sequence (zero if unknown).
+   */
+  public void setVersion(final long changeSequence) {
+    this.version = changeSequence;
+  }
 }
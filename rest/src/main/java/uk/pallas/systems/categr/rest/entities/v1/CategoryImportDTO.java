@@ -0,0 +1,203 @@
+package uk.pallas.systems.categr.rest.entities.v1;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Summary of a bulk import, how many records were read, written and rejected along with why records were rejected.
+ */
+@Schema(description = "Summary of a bulk import of categories")
+public class CategoryImportDTO {
+
+  /**
+   * The number of records read from the upload.
+   */
+  @Schema(description = "The number of records read from the upload.", example = "25000")
+  private long processed;
+
+  /**
+   * The number of categories written to the data store.
+   */
+  @Schema(description = "The number of categories written (inserted or updated).", example = "24998")
+  private long imported;
+
+  /**
+   * The number of records which were not written.
+   */
+  @Schema(description = "The number of records which were not written.", example = "2")
+  private long rejected;
+
+  /**
+   * The number of batches the categories were written in.
+   */
+  @Schema(description = "The number of batches the categories were written in.", example = "50")
+  private long chunks;
+
+  /**
+   * Whether the whole upload was read, false if reading stopped early because the upload could not be parsed.
+   */
+  @Schema(description = "Whether the whole upload was read, false if it could not be parsed to the end.")
+  private boolean complete;
+
+  /**
+   * Why records were rejected, limited in number so a bad upload does not produce a huge response.
+   */
+  @ArraySchema(schema = @Schema(description = "Why records were rejected, with their line number.",
+    example = "Line 12: the name must be between 1 and 100 characters"))
+  private List<String> errors;
+
+  /**
+   * Default Class Constructor, sets an empty incomplete import.
+   */
+  public CategoryImportDTO() {
+    this.errors = new ArrayList<>();
+  }
+
+  /**
+   * Compares the supplied object to this one.
+   *
+   * @param toCompare the object to compare (can be null or a child class, etc..)
+   * @return false if any of the counts or errors differ.
+   */
+  @Override
+  public boolean equals(final Object toCompare) {
+
+    final boolean result;
+    if (this == toCompare) {
+      result = true;
+    } else if (toCompare instanceof CategoryImportDTO that) {
+      result = this.getProcessed() == that.getProcessed()
+        && this.getImported() == that.getImported()
+        && this.getRejected() == that.getRejected()
+        && this.getChunks() == that.getChunks()
+        && this.isComplete() == that.isComplete()
+        && Objects.equals(this.getErrors(), that.getErrors());
+    } else {
+      result = false;
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates a Unique hashcode for the CategoryImportDTO class.
+   *
+   * @return a valid integer representation of this object,
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.getProcessed(), this.getImported(), this.getRejected(), this.getChunks(),
+      this.isComplete(), this.getErrors());
+  }
+
+  /**
+   * Retrieves the number of records read from the upload.
+   *
+   * @return zero or more.
+   */
+  public long getProcessed() {
+    return this.processed;
+  }
+
+  /**
+   * Sets the number of records read from the upload.
+   *
+   * @param count zero or more.
+   */
+  public void setProcessed(final long count) {
+    this.processed = count;
+  }
+
+  /**
+   * Retrieves the number of categories written to the data store.
+   *
+   * @return zero or more.
+   */
+  public long getImported() {
+    return this.imported;
+  }
+
+  /**
+   * Sets the number of categories written to the data store.
+   *
+   * @param count zero or more.
+   */
+  public void setImported(final long count) {
+    this.imported = count;
+  }
+
+  /**
+   * Retrieves the number of records which were not written.
+   *
+   * @return zero or more.
+   */
+  public long getRejected() {
+    return this.rejected;
+  }
+
+  /**
+   * Sets the number of records which were not written.
+   *
+   * @param count zero or more.
+   */
+  public void setRejected(final long count) {
+    this.rejected = count;
+  }
+
+  /**
+   * Retrieves the number of batches the categories were written in.
+   *
+   * @return zero or more.
+   */
+  public long getChunks() {
+    return this.chunks;
+  }
+
+  /**
+   * Sets the number of batches the categories were written in.
+   *
+   * @param count zero or more.
+   */
+  public void setChunks(final long count) {
+    this.chunks = count;
+  }
+
+  /**
+   * Checks whether the whole upload was read.
+   *
+   * @return false if reading stopped early because the upload could not be parsed.
+   */
+  public boolean isComplete() {
+    return this.complete;
+  }
+
+  /**
+   * Sets whether the whole upload was read.
+   *
+   * @param finished false if reading stopped early because the upload could not be parsed.
+   */
+  public void setComplete(final boolean finished) {
+    this.complete = finished;
+  }
+
+  /**
+   * Retrieves why records were rejected.
+   *
+   * @return never null.
+   */
+  public List<String> getErrors() {
+    return this.errors;
+  }
+
+  /**
+   * Sets why records were rejected.
+   *
+   * @param messages why records were rejected.
+   */
+  public void setErrors(final List<String> messages) {
+    this.errors = null == messages ? new ArrayList<>() : messages;
+  }
+}
@@ -0,0 +1,112 @@
+package uk.pallas.systems.categr.rest.entities.v1;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An item held by another service along with the categories it has been tagged with.
+ */
+@Schema(description = "An item held by another service (e.g. a Typr field type) and the categories it is tagged with")
+public class CategoryItemDTO {
+
+  /**
+   * The ID of the item, whatever the owning service uses.
+   */
+  @Schema(description = "The ID of the item, whatever the owning service uses.", example = "typr:latitude")
+  private String item;
+
+  /**
+   * The names of the categories the item is tagged with, ordered by name.
+   */
+  @ArraySchema(schema = @Schema(description = "The names of the categories the item is tagged with, ordered by name.",
+    example = "Location"))
+  private List<String> categories;
+
+  /**
+   * Default Class Constructor, sets an item without tags.
+   */
+  public CategoryItemDTO() {
+    this(null, null);
+  }
+
+  /**
+   * Class Constructor which lets us set all fields within the object.
+   * @param itemId the ID of the item.
+   * @param names the names of the categories the item is tagged with.
+   */
+  public CategoryItemDTO(final String itemId, final List<String> names) {
+    this.item = itemId;
+    this.categories = null == names ? new ArrayList<>() : names;
+  }
+
+  /**
+   * Compares the supplied object to this one.
+   *
+   * @param toCompare the object to compare (can be null or a child class, etc..)
+   * @return false if the item or categories differ.
+   */
+  @Override
+  public boolean equals(final Object toCompare) {
+
+    final boolean result;
+    if (this == toCompare) {
+      result = true;
+    } else if (toCompare instanceof CategoryItemDTO that) {
+      result = Objects.equals(this.getItem(), that.getItem())
+        && Objects.equals(this.getCategories(), that.getCategories());
+    } else {
+      result = false;
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates a Unique hashcode for the CategoryItemDTO class.
+   *
+   * @return a valid integer representation of this object,
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.getItem(), this.getCategories());
+  }
+
+  /**
+   * Retrieves the ID of the item.
+   *
+   * @return should not be null.
+   */
+  public String getItem() {
+    return this.item;
+  }
+
+  /**
+   * Sets the ID of the item.
+   *
+   * @param itemId the ID of the item.
+   */
+  public void setItem(final String itemId) {
+    this.item = itemId;
+  }
+
+  /**
+   * Retrieves the names of the categories the item is tagged with.
+   *
+   * @return non null list ordered by name.
+   */
+  public List<String> getCategories() {
+    return this.categories;
+  }
+
+  /**
+   * Sets the names of the categories the item is tagged with.
+   *
+   * @param names the names of the categories the item is tagged with.
+   */
+  public void setCategories(final List<String> names) {
+    this.categories = names;
+  }
+}
@@ -0,0 +1,142 @@
+package uk.pallas.systems.categr.rest.entities.v1;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A single page of the items tagged with a set of categories, along with the total number of matching items and the
+ * cursor needed to retrieve the next page.
+ */
+@Schema(description = "A page of the items matching the categories ordered by ID, use the next cursor to retrieve the "
+  + "following page")
+public class CategoryItemsDTO {
+
+  /**
+   * The IDs of the items on this page ordered by ID.
+   */
+  @ArraySchema(schema = @Schema(description = "The IDs of the items on this page ordered by ID.",
+    example = "typr:latitude"))
+  private List<String> items;
+
+  /**
+   * The number of items matching the categories across every page.
+   */
+  @Schema(description = "The number of items matching the categories across every page.", example = "2")
+  private long total;
+
+  /**
+   * Opaque cursor to supply to retrieve the next page, null if this is the last page.
+   */
+  @Schema(description = "Opaque cursor to supply to retrieve the next page, null if this is the last page.",
+    example = "dHlwcjpsYXRpdHVkZQ", nullable = true)
+  private String next;
+
+  /**
+   * Default Class Constructor, sets an empty last page.
+   */
+  public CategoryItemsDTO() {
+    this(null, 0, null);
+  }
+
+  /**
+   * Class Constructor which lets us set all fields within the object.
+   * @param itemIds the IDs of the items on this page.
+   * @param count the number of items matching the categories across every page.
+   * @param cursor cursor for the next page (null if this is the last page).
+   */
+  public CategoryItemsDTO(final List<String> itemIds, final long count, final String cursor) {
+    this.items = null == itemIds ? new ArrayList<>() : itemIds;
+    this.total = count;
+    this.next = cursor;
+  }
+
+  /**
+   * Compares the supplied object to this one.
+   *
+   * @param toCompare the object to compare (can be null or a child class, etc..)
+   * @return false if the items, total or next cursor differ.
+   */
+  @Override
+  public boolean equals(final Object toCompare) {
+
+    final boolean result;
+    if (this == toCompare) {
+      result = true;
+    } else if (toCompare instanceof CategoryItemsDTO that) {
+      result = Objects.equals(this.getItems(), that.getItems())
+        && this.getTotal() == that.getTotal()
+        && Objects.equals(this.getNext(), that.getNext());
+    } else {
+      result = false;
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates a Unique hashcode for the CategoryItemsDTO class.
+   *
+   * @return a valid integer representation of this object,
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.getItems(), this.getTotal(), this.getNext());
+  }
+
+  /**
+   * Retrieves the IDs of the items on this page.
+   *
+   * @return non null list ordered by ID.
+   */
+  public List<String> getItems() {
+    return this.items;
+  }
+
+  /**
+   * Sets the IDs of the items on this page.
+   *
+   * @param itemIds the IDs of the items on this page.
+   */
+  public void setItems(final List<String> itemIds) {
+    this.items = itemIds;
+  }
+
+  /**
+   * Retrieves the number of items matching the categories across every page.
+   *
+   * @return zero or more.
+   */
+  public long getTotal() {
+    return this.total;
+  }
+
+  /**
+   * Sets the number of items matching the categories across every page.
+   *
+   * @param count zero or more.
+   */
+  public void setTotal(final long count) {
+    this.total = count;
+  }
+
+  /**
+   * Retrieves the cursor for the next page.
+   *
+   * @return null if this is the last page.
+   */
+  public String getNext() {
+    return this.next;
+  }
+
+  /**
+   * Sets the cursor for the next page.
+   *
+   * @param cursor null if this is the last page.
+   */
+  public void setNext(final String cursor) {
+    this.next = cursor;
+  }
+}
@@ -0,0 +1,147 @@
+package uk.pallas.systems.categr.rest.entities.v1;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Objects;
+import uk.pallas.systems.categr.services.TextMatch;
+
+/**
+ * A category found by searching the descriptions, along with how relevant it is and where the terms were found.
+ */
+@Schema(description = "A category matched by a description search with its relevance and a highlighted snippet")
+public class CategoryMatchDTO {
+
+  /**
+   * The category which matched.
+   */
+  @Schema(description = "The category which matched.", implementation = CategoryDTO.class)
+  private CategoryDTO category;
+
+  /**
+   * The relevance of the category to the search, higher is more relevant.
+   */
+  @Schema(description = "The relevance of the category to the search (BM25), higher is more relevant.",
+    example = "1.72")
+  private double score;
+
+  /**
+   * Part of the description, HTML escaped, with the matching terms wrapped in em tags.
+   */
+  @Schema(description = "Part of the description, HTML escaped, with the matching terms wrapped in em tags.",
+    example = "This relates to <em>operations</em> on the <em>land</em>")
+  private String highlight;
+
+  /**
+   * Default Class Constructor, sets values to null.
+   */
+  public CategoryMatchDTO() {
+    this(null, 0, null);
+  }
+
+  /**
+   * Class Copy Constructor.
+   * @param match the search result to be copied into this newly created object.
+   */
+  public CategoryMatchDTO(final TextMatch match) {
+    this(null == match ? null : new CategoryDTO(match.getCategory()), null == match ? 0 : match.getScore(),
+      null == match ? null : match.getHighlight());
+  }
+
+  /**
+   * Class Constructor which lets us set all fields within the object.
+   * @param cat the category which matched.
+   * @param relevance the relevance of the category to the search.
+   * @param snippet part of the description, HTML escaped, with the matching terms wrapped in em tags.
+   */
+  public CategoryMatchDTO(final CategoryDTO cat, final double relevance, final String snippet) {
+    this.category = cat;
+    this.score = relevance;
+    this.highlight = snippet;
+  }
+
+  /**
+   * Compares the supplied object to this one.
+   *
+   * @param toCompare the object to compare (can be null or a child class, etc..)
+   * @return false if the category, score or highlight differ.
+   */
+  @Override
+  public boolean equals(final Object toCompare) {
+
+    final boolean result;
+    if (this == toCompare) {
+      result = true;
+    } else if (toCompare instanceof CategoryMatchDTO that) {
+      result = Double.compare(this.getScore(), that.getScore()) == 0
+        && Objects.equals(this.getCategory(), that.getCategory())
+        && Objects.equals(this.getHighlight(), that.getHighlight());
+    } else {
+      result = false;
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates a Unique hashcode for the CategoryMatchDTO class.
+   *
+   * @return a valid integer representation of this object,
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.getCategory(), this.getScore(), this.getHighlight());
+  }
+
+  /**
+   * Retrieves the category which matched.
+   *
+   * @return should not be null.
+   */
+  public CategoryDTO getCategory() {
+    return this.category;
+  }
+
+  /**
+   * Sets the category which matched.
+   *
+   * @param cat the category which matched.
+   */
+  public void setCategory(final CategoryDTO cat) {
+    this.category = cat;
+  }
+
+  /**
+   * Retrieves the relevance of the category to the search.
+   *
+   * @return higher is more relevant.
+   */
+  public double getScore() {
+    return this.score;
+  }
+
+  /**
+   * Sets the relevance of the category to the search.
+   *
+   * @param relevance higher is more relevant.
+   */
+  public void setScore(final double relevance) {
+    this.score = relevance;
+  }
+
+  /**
+   * Retrieves part of the description, HTML escaped, with the matching terms wrapped in em tags.
+   *
+   * @return should not be null.
+   */
+  public String getHighlight() {
+    return this.highlight;
+  }
+
+  /**
+   * Sets part of the description with the matching terms wrapped in em tags.
+   *
+   * @param snippet part of the description with the matching terms wrapped in em tags.
+   */
+  public void setHighlight(final String snippet) {
+    this.highlight = snippet;
+  }
+}
@@ -0,0 +1,113 @@
+package uk.pallas.systems.categr.rest.entities.v1;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A single page of categories along with the cursor needed to retrieve the next page.
+ */
+@Schema(description = "A page of categories ordered by name, use the next cursor to retrieve the following page")
+public class CategoryPageDTO {
+
+  /**
+   * The categories on this page ordered by name.
+   */
+  @ArraySchema(schema = @Schema(description = "The categories on this page ordered by name.",
+    implementation = CategoryDTO.class))
+  private List<CategoryDTO> categories;
+
+  /**
+   * Opaque cursor to supply to retrieve the next page, null if this is the last page.
+   */
+  @Schema(description = "Opaque cursor to supply to retrieve the next page, null if this is the last page.",
+    example = "RWRnZQ", nullable = true)
+  private String next;
+
+  /**
+   * Default Class Constructor, sets an empty last page.
+   */
+  public CategoryPageDTO() {
+    this(null, null);
+  }
+
+  /**
+   * Class Constructor which lets us set all fields within the object.
+   * @param cats the categories on this page.
+   * @param cursor cursor for the next page (null if this is the last page).
+   */
+  public CategoryPageDTO(final List<CategoryDTO> cats, final String cursor) {
+    this.categories = null == cats ? new ArrayList<>() : cats;
+    this.next = cursor;
+  }
+
+  /**
+   * Compares the supplied object to this one.
+   *
+   * @param toCompare the object to compare (can be null or a child class, etc..)
+   * @return false if the categories or next cursor differ.
+   */
+  @Override
+  public boolean equals(final Object toCompare) {
+
+    final boolean result;
+    if (this == toCompare) {
+      result = true;
+    } else if (toCompare instanceof CategoryPageDTO that) {
+      result = Objects.equals(this.getCategories(), that.getCategories())
+        && Objects.equals(this.getNext(), that.getNext());
+    } else {
+      result = false;
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates a Unique hashcode for the CategoryPageDTO class.
+   *
+   * @return a valid integer representation of this object,
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.getCategories(), this.getNext());
+  }
+
+  /**
+   * Retrieves the categories on this page.
+   *
+   * @return non null list ordered by name.
+   */
+  public List<CategoryDTO> getCategories() {
+    return this.categories;
+  }
+
+  /**
+   * Sets the categories on this page.
+   *
+   * @param cats the categories on this page.
+   */
+  public void setCategories(final List<CategoryDTO> cats) {
+    this.categories = cats;
+  }
+
+  /**
+   * Retrieves the cursor for the next page.
+   *
+   * @return null if this is the last page.
+   */
+  public String getNext() {
+    return this.next;
+  }
+
+  /**
+   * Sets the cursor for the next page.
+   *
+   * @param cursor null if this is the last page.
+   */
+  public void setNext(final String cursor) {
+    this.next = cursor;
+  }
+}
@@ -0,0 +1,358 @@
+package uk.pallas.systems.categr.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.entities.v1.CategoryRecord;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryImportDTO;
+import uk.pallas.systems.categr.services.CategoriesDAOService;
+import uk.pallas.systems.categr.services.CategoryConflictException;
+import uk.pallas.systems.categr.services.CategoryHierarchyException;
+
+/**
+ * This is a test class designed to check the bulk import and export endpoints through Spring MVC, against a backend
+ * held in memory.
+ */
+class CategoriesBulkControllerTest {
+
+  /** Reads the import summaries. */
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  /** The backend the controller reads from and writes to. */
+  private StubService backend;
+
+  /** Holds the metrics recorded by the controller. */
+  private SimpleMeterRegistry registry;
+
+  /** Sends requests to the controller. */
+  private MockMvc mvc;
+
+  /** Public Constructor. */
+  public CategoriesBulkControllerTest() {}
+
+  @BeforeEach
+  void setUp() {
+    this.backend = new StubService();
+    this.registry = new SimpleMeterRegistry();
+    this.mvc = this.createMvc(this.backend);
+  }
+
+  @Test
+  void testImportNdjson() throws Exception {
+    final String upload = """
+      {"name":"Air","description":"CategoriesBulkControllerTest Air"}
+      {"name":"Domain"}
+
+      {"name":"Land","description":"CategoriesBulkControllerTest Land","parent":"Domain"}
+      {"name":
+      {"name":" "}
+      """;
+    final CategoryImportDTO summary = this.importBody(MediaType.APPLICATION_NDJSON_VALUE, upload);
+
+    Assertions.assertEquals(5, summary.getProcessed());
+    Assertions.assertEquals(3, summary.getImported());
+    Assertions.assertEquals(2, summary.getRejected());
+    Assertions.assertEquals(2, summary.getChunks());
+    Assertions.assertTrue(summary.isComplete());
+    Assertions.assertEquals(2, summary.getErrors().size());
+    Assertions.assertTrue(summary.getErrors().get(0).startsWith("Line 5: not a valid category"));
+    Assertions.assertTrue(summary.getErrors().get(1).startsWith("Line 6: the name must be"));
+
+    Assertions.assertEquals("Domain", this.backend.data.get("Land").getParent());
+    Assertions.assertEquals(List.of(2, 1), this.backend.batches);
+    Assertions.assertEquals(1, this.backend.imports);
+    Assertions.assertEquals(3, this.registry.get(CategoriesMetrics.METRIC_IMPORT)
+      .tag(CategoriesMetrics.TAG_OUTCOME, "imported").counter().count());
+    Assertions.assertEquals(2, this.registry.get(CategoriesMetrics.METRIC_IMPORT)
+      .tag(CategoriesMetrics.TAG_OUTCOME, "rejected").counter().count());
+  }
+
+  @Test
+  void testImportCsv() throws Exception {
+    final String upload = "name,description,parent\n"
+      + "Domain,CategoriesBulkControllerTest Domain,\n"
+      + "Maritime,\"CategoriesBulkControllerTest, Maritime\",Domain\n"
+      + ",no name,\n"
+      + "Surface,,Maritime\n";
+    final CategoryImportDTO summary = this.importBody(CatgegoriesConstants.TEXT_CSV_VALUE, upload);
+
+    Assertions.assertEquals(4, summary.getProcessed());
+    Assertions.assertEquals(3, summary.getImported());
+    Assertions.assertEquals(1, summary.getRejected());
+    Assertions.assertTrue(summary.isComplete());
+    Assertions.assertEquals(List.of("Line 4: the name must be between 1 and 100 characters"), summary.getErrors());
+
+    // CSV has no null, so an empty parent is a root category and an empty description is no description.
+    Assertions.assertNull(this.backend.data.get("Domain").getParent());
+    Assertions.assertEquals("CategoriesBulkControllerTest, Maritime",
+      this.backend.data.get("Maritime").getDescription());
+    Assertions.assertEquals("Maritime", this.backend.data.get("Surface").getParent());
+    Assertions.assertNull(this.backend.data.get("Surface").getDescription());
+    Assertions.assertEquals(1, this.backend.imports);
+  }
+
+  @Test
+  void testImportCsvUnparseable() throws Exception {
+    final String upload = "name,description,parent\n"
+      + "Domain,CategoriesBulkControllerTest Domain,\n"
+      + "Air,\"CategoriesBulkControllerTest Air\" unterminated,Domain\n";
+    final CategoryImportDTO summary = this.importBody(CatgegoriesConstants.TEXT_CSV_VALUE, upload);
+
+    Assertions.assertFalse(summary.isComplete());
+    Assertions.assertEquals(1, summary.getImported());
+    Assertions.assertTrue(summary.getErrors().get(0).startsWith("the CSV could not be parsed, the import stopped"));
+    // Categories read before the problem are kept.
+    Assertions.assertTrue(this.backend.data.containsKey("Domain"));
+    Assertions.assertEquals(1, this.backend.imports);
+  }
+
+  @Test
+  void testImportFailedBatch() throws Exception {
+    final String upload = """
+      {"name":"Air"}
+      {"name":"Broken"}
+      {"name":"Land"}
+      {"name":"Space"}
+      """;
+    final CategoryImportDTO summary = this.importBody(MediaType.APPLICATION_NDJSON_VALUE, upload);
+
+    // The first batch fails as a whole, the import carries on with the next one.
+    Assertions.assertEquals(4, summary.getProcessed());
+    Assertions.assertEquals(2, summary.getImported());
+    Assertions.assertEquals(2, summary.getRejected());
+    Assertions.assertEquals(2, summary.getChunks());
+    Assertions.assertTrue(summary.isComplete());
+    Assertions.assertEquals(1, summary.getErrors().size());
+    Assertions.assertTrue(summary.getErrors().get(0).startsWith("Lines 1 to 2: the batch could not be written"));
+    Assertions.assertEquals(List.of("Land", "Space"), new ArrayList<>(this.backend.data.keySet()));
+    Assertions.assertEquals(1, this.backend.imports);
+  }
+
+  @Test
+  void testImportReadOnly() throws Exception {
+    this.backend.readOnly = true;
+    this.mvc.perform(MockMvcRequestBuilders.post("/categr/v1/bulk/import")
+        .contentType(MediaType.APPLICATION_NDJSON).content("{\"name\":\"Air\"}\n{\"name\":\"Land\"}\n"))
+      .andExpect(MockMvcResultMatchers.status().isNotImplemented());
+
+    // The backend is still told the import has finished.
+    Assertions.assertEquals(1, this.backend.imports);
+  }
+
+  @Test
+  void testUpsertRefused() throws Exception {
+    this.mvc.perform(MockMvcRequestBuilders.post("/categr/v1/bulk/upsert").contentType(MediaType.APPLICATION_JSON)
+        .content("[{\"name\": \"Air\"}, {\"name\": \"Land\", \"version\": 0}]"))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andExpect(MockMvcResultMatchers.jsonPath("$.imported").value(2));
+
+    // Air has been written since, so a write expecting it not to exist is refused.
+    this.mvc.perform(MockMvcRequestBuilders.post("/categr/v1/bulk/upsert").contentType(MediaType.APPLICATION_JSON)
+        .content("[{\"name\": \"Air\", \"version\": 0}]"))
+      .andExpect(MockMvcResultMatchers.status().isConflict());
+
+    this.mvc.perform(MockMvcRequestBuilders.post("/categr/v1/bulk/upsert").contentType(MediaType.APPLICATION_JSON)
+        .param("checkVersions", "false")
+        .content("[{\"name\": \"Air\", \"parent\": \"Land\"}, {\"name\": \"Land\", \"parent\": \"Air\"}]"))
+      .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    Assertions.assertNull(this.backend.data.get("Air").getParent());
+  }
+
+  @Test
+  void testExportNdjson() throws Exception {
+    this.backend.data.put("Domain", new CategoryRecord("Domain", "CategoriesBulkControllerTest Domain", null, 1));
+    this.backend.data.put("Air", new CategoryRecord("Air", null, "Domain", 2));
+
+    final String body = this.export("ndjson", MediaType.APPLICATION_NDJSON);
+    final String[] lines = body.split("\n");
+    Assertions.assertEquals(2, lines.length);
+    Assertions.assertTrue(body.endsWith("\n"));
+    Assertions.assertEquals("Air", this.mapper.readTree(lines[0]).get("name").asText());
+    Assertions.assertEquals("Domain", this.mapper.readTree(lines[0]).get("parent").asText());
+    Assertions.assertEquals("CategoriesBulkControllerTest Domain",
+      this.mapper.readTree(lines[1]).get("description").asText());
+  }
+
+  @Test
+  void testExportCsv() throws Exception {
+    this.backend.data.put("Domain", new CategoryRecord("Domain", "CategoriesBulkControllerTest, Domain", null, 1));
+    this.backend.data.put("Air", new CategoryRecord("Air", null, "Domain", 2));
+
+    final String body = this.export("csv", MediaType.parseMediaType(CatgegoriesConstants.TEXT_CSV_VALUE));
+    Assertions.assertEquals("name,description,parent\nAir,,Domain\nDomain,\"CategoriesBulkControllerTest, Domain\",\n",
+      body);
+  }
+
+  @Test
+  void testExportRejected() throws Exception {
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/bulk/export").param("format", "xml"))
+      .andExpect(MockMvcResultMatchers.status().isBadRequest());
+  }
+
+  @Test
+  void testRoundTrip() throws Exception {
+    this.backend.data.put("Domain", new CategoryRecord("Domain", "CategoriesBulkControllerTest Domain", null, 1));
+    this.backend.data.put("Maritime", new CategoryRecord("Maritime", "Sea \"and\" ocean, étendue", "Domain", 2));
+    this.backend.data.put("Surface", new CategoryRecord("Surface", null, "Maritime", 3));
+
+    for (final String format : List.of("ndjson", "csv")) {
+      final String contentType = "csv".equals(format) ? CatgegoriesConstants.TEXT_CSV_VALUE
+        : MediaType.APPLICATION_NDJSON_VALUE;
+      final String exported = this.export(format, MediaType.parseMediaType(contentType));
+
+      final StubService copy = new StubService();
+      this.createMvc(copy).perform(MockMvcRequestBuilders.post("/categr/v1/bulk/import")
+          .contentType(contentType).content(exported.getBytes(StandardCharsets.UTF_8)))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.imported").value(3))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.rejected").value(0));
+
+      for (final Category category : this.backend.data.values()) {
+        final Category imported = copy.data.get(category.getName());
+        Assertions.assertNotNull(imported, format);
+        Assertions.assertEquals(category.getDescription(), imported.getDescription(), format);
+        Assertions.assertEquals(category.getParent(), imported.getParent(), format);
+      }
+      Assertions.assertEquals(this.backend.data.keySet(), copy.data.keySet(), format);
+    }
+  }
+
+  /**
+   * Creates a controller writing two categories per batch to the supplied backend.
+   *
+   * @param service the backend to read from and write to.
+   * @return sends requests to the new controller.
+   */
+  private MockMvc createMvc(final StubService service) {
+    final CategoriesMetrics metrics = new CategoriesMetrics();
+    metrics.setMeterRegistry(this.registry);
+    final CategoriesBulkController controller = new CategoriesBulkController();
+    controller.setServices(service);
+    controller.setMetrics(metrics);
+    controller.setMapper(new ObjectMapper().registerModule(CategoryJsonSerializer.module()));
+    controller.setChunkSize(2);
+    return MockMvcBuilders.standaloneSetup(controller).build();
+  }
+
+  /**
+   * Uploads the supplied body to the import endpoint.
+   *
+   * @param contentType the format of the body.
+   * @param upload the body to import.
+   * @return the summary of the import.
+   * @throws Exception if the request fails.
+   */
+  private CategoryImportDTO importBody(final String contentType, final String upload) throws Exception {
+    final String body = this.mvc.perform(MockMvcRequestBuilders.post("/categr/v1/bulk/import")
+        .contentType(contentType).content(upload.getBytes(StandardCharsets.UTF_8)))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andReturn().getResponse().getContentAsString();
+    return this.mapper.readValue(body, CategoryImportDTO.class);
+  }
+
+  /**
+   * Exports every category from the backend.
+   *
+   * @param format the format to export in.
+   * @param expected the content type the export should be sent as.
+   * @return the exported body.
+   * @throws Exception if the request fails.
+   */
+  private String export(final String format, final MediaType expected) throws Exception {
+    final MvcResult started = this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/bulk/export")
+        .param("format", format))
+      .andExpect(MockMvcResultMatchers.request().asyncStarted())
+      .andReturn();
+    return this.mvc.perform(MockMvcRequestBuilders.asyncDispatch(started))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(expected))
+      .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Backend holding its categories in a map ordered by name, any batch holding a category named Broken fails.
+   */
+  private static final class StubService implements CategoriesDAOService {
+    /** The categories written, by name. */
+    private final Map<String, Category> data = new TreeMap<>();
+    /** The size of each batch written by an import. */
+    private final List<Integer> batches = new ArrayList<>();
+    /** Number of times an import finished. */
+    private int imports;
+    /** Whether writes are refused. */
+    private boolean readOnly;
+
+    @Override
+    public Category findByName(final String identifier) {
+      return this.data.get(identifier);
+    }
+
+    @Override
+    public Collection<Category> findAll() {
+      return new ArrayList<>(this.data.values());
+    }
+
+    @Override
+    public int upsertAll(final Collection<? extends Category> categories) {
+      if (this.readOnly) {
+        throw new UnsupportedOperationException("This categories backend is read only");
+      }
+      if (categories.stream().anyMatch(category -> "Broken".equals(category.getName()))) {
+        throw new IllegalStateException("Broken batch");
+      }
+      categories.forEach(category -> this.data.put(category.getName(), new CategoryRecord(category.getName(),
+        category.getDescription(), category.getParent(), 1)));
+      return categories.size();
+    }
+
+    @Override
+    public int upsertAll(final Collection<? extends Category> categories, final boolean checkVersions) {
+      for (final Category category : categories) {
+        final Category current = this.data.get(category.getName());
+        if (checkVersions && (null == current ? 0 : current.getVersion()) != category.getVersion()) {
+          throw new CategoryConflictException(category.getName(), current.getVersion(), "Stale");
+        }
+      }
+      final Map<String, Category> written = new TreeMap<>(this.data);
+      categories.forEach(category -> written.put(category.getName(), category));
+      for (final Category category : categories) {
+        // A parent chain longer than the number of categories has come back round on itself.
+        String parent = category.getParent();
+        for (int steps = 0; null != parent && written.containsKey(parent); steps++) {
+          if (steps > written.size()) {
+            throw new CategoryHierarchyException(category.getName(), "Loop");
+          }
+          parent = written.get(parent).getParent();
+        }
+      }
+      return this.upsertAll(categories);
+    }
+
+    @Override
+    public int importBatch(final Collection<? extends Category> categories) {
+      final int result = this.upsertAll(categories);
+      this.batches.add(result);
+      return result;
+    }
+
+    @Override
+    public void importFinished() {
+      this.imports++;
+    }
+  }
+}
@@ -0,0 +1,229 @@
+package uk.pallas.systems.categr.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.entities.v1.CategoryRecord;
+import uk.pallas.systems.categr.services.CategoriesDAOService;
+import uk.pallas.systems.categr.services.CategoryChange;
+import uk.pallas.systems.categr.services.ChangeType;
+
+/**
+ * This is a test class designed to check the change feed endpoints through Spring MVC, paging through the feed and
+ * streaming it, against a backend held in memory.
+ */
+class CategoriesChangesControllerTest {
+
+  /** The backend the controller reads from. */
+  private StubService backend;
+
+  /** Pushes changes to the streaming clients. */
+  private CategoryChangeBroadcaster broadcaster;
+
+  /** Sends requests to the controller. */
+  private MockMvc mvc;
+
+  /** Public Constructor. */
+  public CategoriesChangesControllerTest() {}
+
+  @BeforeEach
+  void setUp() {
+    this.backend = new StubService();
+    this.backend.change(ChangeType.CREATED, "Air");
+    this.backend.change(ChangeType.CREATED, "Edge");
+    this.backend.change(ChangeType.UPDATED, "Air");
+    this.backend.change(ChangeType.DELETED, "Edge");
+    this.backend.change(ChangeType.CREATED, "Land");
+
+    // The tests poll the feed themselves, so the background poller is never given the chance.
+    this.broadcaster = new CategoryChangeBroadcaster();
+    this.broadcaster.setServices(this.backend);
+    this.broadcaster.setMapper(new ObjectMapper());
+    this.broadcaster.setMeterRegistry(new SimpleMeterRegistry());
+    this.broadcaster.setPollInterval(Duration.ofHours(1));
+
+    final CategoriesMetrics metrics = new CategoriesMetrics();
+    metrics.setMeterRegistry(new SimpleMeterRegistry());
+    final CategoriesChangesController controller = new CategoriesChangesController();
+    controller.setServices(this.backend);
+    controller.setBroadcaster(this.broadcaster);
+    controller.setMetrics(metrics);
+    this.mvc = MockMvcBuilders.standaloneSetup(controller).build();
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.broadcaster.destroy();
+  }
+
+  @Test
+  void testGetChanges() throws Exception {
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/changes").param("limit", "2"))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andExpect(MockMvcResultMatchers.jsonPath("$.changes.length()").value(2))
+      .andExpect(MockMvcResultMatchers.jsonPath("$.changes[0].sequence").value(1))
+      .andExpect(MockMvcResultMatchers.jsonPath("$.changes[0].type").value("CREATED"))
+      .andExpect(MockMvcResultMatchers.jsonPath("$.changes[0].category.name").value("Air"))
+      .andExpect(MockMvcResultMatchers.jsonPath("$.latest").value(2))
+      .andExpect(MockMvcResultMatchers.jsonPath("$.more").value(true));
+
+    // A deleted category is only named.
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/changes").param("since", "3").param("limit", "2"))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andExpect(MockMvcResultMatchers.jsonPath("$.changes[0].type").value("DELETED"))
+      .andExpect(MockMvcResultMatchers.jsonPath("$.changes[0].name").value("Edge"))
+      .andExpect(MockMvcResultMatchers.jsonPath("$.changes[0].category").doesNotExist())
+      .andExpect(MockMvcResultMatchers.jsonPath("$.latest").value(5))
+      .andExpect(MockMvcResultMatchers.jsonPath("$.more").value(false));
+
+    // Nothing new leaves the client where it was.
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/changes").param("since", "5"))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andExpect(MockMvcResultMatchers.jsonPath("$.changes.length()").value(0))
+      .andExpect(MockMvcResultMatchers.jsonPath("$.latest").value(5))
+      .andExpect(MockMvcResultMatchers.jsonPath("$.more").value(false));
+  }
+
+  @Test
+  void testChangesRejected() throws Exception {
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/changes").param("since", "-1"))
+      .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/changes").param("limit", "0"))
+      .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/changes")
+        .param("limit", String.valueOf(CatgegoriesConstants.MAX_CHANGES_LIMIT + 1)))
+      .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/changes/stream").param("since", "-1"))
+      .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/changes/stream").header("Last-Event-ID", "not a number"))
+      .andExpect(MockMvcResultMatchers.status().isBadRequest());
+  }
+
+  @Test
+  void testChangesUnsupported() throws Exception {
+    this.backend.recorded = false;
+
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/changes"))
+      .andExpect(MockMvcResultMatchers.status().isNotImplemented());
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/changes/latest"))
+      .andExpect(MockMvcResultMatchers.status().isNotImplemented());
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/changes/stream"))
+      .andExpect(MockMvcResultMatchers.status().isNotImplemented());
+  }
+
+  @Test
+  void testGetLatestChange() throws Exception {
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/changes/latest"))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andExpect(MockMvcResultMatchers.content().string("5"));
+  }
+
+  @Test
+  void testStreamChanges() throws Exception {
+    final MvcResult result = this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/changes/stream")
+        .param("since", "3").accept(MediaType.TEXT_EVENT_STREAM))
+      .andExpect(MockMvcResultMatchers.request().asyncStarted())
+      .andReturn();
+    Assertions.assertEquals(1, this.broadcaster.getSubscriberCount());
+
+    this.broadcaster.poll();
+    final String events = result.getResponse().getContentAsString();
+    Assertions.assertFalse(events.contains("id:3"));
+    Assertions.assertTrue(events.contains("id:4"));
+    Assertions.assertTrue(events.contains("id:5"));
+    Assertions.assertTrue(events.contains("\"name\":\"Land\""));
+
+    // Polling again sends nothing the client has already seen.
+    this.broadcaster.poll();
+    Assertions.assertEquals(events, result.getResponse().getContentAsString());
+  }
+
+  @Test
+  void testStreamResumesFromLastEventId() throws Exception {
+    final MvcResult result = this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/changes/stream")
+        .param("since", "1").header("Last-Event-ID", "4").accept(MediaType.TEXT_EVENT_STREAM))
+      .andExpect(MockMvcResultMatchers.request().asyncStarted())
+      .andReturn();
+
+    this.broadcaster.poll();
+    final String events = result.getResponse().getContentAsString();
+    Assertions.assertFalse(events.contains("id:2"));
+    Assertions.assertFalse(events.contains("id:4"));
+    Assertions.assertTrue(events.contains("id:5"));
+  }
+
+  @Test
+  void testStreamFromLatest() throws Exception {
+    final MvcResult result = this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/changes/stream")
+        .accept(MediaType.TEXT_EVENT_STREAM))
+      .andExpect(MockMvcResultMatchers.request().asyncStarted())
+      .andReturn();
+
+    this.broadcaster.poll();
+    Assertions.assertFalse(result.getResponse().getContentAsString().contains("id:"));
+
+    this.backend.change(ChangeType.UPDATED, "Land");
+    this.broadcaster.poll();
+    Assertions.assertTrue(result.getResponse().getContentAsString().contains("id:6"));
+  }
+
+  /**
+   * Backend recording its changes in a list.
+   */
+  private static final class StubService implements CategoriesDAOService {
+    /** The change feed, oldest first. */
+    private final List<CategoryChange> changes = new ArrayList<>();
+    /** False to behave like a backend which does not record changes. */
+    private boolean recorded = true;
+
+    /**
+     * Adds a change to the feed.
+     *
+     * @param type what happened to the category.
+     * @param name the name of the category which changed.
+     */
+    private void change(final ChangeType type, final String name) {
+      final long sequence = this.changes.size() + 1;
+      final Category category = ChangeType.DELETED == type ? null
+        : new CategoryRecord(name, "CategoriesChangesControllerTest " + sequence, null, sequence);
+      this.changes.add(new CategoryChange(sequence, type, name, category));
+    }
+
+    @Override
+    public Category findByName(final String identifier) {
+      return null;
+    }
+
+    @Override
+    public Collection<Category> findAll() {
+      return List.of();
+    }
+
+    @Override
+    public List<CategoryChange> findChanges(final long since, final int limit) {
+      if (!this.recorded) {
+        return CategoriesDAOService.super.findChanges(since, limit);
+      }
+      return this.changes.stream().filter(change -> change.getSequence() > since).limit(limit).toList();
+    }
+
+    @Override
+    public long getLatestChange() {
+      return this.recorded ? this.changes.size() : CategoriesDAOService.super.getLatestChange();
+    }
+  }
+}
@@ -0,0 +1,429 @@
+package uk.pallas.systems.categr.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.entities.v1.CategoryRecord;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryPageDTO;
+import uk.pallas.systems.categr.services.CategoriesDAOService;
+import uk.pallas.systems.categr.services.CategoryConflictException;
+import uk.pallas.systems.categr.services.CategoryHierarchy;
+import uk.pallas.systems.categr.services.CategoryHierarchyException;
+
+/**
+ * This is a test class designed to check the category endpoints through Spring MVC, against a backend held in memory.
+ */
+class CategoriesControllerTest {
+
+  /** The backend the controller reads from. */
+  private StubService backend;
+
+  /** Holds the metrics recorded by the controller. */
+  private SimpleMeterRegistry registry;
+
+  /** Sends requests to the controller. */
+  private MockMvc mvc;
+
+  /** Public Constructor. */
+  public CategoriesControllerTest() {}
+
+  @BeforeEach
+  void setUp() {
+    this.backend = new StubService();
+    for (final String name : List.of("Space", "Air", "Land", "Edge", "Maritime")) {
+      this.backend.data.add(new CategoryRecord(name, "CategoriesControllerTest " + name, null, 1));
+    }
+
+    this.registry = new SimpleMeterRegistry();
+    this.mvc = this.createMvc(false);
+  }
+
+  @Test
+  void testCursorPaging() throws Exception {
+    final ObjectMapper mapper = new ObjectMapper();
+    final List<String> names = new ArrayList<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      final String body = this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/page").param("size", "2")
+          .param("cursor", cursor))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andReturn().getResponse().getContentAsString();
+      final CategoryPageDTO page = mapper.readValue(body, CategoryPageDTO.class);
+      page.getCategories().forEach(category -> names.add(category.getName()));
+      cursor = page.getNext();
+      pages++;
+    } while (null != cursor);
+
+    Assertions.assertEquals(List.of("Air", "Edge", "Land", "Maritime", "Space"), names);
+    Assertions.assertEquals(3, pages);
+  }
+
+  @Test
+  void testPageLastFull() throws Exception {
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/page").param("size", "5"))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andExpect(MockMvcResultMatchers.jsonPath("$.categories.length()").value(5))
+      .andExpect(MockMvcResultMatchers.jsonPath("$.next").doesNotExist());
+  }
+
+  @Test
+  void testResponseMetrics() throws Exception {
+    final byte[] body = this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/page").param("size", "2"))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andReturn().getResponse().getContentAsByteArray();
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/names/Missing"))
+      .andExpect(MockMvcResultMatchers.status().isNotFound());
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/names/Edge"))
+      .andExpect(MockMvcResultMatchers.status().isOk());
+
+    Assertions.assertEquals(2, this.registry.get(CategoriesMetrics.METRIC_RESULTS)
+      .tag(CategoriesMetrics.TAG_ENDPOINT, "page").summary().totalAmount());
+    final DistributionSummary payload = this.registry.get(CategoriesMetrics.METRIC_PAYLOAD)
+      .tag(CategoriesMetrics.TAG_ENDPOINT, "page").summary();
+    Assertions.assertEquals(1, payload.count());
+    Assertions.assertEquals(body.length, payload.totalAmount());
+    Assertions.assertEquals(1, this.registry.get(CategoriesMetrics.METRIC_MISSES)
+      .tag(CategoriesMetrics.TAG_ENDPOINT, "category").counter().count());
+    // The miss has no body of its own to record.
+    Assertions.assertEquals(1, this.registry.get(CategoriesMetrics.METRIC_PAYLOAD)
+      .tag(CategoriesMetrics.TAG_ENDPOINT, "category").summary().count());
+  }
+
+  @Test
+  void testPageRejected() throws Exception {
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/page").param("size", "0"))
+      .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/page")
+        .param("size", String.valueOf(CatgegoriesConstants.MAX_PAGE_SIZE + 1)))
+      .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/page").param("cursor", "not base64!"))
+      .andExpect(MockMvcResultMatchers.status().isBadRequest());
+  }
+
+  @Test
+  void testStream() throws Exception {
+    final MvcResult started = this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/stream"))
+      .andExpect(MockMvcResultMatchers.request().asyncStarted())
+      .andReturn();
+    final String body = this.mvc.perform(MockMvcRequestBuilders.asyncDispatch(started))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+      .andReturn().getResponse().getContentAsString();
+
+    final ObjectMapper mapper = new ObjectMapper();
+    final String[] lines = body.split("\n");
+    Assertions.assertEquals(5, lines.length);
+    Assertions.assertTrue(body.endsWith("\n"));
+    Assertions.assertEquals("Air", mapper.readTree(lines[0]).get("name").asText());
+    Assertions.assertEquals("CategoriesControllerTest Space", mapper.readTree(lines[4]).get("description").asText());
+    Assertions.assertEquals(1, this.backend.streams);
+  }
+
+  @Test
+  void testCreateConflict() throws Exception {
+    this.mvc.perform(MockMvcRequestBuilders.post("/categr/v1/").contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\": \"Sea\", \"parent\": \"Maritime\"}"))
+      .andExpect(MockMvcResultMatchers.status().isCreated())
+      .andExpect(MockMvcResultMatchers.header().string("ETag", "\"2\""));
+
+    this.mvc.perform(MockMvcRequestBuilders.post("/categr/v1/").contentType(MediaType.APPLICATION_JSON)
+        .content("{\"name\": \"Sea\"}"))
+      .andExpect(MockMvcResultMatchers.status().isConflict());
+  }
+
+  @Test
+  void testUpdatePreconditions() throws Exception {
+    final String body = "{\"description\": \"CategoriesControllerTest-testUpdatePreconditions\"}";
+    this.mvc.perform(MockMvcRequestBuilders.put("/categr/v1/names/Air").contentType(MediaType.APPLICATION_JSON)
+        .content(body))
+      .andExpect(MockMvcResultMatchers.status().isPreconditionRequired());
+    this.mvc.perform(MockMvcRequestBuilders.put("/categr/v1/names/Air").contentType(MediaType.APPLICATION_JSON)
+        .header("If-Match", "\"7\"").content(body))
+      .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+    this.mvc.perform(MockMvcRequestBuilders.put("/categr/v1/names/Missing").contentType(MediaType.APPLICATION_JSON)
+        .header("If-Match", "*").content(body))
+      .andExpect(MockMvcResultMatchers.status().isNotFound());
+
+    // Any of the listed tags can match, not just the first.
+    this.mvc.perform(MockMvcRequestBuilders.put("/categr/v1/names/Air").contentType(MediaType.APPLICATION_JSON)
+        .header("If-Match", "\"7\", W/\"1\"").content(body))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andExpect(MockMvcResultMatchers.header().string("ETag", "\"2\""))
+      .andExpect(MockMvcResultMatchers.jsonPath("$.description")
+        .value("CategoriesControllerTest-testUpdatePreconditions"));
+    Assertions.assertEquals(List.of(7L, CategoriesDAOService.ANY_VERSION, 1L), this.backend.expected);
+  }
+
+  @Test
+  void testHierarchyLoopRefused() throws Exception {
+    this.mvc.perform(MockMvcRequestBuilders.put("/categr/v1/names/Air").contentType(MediaType.APPLICATION_JSON)
+        .header("If-Match", "*").content("{\"parent\": \"Edge\"}"))
+      .andExpect(MockMvcResultMatchers.status().isOk());
+    this.mvc.perform(MockMvcRequestBuilders.put("/categr/v1/names/Edge").contentType(MediaType.APPLICATION_JSON)
+        .header("If-Match", "*").content("{\"parent\": \"Air\"}"))
+      .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    this.mvc.perform(MockMvcRequestBuilders.put("/categr/v1/names/Edge").contentType(MediaType.APPLICATION_JSON)
+        .header("If-Match", "*").content("{\"parent\": \"Edge\"}"))
+      .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+    Assertions.assertNull(this.backend.findByName("Edge").getParent());
+  }
+
+  @Test
+  void testDeletePreconditions() throws Exception {
+    this.mvc.perform(MockMvcRequestBuilders.delete("/categr/v1/names/Air"))
+      .andExpect(MockMvcResultMatchers.status().isPreconditionRequired());
+    this.mvc.perform(MockMvcRequestBuilders.delete("/categr/v1/names/Air").header("If-Match", "\"2\""))
+      .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+    this.mvc.perform(MockMvcRequestBuilders.delete("/categr/v1/names/Air").header("If-Match", "\"1\""))
+      .andExpect(MockMvcResultMatchers.status().isNoContent());
+    this.mvc.perform(MockMvcRequestBuilders.delete("/categr/v1/names/Air").header("If-Match", "*"))
+      .andExpect(MockMvcResultMatchers.status().isNotFound());
+  }
+
+  @Test
+  void testPrerenderedNotModified() throws Exception {
+    final MockMvc prerendered = this.createMvc(true);
+    this.backend.dataVersion = 1;
+
+    for (final String uri : List.of("/categr/v1/", "/categr/v1/names", "/categr/v1/names/Edge")) {
+      final MockHttpServletResponse response = prerendered.perform(MockMvcRequestBuilders.get(uri))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
+        .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"))
+        .andReturn().getResponse();
+      final String etag = response.getHeader(HttpHeaders.ETAG);
+      Assertions.assertNotNull(etag, uri);
+      Assertions.assertTrue(etag.startsWith("\"") && etag.endsWith("\""), etag);
+
+      final MockHttpServletResponse notModified = prerendered.perform(MockMvcRequestBuilders.get(uri)
+          .header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(MockMvcResultMatchers.status().isNotModified())
+        .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, etag))
+        .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"))
+        .andReturn().getResponse();
+      Assertions.assertEquals(0, notModified.getContentAsByteArray().length, uri);
+    }
+
+    Assertions.assertEquals(1, this.registry.get(CategoriesMetrics.METRIC_NOT_MODIFIED)
+      .tag(CategoriesMetrics.TAG_ENDPOINT, "names").counter().count());
+  }
+
+  @Test
+  void testPrerenderedGzip() throws Exception {
+    final MockMvc prerendered = this.createMvc(true);
+    this.backend.dataVersion = 1;
+    for (int i = 0; i < 10; i++) {
+      this.backend.data.add(new CategoryRecord("Extra " + i, "CategoriesControllerTest-testPrerenderedGzip", null, 1));
+    }
+
+    final byte[] identity = prerendered.perform(MockMvcRequestBuilders.get("/categr/v1/"))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+      .andReturn().getResponse().getContentAsByteArray();
+    Assertions.assertTrue(identity.length >= RenderedBody.MIN_GZIP_SIZE);
+
+    final MockHttpServletResponse compressed = prerendered.perform(MockMvcRequestBuilders.get("/categr/v1/")
+        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+      .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"))
+      .andReturn().getResponse();
+    final String etag = compressed.getHeader(HttpHeaders.ETAG);
+    Assertions.assertTrue(etag.startsWith("\"") && etag.endsWith("-gz\""), etag);
+    try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed.getContentAsByteArray()))) {
+      Assertions.assertArrayEquals(identity, input.readAllBytes());
+    }
+
+    prerendered.perform(MockMvcRequestBuilders.get("/categr/v1/").header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+        .header(HttpHeaders.IF_NONE_MATCH, etag))
+      .andExpect(MockMvcResultMatchers.status().isNotModified());
+
+    // The small bodies are not worth compressing, so are sent as they are.
+    prerendered.perform(MockMvcRequestBuilders.get("/categr/v1/names/Edge")
+        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+      .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Edge"));
+  }
+
+  @Test
+  void testPrerenderedNewVersion() throws Exception {
+    final MockMvc prerendered = this.createMvc(true);
+    this.backend.dataVersion = 1;
+    final List<String> uris = List.of("/categr/v1/", "/categr/v1/names", "/categr/v1/names/Edge");
+    final List<String> etags = new ArrayList<>();
+    for (final String uri : uris) {
+      etags.add(prerendered.perform(MockMvcRequestBuilders.get(uri))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    // Until the data version moves the bodies already rendered are served.
+    this.backend.data.set(this.backend.data.indexOf(this.backend.findByName("Edge")),
+      new CategoryRecord("Edge", "CategoriesControllerTest-testPrerenderedNewVersion", null, 2));
+    this.backend.data.add(new CategoryRecord("Cyber", "CategoriesControllerTest-testPrerenderedNewVersion", null, 2));
+    for (int i = 0; i < uris.size(); i++) {
+      prerendered.perform(MockMvcRequestBuilders.get(uris.get(i)).header(HttpHeaders.IF_NONE_MATCH, etags.get(i)))
+        .andExpect(MockMvcResultMatchers.status().isNotModified());
+    }
+
+    this.backend.dataVersion = 2;
+    for (int i = 0; i < uris.size(); i++) {
+      final String etag = prerendered.perform(MockMvcRequestBuilders.get(uris.get(i))
+          .header(HttpHeaders.IF_NONE_MATCH, etags.get(i)))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+      Assertions.assertNotEquals(etags.get(i), etag, uris.get(i));
+
+      prerendered.perform(MockMvcRequestBuilders.get(uris.get(i)).header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(MockMvcResultMatchers.status().isNotModified());
+    }
+    prerendered.perform(MockMvcRequestBuilders.get("/categr/v1/names/Edge"))
+      .andExpect(MockMvcResultMatchers.jsonPath("$.description")
+        .value("CategoriesControllerTest-testPrerenderedNewVersion"));
+  }
+
+  /**
+   * Creates a controller reading the backend, recording its metrics in the registry.
+   *
+   * @param prerender whether the bodies are pre-rendered.
+   * @return sends requests to the new controller.
+   */
+  private MockMvc createMvc(final boolean prerender) {
+    final ObjectMapper mapper = new ObjectMapper().registerModule(CategoryJsonSerializer.module());
+    final CategoriesMetrics metrics = new CategoriesMetrics();
+    metrics.setMeterRegistry(this.registry);
+    final PayloadMetricsFilter payloads = new PayloadMetricsFilter();
+    payloads.setMetrics(metrics);
+    final PrerenderedResponses responses = new PrerenderedResponses();
+    responses.setMapper(mapper);
+    responses.setGzip(true);
+    final CategoriesController controller = new CategoriesController();
+    controller.setServices(this.backend);
+    controller.setMetrics(metrics);
+    controller.setMapper(mapper);
+    controller.setResponses(responses);
+    controller.setPrerender(prerender);
+    return MockMvcBuilders.standaloneSetup(controller).addFilters(payloads).build();
+  }
+
+  /**
+   * Backend holding its categories in a list, paging and streaming use the interface's defaults.
+   */
+  private static final class StubService implements CategoriesDAOService {
+    /** The categories to return. */
+    private final List<Category> data = new ArrayList<>();
+    /** Number of times the categories were streamed. */
+    private int streams;
+    /** The last version handed out. */
+    private long sequence = 1;
+    /** The version each update expected the category to be at. */
+    private final List<Long> expected = new ArrayList<>();
+    /** The data version reported, moved by hand. */
+    private long dataVersion = UNVERSIONED;
+
+    @Override
+    public Category findByName(final String identifier) {
+      return this.data.stream().filter(category -> category.getName().equals(identifier)).findFirst().orElse(null);
+    }
+
+    @Override
+    public Collection<Category> findAll() {
+      return new ArrayList<>(this.data);
+    }
+
+    @Override
+    public long getDataVersion() {
+      return this.dataVersion;
+    }
+
+    @Override
+    public void forEachCategory(final Consumer<? super Category> consumer) {
+      this.streams++;
+      CategoriesDAOService.super.forEachCategory(consumer);
+    }
+
+    @Override
+    public Category create(final Category category) {
+      if (null != this.findByName(category.getName())) {
+        throw new CategoryConflictException(category.getName(), 1, "Category " + category.getName() + " exists");
+      }
+      return this.write(category, -1);
+    }
+
+    @Override
+    public Category update(final Category category, final long expectedVersion) {
+      this.expected.add(expectedVersion);
+      final Category current = this.findByName(category.getName());
+      if (null != current) {
+        this.checkVersion(current, expectedVersion);
+      }
+      return null == current ? null : this.write(category, this.data.indexOf(current));
+    }
+
+    @Override
+    public boolean delete(final String identifier, final long expectedVersion) {
+      final Category current = this.findByName(identifier);
+      if (null != current) {
+        this.checkVersion(current, expectedVersion);
+      }
+      return null != current && this.data.remove(current);
+    }
+
+    /**
+     * Refuses a write if the category is not at the expected version.
+     *
+     * @param current the category as it is.
+     * @param expectedVersion the version the caller expects.
+     */
+    private void checkVersion(final Category current, final long expectedVersion) {
+      if (ANY_VERSION != expectedVersion && current.getVersion() != expectedVersion) {
+        throw new CategoryConflictException(current.getName(), current.getVersion(), "Stale");
+      }
+    }
+
+    /**
+     * Stores a category with the next version, refusing it if it would sit beneath itself.
+     *
+     * @param category the category to store.
+     * @param position where to store it, negative to add it.
+     * @return the category as stored.
+     */
+    private Category write(final Category category, final int position) {
+      if (category.getName().equals(category.getParent())
+          || new CategoryHierarchy(this.data).isDescendant(category.getParent(), category.getName())) {
+        throw new CategoryHierarchyException(category.getName(), "Loop");
+      }
+
+      this.sequence++;
+      final Category result = new CategoryRecord(category.getName(), category.getDescription(), category.getParent(),
+        this.sequence);
+      if (position < 0) {
+        this.data.add(result);
+      } else {
+        this.data.set(position, result);
+      }
+      return result;
+    }
+  }
+}
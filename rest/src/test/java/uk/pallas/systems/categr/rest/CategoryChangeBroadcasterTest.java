@@ -0,0 +1,154 @@
+package uk.pallas.systems.categr.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.entities.v1.CategoryRecord;
+import uk.pallas.systems.categr.services.CategoriesDAOService;
+import uk.pallas.systems.categr.services.CategoryChange;
+import uk.pallas.systems.categr.services.ChangeType;
+
+/**
+ * This is a test class designed to check the change feed is read once for every subscriber together, a page at a
+ * time, and that subscribers are counted and let go.
+ */
+class CategoryChangeBroadcasterTest {
+
+  /** The backend the change feed is read from. */
+  private StubService backend;
+
+  /** Holds the subscriber gauge. */
+  private SimpleMeterRegistry registry;
+
+  /** The broadcaster being tested. */
+  private CategoryChangeBroadcaster broadcaster;
+
+  /** Public Constructor. */
+  public CategoryChangeBroadcasterTest() {}
+
+  @BeforeEach
+  void setUp() {
+    this.backend = new StubService();
+    this.registry = new SimpleMeterRegistry();
+
+    // The tests poll the feed themselves, so the background poller is never given the chance.
+    this.broadcaster = new CategoryChangeBroadcaster();
+    this.broadcaster.setServices(this.backend);
+    this.broadcaster.setMapper(new ObjectMapper());
+    this.broadcaster.setMeterRegistry(this.registry);
+    this.broadcaster.setPollInterval(Duration.ofHours(1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.broadcaster.destroy();
+  }
+
+  @Test
+  void testSubscribersCounted() {
+    this.backend.add(3);
+    this.broadcaster.subscribe(-1);
+    this.broadcaster.subscribe(1);
+
+    Assertions.assertEquals(2, this.broadcaster.getSubscriberCount());
+    Assertions.assertEquals(2, this.registry.get(CategoryChangeBroadcaster.METRIC_SUBSCRIBERS).gauge().value());
+
+    this.broadcaster.destroy();
+    Assertions.assertEquals(0, this.broadcaster.getSubscriberCount());
+  }
+
+  @Test
+  void testFeedReadOnceForEverySubscriber() {
+    this.backend.add(5);
+    this.broadcaster.subscribe(4);
+    this.broadcaster.subscribe(2);
+    this.broadcaster.subscribe(-1);
+
+    // Read from the subscriber furthest behind, rather than once per subscriber.
+    this.broadcaster.poll();
+    Assertions.assertEquals(List.of(2L), this.backend.reads);
+
+    // Everyone has now seen the latest change.
+    this.broadcaster.poll();
+    Assertions.assertEquals(List.of(2L, 5L), this.backend.reads);
+  }
+
+  @Test
+  void testFeedPaged() {
+    this.backend.add(CatgegoriesConstants.MAX_CHANGES_LIMIT + 1);
+    this.broadcaster.subscribe(0);
+
+    this.broadcaster.poll();
+    Assertions.assertEquals(List.of(0L, (long) CatgegoriesConstants.MAX_CHANGES_LIMIT), this.backend.reads);
+  }
+
+  @Test
+  void testNothingReadWithoutSubscribers() {
+    this.backend.add(2);
+    this.broadcaster.poll();
+
+    Assertions.assertTrue(this.backend.reads.isEmpty());
+  }
+
+  @Test
+  void testSubscribeUnsupported() {
+    this.backend.recorded = false;
+
+    Assertions.assertThrows(UnsupportedOperationException.class, () -> this.broadcaster.subscribe(0));
+    Assertions.assertEquals(0, this.broadcaster.getSubscriberCount());
+  }
+
+  /**
+   * Backend recording its changes in a list, and where each read of the feed started.
+   */
+  private static final class StubService implements CategoriesDAOService {
+    /** The change feed, oldest first. */
+    private final List<CategoryChange> changes = new ArrayList<>();
+    /** The since of each read of the feed. */
+    private final List<Long> reads = new ArrayList<>();
+    /** False to behave like a backend which does not record changes. */
+    private boolean recorded = true;
+
+    /**
+     * Adds updates to the feed.
+     *
+     * @param count the number of changes to add.
+     */
+    private void add(final int count) {
+      for (int i = 0; i < count; i++) {
+        final long sequence = this.changes.size() + 1;
+        this.changes.add(new CategoryChange(sequence, ChangeType.UPDATED, "Air",
+          new CategoryRecord("Air", "CategoryChangeBroadcasterTest " + sequence, null, sequence)));
+      }
+    }
+
+    @Override
+    public Category findByName(final String identifier) {
+      return null;
+    }
+
+    @Override
+    public Collection<Category> findAll() {
+      return List.of();
+    }
+
+    @Override
+    public List<CategoryChange> findChanges(final long since, final int limit) {
+      this.reads.add(since);
+      return this.changes.stream().filter(change -> change.getSequence() > since).limit(limit).toList();
+    }
+
+    @Override
+    public long getLatestChange() {
+      return this.recorded ? this.changes.size() : CategoriesDAOService.super.getLatestChange();
+    }
+  }
+}
@@ -0,0 +1,244 @@
+package uk.pallas.systems.categr.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryItemDTO;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryItemsDTO;
+import uk.pallas.systems.categr.services.CategoryItemIndex;
+import uk.pallas.systems.categr.services.CategoryItemsService;
+import uk.pallas.systems.categr.services.CategoryNotFoundException;
+import uk.pallas.systems.categr.services.ItemMatch;
+
+/**
+ * This is a test class designed to check the item tagging endpoints through Spring MVC, against tags held in memory.
+ */
+class CategoryItemsControllerTest {
+
+  /** Reads the responses. */
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  /** The backend holding the tags. */
+  private StubService backend;
+
+  /** Sends requests to the controller. */
+  private MockMvc mvc;
+
+  /** Public Constructor. */
+  public CategoryItemsControllerTest() {}
+
+  @BeforeEach
+  void setUp() {
+    this.backend = new StubService();
+    this.backend.setCategories("field-1", List.of("Edge", "Location"));
+    this.backend.setCategories("field-2", List.of("Edge"));
+    this.backend.setCategories("field-3", List.of("Edge", "Location"));
+    this.mvc = this.createMvc(this.backend);
+  }
+
+  @Test
+  void testFindItemsPaged() throws Exception {
+    final CategoryItemsDTO first = this.findItems("/categr/v1/items?category=Edge&category=Location&size=1");
+    Assertions.assertEquals(List.of("field-1"), first.getItems());
+    Assertions.assertEquals(2, first.getTotal());
+    Assertions.assertNotNull(first.getNext());
+
+    final CategoryItemsDTO second = this.findItems("/categr/v1/items?category=Edge&category=Location&size=1&cursor="
+      + first.getNext());
+    Assertions.assertEquals(List.of("field-3"), second.getItems());
+    Assertions.assertNull(second.getNext());
+
+    final CategoryItemsDTO any = this.findItems("/categr/v1/items?category=Edge&category=Location&match=ANY");
+    Assertions.assertEquals(List.of("field-1", "field-2", "field-3"), any.getItems());
+    Assertions.assertEquals(3, any.getTotal());
+  }
+
+  @Test
+  void testFindItemsBadRequest() throws Exception {
+    for (final String query : List.of("", "?category=Edge&match=most", "?category=Edge&size=0",
+        "?category=Edge&size=" + (CatgegoriesConstants.MAX_PAGE_SIZE + 1))) {
+      this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/items" + query))
+        .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/items").param("category", " "))
+      .andExpect(MockMvcResultMatchers.status().isBadRequest());
+  }
+
+  @Test
+  void testGetItem() throws Exception {
+    final String body = this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/items/field-1"))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andReturn().getResponse().getContentAsString();
+    Assertions.assertEquals(new CategoryItemDTO("field-1", List.of("Edge", "Location")),
+      this.mapper.readValue(body, CategoryItemDTO.class));
+
+    this.mvc.perform(MockMvcRequestBuilders.get("/categr/v1/items/field-9"))
+      .andExpect(MockMvcResultMatchers.status().isNotFound());
+  }
+
+  @Test
+  void testSetItem() throws Exception {
+    final String body = this.mvc.perform(MockMvcRequestBuilders.put("/categr/v1/items/field-2")
+        .contentType(MediaType.APPLICATION_JSON).content("[\"Velocity\", \"Edge\", \"Edge\"]"))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andReturn().getResponse().getContentAsString();
+
+    Assertions.assertEquals(new CategoryItemDTO("field-2", List.of("Edge", "Velocity")),
+      this.mapper.readValue(body, CategoryItemDTO.class));
+    Assertions.assertEquals(List.of("Edge", "Velocity"), this.backend.findCategories("field-2"));
+  }
+
+  @Test
+  void testSetItemUnknownCategories() throws Exception {
+    final String reason = this.mvc.perform(MockMvcRequestBuilders.put("/categr/v1/items/field-2")
+        .contentType(MediaType.APPLICATION_JSON).content("[\"Edge\", \"Missing\"]"))
+      .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity())
+      .andReturn().getResponse().getErrorMessage();
+
+    Assertions.assertEquals(CatgegoriesConstants.UNKNOWN_CATEGORIES_ERROR_MSG + ": [Missing]", reason);
+    Assertions.assertEquals(List.of("Edge"), this.backend.findCategories("field-2"));
+  }
+
+  @Test
+  void testSetItemBadRequest() throws Exception {
+    this.mvc.perform(MockMvcRequestBuilders.put("/categr/v1/items/" + "x".repeat(CategoryItemsService.MAX_ITEM_LENGTH
+        + 1)).contentType(MediaType.APPLICATION_JSON).content("[\"Edge\"]"))
+      .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+    final List<String> tooMany = new ArrayList<>();
+    for (int i = 0; i <= CatgegoriesConstants.MAX_BATCH_SIZE; i++) {
+      tooMany.add("Category " + i);
+    }
+    this.mvc.perform(MockMvcRequestBuilders.put("/categr/v1/items/field-2")
+        .contentType(MediaType.APPLICATION_JSON).content(this.mapper.writeValueAsString(tooMany)))
+      .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+    Assertions.assertEquals(List.of("Edge"), this.backend.findCategories("field-2"));
+  }
+
+  @Test
+  void testDeleteItem() throws Exception {
+    this.mvc.perform(MockMvcRequestBuilders.delete("/categr/v1/items/field-2"))
+      .andExpect(MockMvcResultMatchers.status().isNoContent());
+    this.mvc.perform(MockMvcRequestBuilders.delete("/categr/v1/items/field-2"))
+      .andExpect(MockMvcResultMatchers.status().isNotFound());
+    Assertions.assertTrue(this.backend.findCategories("field-2").isEmpty());
+  }
+
+  @Test
+  void testUnsupported() throws Exception {
+    final MockMvc unsupported = this.createMvc(null);
+
+    unsupported.perform(MockMvcRequestBuilders.get("/categr/v1/items/field-1"))
+      .andExpect(MockMvcResultMatchers.status().isNotImplemented());
+    unsupported.perform(MockMvcRequestBuilders.put("/categr/v1/items/field-1")
+        .contentType(MediaType.APPLICATION_JSON).content("[\"Edge\"]"))
+      .andExpect(MockMvcResultMatchers.status().isNotImplemented());
+  }
+
+  /**
+   * Creates a controller reading and writing the supplied backend.
+   *
+   * @param service the backend holding the tags (null if the backend does not record them).
+   * @return sends requests to the new controller.
+   */
+  private MockMvc createMvc(final StubService service) {
+    final CategoriesMetrics metrics = new CategoriesMetrics();
+    metrics.setMeterRegistry(new SimpleMeterRegistry());
+    final CategoryItemsController controller = new CategoryItemsController();
+    controller.setItems(service);
+    controller.setMetrics(metrics);
+    return MockMvcBuilders.standaloneSetup(controller).build();
+  }
+
+  /**
+   * Finds the items matching the supplied request.
+   *
+   * @param uri the request, including the query.
+   * @return the page of items found.
+   * @throws Exception if the request fails.
+   */
+  private CategoryItemsDTO findItems(final String uri) throws Exception {
+    final String body = this.mvc.perform(MockMvcRequestBuilders.get(uri))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andReturn().getResponse().getContentAsString();
+    return this.mapper.readValue(body, CategoryItemsDTO.class);
+  }
+
+  /**
+   * Holds the tags in memory, answering the queries from an index built on each call, and refuses tags for anything
+   * but the seeded category names.
+   */
+  private static final class StubService implements CategoryItemsService {
+
+    /** The categories which exist. */
+    private static final Set<String> CATEGORIES = Set.of("Edge", "Location", "Velocity");
+
+    /** The tags, keyed on the item. */
+    private final Map<String, List<String>> tags = new TreeMap<>();
+
+    @Override
+    public List<String> findCategories(final String item) {
+      return this.index().getCategories(item);
+    }
+
+    @Override
+    public List<String> findItems(final Collection<String> categories, final ItemMatch match, final String after,
+                                  final int limit) {
+      return this.index().getItems(categories, match, after, limit);
+    }
+
+    @Override
+    public long countItems(final Collection<String> categories, final ItemMatch match) {
+      return this.index().countItems(categories, match);
+    }
+
+    @Override
+    public int setCategories(final String item, final Collection<String> categories) {
+      final Set<String> names = CategoryItemsService.toCategoryNames(categories);
+      final List<String> missing = names.stream().filter(name -> !CATEGORIES.contains(name)).toList();
+      if (!missing.isEmpty()) {
+        throw new CategoryNotFoundException(missing, "CategoryItemsControllerTest unknown categories");
+      }
+
+      this.tags.remove(item);
+      if (!names.isEmpty()) {
+        this.tags.put(item, new ArrayList<>(names));
+      }
+      return names.size();
+    }
+
+    @Override
+    public boolean removeItem(final String item) {
+      return null != this.tags.remove(item);
+    }
+
+    @Override
+    public void forEachTag(final BiConsumer<String, String> consumer) {
+      this.tags.forEach((item, categories) -> categories.forEach(category -> consumer.accept(item, category)));
+    }
+
+    /**
+     * Builds an index of the current tags.
+     *
+     * @return never null.
+     */
+    private CategoryItemIndex index() {
+      return new CategoryItemIndex(this.tags, 0);
+    }
+  }
+}
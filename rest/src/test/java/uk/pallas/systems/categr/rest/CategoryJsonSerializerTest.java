@@ -0,0 +1,33 @@
+package uk.pallas.systems.categr.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.pallas.systems.categr.entities.v1.CategoryRecord;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryDTO;
+
+/**
+ * This is a test class designed to check categories are written in exactly the shape Jackson writes a CategoryDTO.
+ */
+class CategoryJsonSerializerTest {
+
+  /** Public Constructor. */
+  public CategoryJsonSerializerTest() {}
+
+  @Test
+  void testSameShapeAsDTO() throws JsonProcessingException {
+    final ObjectMapper plain = new ObjectMapper();
+    final ObjectMapper mapper = new ObjectMapper().registerModule(CategoryJsonSerializer.module());
+
+    final List<CategoryRecord> records = List.of(new CategoryRecord("Edge", "Outer \"edge\"", "Shape", 42),
+      new CategoryRecord("Shape", null, null, 0));
+    final List<CategoryDTO> dtos = records.stream().map(CategoryDTO::new).toList();
+
+    Assertions.assertEquals(plain.writeValueAsString(dtos), mapper.writeValueAsString(records));
+    Assertions.assertEquals(plain.writeValueAsString(dtos.get(0)), mapper.writeValueAsString(records.get(0)));
+    // DTOs go through the same serializer and still read back.
+    Assertions.assertEquals(dtos, List.of(mapper.readValue(mapper.writeValueAsString(dtos), CategoryDTO[].class)));
+  }
+}
@@ -0,0 +1,126 @@
+package uk.pallas.systems.categr.rest;
+
+import com.google.protobuf.DescriptorProtos.DescriptorProto;
+import com.google.protobuf.DescriptorProtos.FieldDescriptorProto;
+import com.google.protobuf.DescriptorProtos.FileDescriptorProto;
+import com.google.protobuf.DescriptorProtos.OneofDescriptorProto;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.UnknownFieldSet;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryDTO;
+
+/**
+ * A set of tests to confirm categories are written as the messages in the published category.proto schema.
+ */
+class CategoryProtobufTest {
+
+  /** Public Constructor. */
+  public CategoryProtobufTest() {}
+
+  @Test
+  void testRoundTrip() throws IOException {
+    final CategoryDTO edge = new CategoryDTO("Edge", "Outer edge", "Shape");
+    edge.setVersion(42);
+    final List<CategoryDTO> categories = List.of(edge, new CategoryDTO("Shape", null, null));
+
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    CategoryProtobuf.writeCategories(categories, output);
+    final List<CategoryDTO> read = CategoryProtobuf.readCategories(new ByteArrayInputStream(output.toByteArray()));
+
+    Assertions.assertEquals(categories, read);
+    Assertions.assertEquals(42, read.get(0).getVersion());
+    Assertions.assertNull(read.get(1).getDescription());
+    Assertions.assertNull(read.get(1).getParent());
+  }
+
+  @Test
+  void testNamesRoundTrip() throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    CategoryProtobuf.writeNames(List.of("Edge", "Shape"), output);
+
+    Assertions.assertEquals(List.of("Edge", "Shape"),
+      CategoryProtobuf.readNames(new ByteArrayInputStream(output.toByteArray())));
+  }
+
+  @Test
+  void testMatchesSchema() throws IOException, Descriptors.DescriptorValidationException {
+    final Descriptors.Descriptor schema = categoryDescriptor();
+
+    final CategoryDTO edge = new CategoryDTO("Edge", null, "Shape");
+    edge.setVersion(7);
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    CategoryProtobuf.writeCategory(edge, output);
+
+    final DynamicMessage message = DynamicMessage.parseFrom(schema, output.toByteArray());
+    Assertions.assertEquals("Edge", message.getField(schema.findFieldByName("name")));
+    Assertions.assertFalse(message.hasField(schema.findFieldByName("description")));
+    Assertions.assertEquals("Shape", message.getField(schema.findFieldByName("parent")));
+    Assertions.assertEquals(7L, message.getField(schema.findFieldByName("version")));
+    Assertions.assertTrue(message.getUnknownFields().asMap().isEmpty());
+
+    // A message written by the protobuf runtime, with a field the codec does not know, reads back the same.
+    final DynamicMessage written = message.toBuilder()
+      .setUnknownFields(UnknownFieldSet.newBuilder()
+        .addField(99, UnknownFieldSet.Field.newBuilder().addVarint(1).build()).build())
+      .build();
+    Assertions.assertEquals(edge, CategoryProtobuf.readCategory(new ByteArrayInputStream(written.toByteArray())));
+  }
+
+  /**
+   * Builds the Category message descriptor from category.proto.
+   *
+   * @return the descriptor of categr.v1.Category.
+   * @throws Descriptors.DescriptorValidationException if the descriptor is invalid.
+   */
+  private static Descriptors.Descriptor categoryDescriptor() throws Descriptors.DescriptorValidationException {
+    final DescriptorProto category = DescriptorProto.newBuilder()
+      .setName("Category")
+      .addField(field("name", 1, FieldDescriptorProto.Type.TYPE_STRING, -1))
+      .addField(field("description", 2, FieldDescriptorProto.Type.TYPE_STRING, 0))
+      .addField(field("parent", 3, FieldDescriptorProto.Type.TYPE_STRING, 1))
+      .addField(field("version", 4, FieldDescriptorProto.Type.TYPE_INT64, -1))
+      // proto3 optional fields sit in synthetic oneofs.
+      .addOneofDecl(OneofDescriptorProto.newBuilder().setName("_description"))
+      .addOneofDecl(OneofDescriptorProto.newBuilder().setName("_parent"))
+      .build();
+
+    final FileDescriptorProto file = FileDescriptorProto.newBuilder()
+      .setName("category.proto")
+      .setPackage("categr.v1")
+      .setSyntax("proto3")
+      .addMessageType(category)
+      .build();
+
+    return Descriptors.FileDescriptor.buildFrom(file, new Descriptors.FileDescriptor[0])
+      .findMessageTypeByName("Category");
+  }
+
+  /**
+   * Builds a singular field descriptor.
+   *
+   * @param name the field name.
+   * @param number the field number.
+   * @param type the field type.
+   * @param oneof the index of the synthetic oneof of an optional field, negative for a plain field.
+   * @return the field descriptor.
+   */
+  private static FieldDescriptorProto field(final String name, final int number, final FieldDescriptorProto.Type type,
+                                            final int oneof) {
+    final FieldDescriptorProto.Builder result = FieldDescriptorProto.newBuilder()
+      .setName(name)
+      .setNumber(number)
+      .setType(type)
+      .setLabel(FieldDescriptorProto.Label.LABEL_OPTIONAL);
+    if (oneof >= 0) {
+      result.setOneofIndex(oneof).setProto3Optional(true);
+    }
+
+    return result.build();
+  }
+}
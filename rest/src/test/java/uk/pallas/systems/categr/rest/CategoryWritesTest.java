@@ -0,0 +1,72 @@
+package uk.pallas.systems.categr.rest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryDTO;
+import uk.pallas.systems.categr.services.CategoriesDAOService;
+
+/**
+ * A set of tests to confirm If-Match headers and written categories are checked correctly.
+ */
+class CategoryWritesTest {
+
+  /** Public Constructor. */
+  public CategoryWritesTest() {}
+
+  @Test
+  void testParseIfMatch() {
+    Assertions.assertEquals(Set.of(42L), CategoryWrites.parseIfMatch(CategoryWrites.toEtag(42)));
+    Assertions.assertEquals(List.of(42L, 43L), new ArrayList<>(CategoryWrites.parseIfMatch(" W/\"42\", \"43\"")));
+    Assertions.assertEquals(Set.of(0L), CategoryWrites.parseIfMatch("0"));
+    Assertions.assertEquals(Set.of(CategoriesDAOService.ANY_VERSION), CategoryWrites.parseIfMatch("*"));
+    Assertions.assertEquals(Set.of(CategoriesDAOService.ANY_VERSION), CategoryWrites.parseIfMatch("\"4\", *"));
+    // Tags which cannot be a version are skipped rather than failing the whole list.
+    Assertions.assertEquals(Set.of(5L), CategoryWrites.parseIfMatch("\"abc\", \"5\""));
+
+    Assertions.assertEquals(HttpStatus.PRECONDITION_REQUIRED,
+      Assertions.assertThrows(ResponseStatusException.class, () -> CategoryWrites.parseIfMatch(null)).getStatusCode());
+    Assertions.assertEquals(HttpStatus.PRECONDITION_FAILED,
+      Assertions.assertThrows(ResponseStatusException.class, () -> CategoryWrites.parseIfMatch("\"abc\""))
+        .getStatusCode());
+    Assertions.assertEquals(HttpStatus.PRECONDITION_FAILED,
+      Assertions.assertThrows(ResponseStatusException.class, () -> CategoryWrites.parseIfMatch("\"-2\""))
+        .getStatusCode());
+  }
+
+  @Test
+  void testExpectedVersion() {
+    final Set<Long> versions = CategoryWrites.parseIfMatch("\"3\", \"7\"");
+    final CategoryDTO current = new CategoryDTO("Air", "Aircraft");
+    current.setVersion(7);
+
+    Assertions.assertEquals(7, CategoryWrites.expectedVersion(versions, current));
+    current.setVersion(9);
+    Assertions.assertEquals(3, CategoryWrites.expectedVersion(versions, current));
+    Assertions.assertEquals(3, CategoryWrites.expectedVersion(versions, null));
+    Assertions.assertEquals(CategoriesDAOService.ANY_VERSION,
+      CategoryWrites.expectedVersion(CategoryWrites.parseIfMatch("*"), current));
+  }
+
+  @Test
+  void testValidate() {
+    final CategoryDTO body = new CategoryDTO(null, "Surface vessels", " ");
+    body.setVersion(7);
+
+    final CategoryDTO result = CategoryWrites.validate(body, " Surface ");
+    Assertions.assertEquals("Surface", result.getName());
+    Assertions.assertNull(result.getParent());
+    Assertions.assertEquals(7, result.getVersion());
+
+    Assertions.assertThrows(ResponseStatusException.class, () -> CategoryWrites.validate(null, "Surface"));
+    Assertions.assertThrows(ResponseStatusException.class, () -> CategoryWrites.validate(body, null));
+    Assertions.assertThrows(ResponseStatusException.class,
+      () -> CategoryWrites.validate(new CategoryDTO("Air", "Aircraft"), "Surface"));
+    Assertions.assertThrows(ResponseStatusException.class,
+      () -> CategoryWrites.validate(new CategoryDTO("Air", "Aircraft", "Air"), null));
+  }
+}
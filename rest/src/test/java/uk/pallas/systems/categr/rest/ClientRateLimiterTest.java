@@ -0,0 +1,50 @@
+package uk.pallas.systems.categr.rest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This is a test class designed to check each client gets its own burst and rate, and idle clients are dropped.
+ */
+class ClientRateLimiterTest {
+
+  /** Public Constructor. */
+  public ClientRateLimiterTest() {}
+
+  @Test
+  void testBurstThenRate() {
+    final AtomicLong now = new AtomicLong();
+    final ClientRateLimiter limiter = new ClientRateLimiter(10, 5, 100, now::get);
+
+    for (int i = 0; i < 5; i++) {
+      Assertions.assertEquals(0, limiter.tryAcquire("greedy"));
+    }
+    final long wait = limiter.tryAcquire("greedy");
+    Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(100), wait);
+    Assertions.assertEquals(1, limiter.getRejectedCount());
+
+    // Another client is not held back by the greedy one.
+    Assertions.assertEquals(0, limiter.tryAcquire("polite"));
+
+    // A token comes back every 100ms.
+    now.addAndGet(wait);
+    Assertions.assertEquals(0, limiter.tryAcquire("greedy"));
+    Assertions.assertTrue(limiter.tryAcquire("greedy") > 0);
+  }
+
+  @Test
+  void testIdleClientsSwept() {
+    final AtomicLong now = new AtomicLong();
+    final ClientRateLimiter limiter = new ClientRateLimiter(1000, 1, 2, now::get);
+
+    limiter.tryAcquire("first");
+    limiter.tryAcquire("second");
+    now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    limiter.tryAcquire("third");
+
+    Assertions.assertEquals(1, limiter.getClientCount());
+    Assertions.assertThrows(IllegalArgumentException.class, () -> new ClientRateLimiter(0, 1, 1, null));
+  }
+}
@@ -0,0 +1,168 @@
+package uk.pallas.systems.categr.rest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This is a test class designed to check only lookups are rate limited, each client address has its own limit, and a
+ * limited client is told when to retry.
+ */
+class RateLimitFilterTest {
+
+  /** The address of the client which runs out of lookups. */
+  private static final String GREEDY = "10.0.0.1";
+
+  /** The address of a client making a single lookup. */
+  private static final String POLITE = "10.0.0.2";
+
+  /** Holds the refused requests. */
+  private SimpleMeterRegistry registry;
+
+  /** The filter being tested. */
+  private RateLimitFilter filter;
+
+  /** Public Constructor. */
+  public RateLimitFilterTest() {}
+
+  @BeforeEach
+  void setUp() {
+    this.registry = new SimpleMeterRegistry();
+    final CategoriesMetrics metrics = new CategoriesMetrics();
+    metrics.setMeterRegistry(this.registry);
+    this.filter = new RateLimitFilter();
+    this.filter.setMetrics(metrics);
+    this.filter.setRate(0.1);
+    this.filter.setBurst(2);
+  }
+
+  @Test
+  void testOffByDefault() throws Exception {
+    Assertions.assertFalse(new RateLimitFilter().isEnabled());
+
+    final MockMvc mvc = this.createMvc();
+    for (int i = 0; i < 5; i++) {
+      mvc.perform(from(MockMvcRequestBuilders.get("/categr/v1/names/Edge"), GREEDY))
+        .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+  }
+
+  @Test
+  void testLimitedClientRetriesLater() throws Exception {
+    this.filter.setEnabled(true);
+    final MockMvc mvc = this.createMvc();
+
+    mvc.perform(from(MockMvcRequestBuilders.get("/categr/v1/names/Edge"), GREEDY))
+      .andExpect(MockMvcResultMatchers.status().isOk());
+    mvc.perform(from(MockMvcRequestBuilders.post("/categr/v1/names"), GREEDY))
+      .andExpect(MockMvcResultMatchers.status().isOk());
+    final String reason = mvc.perform(from(MockMvcRequestBuilders.get("/categr/v1/names"), GREEDY))
+      .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+      .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "10"))
+      .andReturn().getResponse().getErrorMessage();
+
+    Assertions.assertEquals(CatgegoriesConstants.RATE_LIMITED_MSG, reason);
+    Assertions.assertEquals(1, this.registry.get(CategoriesMetrics.METRIC_RATE_LIMITED).counter().count());
+  }
+
+  @Test
+  void testOnlyLookupsLimited() throws Exception {
+    this.filter.setEnabled(true);
+    final MockMvc mvc = this.createMvc();
+    for (int i = 0; i < 3; i++) {
+      mvc.perform(from(MockMvcRequestBuilders.get("/categr/v1/names/Edge"), GREEDY));
+    }
+
+    // Other paths, and writes to the lookup paths, are let through for the limited client.
+    for (int i = 0; i < 3; i++) {
+      mvc.perform(from(MockMvcRequestBuilders.get("/categr/v1/page"), GREEDY))
+        .andExpect(MockMvcResultMatchers.status().isOk());
+      mvc.perform(from(MockMvcRequestBuilders.get("/categr/v1/namesake"), GREEDY))
+        .andExpect(MockMvcResultMatchers.status().isOk());
+      mvc.perform(from(MockMvcRequestBuilders.put("/categr/v1/names/Edge"), GREEDY))
+        .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+    mvc.perform(from(MockMvcRequestBuilders.get("/categr/v1/names/Edge"), GREEDY))
+      .andExpect(MockMvcResultMatchers.status().isTooManyRequests());
+  }
+
+  @Test
+  void testOtherClientsUnaffected() throws Exception {
+    this.filter.setEnabled(true);
+    final MockMvc mvc = this.createMvc();
+    for (int i = 0; i < 5; i++) {
+      mvc.perform(from(MockMvcRequestBuilders.get("/categr/v1/names/Edge"), GREEDY));
+    }
+
+    mvc.perform(from(MockMvcRequestBuilders.get("/categr/v1/names/Edge"), POLITE))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.RETRY_AFTER));
+    Assertions.assertEquals(3, this.filter.getLimiter().getRejectedCount());
+    Assertions.assertEquals(2, this.filter.getLimiter().getClientCount());
+  }
+
+  /**
+   * Sets the address a request is sent from.
+   *
+   * @param request the request to send.
+   * @param address the client's address.
+   * @return the request.
+   */
+  private static MockHttpServletRequestBuilder from(final MockHttpServletRequestBuilder request,
+                                                    final String address) {
+    return request.with(sent -> {
+      sent.setRemoteAddr(address);
+      return sent;
+    });
+  }
+
+  /**
+   * Creates the test endpoints behind the filter.
+   *
+   * @return sends requests through the filter.
+   */
+  private MockMvc createMvc() {
+    return MockMvcBuilders.standaloneSetup(new LookupController()).addFilters(this.filter).build();
+  }
+
+  /**
+   * Answers every request, so anything other than a 200 came from the filter.
+   */
+  @RestController
+  @RequestMapping("/categr/v1")
+  private static final class LookupController {
+
+    @GetMapping({"/names", "/page", "/namesake"})
+    public String list() {
+      return "[]";
+    }
+
+    @GetMapping("/names/{name}")
+    public String lookup(@PathVariable(name = "name") final String name) {
+      return name;
+    }
+
+    @PostMapping("/names")
+    public String batch() {
+      return "[]";
+    }
+
+    @PutMapping("/names/{name}")
+    public String update(@PathVariable(name = "name") final String name) {
+      return name;
+    }
+  }
+}
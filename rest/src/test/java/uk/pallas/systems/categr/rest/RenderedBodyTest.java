@@ -0,0 +1,59 @@
+package uk.pallas.systems.categr.rest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * A set of tests to confirm pre-rendered bodies are compressed and matched against entity tags correctly.
+ */
+class RenderedBodyTest {
+
+  /** Public Constructor. */
+  public RenderedBodyTest() {}
+
+  @Test
+  void testSmallBodyNotCompressed() {
+    final RenderedBody body = new RenderedBody("[\"Edge\"]".getBytes(StandardCharsets.UTF_8), true);
+
+    Assertions.assertFalse(body.isGzipped(true));
+    Assertions.assertEquals(body.getEtag(false), body.getEtag(true));
+  }
+
+  @Test
+  void testLargeBodyCompressed() throws IOException {
+    final byte[] json = ("[\"" + "Edge".repeat(RenderedBody.MIN_GZIP_SIZE) + "\"]").getBytes(StandardCharsets.UTF_8);
+    final RenderedBody body = new RenderedBody(json, true);
+
+    Assertions.assertTrue(body.isGzipped(true));
+    Assertions.assertFalse(body.isGzipped(false));
+    Assertions.assertNotEquals(body.getEtag(false), body.getEtag(true));
+    try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(body.getBody(true)))) {
+      Assertions.assertArrayEquals(json, input.readAllBytes());
+    }
+  }
+
+  @Test
+  void testMatches() {
+    final RenderedBody body = new RenderedBody("[\"Edge\"]".getBytes(StandardCharsets.UTF_8), false);
+    final String etag = body.getEtag(false);
+
+    Assertions.assertTrue(body.matches(etag));
+    Assertions.assertTrue(body.matches("\"other\", W/" + etag));
+    Assertions.assertTrue(body.matches("*"));
+    Assertions.assertFalse(body.matches("\"other\""));
+    Assertions.assertFalse(body.matches(null));
+  }
+
+  @Test
+  void testAcceptsGzip() {
+    Assertions.assertTrue(RenderedBody.acceptsGzip("gzip, deflate, br"));
+    Assertions.assertTrue(RenderedBody.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+    Assertions.assertFalse(RenderedBody.acceptsGzip("gzip;q=0"));
+    Assertions.assertFalse(RenderedBody.acceptsGzip("identity"));
+    Assertions.assertFalse(RenderedBody.acceptsGzip(null));
+  }
+}
@@ -0,0 +1,150 @@
+package uk.pallas.systems.categr.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This is a test class designed to check the Server-Timing header is only sent when it is turned on and asked for,
+ * never on streamed responses, and that holding a timed body never changes it.
+ */
+class StageTimingFilterTest {
+
+  /** The names returned by the test endpoints, enough to need more than one write. */
+  private static final List<String> NAMES = names();
+
+  /** Reads the responses. */
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  /** Public Constructor. */
+  public StageTimingFilterTest() {}
+
+  @Test
+  void testOffByDefault() throws Exception {
+    final StageTimingFilter filter = new StageTimingFilter();
+    Assertions.assertFalse(filter.isEnabled());
+
+    final MockHttpServletResponse response = this.createMvc(filter).perform(timed("/timing"))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andReturn().getResponse();
+    Assertions.assertNull(response.getHeader(CatgegoriesConstants.SERVER_TIMING_HEADER));
+    Assertions.assertEquals(NAMES, this.mapper.readValue(response.getContentAsString(), List.class));
+  }
+
+  @Test
+  void testHeaderWhenAsked() throws Exception {
+    final MockHttpServletResponse response = this.createMvc(enabled()).perform(timed("/timing"))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andReturn().getResponse();
+
+    final String header = response.getHeader(CatgegoriesConstants.SERVER_TIMING_HEADER);
+    Assertions.assertNotNull(header);
+    Assertions.assertTrue(header.contains("handler;dur="), header);
+    Assertions.assertTrue(header.contains("total;dur="), header);
+    Assertions.assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+    Assertions.assertEquals(NAMES, this.mapper.readValue(response.getContentAsString(), List.class));
+  }
+
+  @Test
+  void testNoHeaderWhenNotAsked() throws Exception {
+    final MockHttpServletResponse response = this.createMvc(enabled())
+      .perform(MockMvcRequestBuilders.get("/timing"))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andReturn().getResponse();
+
+    Assertions.assertNull(response.getHeader(CatgegoriesConstants.SERVER_TIMING_HEADER));
+    Assertions.assertEquals(NAMES, this.mapper.readValue(response.getContentAsString(), List.class));
+  }
+
+  @Test
+  void testStreamedNotTimed() throws Exception {
+    final MockHttpServletResponse response = this.createMvc(enabled()).perform(timed("/timing/stream"))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andReturn().getResponse();
+
+    Assertions.assertNull(response.getHeader(CatgegoriesConstants.SERVER_TIMING_HEADER));
+    Assertions.assertEquals(String.join("\n", NAMES) + "\n", response.getContentAsString());
+  }
+
+  /**
+   * Creates a filter which answers the timing header.
+   *
+   * @return never null.
+   */
+  private static StageTimingFilter enabled() {
+    final StageTimingFilter result = new StageTimingFilter();
+    result.setEnabled(true);
+    return result;
+  }
+
+  /**
+   * Builds a request asking for the stage timings.
+   *
+   * @param uri the endpoint to ask.
+   * @return never null.
+   */
+  private static MockHttpServletRequestBuilder timed(final String uri) {
+    return MockMvcRequestBuilders.get(uri).header(CatgegoriesConstants.TIMING_HEADER, "1");
+  }
+
+  /**
+   * Builds the names returned by the test endpoints.
+   *
+   * @return never null.
+   */
+  private static List<String> names() {
+    final List<String> results = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      results.add("StageTimingFilterTest-" + i);
+    }
+
+    return results;
+  }
+
+  /**
+   * Creates the test endpoints behind the supplied filter.
+   *
+   * @param filter the filter being tested.
+   * @return sends requests through the filter.
+   */
+  private MockMvc createMvc(final StageTimingFilter filter) {
+    return MockMvcBuilders.standaloneSetup(new TimingController())
+      .setControllerAdvice(new StageTimingAdvice())
+      .addFilters(filter)
+      .build();
+  }
+
+  /**
+   * Returns the names either as a JSON body, or streamed a line at a time before the handler returns.
+   */
+  @RestController
+  private static final class TimingController {
+
+    @GetMapping(value = "/timing", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<String> names() {
+      return NAMES;
+    }
+
+    @GetMapping("/timing/stream")
+    public void stream(final HttpServletResponse response) throws IOException {
+      response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+      for (final String name : NAMES) {
+        response.getWriter().write(name + "\n");
+      }
+      response.flushBuffer();
+    }
+  }
+}
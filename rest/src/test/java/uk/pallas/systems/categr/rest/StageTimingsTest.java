@@ -0,0 +1,31 @@
+package uk.pallas.systems.categr.rest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.pallas.systems.categr.services.CategoryStages;
+
+/**
+ * This is a test class designed to check the stage timings are rendered as a valid Server-Timing header.
+ */
+class StageTimingsTest {
+
+  /** Public Constructor. */
+  public StageTimingsTest() {}
+
+  @Test
+  void testToHeader() {
+    final StageTimings timings = new StageTimings(1_000_000);
+    Assertions.assertFalse(timings.isHandled());
+    Assertions.assertEquals("total;dur=0.500", timings.toHeader(1_500_000));
+
+    timings.record("dao.findByName", 250_000);
+    timings.record("dao.findByName", 500_000);
+    timings.markHandled(3_000_000);
+    timings.markHandled(9_000_000);
+    timings.record(CategoryStages.SERIALIZE, 1_234_567);
+
+    Assertions.assertTrue(timings.isHandled());
+    Assertions.assertEquals("dao.findByName;dur=0.750;desc=\"2 calls\", handler;dur=2.000, serialize;dur=1.235, "
+      + "total;dur=4.000", timings.toHeader(5_000_000));
+  }
+}
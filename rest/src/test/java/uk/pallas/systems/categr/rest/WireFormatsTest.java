@@ -0,0 +1,191 @@
+package uk.pallas.systems.categr.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import uk.pallas.systems.categr.entities.v1.Category;
+import uk.pallas.systems.categr.entities.v1.CategoryRecord;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryDTO;
+import uk.pallas.systems.categr.services.CategoriesDAOService;
+
+/**
+ * A set of tests to confirm the response format is negotiated from the Accept header and written correctly, both on
+ * its own and through Spring MVC with the converters {@link WireFormatConfiguration} registers.
+ */
+class WireFormatsTest {
+
+  /** The categories served through Spring MVC. */
+  private static final List<Category> CATEGORIES = List.of(new CategoryRecord("Air", "WireFormatsTest Air", null, 1),
+    new CategoryRecord("Edge", "WireFormatsTest Edge", "Air", 2));
+
+  /** Public Constructor. */
+  public WireFormatsTest() {}
+
+  @Test
+  void testNegotiate() {
+    Assertions.assertEquals(MediaType.APPLICATION_JSON, WireFormats.negotiate(null));
+    Assertions.assertEquals(MediaType.APPLICATION_JSON, WireFormats.negotiate("*/*"));
+    Assertions.assertEquals(MediaType.APPLICATION_JSON, WireFormats.negotiate("not a media type"));
+    Assertions.assertEquals(MediaType.APPLICATION_CBOR, WireFormats.negotiate("application/cbor"));
+    Assertions.assertEquals(WireFormats.SMILE, WireFormats.negotiate("application/x-jackson-smile, */*;q=0.1"));
+    Assertions.assertEquals(CategoryProtobufHttpMessageConverter.PROTOBUF,
+      WireFormats.negotiate("application/json;q=0.5, application/x-protobuf"));
+    // Equal preferences go to JSON and an explicit q=0 rules a format out even when a wildcard would allow it.
+    Assertions.assertEquals(MediaType.APPLICATION_JSON, WireFormats.negotiate("application/cbor, application/json"));
+    Assertions.assertEquals(MediaType.APPLICATION_CBOR, WireFormats.negotiate("application/json;q=0, application/*"));
+    Assertions.assertNull(WireFormats.negotiate("text/html"));
+  }
+
+  @Test
+  void testWrite() throws IOException {
+    final WireFormats formats = new WireFormats(new ObjectMapper());
+    final List<CategoryDTO> categories = List.of(new CategoryDTO("Edge", "Outer edge", "Shape"));
+
+    final byte[] json = formats.write(MediaType.APPLICATION_JSON, categories);
+    final byte[] cbor = formats.write(MediaType.APPLICATION_CBOR, categories);
+    Assertions.assertTrue(cbor.length < json.length);
+    Assertions.assertEquals(categories.get(0),
+      formats.getCborMapper().readValue(cbor, CategoryDTO[].class)[0]);
+    Assertions.assertEquals(categories.get(0),
+      formats.getSmileMapper().readValue(formats.write(WireFormats.SMILE, categories), CategoryDTO[].class)[0]);
+    Assertions.assertThrows(IllegalArgumentException.class,
+      () -> formats.write(CategoryProtobufHttpMessageConverter.PROTOBUF, List.of(1, 2)));
+  }
+
+  @Test
+  void testServedByAccept() throws Exception {
+    final List<CategoryDTO> expected = CATEGORIES.stream().map(CategoryDTO::new).toList();
+    final WireFormats formats = new WireFormats(mapper());
+    for (final boolean prerender : new boolean[] {false, true}) {
+      final MockMvc mvc = createMvc(prerender);
+
+      Assertions.assertEquals(expected, Arrays.asList(formats.getCborMapper().readValue(
+        get(mvc, "/categr/v1/", MediaType.APPLICATION_CBOR_VALUE), CategoryDTO[].class)));
+      Assertions.assertEquals(expected.get(1), formats.getCborMapper().readValue(
+        get(mvc, "/categr/v1/names/Edge", MediaType.APPLICATION_CBOR_VALUE), CategoryDTO.class));
+
+      Assertions.assertEquals(expected, Arrays.asList(formats.getSmileMapper().readValue(
+        get(mvc, "/categr/v1/", CatgegoriesConstants.SMILE_VALUE), CategoryDTO[].class)));
+      Assertions.assertEquals(expected.get(1), formats.getSmileMapper().readValue(
+        get(mvc, "/categr/v1/names/Edge", CatgegoriesConstants.SMILE_VALUE), CategoryDTO.class));
+
+      Assertions.assertEquals(expected, CategoryProtobuf.readCategories(new ByteArrayInputStream(
+        get(mvc, "/categr/v1/", CatgegoriesConstants.PROTOBUF_VALUE))));
+      Assertions.assertEquals(expected.get(1), CategoryProtobuf.readCategory(new ByteArrayInputStream(
+        get(mvc, "/categr/v1/names/Edge", CatgegoriesConstants.PROTOBUF_VALUE))));
+
+      // A client accepting anything is sent JSON.
+      Assertions.assertEquals(expected, Arrays.asList(mapper().readValue(
+        get(mvc, "/categr/v1/", MediaType.ALL_VALUE), CategoryDTO[].class)));
+      Assertions.assertEquals(expected.get(1), mapper().readValue(
+        get(mvc, "/categr/v1/names/Edge", MediaType.ALL_VALUE), CategoryDTO.class));
+    }
+  }
+
+  @Test
+  void testNotAcceptable() throws Exception {
+    for (final boolean prerender : new boolean[] {false, true}) {
+      final MockMvc mvc = createMvc(prerender);
+      for (final String uri : List.of("/categr/v1/", "/categr/v1/names/Edge")) {
+        mvc.perform(MockMvcRequestBuilders.get(uri).header(HttpHeaders.ACCEPT, MediaType.TEXT_HTML_VALUE))
+          .andExpect(MockMvcResultMatchers.status().isNotAcceptable());
+      }
+
+      // Pages have no protobuf message.
+      mvc.perform(MockMvcRequestBuilders.get("/categr/v1/page")
+          .header(HttpHeaders.ACCEPT, CatgegoriesConstants.PROTOBUF_VALUE))
+        .andExpect(MockMvcResultMatchers.status().isNotAcceptable());
+    }
+  }
+
+  /**
+   * Creates a JSON mapper configured as the application's is.
+   *
+   * @return never null.
+   */
+  private static ObjectMapper mapper() {
+    return new ObjectMapper().registerModule(CategoryJsonSerializer.module());
+  }
+
+  /**
+   * Asks for a body in the supplied format.
+   *
+   * @param mvc sends the request.
+   * @param uri the endpoint to ask.
+   * @param accept the format to ask for.
+   * @return the body sent.
+   * @throws Exception if the request fails.
+   */
+  private static byte[] get(final MockMvc mvc, final String uri, final String accept) throws Exception {
+    final MediaType expected = MediaType.ALL_VALUE.equals(accept) ? MediaType.APPLICATION_JSON
+      : MediaType.parseMediaType(accept);
+    return mvc.perform(MockMvcRequestBuilders.get(uri).header(HttpHeaders.ACCEPT, accept))
+      .andExpect(MockMvcResultMatchers.status().isOk())
+      .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(expected))
+      .andReturn().getResponse().getContentAsByteArray();
+  }
+
+  /**
+   * Creates a controller serving the test categories, with the message converters registered as the application
+   * registers them.
+   *
+   * @param prerender whether the bodies are pre-rendered.
+   * @return sends requests to the new controller.
+   */
+  private static MockMvc createMvc(final boolean prerender) {
+    final ObjectMapper mapper = mapper();
+    final PrerenderedResponses responses = new PrerenderedResponses();
+    responses.setMapper(mapper);
+    final WireFormatConfiguration configuration = new WireFormatConfiguration();
+    configuration.setResponses(responses);
+    // In Spring's default order, prerendered bodies are written by the byte array converter and Spring's own CBOR
+    // converter is replaced by one sharing the JSON mapper's configuration.
+    final List<HttpMessageConverter<?>> converters = new ArrayList<>(List.of(new ByteArrayHttpMessageConverter(),
+      new MappingJackson2HttpMessageConverter(mapper), new MappingJackson2CborHttpMessageConverter()));
+    configuration.extendMessageConverters(converters);
+
+    final CategoriesMetrics metrics = new CategoriesMetrics();
+    metrics.setMeterRegistry(new SimpleMeterRegistry());
+    final CategoriesController controller = new CategoriesController();
+    controller.setServices(new StubService());
+    controller.setMetrics(metrics);
+    controller.setMapper(mapper);
+    controller.setResponses(responses);
+    controller.setPrerender(prerender);
+    return MockMvcBuilders.standaloneSetup(controller)
+      .setMessageConverters(converters.toArray(new HttpMessageConverter<?>[0]))
+      .build();
+  }
+
+  /**
+   * Backend serving the test categories.
+   */
+  private static final class StubService implements CategoriesDAOService {
+    @Override
+    public Category findByName(final String identifier) {
+      return CATEGORIES.stream().filter(category -> category.getName().equals(identifier)).findFirst().orElse(null);
+    }
+
+    @Override
+    public Collection<Category> findAll() {
+      return CATEGORIES;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package uk.pallas.systems.categr.rest.entities.v1;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.pallas.systems.categr.entities.v1.CategoryRecord;
+import uk.pallas.systems.categr.services.CategoryChange;
+import uk.pallas.systems.categr.services.ChangeType;
+
+/**
+ * A set of tests to confirm the change feed objects are created from changes and serialised as needed.
+ */
+class CategoryChangeDTOTest {
+
+  /** Public Constructor. */
+  public CategoryChangeDTOTest() {}
+
+  @Test
+  void testFromChange() {
+    final CategoryChangeDTO dto = new CategoryChangeDTO(new CategoryChange(7, ChangeType.UPDATED, "Air",
+      new CategoryRecord("Air", "CategoryChangeDTOTest-testFromChange", "Domain", 7)));
+
+    Assertions.assertEquals(7, dto.getSequence());
+    Assertions.assertEquals("UPDATED", dto.getType());
+    Assertions.assertEquals("Air", dto.getName());
+    Assertions.assertEquals("Domain", dto.getCategory().getParent());
+    Assertions.assertEquals("CategoryChangeDTOTest-testFromChange", dto.getCategory().getDescription());
+  }
+
+  @Test
+  void testFromNull() {
+    Assertions.assertEquals(new CategoryChangeDTO(), new CategoryChangeDTO(null));
+  }
+
+  @Test
+  void testDeletedOmitsCategory() throws Exception {
+    final ObjectMapper mapper = new ObjectMapper();
+    final JsonNode json = mapper.readTree(mapper.writeValueAsString(
+      new CategoryChangeDTO(new CategoryChange(3, ChangeType.DELETED, "Edge", null))));
+
+    Assertions.assertEquals("DELETED", json.get("type").asText());
+    Assertions.assertEquals("Edge", json.get("name").asText());
+    Assertions.assertFalse(json.has("category"));
+  }
+
+  @Test
+  void testEquals() {
+    final CategoryChangeDTO first = new CategoryChangeDTO(1, "CREATED", "Air", new CategoryDTO("Air", null));
+    final CategoryChangeDTO same = new CategoryChangeDTO(1, "CREATED", "Air", new CategoryDTO("Air", null));
+
+    Assertions.assertEquals(first, same);
+    Assertions.assertEquals(first.hashCode(), same.hashCode());
+    Assertions.assertNotEquals(first, new CategoryChangeDTO(2, "CREATED", "Air", new CategoryDTO("Air", null)));
+    Assertions.assertNotEquals(null, first);
+  }
+
+  @Test
+  void testChangesRoundTrip() throws Exception {
+    final CategoryChangesDTO changes = new CategoryChangesDTO(List.of(
+      new CategoryChangeDTO(4, "CREATED", "Air", new CategoryDTO("Air", "CategoryChangeDTOTest-testChangesRoundTrip")),
+      new CategoryChangeDTO(5, "DELETED", "Edge", null)), 5, true);
+
+    final ObjectMapper mapper = new ObjectMapper();
+    Assertions.assertEquals(changes, mapper.readValue(mapper.writeValueAsString(changes), CategoryChangesDTO.class));
+    Assertions.assertTrue(new CategoryChangesDTO().getChanges().isEmpty());
+  }
+}
@@ -0,0 +1,102 @@
+#!/usr/bin/env bash
+#
+# Reports how long categr takes to start and how much memory it holds once serving, for each way it can be run:
+#
+#   fat-jar     java -jar runnable.jar (the current deployment)
+#   aot         the jar with the Spring AOT initialisation (build with -Paot) and -Dspring.aot.enabled=true
+#   cds         the unpacked jar with an AppCDS archive made by a training run, plus AOT if the jar has it
+#   native      the GraalVM executable target/categr (build with -Pnative)
+#
+# Modes whose build output is missing are skipped. Startup is measured from launch until the first request is
+# answered, RSS is read straight afterwards. Usage: runnable/scripts/startup-report.sh [runs per mode, default 3]
+#
+set -euo pipefail
+
+RUNS="${1:-3}"
+PORT="${PORT:-18090}"
+MODULE="$(cd "$(dirname "$0")/.." && pwd)"
+JAR="$(ls "${MODULE}"/target/runnable-*.jar 2>/dev/null | grep -v original | head -1 || true)"
+NATIVE="${MODULE}/target/categr"
+WORK="${MODULE}/target/startup-report"
+URL="http://localhost:${PORT}/categr/v1/names/Surface"
+
+if [ -z "${JAR}" ] && [ ! -x "${NATIVE}" ]; then
+  echo "Build the module first: mvn -pl runnable -am package -DskipTests -Ddocker.skip=true [-Paot]" >&2
+  exit 1
+fi
+
+now_ms() {
+  date +%s%3N
+}
+
+# Runs the supplied command once, printing "<milliseconds to first response> <RSS in MiB>".
+measure() {
+  local start pid elapsed rss
+  start="$(now_ms)"
+  "$@" --server.port="${PORT}" > "${WORK}/run.log" 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "${URL}"; do
+    if ! kill -0 "${pid}" 2>/dev/null; then
+      echo "failed to start, see ${WORK}/run.log" >&2
+      return 1
+    fi
+    sleep 0.01
+  done
+  elapsed=$(( $(now_ms) - start ))
+  rss=$(( $(ps -o rss= -p "${pid}") / 1024 ))
+  kill "${pid}"
+  wait "${pid}" 2>/dev/null || true
+  echo "${elapsed} ${rss}"
+}
+
+# Measures a mode several times and prints the median startup and RSS.
+report() {
+  local name="$1"
+  shift
+  local times=() sizes=() result
+  for _ in $(seq 1 "${RUNS}"); do
+    result="$(measure "$@")" || return 0
+    times+=("${result% *}")
+    sizes+=("${result#* }")
+  done
+  local median=$(( RUNS / 2 ))
+  printf '%-10s %10s ms %8s MiB\n' "${name}" \
+    "$(printf '%s\n' "${times[@]}" | sort -n | sed -n "$(( median + 1 ))p")" \
+    "$(printf '%s\n' "${sizes[@]}" | sort -n | sed -n "$(( median + 1 ))p")"
+}
+
+rm -rf "${WORK}"
+mkdir -p "${WORK}"
+printf '%-10s %13s %12s\n' "mode" "first reply" "RSS"
+
+if [ -n "${JAR}" ]; then
+  report fat-jar java -jar "${JAR}"
+
+  HAS_AOT=false
+  # Not grep -q, closing the pipe early would fail unzip and with it the test.
+  if unzip -Z1 "${JAR}" | grep '__ApplicationContextInitializer' > /dev/null; then
+    HAS_AOT=true
+    report aot java -Dspring.aot.enabled=true -jar "${JAR}"
+  fi
+
+  # CDS only archives classes loaded from plain jars on the class path, so run from the unpacked jar with the
+  # application classes put back into a jar of their own (directories on the class path disable CDS).
+  unzip -q "${JAR}" -d "${WORK}/app"
+  jar --create --file "${WORK}/app/classes.jar" -C "${WORK}/app/BOOT-INF/classes" .
+  MAIN="$(sed -n 's/^Start-Class: *//p' "${WORK}/app/META-INF/MANIFEST.MF" | tr -d '\r')"
+  CP="${WORK}/app/classes.jar:$(ls "${WORK}"/app/BOOT-INF/lib/*.jar | sort | tr '\n' ':')"
+  AOT_FLAG="-Dspring.aot.enabled=${HAS_AOT}"
+
+  # Training run, the context is refreshed and the JVM exits, writing the classes it loaded to the archive.
+  java -XX:ArchiveClassesAtExit="${WORK}/categr.jsa" -Dspring.context.exit=onRefresh "${AOT_FLAG}" -cp "${CP}" \
+    "${MAIN}" > "${WORK}/training.log" 2>&1 || true
+  if [ -f "${WORK}/categr.jsa" ]; then
+    report cds java -XX:SharedArchiveFile="${WORK}/categr.jsa" "${AOT_FLAG}" -cp "${CP}" "${MAIN}"
+  else
+    echo "cds        training run failed, see ${WORK}/training.log"
+  fi
+fi
+
+if [ -x "${NATIVE}" ]; then
+  report native "${NATIVE}"
+fi
@@ -2,9 +2,9 @@ package uk.pallas.systems.categr.runnable;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 import org.springframework.context.annotation.ComponentScan;
-import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 /**
  * Typr is a simple webservice, its goal is simply to hold information about different fields types, Post Code (UK),
@@ -13,10 +13,9 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
  * can be assigned to a type, this is so I can say something is a good 'edge' or this is 'geo' (comes in handy
  * for downstream processing).
  */
-@SpringBootApplication
-@EnableJpaRepositories("uk.pallas.systems.categr.domain")
-@EntityScan(basePackages = {"uk.pallas.systems.categr.domain.entities.v1"})
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 @ComponentScan("uk.pallas.systems.categr")
+@ImportRuntimeHints(CategrRuntimeHints.class)
 public class Application {
 
   /** Empty utility class constructor. */
@@ -0,0 +1,91 @@
+package uk.pallas.systems.categr.runnable;
+
+import java.util.List;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import uk.pallas.systems.categr.domain.CategoryChangeRepository;
+import uk.pallas.systems.categr.domain.CategoryRepository;
+import uk.pallas.systems.categr.domain.entities.v1.CategoryChangeDomain;
+import uk.pallas.systems.categr.domain.entities.v1.CategoryDomain;
+import uk.pallas.systems.categr.domain.entities.v1.CategoryItemDomain;
+import uk.pallas.systems.categr.domain.entities.v1.CategoryItemKey;
+import uk.pallas.systems.categr.domain.entities.v1.CategorySequenceDomain;
+import uk.pallas.systems.categr.entities.v1.CategoryRecord;
+import uk.pallas.systems.categr.mapped.MappedSnapshotController;
+import uk.pallas.systems.categr.rest.CategoriesBulkController;
+import uk.pallas.systems.categr.rest.CategoriesChangesController;
+import uk.pallas.systems.categr.rest.CategoriesController;
+import uk.pallas.systems.categr.rest.CategoryItemsController;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryBatchDTO;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryChangeDTO;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryChangesDTO;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryDTO;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryImportDTO;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryItemDTO;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryItemsDTO;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryMatchDTO;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryPageDTO;
+
+/**
+ * Reflection hints for a GraalVM native image, Spring's AOT processing works out most of what is needed from the bean
+ * definitions but cannot see types which are only reached through reflection at runtime. That is the JPA entities
+ * and read only records Hibernate builds, the DTOs Jackson serialises outside of a typed controller method
+ * (pre-rendered bodies, streams, CSV and Server-Sent Events) and the controllers springdoc reads the OpenAPI
+ * annotations from.
+ */
+public class CategrRuntimeHints implements RuntimeHintsRegistrar {
+
+  /** The JPA entities Hibernate instantiates and populates through reflection. */
+  static final List<Class<?>> ENTITIES = List.of(CategoryDomain.class, CategoryChangeDomain.class,
+    CategorySequenceDomain.class, CategoryItemDomain.class, CategoryItemKey.class);
+
+  /** The read only records Hibernate builds from the repositories' constructor expressions. */
+  static final List<Class<?>> PROJECTIONS = List.of(CategoryRecord.class);
+
+  /** The Spring Data repositories, Spring Data contributes their proxies but not their query methods. */
+  static final List<Class<?>> REPOSITORIES = List.of(CategoryRepository.class, CategoryChangeRepository.class);
+
+  /** The types Jackson reads and writes, including the ones only serialised through an ObjectMapper. */
+  static final List<Class<?>> DTOS = List.of(CategoryDTO.class, CategoryBatchDTO.class, CategoryChangeDTO.class,
+    CategoryChangesDTO.class, CategoryImportDTO.class, CategoryItemDTO.class, CategoryItemsDTO.class,
+    CategoryMatchDTO.class, CategoryPageDTO.class);
+
+  /** The controllers springdoc reads the OpenAPI annotations from when the API document is requested. */
+  static final List<Class<?>> CONTROLLERS = List.of(CategoriesController.class, CategoriesBulkController.class,
+    CategoriesChangesController.class, CategoryItemsController.class, MappedSnapshotController.class);
+
+  /** Default class constructor. */
+  public CategrRuntimeHints() {
+    // Do Nothing
+  }
+
+  /**
+   * Registers the hints for the types the native image cannot otherwise see being used.
+   *
+   * @param hints the hints to add to.
+   * @param classLoader the class loader to use (can be null).
+   */
+  @Override
+  public void registerHints(final RuntimeHints hints, final ClassLoader classLoader) {
+    for (final Class<?> entity : ENTITIES) {
+      hints.reflection().registerType(entity, MemberCategory.DECLARED_FIELDS,
+        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+    }
+
+    for (final Class<?> projection : PROJECTIONS) {
+      hints.reflection().registerType(projection, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+    }
+
+    for (final Class<?> repository : REPOSITORIES) {
+      hints.reflection().registerType(repository, MemberCategory.INVOKE_PUBLIC_METHODS);
+    }
+
+    new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), DTOS.toArray(new Class<?>[0]));
+
+    for (final Class<?> controller : CONTROLLERS) {
+      hints.reflection().registerType(controller, MemberCategory.INTROSPECT_PUBLIC_METHODS);
+    }
+  }
+}
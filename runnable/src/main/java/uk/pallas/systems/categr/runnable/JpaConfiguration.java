@@ -0,0 +1,23 @@
+package uk.pallas.systems.categr.runnable;
+
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import uk.pallas.systems.categr.CategoryConstants;
+
+/**
+ * Spring configuration for the database backed profiles, this finds the JPA entities and repositories. The mapped
+ * profile has no database so the repositories are not created.
+ */
+@Configuration
+@Profile("!" + CategoryConstants.MAPPED_PROFILE)
+@EnableJpaRepositories("uk.pallas.systems.categr.domain")
+@EntityScan(basePackages = {"uk.pallas.systems.categr.domain.entities.v1"})
+public class JpaConfiguration {
+
+  /** Default class constructor. */
+  public JpaConfiguration() {
+    // Do Nothing
+  }
+}
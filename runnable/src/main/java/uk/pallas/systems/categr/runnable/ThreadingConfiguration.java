@@ -0,0 +1,31 @@
+package uk.pallas.systems.categr.runnable;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import uk.pallas.systems.categr.services.CategoryThreads;
+
+/**
+ * Spring configuration which runs the background work (change pollers and listeners, snapshot checks, warm starts
+ * and migrations) in the same threading mode as the requests, see the virtual profile.
+ */
+@Configuration
+public class ThreadingConfiguration {
+
+  /** Default class constructor. */
+  public ThreadingConfiguration() {
+    // Do Nothing
+  }
+
+  /**
+   * Creates what the background threads are created with.
+   *
+   * @param virtualThreads true if requests are served on virtual threads.
+   * @return virtual threads if asked for and supported, otherwise daemon platform threads.
+   */
+  @Bean
+  public CategoryThreads categoryThreads(
+      @Value("${spring.threads.virtual.enabled:false}") final boolean virtualThreads) {
+    return new CategoryThreads(virtualThreads);
+  }
+}
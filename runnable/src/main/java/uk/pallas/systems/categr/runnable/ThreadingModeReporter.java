@@ -0,0 +1,68 @@
+package uk.pallas.systems.categr.runnable;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports which threading mode requests are being served with once the application has started, virtual threads are
+ * silently ignored by Spring Boot on runtimes older than Java 21 so this makes a misconfigured deployment obvious.
+ */
+@Component
+public class ThreadingModeReporter {
+
+  /** Static Logger for the class. */
+  private static final Log LOGGER = LogFactory.getLog(ThreadingModeReporter.class);
+
+  /** The first Java release with virtual threads. */
+  private static final int VIRTUAL_THREADS_RELEASE = 21;
+
+  /** Whether virtual threads have been asked for. */
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreads;
+
+  /** Default class constructor. */
+  public ThreadingModeReporter() {
+    // Do Nothing
+  }
+
+  /**
+   * Checks whether virtual threads have been asked for.
+   * @return true if spring.threads.virtual.enabled is set.
+   */
+  public boolean isVirtualThreads() {
+    return this.virtualThreads;
+  }
+
+  /**
+   * Sets whether virtual threads have been asked for.
+   * @param enabled true if spring.threads.virtual.enabled is set.
+   */
+  public void setVirtualThreads(final boolean enabled) {
+    this.virtualThreads = enabled;
+  }
+
+  /**
+   * Logs the threading mode once the application is ready to serve requests.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void report() {
+    final int release = Runtime.version().feature();
+
+    if (!this.isVirtualThreads()) {
+      if (LOGGER.isInfoEnabled()) {
+        LOGGER.info("report - Serving requests on platform threads");
+      }
+    } else if (release < VIRTUAL_THREADS_RELEASE) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("report - Virtual threads were requested but Java " + release + " does not support them, "
+          + "serving requests on platform threads (Java " + VIRTUAL_THREADS_RELEASE + " or later is required)");
+      }
+    } else if (LOGGER.isInfoEnabled()) {
+      LOGGER.info("report - Serving requests on virtual threads");
+    }
+  }
+}
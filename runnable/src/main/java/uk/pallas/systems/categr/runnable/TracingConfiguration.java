@@ -0,0 +1,32 @@
+package uk.pallas.systems.categr.runnable;
+
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring configuration which logs every finished span (categr.tracing.log.enabled=true), a stand-in for an OTLP
+ * collector when looking at the stages of a request locally. Spring Boot exports the spans to a collector as well
+ * when management.otlp.tracing.endpoint is set, see the tracing profile.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "categr.tracing.log", name = "enabled", havingValue = "true")
+public class TracingConfiguration {
+
+  /** Default class constructor. */
+  public TracingConfiguration() {
+    // Do Nothing
+  }
+
+  /**
+   * Creates the exporter writing each span to the log (io.opentelemetry.exporter.logging.LoggingSpanExporter at INFO),
+   * Spring Boot hands it every span sampled.
+   *
+   * @return a new exporter.
+   */
+  @Bean
+  public LoggingSpanExporter loggingSpanExporter() {
+    return LoggingSpanExporter.create();
+  }
+}
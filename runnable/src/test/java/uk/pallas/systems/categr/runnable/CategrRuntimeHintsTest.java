@@ -0,0 +1,34 @@
+package uk.pallas.systems.categr.runnable;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import uk.pallas.systems.categr.domain.entities.v1.CategoryDomain;
+import uk.pallas.systems.categr.rest.CategoriesController;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryChangeDTO;
+import uk.pallas.systems.categr.rest.entities.v1.CategoryDTO;
+
+/**
+ * This is a test class designed to check the native image hints cover the types only reached through reflection.
+ */
+class CategrRuntimeHintsTest {
+
+  /** Public Constructor. */
+  public CategrRuntimeHintsTest() {}
+
+  @Test
+  void testHintsRegistered() {
+    final RuntimeHints hints = new RuntimeHints();
+    new CategrRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+    Assertions.assertTrue(RuntimeHintsPredicates.reflection().onType(CategoryDomain.class)
+      .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+    Assertions.assertTrue(RuntimeHintsPredicates.reflection().onType(CategoryDTO.class).test(hints));
+    // Nested types are reached through the binding hints.
+    Assertions.assertTrue(RuntimeHintsPredicates.reflection().onType(CategoryChangeDTO.class).test(hints));
+    Assertions.assertTrue(RuntimeHintsPredicates.reflection().onType(CategoriesController.class)
+      .withMemberCategory(MemberCategory.INTROSPECT_PUBLIC_METHODS).test(hints));
+  }
+}